@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.IMongodConfig;
+import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Measures service operations end to end against a mongo server, either calling the service directly or through an
+ * event bus proxy.
+ * <p>
+ * An embedded mongo server is started on port 27019, unless a server is given with
+ * {@code -Dconnection_string=mongodb://host:port}. Each invocation waits for the result, so the sample time mode
+ * gives the latency percentiles of an operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MongoServiceBenchmark {
+
+  private static final String COLLECTION = "benchmark";
+  private static final String ADDRESS = "vertx.mongo.benchmark";
+
+  @Param({"local", "proxy"})
+  public String mode;
+
+  private MongodExecutable mongod;
+  private Vertx vertx;
+  private MongoService local;
+  private MongoService service;
+  private String id;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    String connectionString = System.getProperty("connection_string");
+    if (connectionString == null) {
+      IMongodConfig config = new MongodConfigBuilder()
+        .version(Version.Main.PRODUCTION)
+        .net(new Net(27019, Network.localhostIsIPv6()))
+        .build();
+      mongod = MongodStarter.getDefaultInstance().prepare(config);
+      mongod.start();
+      connectionString = "mongodb://localhost:27019";
+    }
+    JsonObject config = new JsonObject()
+      .put("connection_string", connectionString)
+      .put("db_name", "benchmarks")
+      .put("address", ADDRESS);
+
+    vertx = Vertx.vertx();
+    local = MongoService.create(vertx, config);
+    local.start();
+    if ("proxy".equals(mode)) {
+      CompletableFuture<String> deployed = new CompletableFuture<>();
+      vertx.deployVerticle(MongoServiceVerticle.class.getName(), new DeploymentOptions().setConfig(config),
+        ar -> complete(deployed, ar));
+      deployed.get();
+      service = MongoService.createEventBusProxy(vertx, ADDRESS);
+    } else {
+      service = local;
+    }
+
+    // Dropping fails when the collection doesn't exist yet, which is fine
+    this.<Void>await(h -> local.dropCollection(COLLECTION, ar -> h.handle(Future.succeededFuture())));
+    for (int i = 0; i < 100; i++) {
+      id = this.<String>await(h -> local.insert(COLLECTION, document(), h));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    local.stop();
+    vertx.close();
+    if (mongod != null) {
+      mongod.stop();
+    }
+  }
+
+  @Benchmark
+  public String insert() throws Exception {
+    return this.<String>await(h -> service.insert(COLLECTION, document(), h));
+  }
+
+  @Benchmark
+  public JsonObject findOne() throws Exception {
+    return this.<JsonObject>await(h -> service.findOne(COLLECTION, new JsonObject().put("_id", id), null, h));
+  }
+
+  @Benchmark
+  public List<JsonObject> find() throws Exception {
+    FindOptions options = new FindOptions().setLimit(10);
+    return this.<List<JsonObject>>await(h -> service.findWithOptions(COLLECTION, new JsonObject().put("author", "Douglas Adams"), options, h));
+  }
+
+  @Benchmark
+  public Void update() throws Exception {
+    JsonObject update = new JsonObject().put("$inc", new JsonObject().put("reads", 1));
+    return this.<Void>await(h -> service.update(COLLECTION, new JsonObject().put("_id", id), update, h));
+  }
+
+  private static JsonObject document() {
+    return new JsonObject()
+      .put("title", "The Hitchhiker's Guide to the Galaxy")
+      .put("author", "Douglas Adams")
+      .put("pages", 224)
+      .put("rating", 4.21d)
+      .put("available", true)
+      .put("tags", new JsonArray().add("sf").add("humour"))
+      .put("publisher", new JsonObject().put("name", "Pan Books").put("city", "London"));
+  }
+
+  private <T> T await(Consumer<Handler<AsyncResult<T>>> operation) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    operation.accept(ar -> complete(future, ar));
+    return future.join();
+  }
+
+  private static <T> void complete(CompletableFuture<T> future, AsyncResult<T> ar) {
+    if (ar.succeeded()) {
+      future.complete(ar.result());
+    } else {
+      future.completeExceptionally(ar.cause());
+    }
+  }
+}
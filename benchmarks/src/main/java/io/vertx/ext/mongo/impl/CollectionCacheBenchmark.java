@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.WriteConcern;
+import com.mongodb.async.client.MongoClient;
+import com.mongodb.async.client.MongoClients;
+import com.mongodb.async.client.MongoCollection;
+import com.mongodb.async.client.MongoDatabase;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.WriteOption;
+import io.vertx.ext.mongo.impl.config.MongoClientOptionsParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up a collection handle through the {@link CollectionCache} with creating it for every operation.
+ * <p>
+ * No server is needed, creating collection handles does not connect. Run with {@code -prof gc} to compare the
+ * allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CollectionCacheBenchmark {
+
+  @Param({"ACKNOWLEDGED", "NONE"})
+  public String writeOption;
+
+  private MongoClient mongo;
+  private MongoDatabase db;
+  private CollectionCache cache;
+  private WriteOption option;
+
+  @Setup
+  public void setup() {
+    JsonObject config = new JsonObject().put("connection_string", "mongodb://localhost:27017");
+    mongo = MongoClients.create(new MongoClientOptionsParser(config).options());
+    db = mongo.getDatabase("benchmarks");
+    cache = new CollectionCache(db, CollectionCache.DEFAULT_MAX_SIZE);
+    option = "NONE".equals(writeOption) ? null : WriteOption.valueOf(writeOption);
+  }
+
+  @TearDown
+  public void tearDown() {
+    mongo.close();
+  }
+
+  @Benchmark
+  public MongoCollection<JsonObject> uncached() {
+    MongoCollection<JsonObject> coll = db.getCollection("books", JsonObject.class);
+    if (option != null) {
+      coll = coll.withWriteConcern(WriteConcern.valueOf(option.name()));
+    }
+    return coll;
+  }
+
+  @Benchmark
+  public MongoCollection<JsonObject> cached() {
+    return cache.get("books", option);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.VertxCodecRegistry;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import org.bson.BsonDocument;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures wrapping query filters in a {@link JsonObjectBsonAdapter} and converting them to the {@link BsonDocument}
+ * the driver sends, with ids stored as strings or as object ids.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JsonObjectBsonAdapterBenchmark {
+
+  @Param({"false", "true"})
+  public boolean useObjectId;
+
+  private CodecRegistry registry;
+  private JsonObject byId;
+  private JsonObject compound;
+
+  @Setup
+  public void setup() {
+    registry = new VertxCodecRegistry(new JsonObjectCodec(useObjectId));
+    byId = new JsonObject().put("_id", new ObjectId().toHexString());
+    compound = new JsonObject()
+      .put("author", "Douglas Adams")
+      .put("pages", new JsonObject().put("$gte", 100).put("$lt", 500))
+      .put("$or", new JsonArray()
+        .add(new JsonObject().put("language", "en"))
+        .add(new JsonObject().put("tags", new JsonObject().put("$in", new JsonArray().add("sf").add("humour")))));
+  }
+
+  @Benchmark
+  public int byId() {
+    // Getting the size unwraps the document, encoding it
+    return new JsonObjectBsonAdapter(byId, true).toBsonDocument(BsonDocument.class, registry).size();
+  }
+
+  @Benchmark
+  public int compound() {
+    return new JsonObjectBsonAdapter(compound, true).toBsonDocument(BsonDocument.class, registry).size();
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+
+package io.vertx.ext.mongo.impl.codec;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generic {@link JsonObjectCodec} with the {@link AdaptiveJsonObjectCodec} once it has learnt the shape
+ * of wide flat documents, holding strings, integers, doubles and booleans.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AdaptiveJsonObjectCodecBenchmark {
+
+  private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+  private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().isEncodingCollectibleDocument(true).build();
+
+  @Param({"16", "64", "256"})
+  public int fields;
+
+  @Param({"false", "true"})
+  public boolean adaptive;
+
+  private JsonObjectCodec codec;
+  private JsonObject document;
+  private byte[] bytes;
+
+  @Setup
+  public void setup() {
+    document = wide(fields);
+    JsonObjectCodec generic = new JsonObjectCodec();
+    codec = adaptive ? new AdaptiveJsonObjectCodec(generic) : generic;
+    bytes = encode();
+    for (int i = 0; i < ShapeTracker.REQUIRED_MATCHES; i++) {
+      decode();
+      encode();
+    }
+    if (adaptive && !(((AdaptiveJsonObjectCodec) codec).isDecodePlanned() && ((AdaptiveJsonObjectCodec) codec).isEncodePlanned())) {
+      throw new IllegalStateException("The shape was not learnt");
+    }
+  }
+
+  static JsonObject wide(int fields) {
+    JsonObject json = new JsonObject().put("_id", "5563d8b6e4b0b9a8a4d1b8f2");
+    for (int i = 0; i < fields; i++) {
+      switch (i % 4) {
+        case 0:
+          json.put("string" + i, "value" + i);
+          break;
+        case 1:
+          json.put("int" + i, i);
+          break;
+        case 2:
+          json.put("double" + i, i * 1.5);
+          break;
+        default:
+          json.put("boolean" + i, i % 8 == 3);
+      }
+    }
+    return json;
+  }
+
+  @Benchmark
+  public JsonObject decode() {
+    return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), DECODER_CONTEXT);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    BasicOutputBuffer buffer = new BasicOutputBuffer();
+    codec.encode(new BsonBinaryWriter(buffer), document, ENCODER_CONTEXT);
+    return buffer.toByteArray();
+  }
+}
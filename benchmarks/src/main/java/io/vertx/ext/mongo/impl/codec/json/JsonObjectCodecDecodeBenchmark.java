@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding documents with the {@link JsonObjectCodec}, the way the driver does when reading query results.
+ * The documents have the same shapes as in {@link JsonObjectCodecEncodeBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JsonObjectCodecDecodeBenchmark {
+
+  private static final DecoderContext CONTEXT = DecoderContext.builder().build();
+
+  @Param({"flat", "nested", "arrays"})
+  public String shape;
+
+  private JsonObjectCodec codec;
+  private byte[] bytes;
+
+  @Setup
+  public void setup() {
+    JsonObject document;
+    switch (shape) {
+      case "flat":
+        document = JsonObjectCodecEncodeBenchmark.flat(0);
+        break;
+      case "nested":
+        document = JsonObjectCodecEncodeBenchmark.nested(4);
+        break;
+      case "arrays":
+        document = JsonObjectCodecEncodeBenchmark.arrays();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown shape " + shape);
+    }
+    codec = new JsonObjectCodec();
+    BasicOutputBuffer buffer = new BasicOutputBuffer();
+    codec.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+    bytes = buffer.toByteArray();
+  }
+
+  @Benchmark
+  public JsonObject decode() {
+    return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), CONTEXT);
+  }
+}
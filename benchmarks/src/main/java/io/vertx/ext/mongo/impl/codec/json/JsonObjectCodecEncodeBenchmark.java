@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding documents with the {@link JsonObjectCodec}, the way the driver does when inserting them.
+ * <p>
+ * The output buffer is reused between invocations so that {@code -prof gc} reports the allocation of the codec
+ * itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JsonObjectCodecEncodeBenchmark {
+
+  private static final EncoderContext COLLECTIBLE = EncoderContext.builder().isEncodingCollectibleDocument(true).build();
+
+  @Param({"flat", "nested", "arrays"})
+  public String shape;
+
+  private final JsonObjectCodec codec = new JsonObjectCodec();
+  private final BasicOutputBuffer buffer = new BasicOutputBuffer();
+  private JsonObject document;
+
+  @Setup
+  public void setup() {
+    switch (shape) {
+      case "flat":
+        document = flat(0);
+        break;
+      case "nested":
+        document = nested(4);
+        break;
+      case "arrays":
+        document = arrays();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown shape " + shape);
+    }
+  }
+
+  @Benchmark
+  public int encode() {
+    buffer.truncateToPosition(0);
+    codec.encode(new BsonBinaryWriter(buffer), document, COLLECTIBLE);
+    return buffer.getPosition();
+  }
+
+  static JsonObject flat(int seed) {
+    return new JsonObject()
+      .put("_id", "5565f4a1e4b0b1a4c3b8f2d" + seed % 10)
+      .put("title", "The Hitchhiker's Guide to the Galaxy")
+      .put("author", "Douglas Adams")
+      .put("pages", 224 + seed)
+      .put("isbn", 9780345391803L)
+      .put("rating", 4.21d)
+      .put("available", true)
+      .put("publisher", "Pan Books")
+      .put("language", "en")
+      .put("edition", 1);
+  }
+
+  static JsonObject nested(int depth) {
+    JsonObject document = flat(depth);
+    if (depth > 0) {
+      document.put("child", nested(depth - 1));
+      document.put("sibling", flat(depth + 1));
+    }
+    return document;
+  }
+
+  static JsonObject arrays() {
+    JsonArray numbers = new JsonArray();
+    JsonArray tags = new JsonArray();
+    JsonArray items = new JsonArray();
+    for (int i = 0; i < 100; i++) {
+      numbers.add(i * 1.5d);
+      tags.add("tag" + i);
+    }
+    for (int i = 0; i < 10; i++) {
+      items.add(flat(i));
+    }
+    return new JsonObject()
+      .put("_id", "5565f4a1e4b0b1a4c3b8f2da")
+      .put("numbers", numbers)
+      .put("tags", tags)
+      .put("items", items);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding a wide document eagerly with the {@link JsonObjectCodec} and lazily with the
+ * {@link LazyJsonObjectCodec}, then reading a few of its fields. The lazy codec is measured with and without the
+ * {@link FieldNameCache} of the default size, which the service gives it by default.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LazyDecodeBenchmark {
+
+  private static final DecoderContext CONTEXT = DecoderContext.builder().build();
+
+  @Param({"20", "200"})
+  public int fields;
+
+  @Param({"false", "true"})
+  public boolean internFieldNames;
+
+  private final JsonObjectCodec eager = new JsonObjectCodec();
+  private LazyJsonObjectCodec lazy;
+  private byte[] bytes;
+
+  @Setup
+  public void setup() {
+    lazy = new LazyJsonObjectCodec(internFieldNames ? new FieldNameCache(FieldNameCache.DEFAULT_SIZE) : null, false);
+    JsonObject document = new JsonObject();
+    for (int i = 0; i < fields; i++) {
+      if (i % 4 == 0) {
+        document.put("field" + i, new JsonObject().put("name", "value" + i).put("count", i));
+      } else {
+        document.put("field" + i, "value" + i);
+      }
+    }
+    BasicOutputBuffer buffer = new BasicOutputBuffer();
+    eager.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+    bytes = buffer.toByteArray();
+  }
+
+  @Benchmark
+  public void eager(Blackhole blackhole) {
+    read(eager.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), CONTEXT), blackhole);
+  }
+
+  @Benchmark
+  public void lazy(Blackhole blackhole) {
+    read(lazy.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), CONTEXT), blackhole);
+  }
+
+  private void read(JsonObject document, Blackhole blackhole) {
+    blackhole.consume(document.getString("field1"));
+    blackhole.consume(document.getString("field3"));
+    blackhole.consume(document.getJsonObject("field8").getString("name"));
+    blackhole.consume(document.getString("field" + (fields - 1)));
+  }
+}
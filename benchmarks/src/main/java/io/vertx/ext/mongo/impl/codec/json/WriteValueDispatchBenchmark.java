@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-class dispatch of {@link AbstractJsonCodec#writeValue} with the {@code instanceof} chain followed
+ * by a {@code switch} it replaced, by encoding a document mixing all the basic value types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class WriteValueDispatchBenchmark {
+
+  private static final EncoderContext CONTEXT = EncoderContext.builder().build();
+
+  private final JsonObjectCodec classDispatch = new JsonObjectCodec();
+  private final JsonObjectCodec instanceofChain = new InstanceofChainCodec();
+  private final BasicOutputBuffer buffer = new BasicOutputBuffer();
+  private JsonObject document;
+
+  @Setup
+  public void setup() {
+    document = new JsonObject();
+    for (int i = 0; i < 10; i++) {
+      document
+        .put("bool" + i, i % 2 == 0)
+        .put("double" + i, i * 1.5d)
+        .put("int" + i, i)
+        .put("long" + i, (long) i << 33)
+        .put("str" + i, "value" + i)
+        .put("obj" + i, new JsonObject().put("x", i))
+        .put("arr" + i, new JsonArray().add(i).add("v"));
+    }
+  }
+
+  @Benchmark
+  public int classDispatch() {
+    return encode(classDispatch);
+  }
+
+  @Benchmark
+  public int instanceofChain() {
+    return encode(instanceofChain);
+  }
+
+  private int encode(JsonObjectCodec codec) {
+    buffer.truncateToPosition(0);
+    codec.encode(new BsonBinaryWriter(buffer), document, CONTEXT);
+    return buffer.getPosition();
+  }
+
+  /**
+   * The dispatch as it was before the per-class writers.
+   */
+  static class InstanceofChainCodec extends JsonObjectCodec {
+
+    @Override
+    protected void writeValue(BsonWriter writer, String name, Object value, EncoderContext ctx) {
+      BsonType type = getBsonTypeByInstanceof(value);
+      switch (type) {
+        case NULL:
+          writeNull(writer, name, value, ctx);
+          break;
+        case ARRAY:
+          writeArray(writer, name, value, ctx);
+          break;
+        case BOOLEAN:
+          writeBoolean(writer, name, value, ctx);
+          break;
+        case DOCUMENT:
+          writeDocument(writer, name, value, ctx);
+          break;
+        case DOUBLE:
+          writeDouble(writer, name, value, ctx);
+          break;
+        case INT32:
+          writeInt32(writer, name, value, ctx);
+          break;
+        case INT64:
+          writeInt64(writer, name, value, ctx);
+          break;
+        case STRING:
+          writeString(writer, name, value, ctx);
+          break;
+        default:
+          throw new IllegalStateException("Unknown bson type " + type);
+      }
+    }
+
+    private BsonType getBsonTypeByInstanceof(Object value) {
+      if (value == null) {
+        return BsonType.NULL;
+      } else if (value instanceof Boolean) {
+        return BsonType.BOOLEAN;
+      } else if (value instanceof Double) {
+        return BsonType.DOUBLE;
+      } else if (value instanceof Integer) {
+        return BsonType.INT32;
+      } else if (value instanceof Long) {
+        return BsonType.INT64;
+      } else if (value instanceof String) {
+        return BsonType.STRING;
+      } else if (value instanceof JsonObject || value instanceof Map) {
+        return BsonType.DOCUMENT;
+      } else if (value instanceof JsonArray || value instanceof List) {
+        return BsonType.ARRAY;
+      } else {
+        return null;
+      }
+    }
+  }
+}
@@ -37,6 +37,8 @@ import io.vertx.ext.mongo.MongoService;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.ext.mongo.UpdateOptions;
+import io.vertx.ext.mongo.PageOptions;
+import io.vertx.ext.mongo.BulkWriteOptions;
 
 /*
   Generated Proxy code - DO NOT EDIT
@@ -79,6 +81,22 @@ public class MongoServiceVertxProxyHandler extends ProxyHandler {
         service.insertWithOptions((java.lang.String)json.getValue("collection"), (io.vertx.core.json.JsonObject)json.getValue("document"), io.vertx.ext.mongo.WriteOption.valueOf(json.getString("writeOption")), createHandler(msg));
         break;
       }
+      case "insertMany": {
+        service.insertMany((java.lang.String)json.getValue("collection"), convertList(json.getJsonArray("documents").getList()), createListHandler(msg));
+        break;
+      }
+      case "insertManyWithOptions": {
+        service.insertManyWithOptions((java.lang.String)json.getValue("collection"), convertList(json.getJsonArray("documents").getList()), new io.vertx.ext.mongo.BulkWriteOptions(json.getJsonObject("options")), createListHandler(msg));
+        break;
+      }
+      case "bulkWrite": {
+        service.bulkWrite((java.lang.String)json.getValue("collection"), convertList(json.getJsonArray("operations").getList()), createHandler(msg));
+        break;
+      }
+      case "bulkWriteWithOptions": {
+        service.bulkWriteWithOptions((java.lang.String)json.getValue("collection"), convertList(json.getJsonArray("operations").getList()), new io.vertx.ext.mongo.BulkWriteOptions(json.getJsonObject("options")), createHandler(msg));
+        break;
+      }
       case "update": {
         service.update((java.lang.String)json.getValue("collection"), (io.vertx.core.json.JsonObject)json.getValue("query"), (io.vertx.core.json.JsonObject)json.getValue("update"), createHandler(msg));
         break;
@@ -103,10 +121,30 @@ public class MongoServiceVertxProxyHandler extends ProxyHandler {
         service.findWithOptions((java.lang.String)json.getValue("collection"), (io.vertx.core.json.JsonObject)json.getValue("query"), new io.vertx.ext.mongo.FindOptions(json.getJsonObject("options")), createListHandler(msg));
         break;
       }
+      case "findPage": {
+        service.findPage((java.lang.String)json.getValue("collection"), (io.vertx.core.json.JsonObject)json.getValue("query"), new io.vertx.ext.mongo.PageOptions(json.getJsonObject("options")), createHandler(msg));
+        break;
+      }
+      case "openCursor": {
+        service.openCursor((java.lang.String)json.getValue("collection"), (io.vertx.core.json.JsonObject)json.getValue("query"), new io.vertx.ext.mongo.FindOptions(json.getJsonObject("options")), createHandler(msg));
+        break;
+      }
+      case "fetch": {
+        service.fetch((java.lang.String)json.getValue("cursorId"), json.getInteger("count"), createListHandler(msg));
+        break;
+      }
+      case "closeCursor": {
+        service.closeCursor((java.lang.String)json.getValue("cursorId"), createHandler(msg));
+        break;
+      }
       case "findOne": {
         service.findOne((java.lang.String)json.getValue("collection"), (io.vertx.core.json.JsonObject)json.getValue("query"), (io.vertx.core.json.JsonObject)json.getValue("fields"), createHandler(msg));
         break;
       }
+      case "findByIds": {
+        service.findByIds((java.lang.String)json.getValue("collection"), convertList(json.getJsonArray("ids").getList()), (io.vertx.core.json.JsonObject)json.getValue("fields"), createListHandler(msg));
+        break;
+      }
       case "count": {
         service.count((java.lang.String)json.getValue("collection"), (io.vertx.core.json.JsonObject)json.getValue("query"), createHandler(msg));
         break;
@@ -143,6 +181,26 @@ public class MongoServiceVertxProxyHandler extends ProxyHandler {
         service.runCommand((io.vertx.core.json.JsonObject)json.getValue("command"), createHandler(msg));
         break;
       }
+      case "runCommandWithFields": {
+        service.runCommandWithFields((io.vertx.core.json.JsonObject)json.getValue("command"), (io.vertx.core.json.JsonObject)json.getValue("fields"), createHandler(msg));
+        break;
+      }
+      case "prepareQuery": {
+        service.prepareQuery((java.lang.String)json.getValue("collection"), (io.vertx.core.json.JsonObject)json.getValue("query"), new io.vertx.ext.mongo.FindOptions(json.getJsonObject("options")), createHandler(msg));
+        break;
+      }
+      case "findPrepared": {
+        service.findPrepared((java.lang.String)json.getValue("queryId"), (io.vertx.core.json.JsonObject)json.getValue("params"), createListHandler(msg));
+        break;
+      }
+      case "closePreparedQuery": {
+        service.closePreparedQuery((java.lang.String)json.getValue("queryId"), createHandler(msg));
+        break;
+      }
+      case "getMetrics": {
+        service.getMetrics(createHandler(msg));
+        break;
+      }
       case "start": {
         service.start();
         break;
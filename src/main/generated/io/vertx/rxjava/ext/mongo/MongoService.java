@@ -27,6 +27,8 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.ext.mongo.UpdateOptions;
+import io.vertx.ext.mongo.PageOptions;
+import io.vertx.ext.mongo.BulkWriteOptions;
 
 /**
  * A Vert.x service used to interact with MongoDB server instances.
@@ -58,6 +60,31 @@ public class MongoService {
     return ret;
   }
 
+  /**
+   * Create a service sharing its mongo client, and so its connection pool, with the other services created for the
+   * same data source. The client is created with the config of the first of these services, and closed when the last
+   * of them is stopped.
+   * @param vertx the Vert.x instance
+   * @param config the config
+   * @param dataSourceName the name of the data source
+   * @return the service
+   */
+  public static MongoService createShared(Vertx vertx, JsonObject config, String dataSourceName) { 
+    MongoService ret= MongoService.newInstance(io.vertx.ext.mongo.MongoService.createShared((io.vertx.core.Vertx) vertx.getDelegate(), config, dataSourceName));
+    return ret;
+  }
+
+  /**
+   * Like {@link io.vertx.rxjava.ext.mongo.MongoService#createShared} but with the default data source name
+   * @param vertx the Vert.x instance
+   * @param config the config
+   * @return the service
+   */
+  public static MongoService createShared(Vertx vertx, JsonObject config) { 
+    MongoService ret= MongoService.newInstance(io.vertx.ext.mongo.MongoService.createShared((io.vertx.core.Vertx) vertx.getDelegate(), config));
+    return ret;
+  }
+
   /**
    * Create a proxy to a service that is deployed somewhere on the event bus
    * @param vertx the Vert.x instance
@@ -169,6 +196,106 @@ public class MongoService {
     return resultHandler;
   }
 
+  /**
+   * Insert a list of documents in the specified collection, using a single bulk write
+   * @param collection the collection
+   * @param documents the documents
+   * @param resultHandler result handler will be provided with the ids of the documents, in order
+   * @return 
+   */
+  public MongoService insertMany(String collection, List<JsonObject> documents, Handler<AsyncResult<List<String>>> resultHandler) { 
+    this.delegate.insertMany(collection, documents, resultHandler);
+    return this;
+  }
+
+  /**
+   * Insert a list of documents in the specified collection, using a single bulk write
+   * @param collection the collection
+   * @param documents the documents
+   * @return 
+   */
+  public Observable<List<String>> insertManyObservable(String collection, List<JsonObject> documents) { 
+    io.vertx.rx.java.ObservableFuture<List<String>> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    insertMany(collection, documents, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * Insert a list of documents in the specified collection, using a single bulk write, specifying options
+   * @param collection the collection
+   * @param documents the documents
+   * @param options options to configure the bulk write
+   * @param resultHandler result handler will be provided with the ids of the documents, in order
+   * @return 
+   */
+  public MongoService insertManyWithOptions(String collection, List<JsonObject> documents, BulkWriteOptions options, Handler<AsyncResult<List<String>>> resultHandler) { 
+    this.delegate.insertManyWithOptions(collection, documents, options, resultHandler);
+    return this;
+  }
+
+  /**
+   * Insert a list of documents in the specified collection, using a single bulk write, specifying options
+   * @param collection the collection
+   * @param documents the documents
+   * @param options options to configure the bulk write
+   * @return 
+   */
+  public Observable<List<String>> insertManyWithOptionsObservable(String collection, List<JsonObject> documents, BulkWriteOptions options) { 
+    io.vertx.rx.java.ObservableFuture<List<String>> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    insertManyWithOptions(collection, documents, options, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * Execute a list of write operations against the specified collection, using a single bulk write.
+   * @param collection the collection
+   * @param operations the write operations
+   * @param resultHandler will be provided with the counts of the bulk write
+   * @return 
+   */
+  public MongoService bulkWrite(String collection, List<JsonObject> operations, Handler<AsyncResult<JsonObject>> resultHandler) { 
+    this.delegate.bulkWrite(collection, operations, resultHandler);
+    return this;
+  }
+
+  /**
+   * Execute a list of write operations against the specified collection, using a single bulk write.
+   * @param collection the collection
+   * @param operations the write operations
+   * @return 
+   */
+  public Observable<JsonObject> bulkWriteObservable(String collection, List<JsonObject> operations) { 
+    io.vertx.rx.java.ObservableFuture<JsonObject> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    bulkWrite(collection, operations, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * Execute a list of write operations against the specified collection, using a single bulk write, specifying options
+   * @param collection the collection
+   * @param operations the write operations
+   * @param options options to configure the bulk write
+   * @param resultHandler will be provided with the counts of the bulk write
+   * @return 
+   */
+  public MongoService bulkWriteWithOptions(String collection, List<JsonObject> operations, BulkWriteOptions options, Handler<AsyncResult<JsonObject>> resultHandler) { 
+    this.delegate.bulkWriteWithOptions(collection, operations, options, resultHandler);
+    return this;
+  }
+
+  /**
+   * Execute a list of write operations against the specified collection, using a single bulk write, specifying options
+   * @param collection the collection
+   * @param operations the write operations
+   * @param options options to configure the bulk write
+   * @return 
+   */
+  public Observable<JsonObject> bulkWriteWithOptionsObservable(String collection, List<JsonObject> operations, BulkWriteOptions options) { 
+    io.vertx.rx.java.ObservableFuture<JsonObject> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    bulkWriteWithOptions(collection, operations, options, resultHandler.toHandler());
+    return resultHandler;
+  }
+
   /**
    * Update matching documents in the specified collection
    * @param collection the collection
@@ -327,6 +454,121 @@ public class MongoService {
     return resultHandler;
   }
 
+  /**
+   * Find a page of matching documents in the specified collection. The page is returned as a json object holding the
+   * documents under {@code results}, and under {@code token} the continuation token to set in the options to get the
+   * next page, which is absent on the last page.
+   * <p>
+   * Unlike {@link FindOptions#setSkip}, each page is found by seeking past the last document of the previous page,
+   * so the cost of a page does not depend on how deep it is.
+   * @param collection the collection
+   * @param query query used to match documents
+   * @param options options to configure the page
+   * @param resultHandler will be provided with the page
+   * @return 
+   */
+  public MongoService findPage(String collection, JsonObject query, PageOptions options, Handler<AsyncResult<JsonObject>> resultHandler) { 
+    this.delegate.findPage(collection, query, options, resultHandler);
+    return this;
+  }
+
+  /**
+   * Find a page of matching documents in the specified collection. The page is returned as a json object holding the
+   * documents under {@code results}, and under {@code token} the continuation token to set in the options to get the
+   * next page, which is absent on the last page.
+   * <p>
+   * Unlike {@link FindOptions#setSkip}, each page is found by seeking past the last document of the previous page,
+   * so the cost of a page does not depend on how deep it is.
+   * @param collection the collection
+   * @param query query used to match documents
+   * @param options options to configure the page
+   * @return 
+   */
+  public Observable<JsonObject> findPageObservable(String collection, JsonObject query, PageOptions options) { 
+    io.vertx.rx.java.ObservableFuture<JsonObject> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    findPage(collection, query, options, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * Open a cursor over the matching documents in the specified collection. The documents are then fetched a few at a
+   * time with {@link #fetch}, so that large results are not sent as a single reply.
+   * <p>
+   * A cursor is released by {@link #closeCursor}, or by the service once no fetch happened on it for the idle timeout.
+   * @param collection the collection
+   * @param query query used to match documents
+   * @param options options to configure the find
+   * @param resultHandler will be provided with the id of the cursor
+   * @return 
+   */
+  public MongoService openCursor(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<String>> resultHandler) { 
+    this.delegate.openCursor(collection, query, options, resultHandler);
+    return this;
+  }
+
+  /**
+   * Open a cursor over the matching documents in the specified collection. The documents are then fetched a few at a
+   * time with {@link #fetch}, so that large results are not sent as a single reply.
+   * <p>
+   * A cursor is released by {@link #closeCursor}, or by the service once no fetch happened on it for the idle timeout.
+   * @param collection the collection
+   * @param query query used to match documents
+   * @param options options to configure the find
+   * @return 
+   */
+  public Observable<String> openCursorObservable(String collection, JsonObject query, FindOptions options) { 
+    io.vertx.rx.java.ObservableFuture<String> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    openCursor(collection, query, options, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * Fetch the next documents of a cursor opened with {@link #openCursor}.
+   * @param cursorId the id of the cursor
+   * @param count the maximum number of documents to fetch
+   * @param resultHandler will be provided with the documents, fewer than {@code count} only when the cursor is
+   * exhausted, and none once it is exhausted
+   * @return 
+   */
+  public MongoService fetch(String cursorId, int count, Handler<AsyncResult<List<JsonObject>>> resultHandler) { 
+    this.delegate.fetch(cursorId, count, resultHandler);
+    return this;
+  }
+
+  /**
+   * Fetch the next documents of a cursor opened with {@link #openCursor}.
+   * @param cursorId the id of the cursor
+   * @param count the maximum number of documents to fetch
+   * @return 
+   */
+  public Observable<List<JsonObject>> fetchObservable(String cursorId, int count) { 
+    io.vertx.rx.java.ObservableFuture<List<JsonObject>> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    fetch(cursorId, count, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * Close a cursor opened with {@link #openCursor}, releasing its resources.
+   * @param cursorId the id of the cursor
+   * @param resultHandler will be called when complete
+   * @return 
+   */
+  public MongoService closeCursor(String cursorId, Handler<AsyncResult<Void>> resultHandler) { 
+    this.delegate.closeCursor(cursorId, resultHandler);
+    return this;
+  }
+
+  /**
+   * Close a cursor opened with {@link #openCursor}, releasing its resources.
+   * @param cursorId the id of the cursor
+   * @return 
+   */
+  public Observable<Void> closeCursorObservable(String cursorId) { 
+    io.vertx.rx.java.ObservableFuture<Void> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    closeCursor(cursorId, resultHandler.toHandler());
+    return resultHandler;
+  }
+
   /**
    * Find a single matching document in the specified collection
    * @param collection the collection
@@ -353,6 +595,32 @@ public class MongoService {
     return resultHandler;
   }
 
+  /**
+   * Find the documents with the specified ids in the specified collection, with a single query for all of them.
+   * @param collection the collection
+   * @param ids the ids of the documents
+   * @param fields the fields
+   * @param resultHandler will be provided with the documents in the order of the ids, with null for the ids not found
+   * @return 
+   */
+  public MongoService findByIds(String collection, List<String> ids, JsonObject fields, Handler<AsyncResult<List<JsonObject>>> resultHandler) { 
+    this.delegate.findByIds(collection, ids, fields, resultHandler);
+    return this;
+  }
+
+  /**
+   * Find the documents with the specified ids in the specified collection, with a single query for all of them.
+   * @param collection the collection
+   * @param ids the ids of the documents
+   * @param fields the fields
+   * @return 
+   */
+  public Observable<List<JsonObject>> findByIdsObservable(String collection, List<String> ids, JsonObject fields) { 
+    io.vertx.rx.java.ObservableFuture<List<JsonObject>> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    findByIds(collection, ids, fields, resultHandler.toHandler());
+    return resultHandler;
+  }
+
   /**
    * Count matching documents in a collection.
    * @param collection the collection
@@ -563,6 +831,128 @@ public class MongoService {
     return resultHandler;
   }
 
+  /**
+   * Run an arbitrary MongoDB command, decoding only the specified fields of the reply. The other fields are skipped
+   * without being decoded, which saves work when the reply holds large sub documents which are not needed.
+   * @param command the command
+   * @param fields the fields of the reply to decode, as an inclusion projection, e.g. <code>{"ok": 1, "cursor.firstBatch.name": 1}</code>
+   * @param resultHandler will be called with the result.
+   * @return 
+   */
+  public MongoService runCommandWithFields(JsonObject command, JsonObject fields, Handler<AsyncResult<JsonObject>> resultHandler) { 
+    this.delegate.runCommandWithFields(command, fields, resultHandler);
+    return this;
+  }
+
+  /**
+   * Run an arbitrary MongoDB command, decoding only the specified fields of the reply. The other fields are skipped
+   * without being decoded, which saves work when the reply holds large sub documents which are not needed.
+   * @param command the command
+   * @param fields the fields of the reply to decode, as an inclusion projection, e.g. <code>{"ok": 1, "cursor.firstBatch.name": 1}</code>
+   * @return 
+   */
+  public Observable<JsonObject> runCommandWithFieldsObservable(JsonObject command, JsonObject fields) { 
+    io.vertx.rx.java.ObservableFuture<JsonObject> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    runCommandWithFields(command, fields, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * Prepare a find, so that it can be executed many times with different parameters. The query is a template in
+   * which values of the form {@code {"$param": "name"}} are replaced by the parameters of each execution. The
+   * constant parts of the query, the sort and the projection are encoded once.
+   * @param collection the collection
+   * @param query the query template
+   * @param options the options of the find
+   * @param resultHandler will be called with the id of the prepared query
+   * @return 
+   */
+  public MongoService prepareQuery(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<String>> resultHandler) { 
+    this.delegate.prepareQuery(collection, query, options, resultHandler);
+    return this;
+  }
+
+  /**
+   * Prepare a find, so that it can be executed many times with different parameters. The query is a template in
+   * which values of the form {@code {"$param": "name"}} are replaced by the parameters of each execution. The
+   * constant parts of the query, the sort and the projection are encoded once.
+   * @param collection the collection
+   * @param query the query template
+   * @param options the options of the find
+   * @return 
+   */
+  public Observable<String> prepareQueryObservable(String collection, JsonObject query, FindOptions options) { 
+    io.vertx.rx.java.ObservableFuture<String> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    prepareQuery(collection, query, options, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * Execute a prepared query.
+   * @param queryId the id of the prepared query
+   * @param params the values of the parameters by name
+   * @param resultHandler will be called with the list of documents
+   * @return 
+   */
+  public MongoService findPrepared(String queryId, JsonObject params, Handler<AsyncResult<List<JsonObject>>> resultHandler) { 
+    this.delegate.findPrepared(queryId, params, resultHandler);
+    return this;
+  }
+
+  /**
+   * Execute a prepared query.
+   * @param queryId the id of the prepared query
+   * @param params the values of the parameters by name
+   * @return 
+   */
+  public Observable<List<JsonObject>> findPreparedObservable(String queryId, JsonObject params) { 
+    io.vertx.rx.java.ObservableFuture<List<JsonObject>> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    findPrepared(queryId, params, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * Close a prepared query, releasing its resources.
+   * @param queryId the id of the prepared query
+   * @param resultHandler will be called when complete
+   * @return 
+   */
+  public MongoService closePreparedQuery(String queryId, Handler<AsyncResult<Void>> resultHandler) { 
+    this.delegate.closePreparedQuery(queryId, resultHandler);
+    return this;
+  }
+
+  /**
+   * Close a prepared query, releasing its resources.
+   * @param queryId the id of the prepared query
+   * @return 
+   */
+  public Observable<Void> closePreparedQueryObservable(String queryId) { 
+    io.vertx.rx.java.ObservableFuture<Void> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    closePreparedQuery(queryId, resultHandler.toHandler());
+    return resultHandler;
+  }
+
+  /**
+   * Get the metrics of the service, such as the write coalescing ratio when write coalescing is enabled.
+   * @param resultHandler will be called with the metrics
+   * @return 
+   */
+  public MongoService getMetrics(Handler<AsyncResult<JsonObject>> resultHandler) { 
+    this.delegate.getMetrics(resultHandler);
+    return this;
+  }
+
+  /**
+   * Get the metrics of the service, such as the write coalescing ratio when write coalescing is enabled.
+   * @return 
+   */
+  public Observable<JsonObject> getMetricsObservable() { 
+    io.vertx.rx.java.ObservableFuture<JsonObject> resultHandler = io.vertx.rx.java.RxHelper.observableFuture();
+    getMetrics(resultHandler.toHandler());
+    return resultHandler;
+  }
+
   /**
    * Start the service
    */
@@ -20,9 +20,15 @@ import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.BulkWriteOptions;
+import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.LocalMongoService;
 import io.vertx.ext.mongo.MongoService;
+import io.vertx.ext.mongo.PageOptions;
 import io.vertx.ext.mongo.UpdateOptions;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -101,6 +107,21 @@ public class Examples {
 
   }
 
+  public void example0_4(Vertx vertx, JsonObject config) {
+
+    // Both services use the same client, and so the same connection pool
+    MongoService mongoService1 = MongoService.createShared(vertx, config, "library");
+    MongoService mongoService2 = MongoService.createShared(vertx, config, "library");
+
+    mongoService1.start();
+    mongoService2.start();
+
+    // The client is closed once both services are stopped
+    mongoService1.stop();
+    mongoService2.stop();
+
+  }
+
   public void example1(MongoService mongoService) {
 
     // Document has no id
@@ -184,6 +205,56 @@ public class Examples {
 
   }
 
+  public void example4_1(MongoService mongoService) {
+
+    List<JsonObject> books = Arrays.asList(
+      new JsonObject().put("title", "The Hobbit"),
+      new JsonObject().put("title", "The Silmarillion"));
+
+    mongoService.insertMany("books", books, res -> {
+
+      if (res.succeeded()) {
+
+        System.out.println("Inserted books with ids " + res.result());
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+
+    });
+
+  }
+
+  public void example4_2(MongoService mongoService) {
+
+    List<JsonObject> operations = Arrays.asList(
+      new JsonObject().put("type", "insert")
+        .put("document", new JsonObject().put("title", "The Children of Hurin")),
+      new JsonObject().put("type", "update")
+        .put("filter", new JsonObject().put("author", "J. R. R. Tolkien"))
+        .put("document", new JsonObject().put("$set", new JsonObject().put("language", "English")))
+        .put("multi", true),
+      new JsonObject().put("type", "delete")
+        .put("filter", new JsonObject().put("title", "The Lord of the Rings")));
+
+    mongoService.bulkWriteWithOptions("books", operations, new BulkWriteOptions().setOrdered(false), res -> {
+
+      if (res.succeeded()) {
+
+        System.out.println("Modified " + res.result().getInteger("modifiedCount") + " books");
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+
+    });
+
+  }
+
   public void example5(MongoService mongoService) {
 
     // Match any documents with title=The Hobbit
@@ -304,6 +375,188 @@ public class Examples {
 
   }
 
+  public void example9_1(LocalMongoService mongoService) {
+
+    // will stream all Tolkien books, 100 at a time
+    JsonObject query = new JsonObject().put("author", "J. R. R. Tolkien");
+
+    ReadStream<JsonObject> books = mongoService.findWithOptionsStream("books", query, new FindOptions().setBatchSize(100));
+
+    books.exceptionHandler(Throwable::printStackTrace);
+
+    books.endHandler(v -> System.out.println("No more books"));
+
+    books.handler(json -> System.out.println(json.encodePrettily()));
+
+  }
+
+  public void example9_2(LocalMongoService mongoService) {
+
+    JsonObject query = new JsonObject().put("author", "J. R. R. Tolkien");
+
+    // Book is a data object class, with a constructor taking a JsonObject
+    mongoService.find("books", query, Book.class, res -> {
+
+      if (res.succeeded()) {
+
+        for (Book book : res.result()) {
+          System.out.println(book.getTitle());
+        }
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+    });
+
+  }
+
+  public void example9_3(MongoService mongoService) {
+
+    JsonObject query = new JsonObject()
+      .put("author", new JsonObject().put("$param", "author"))
+      .put("year", new JsonObject().put("$gte", new JsonObject().put("$param", "since")));
+
+    mongoService.prepareQuery("books", query, new FindOptions().setSort(new JsonObject().put("year", 1)), res -> {
+
+      if (res.succeeded()) {
+
+        String queryId = res.result();
+        JsonObject params = new JsonObject().put("author", "J. R. R. Tolkien").put("since", 1950);
+
+        mongoService.findPrepared(queryId, params, res2 -> {
+
+          if (res2.succeeded()) {
+
+            for (JsonObject json : res2.result()) {
+              System.out.println(json.encodePrettily());
+            }
+
+          } else {
+
+            res2.cause().printStackTrace();
+
+          }
+        });
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+    });
+
+  }
+
+  public void example9_4(MongoService mongoService, String token) {
+
+    JsonObject query = new JsonObject().put("author", "J. R. R. Tolkien");
+
+    // the token is null for the first page
+    PageOptions options = new PageOptions().setSort(new JsonObject().put("year", 1)).setPageSize(50).setToken(token);
+
+    mongoService.findPage("books", query, options, res -> {
+
+      if (res.succeeded()) {
+
+        JsonObject page = res.result();
+        for (Object json : page.getJsonArray("results")) {
+          System.out.println(((JsonObject) json).encodePrettily());
+        }
+
+        // pass this token to get the next page, it is null on the last page
+        String next = page.getString("token");
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+    });
+
+  }
+
+  public void example9_5(MongoService mongoService) {
+
+    JsonObject query = new JsonObject().put("author", "J. R. R. Tolkien");
+
+    mongoService.openCursor("books", query, new FindOptions(), res -> {
+
+      if (res.succeeded()) {
+
+        fetchBooks(mongoService, res.result());
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+    });
+
+  }
+
+  private void fetchBooks(MongoService mongoService, String cursorId) {
+
+    // fetch 100 books at a time, until the cursor is exhausted
+    mongoService.fetch(cursorId, 100, res -> {
+
+      if (res.succeeded()) {
+
+        for (JsonObject json : res.result()) {
+          System.out.println(json.encodePrettily());
+        }
+
+        if (res.result().size() == 100) {
+          fetchBooks(mongoService, cursorId);
+        } else {
+          mongoService.closeCursor(cursorId, res2 -> {});
+        }
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+    });
+
+  }
+
+  public void example9_6(MongoService mongoService) {
+
+    List<String> ids = Arrays.asList("id1", "id2", "id3");
+
+    mongoService.findByIds("books", ids, null, res -> {
+
+      if (res.succeeded()) {
+
+        for (int i = 0; i < ids.size(); i++) {
+          JsonObject json = res.result().get(i);
+          System.out.println(ids.get(i) + ": " + (json != null ? json.encodePrettily() : "not found"));
+        }
+
+      } else {
+
+        res.cause().printStackTrace();
+
+      }
+    });
+
+  }
+
+  public static class Book {
+
+    private final String title;
+
+    public Book(JsonObject json) {
+      title = json.getString("title");
+    }
+
+    public String getTitle() {
+      return title;
+    }
+  }
+
   public void example10(MongoService mongoService) {
 
     JsonObject query = new JsonObject().put("author", "J. R. R. Tolkien");
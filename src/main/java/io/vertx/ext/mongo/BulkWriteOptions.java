@@ -0,0 +1,128 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Options for configuring bulk writes.
+ */
+@DataObject
+public class BulkWriteOptions {
+
+  /**
+   * The default value of ordered = true
+   */
+  public static final boolean DEFAULT_ORDERED = true;
+
+  private WriteOption writeOption;
+  private boolean ordered;
+
+  /**
+   * Default constructor
+   */
+  public BulkWriteOptions() {
+    this.ordered = DEFAULT_ORDERED;
+  }
+
+  /**
+   * Constructor specify ordered
+   * @param ordered  the value of ordered
+   */
+  public BulkWriteOptions(boolean ordered) {
+    this.ordered = ordered;
+  }
+
+  /**
+   * Copy constructor
+   * @param other  the one to copy
+   */
+  public BulkWriteOptions(BulkWriteOptions other) {
+    this.writeOption = other.writeOption;
+    this.ordered = other.ordered;
+  }
+
+  /**
+   * Constructor from JSON
+   *
+   * @param json  the json
+   */
+  public BulkWriteOptions(JsonObject json) {
+    String wo = json.getString("writeOption");
+    if (wo != null) {
+      writeOption = WriteOption.valueOf(wo.toUpperCase());
+    }
+    ordered = json.getBoolean("ordered", DEFAULT_ORDERED);
+  }
+
+  /**
+   * Get the write option.
+   *
+   * @return the write option
+   */
+  public WriteOption getWriteOption() {
+    return writeOption;
+  }
+
+  /**
+   * Set the write option
+   * @param writeOption  the write option
+   * @return reference to this, for fluency
+   */
+  public BulkWriteOptions setWriteOption(WriteOption writeOption) {
+    this.writeOption = writeOption;
+    return this;
+  }
+
+  /**
+   * Get whether the writes are ordered. Ordered writes are executed serially and stop at the first error,
+   * unordered writes may be executed in any order and all of them are attempted.
+   *
+   * @return ordered is enabled?
+   */
+  public boolean isOrdered() {
+    return ordered;
+  }
+
+  /**
+   * Set whether the writes are ordered
+   *
+   * @param ordered  true if enabled
+   * @return reference to this, for fluency
+   */
+  public BulkWriteOptions setOrdered(boolean ordered) {
+    this.ordered = ordered;
+    return this;
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    if (writeOption != null) {
+      json.put("writeOption", writeOption.name());
+    }
+    if (!ordered) {
+      json.put("ordered", false);
+    }
+
+    return json;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    BulkWriteOptions options = (BulkWriteOptions) o;
+
+    if (ordered != options.ordered) return false;
+    if (writeOption != options.writeOption) return false;
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = writeOption != null ? writeOption.hashCode() : 0;
+    result = 31 * result + (ordered ? 1 : 0);
+    return result;
+  }
+}
@@ -21,10 +21,28 @@ public class FindOptions {
    */
   public static final int DEFAULT_SKIP = 0;
 
+  /**
+   * The default value of batchSize = 0, signifying the server default
+   */
+  public static final int DEFAULT_BATCH_SIZE = 0;
+
+  /**
+   * The default value of lazyDecoding = false
+   */
+  public static final boolean DEFAULT_LAZY_DECODING = false;
+
+  /**
+   * The default value of primitiveArrays = false
+   */
+  public static final boolean DEFAULT_PRIMITIVE_ARRAYS = false;
+
   private JsonObject fields;
   private JsonObject sort;
   private int limit;
   private int skip;
+  private int batchSize;
+  private boolean lazyDecoding;
+  private boolean primitiveArrays;
 
   /**
    * Default constructor
@@ -32,6 +50,9 @@ public class FindOptions {
   public FindOptions() {
     this.limit = DEFAULT_LIMIT;
     this.skip = DEFAULT_SKIP;
+    this.batchSize = DEFAULT_BATCH_SIZE;
+    this.lazyDecoding = DEFAULT_LAZY_DECODING;
+    this.primitiveArrays = DEFAULT_PRIMITIVE_ARRAYS;
   }
 
   /**
@@ -44,6 +65,9 @@ public class FindOptions {
     this.sort = other.sort;
     this.limit = other.limit;
     this.skip = other.skip;
+    this.batchSize = other.batchSize;
+    this.lazyDecoding = other.lazyDecoding;
+    this.primitiveArrays = other.primitiveArrays;
   }
 
   /**
@@ -56,6 +80,9 @@ public class FindOptions {
     this.sort = json.getJsonObject("sort");
     this.limit = json.getInteger("limit", DEFAULT_LIMIT);
     this.skip = json.getInteger("skip", DEFAULT_SKIP);
+    this.batchSize = json.getInteger("batchSize", DEFAULT_BATCH_SIZE);
+    this.lazyDecoding = json.getBoolean("lazyDecoding", DEFAULT_LAZY_DECODING);
+    this.primitiveArrays = json.getBoolean("primitiveArrays", DEFAULT_PRIMITIVE_ARRAYS);
   }
 
   /**
@@ -77,6 +104,15 @@ public class FindOptions {
     if (skip != DEFAULT_SKIP) {
       json.put("skip", skip);
     }
+    if (batchSize != DEFAULT_BATCH_SIZE) {
+      json.put("batchSize", batchSize);
+    }
+    if (lazyDecoding) {
+      json.put("lazyDecoding", true);
+    }
+    if (primitiveArrays) {
+      json.put("primitiveArrays", true);
+    }
 
     return json;
   }
@@ -160,6 +196,68 @@ public class FindOptions {
     return this;
   }
 
+  /**
+   * Get the batch size. This determines how many documents are fetched from the server per round trip.
+   *
+   * @return  the batch size
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Set the batch size
+   *
+   * @param batchSize  the batch size
+   * @return reference to this, for fluency
+   */
+  public FindOptions setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Get whether result documents are decoded lazily
+   *
+   * @return  true if enabled
+   */
+  public boolean isLazyDecoding() {
+    return lazyDecoding;
+  }
+
+  /**
+   * Set whether result documents are decoded lazily. When enabled, each document is kept as raw BSON and a field is only
+   * decoded the first time it is accessed, which saves work when only a few fields of large documents are read.
+   *
+   * @param lazyDecoding  true if enabled
+   * @return reference to this, for fluency
+   */
+  public FindOptions setLazyDecoding(boolean lazyDecoding) {
+    this.lazyDecoding = lazyDecoding;
+    return this;
+  }
+
+  /**
+   * Get whether arrays of numbers are decoded as primitive arrays
+   *
+   * @return  true if enabled
+   */
+  public boolean isPrimitiveArrays() {
+    return primitiveArrays;
+  }
+
+  /**
+   * Set whether arrays holding only doubles, only 64-bit integers or only 32-bit integers are decoded as json arrays
+   * backed by primitive arrays, see {@link PrimitiveArrays}
+   *
+   * @param primitiveArrays  true to decode primitive arrays
+   * @return reference to this, for fluency
+   */
+  public FindOptions setPrimitiveArrays(boolean primitiveArrays) {
+    this.primitiveArrays = primitiveArrays;
+    return this;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -169,6 +267,9 @@ public class FindOptions {
 
     if (limit != options.limit) return false;
     if (skip != options.skip) return false;
+    if (batchSize != options.batchSize) return false;
+    if (lazyDecoding != options.lazyDecoding) return false;
+    if (primitiveArrays != options.primitiveArrays) return false;
     if (fields != null ? !fields.equals(options.fields) : options.fields != null) return false;
     if (sort != null ? !sort.equals(options.sort) : options.sort != null) return false;
 
@@ -181,6 +282,9 @@ public class FindOptions {
     result = 31 * result + (sort != null ? sort.hashCode() : 0);
     result = 31 * result + limit;
     result = 31 * result + skip;
+    result = 31 * result + batchSize;
+    result = 31 * result + (lazyDecoding ? 1 : 0);
+    result = 31 * result + (primitiveArrays ? 1 : 0);
     return result;
   }
 }
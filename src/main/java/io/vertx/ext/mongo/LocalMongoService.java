@@ -0,0 +1,132 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.impl.MongoServiceImpl;
+import org.bson.codecs.Codec;
+
+import java.util.List;
+
+/**
+ * A {@link MongoService} used locally, rather than through an event bus proxy, with the operations which can't be
+ * carried over the event bus.
+ */
+public interface LocalMongoService extends MongoService {
+
+  /**
+   * Create a service
+   *
+   * @param vertx  the Vert.x instance
+   * @param config  the config
+   * @return the service
+   */
+  static LocalMongoService create(Vertx vertx, JsonObject config) {
+    return new MongoServiceImpl(vertx, config);
+  }
+
+  /**
+   * Create a service sharing its mongo client, and so its connection pool, with the other services created for the
+   * same data source. The client is created with the config of the first of these services, and closed when the last
+   * of them is stopped.
+   *
+   * @param vertx  the Vert.x instance
+   * @param config  the config
+   * @param dataSourceName  the name of the data source
+   * @return the service
+   */
+  static LocalMongoService createShared(Vertx vertx, JsonObject config, String dataSourceName) {
+    return new MongoServiceImpl(vertx, config, dataSourceName);
+  }
+
+  /**
+   * Like {@link #createShared(io.vertx.core.Vertx, JsonObject, String)} but with the default data source name
+   *
+   * @param vertx  the Vert.x instance
+   * @param config  the config
+   * @return the service
+   */
+  static LocalMongoService createShared(Vertx vertx, JsonObject config) {
+    return new MongoServiceImpl(vertx, config, MongoServiceImpl.DEFAULT_DATA_SOURCE_NAME);
+  }
+
+  /**
+   * Find matching documents in the specified collection, as a stream.
+   * <p>
+   * Documents are fetched from the server one batch at a time, as the stream is read. Pausing the stream stops
+   * further batches from being fetched until it is resumed.
+   *
+   * @param collection  the collection
+   * @param query  query used to match documents
+   * @return a stream of the matching documents
+   */
+  ReadStream<JsonObject> findStream(String collection, JsonObject query);
+
+  /**
+   * Find matching documents in the specified collection, specifying options, as a stream.
+   * <p>
+   * Use {@link FindOptions#setBatchSize} to control how many documents are fetched from the server per batch.
+   *
+   * @param collection  the collection
+   * @param query  query used to match documents
+   * @param options options to configure the find
+   * @return a stream of the matching documents
+   */
+  ReadStream<JsonObject> findWithOptionsStream(String collection, JsonObject query, FindOptions options);
+
+  /**
+   * Find matching documents in the specified collection, decoded as instances of a class.
+   * <p>
+   * Documents are decoded by the codec registered for the class with {@link #registerCodec}, or when there is none
+   * and the class is a data object class, through a json object passed to its constructor.
+   *
+   * @param collection  the collection
+   * @param query  query used to match documents
+   * @param type  the class of the results
+   * @param resultHandler  will be provided with list of results
+   * @return a reference to this, so the API can be used fluently
+   */
+  default <T> LocalMongoService find(String collection, JsonObject query, Class<T> type, Handler<AsyncResult<List<T>>> resultHandler) {
+    return findWithOptions(collection, query, new FindOptions(), type, resultHandler);
+  }
+
+  /**
+   * Find matching documents in the specified collection, specifying options, decoded as instances of a class.
+   * <p>
+   * The {@code lazyDecoding} and {@code primitiveArrays} options only apply to json objects, they are ignored.
+   *
+   * @param collection  the collection
+   * @param query  query used to match documents
+   * @param options options to configure the find
+   * @param type  the class of the results
+   * @param resultHandler  will be provided with list of results
+   * @return a reference to this, so the API can be used fluently
+   */
+  <T> LocalMongoService findWithOptions(String collection, JsonObject query, FindOptions options, Class<T> type,
+                                        Handler<AsyncResult<List<T>>> resultHandler);
+
+  /**
+   * Find a single matching document in the specified collection, decoded as an instance of a class.
+   *
+   * @param collection  the collection
+   * @param query  the query used to match the document
+   * @param fields  the fields
+   * @param type  the class of the result
+   * @param resultHandler will be provided with the result, if any
+   * @return a reference to this, so the API can be used fluently
+   */
+  <T> LocalMongoService findOne(String collection, JsonObject query, JsonObject fields, Class<T> type,
+                                Handler<AsyncResult<T>> resultHandler);
+
+  /**
+   * Register the codec used to decode documents as instances of its encoder class, see
+   * {@link #find(String, JsonObject, Class, Handler)}. A codec registered for a data object class replaces the
+   * conversion through a json object.
+   *
+   * @param codec  the codec
+   * @return a reference to this, so the API can be used fluently
+   */
+  LocalMongoService registerCodec(Codec<?> codec);
+}
@@ -1,6 +1,7 @@
 package io.vertx.ext.mongo;
 
 import io.vertx.codegen.annotations.Fluent;
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.annotations.ProxyGen;
 import io.vertx.codegen.annotations.ProxyIgnore;
 import io.vertx.codegen.annotations.VertxGen;
@@ -9,6 +10,8 @@ import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.mongo.impl.MongoServiceImpl;
+import io.vertx.ext.mongo.impl.ProxyEventBus;
+import io.vertx.ext.mongo.impl.codec.BsonMessageCodec;
 import io.vertx.serviceproxy.ProxyHelper;
 
 import java.util.List;
@@ -33,6 +36,31 @@ public interface MongoService {
     return new MongoServiceImpl(vertx, config);
   }
 
+  /**
+   * Create a service sharing its mongo client, and so its connection pool, with the other services created for the
+   * same data source. The client is created with the config of the first of these services, and closed when the last
+   * of them is stopped.
+   *
+   * @param vertx  the Vert.x instance
+   * @param config  the config
+   * @param dataSourceName  the name of the data source
+   * @return the service
+   */
+  static MongoService createShared(Vertx vertx, JsonObject config, String dataSourceName) {
+    return new MongoServiceImpl(vertx, config, dataSourceName);
+  }
+
+  /**
+   * Like {@link #createShared(io.vertx.core.Vertx, JsonObject, String)} but with the default data source name
+   *
+   * @param vertx  the Vert.x instance
+   * @param config  the config
+   * @return the service
+   */
+  static MongoService createShared(Vertx vertx, JsonObject config) {
+    return new MongoServiceImpl(vertx, config, MongoServiceImpl.DEFAULT_DATA_SOURCE_NAME);
+  }
+
   /**
    * Create a proxy to a service that is deployed somewhere on the event bus
    *
@@ -41,9 +69,40 @@ public interface MongoService {
    * @return the service
    */
   static MongoService createEventBusProxy(Vertx vertx, String address) {
+    // So that replies sent as BSON can be decoded
+    BsonMessageCodec.register(vertx);
     return ProxyHelper.createProxy(MongoService.class, vertx, address);
   }
 
+  /**
+   * Create a proxy to a service that is deployed somewhere on the event bus, converting the {@code byte[]} and
+   * {@link io.vertx.core.buffer.Buffer} values of its requests to the extended json form of binary data before they
+   * are sent as json text, so that they are stored as binary data rather than as base64 strings.
+   *
+   * @param vertx  the Vert.x instance
+   * @param address  the address the service is listening on on the event bus
+   * @return the service
+   */
+  @GenIgnore
+  static MongoService createExtendedJsonEventBusProxy(Vertx vertx, String address) {
+    BsonMessageCodec.register(vertx);
+    return ProxyHelper.createProxy(MongoService.class, ProxyEventBus.withExtendedJsonBinary(vertx), address);
+  }
+
+  /**
+   * Create a proxy to a service that is deployed somewhere on the event bus, sending its requests as BSON rather than
+   * as json text. The service verticle must be deployed with {@code bsonCodec} set, so that it replies as BSON too.
+   *
+   * @param vertx  the Vert.x instance
+   * @param address  the address the service is listening on on the event bus
+   * @return the service
+   */
+  @GenIgnore
+  static MongoService createBsonEventBusProxy(Vertx vertx, String address) {
+    BsonMessageCodec.register(vertx);
+    return ProxyHelper.createProxy(MongoService.class, ProxyEventBus.withBsonCodec(vertx), address);
+  }
+
   /**
    * Save a document in the specified collection
    *
@@ -86,6 +145,59 @@ public interface MongoService {
   @Fluent
   MongoService insertWithOptions(String collection, JsonObject document, WriteOption writeOption, Handler<AsyncResult<String>> resultHandler);
 
+  /**
+   * Insert a list of documents in the specified collection, using a single bulk write
+   *
+   * @param collection  the collection
+   * @param documents  the documents
+   * @param resultHandler  result handler will be provided with the ids of the documents as strings, in order
+   */
+  @Fluent
+  MongoService insertMany(String collection, List<JsonObject> documents, Handler<AsyncResult<List<String>>> resultHandler);
+
+  /**
+   * Insert a list of documents in the specified collection, using a single bulk write, specifying options
+   *
+   * @param collection  the collection
+   * @param documents  the documents
+   * @param options  options to configure the bulk write
+   * @param resultHandler  result handler will be provided with the ids of the documents as strings, in order
+   */
+  @Fluent
+  MongoService insertManyWithOptions(String collection, List<JsonObject> documents, BulkWriteOptions options, Handler<AsyncResult<List<String>>> resultHandler);
+
+  /**
+   * Execute a list of write operations against the specified collection, using a single bulk write.
+   * <p>
+   * Each operation is a json object with a {@code type} field, which is one of:
+   * <ul>
+   *   <li>{@code insert}: inserts {@code document}</li>
+   *   <li>{@code update}: updates the documents matching {@code filter} with the update operators in {@code document},
+   *   optionally with {@code upsert} and {@code multi}</li>
+   *   <li>{@code replace}: replaces the document matching {@code filter} with {@code document}, optionally with {@code upsert}</li>
+   *   <li>{@code delete}: deletes the documents matching {@code filter}, optionally with {@code multi}</li>
+   * </ul>
+   *
+   * @param collection  the collection
+   * @param operations  the write operations
+   * @param resultHandler  will be provided with the {@code insertedCount}, {@code matchedCount}, {@code modifiedCount},
+   *                       {@code deletedCount} and {@code upserts} of the bulk write
+   */
+  @Fluent
+  MongoService bulkWrite(String collection, List<JsonObject> operations, Handler<AsyncResult<JsonObject>> resultHandler);
+
+  /**
+   * Execute a list of write operations against the specified collection, using a single bulk write, specifying options
+   *
+   * @param collection  the collection
+   * @param operations  the write operations, see {@link #bulkWrite}
+   * @param options  options to configure the bulk write
+   * @param resultHandler  will be provided with the {@code insertedCount}, {@code matchedCount}, {@code modifiedCount},
+   *                       {@code deletedCount} and {@code upserts} of the bulk write
+   */
+  @Fluent
+  MongoService bulkWriteWithOptions(String collection, List<JsonObject> operations, BulkWriteOptions options, Handler<AsyncResult<JsonObject>> resultHandler);
+
   /**
    * Update matching documents in the specified collection
    *
@@ -153,6 +265,57 @@ public interface MongoService {
   @Fluent
   MongoService findWithOptions(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<List<JsonObject>>> resultHandler);
 
+  /**
+   * Find a page of matching documents in the specified collection. The page is returned as a json object holding the
+   * documents under {@code results}, and under {@code token} the continuation token to set in the options to get the
+   * next page, which is absent on the last page.
+   * <p>
+   * Unlike {@link FindOptions#setSkip}, each page is found by seeking past the last document of the previous page,
+   * so the cost of a page does not depend on how deep it is. As the seek is a range filter on {@code _id}, with the
+   * {@code useObjectId} option documents still stored with string ids are skipped by the pages following the first.
+   *
+   * @param collection  the collection
+   * @param query  query used to match documents
+   * @param options options to configure the page
+   * @param resultHandler  will be provided with the page
+   */
+  @Fluent
+  MongoService findPage(String collection, JsonObject query, PageOptions options, Handler<AsyncResult<JsonObject>> resultHandler);
+
+  /**
+   * Open a cursor over the matching documents in the specified collection. The documents are then fetched a few at a
+   * time with {@link #fetch}, so that large results are not sent as a single reply.
+   * <p>
+   * A cursor is released by {@link #closeCursor}, or by the service once no fetch happened on it for the idle timeout.
+   *
+   * @param collection  the collection
+   * @param query  query used to match documents
+   * @param options options to configure the find
+   * @param resultHandler  will be provided with the id of the cursor
+   */
+  @Fluent
+  MongoService openCursor(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<String>> resultHandler);
+
+  /**
+   * Fetch the next documents of a cursor opened with {@link #openCursor}.
+   *
+   * @param cursorId  the id of the cursor
+   * @param count  the maximum number of documents to fetch
+   * @param resultHandler  will be provided with the documents, fewer than {@code count} only when the cursor is
+   *                       exhausted, and none once it is exhausted
+   */
+  @Fluent
+  MongoService fetch(String cursorId, int count, Handler<AsyncResult<List<JsonObject>>> resultHandler);
+
+  /**
+   * Close a cursor opened with {@link #openCursor}, releasing its resources.
+   *
+   * @param cursorId  the id of the cursor
+   * @param resultHandler  will be called when complete
+   */
+  @Fluent
+  MongoService closeCursor(String cursorId, Handler<AsyncResult<Void>> resultHandler);
+
   /**
    * Find a single matching document in the specified collection
    *
@@ -164,6 +327,17 @@ public interface MongoService {
   @Fluent
   MongoService findOne(String collection, JsonObject query, JsonObject fields, Handler<AsyncResult<JsonObject>> resultHandler);
 
+  /**
+   * Find the documents with the specified ids in the specified collection, with a single query for all of them.
+   *
+   * @param collection  the collection
+   * @param ids  the ids of the documents
+   * @param fields  the fields
+   * @param resultHandler will be provided with the documents in the order of the ids, with null for the ids not found
+   */
+  @Fluent
+  MongoService findByIds(String collection, List<String> ids, JsonObject fields, Handler<AsyncResult<List<JsonObject>>> resultHandler);
+
   /**
    * Count matching documents in a collection.
    *
@@ -251,6 +425,59 @@ public interface MongoService {
   @Fluent
   MongoService runCommand(JsonObject command, Handler<AsyncResult<JsonObject>> resultHandler);
 
+  /**
+   * Run an arbitrary MongoDB command, decoding only the specified fields of the reply. The other fields are skipped
+   * without being decoded, which saves work when the reply holds large sub documents which are not needed.
+   *
+   * @param command  the command
+   * @param fields  the fields of the reply to decode, as an inclusion projection, e.g. {@code {"ok": 1, "cursor.firstBatch.name": 1}}
+   * @param resultHandler  will be called with the result.
+   */
+  @Fluent
+  MongoService runCommandWithFields(JsonObject command, JsonObject fields, Handler<AsyncResult<JsonObject>> resultHandler);
+
+  /**
+   * Prepare a find, so that it can be executed many times with different parameters. The query is a template in
+   * which values of the form {@code {"$param": "name"}} are replaced by the parameters of each execution. The
+   * constant parts of the query, the sort and the projection are encoded once.
+   *
+   * @param collection  the collection
+   * @param query  the query template
+   * @param options  the options of the find
+   * @param resultHandler  will be called with the id of the prepared query, which any instance of the service can
+   *                       execute
+   */
+  @Fluent
+  MongoService prepareQuery(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<String>> resultHandler);
+
+  /**
+   * Execute a prepared query.
+   *
+   * @param queryId  the id of the prepared query
+   * @param params  the values of the parameters by name
+   * @param resultHandler  will be called with the list of documents
+   */
+  @Fluent
+  MongoService findPrepared(String queryId, JsonObject params, Handler<AsyncResult<List<JsonObject>>> resultHandler);
+
+  /**
+   * Close a prepared query, releasing the compiled query kept by the service. The id stays valid: executing it again
+   * compiles the query again.
+   *
+   * @param queryId  the id of the prepared query
+   * @param resultHandler  will be called when complete
+   */
+  @Fluent
+  MongoService closePreparedQuery(String queryId, Handler<AsyncResult<Void>> resultHandler);
+
+  /**
+   * Get the metrics of the service, such as the write coalescing ratio when write coalescing is enabled.
+   *
+   * @param resultHandler  will be called with the metrics
+   */
+  @Fluent
+  MongoService getMetrics(Handler<AsyncResult<JsonObject>> resultHandler);
+
   /**
    * Start the service
    */
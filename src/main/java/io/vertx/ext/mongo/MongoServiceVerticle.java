@@ -1,7 +1,15 @@
 package io.vertx.ext.mongo;
 
 import io.vertx.core.AbstractVerticle;
-import io.vertx.serviceproxy.ProxyHelper;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.BsonReplyHandler;
+import io.vertx.ext.mongo.impl.CursorRouter;
+import io.vertx.ext.mongo.impl.JsonReplyHandler;
+import io.vertx.ext.mongo.impl.codec.BsonMessageCodec;
+
+import java.util.UUID;
 
 /**
  * A verticle which starts a MongoDB service and registers it to listen on the event bus.
@@ -15,15 +23,32 @@ public class MongoServiceVerticle extends AbstractVerticle {
   @Override
   public void start() throws Exception {
 
-    // Create the service object
-    service = MongoService.create(vertx, config());
+    // Create the service object, sharing the client of its data source with the other instances if configured so
+    if (config().getBoolean("shared", false)) {
+      String dataSourceName = config().getString("dataSourceName");
+      service = dataSourceName != null ? MongoService.createShared(vertx, config(), dataSourceName) : MongoService.createShared(vertx, config());
+    } else {
+      service = MongoService.create(vertx, config());
+    }
 
     // And register it on the event bus against the configured address
     String address = config().getString("address");
     if (address == null) {
       throw new IllegalStateException("address field must be specified in config for service verticle");
     }
-    ProxyHelper.registerService(MongoService.class, vertx, service, address);
+    // Requests sent as BSON can always be decoded, replies are sent as BSON when configured so, and otherwise as json
+    // text holding binary data in the extended json form
+    BsonMessageCodec.register(vertx);
+    // The requests on the cursors of this instance are routed to it through an address of its own
+    String instanceAddress = address + "." + UUID.randomUUID();
+    Handler<Message<JsonObject>> handler = new CursorRouter(vertx, instanceAddress, new MongoServiceVertxProxyHandler(vertx, service, address));
+    if (config().getBoolean("bsonCodec", false)) {
+      handler = new BsonReplyHandler(handler);
+    } else {
+      handler = new JsonReplyHandler(handler);
+    }
+    vertx.eventBus().consumer(address, handler);
+    vertx.eventBus().consumer(instanceAddress, handler);
 
     // Start it
     service.start();
@@ -0,0 +1,183 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Options used to configure paged find operations, see {@link MongoService#findPage}.
+ * <p>
+ * Pages are sorted by the sort document followed by {@code _id}, and each page starts right after the last document of
+ * the previous page, found with the continuation token of that page.
+ */
+@DataObject
+public class PageOptions {
+
+  /**
+   * The default value of pageSize = 20
+   */
+  public static final int DEFAULT_PAGE_SIZE = 20;
+
+  private JsonObject fields;
+  private JsonObject sort;
+  private int pageSize;
+  private String token;
+
+  /**
+   * Default constructor
+   */
+  public PageOptions() {
+    this.pageSize = DEFAULT_PAGE_SIZE;
+  }
+
+  /**
+   * Copy constructor
+   *
+   * @param other  the one to copy
+   */
+  public PageOptions(PageOptions other) {
+    this.fields = other.fields;
+    this.sort = other.sort;
+    this.pageSize = other.pageSize;
+    this.token = other.token;
+  }
+
+  /**
+   * Constructor from JSON
+   *
+   * @param json  the JSON
+   */
+  public PageOptions(JsonObject json) {
+    this.fields = json.getJsonObject("fields");
+    this.sort = json.getJsonObject("sort");
+    this.pageSize = json.getInteger("pageSize", DEFAULT_PAGE_SIZE);
+    this.token = json.getString("token");
+  }
+
+  /**
+   * Convert to JSON
+   *
+   * @return  the JSON
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    if (fields != null) {
+      json.put("fields", fields);
+    }
+    if (sort != null) {
+      json.put("sort", sort);
+    }
+    if (pageSize != DEFAULT_PAGE_SIZE) {
+      json.put("pageSize", pageSize);
+    }
+    if (token != null) {
+      json.put("token", token);
+    }
+
+    return json;
+  }
+
+  /**
+   * Get the fields
+   *
+   * @return the fields
+   */
+  public JsonObject getFields() {
+    return fields;
+  }
+
+  /**
+   * Set the fields. The fields of the sort document are always returned, as they are needed to find the next page.
+   *
+   * @param fields  the fields
+   * @return reference to this, for fluency
+   */
+  public PageOptions setFields(JsonObject fields) {
+    this.fields = fields;
+    return this;
+  }
+
+  /**
+   * Get the sort document
+   *
+   * @return  the sort document
+   */
+  public JsonObject getSort() {
+    return sort;
+  }
+
+  /**
+   * Set the sort document. The documents are also sorted by {@code _id}, so that the order is total.
+   *
+   * @param sort  the sort document
+   * @return reference to this, for fluency
+   */
+  public PageOptions setSort(JsonObject sort) {
+    this.sort = sort;
+    return this;
+  }
+
+  /**
+   * Get the page size. This determines the max number of documents of a page.
+   *
+   * @return  the page size
+   */
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * Set the page size
+   *
+   * @param pageSize  the page size
+   * @return reference to this, for fluency
+   */
+  public PageOptions setPageSize(int pageSize) {
+    this.pageSize = pageSize;
+    return this;
+  }
+
+  /**
+   * Get the continuation token
+   *
+   * @return  the token, or null for the first page
+   */
+  public String getToken() {
+    return token;
+  }
+
+  /**
+   * Set the continuation token returned with the previous page, to get the page following it. The query and sort
+   * must be the same as for the previous page.
+   *
+   * @param token  the token, or null for the first page
+   * @return reference to this, for fluency
+   */
+  public PageOptions setToken(String token) {
+    this.token = token;
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    PageOptions options = (PageOptions) o;
+
+    if (pageSize != options.pageSize) return false;
+    if (fields != null ? !fields.equals(options.fields) : options.fields != null) return false;
+    if (sort != null ? !sort.equals(options.sort) : options.sort != null) return false;
+    if (token != null ? !token.equals(options.token) : options.token != null) return false;
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = fields != null ? fields.hashCode() : 0;
+    result = 31 * result + (sort != null ? sort.hashCode() : 0);
+    result = 31 * result + pageSize;
+    result = 31 * result + (token != null ? token.hashCode() : 0);
+    return result;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2011-2014 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.mongo.impl.codec.json.DoubleArrayList;
+import io.vertx.ext.mongo.impl.codec.json.IntArrayList;
+import io.vertx.ext.mongo.impl.codec.json.LongArrayList;
+
+import java.util.List;
+
+/**
+ * Json arrays backed by primitive arrays, so that large arrays of numbers are stored and written without boxing.
+ * <p>
+ * Such arrays are returned by finds with {@link FindOptions#setPrimitiveArrays(boolean)} enabled, and can be created
+ * with the {@code of} methods to be stored. Setting a value of the same type keeps it in the primitive array, while
+ * any other change, such as adding or removing a value, turns the json array into a regular array of boxed values.
+ */
+public final class PrimitiveArrays {
+
+  private PrimitiveArrays() {
+  }
+
+  /**
+   * @param values  the values, not copied
+   * @return a json array backed by the values
+   */
+  public static JsonArray of(double[] values) {
+    return new JsonArray(new DoubleArrayList(values));
+  }
+
+  /**
+   * @param values  the values, not copied
+   * @return a json array backed by the values
+   */
+  public static JsonArray of(long[] values) {
+    return new JsonArray(new LongArrayList(values));
+  }
+
+  /**
+   * @param values  the values, not copied
+   * @return a json array backed by the values
+   */
+  public static JsonArray of(int[] values) {
+    return new JsonArray(new IntArrayList(values));
+  }
+
+  /**
+   * @param array  a json array of numbers
+   * @return the backing array when the json array is still backed by a {@code double[]}, otherwise a new array of its values
+   */
+  public static double[] doubles(JsonArray array) {
+    List<?> list = array.getList();
+    if (list instanceof DoubleArrayList && ((DoubleArrayList) list).array() != null) {
+      return ((DoubleArrayList) list).array();
+    }
+    double[] values = new double[list.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = ((Number) list.get(i)).doubleValue();
+    }
+    return values;
+  }
+
+  /**
+   * @param array  a json array of numbers
+   * @return the backing array when the json array is still backed by a {@code long[]}, otherwise a new array of its values
+   */
+  public static long[] longs(JsonArray array) {
+    List<?> list = array.getList();
+    if (list instanceof LongArrayList && ((LongArrayList) list).array() != null) {
+      return ((LongArrayList) list).array();
+    }
+    long[] values = new long[list.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = ((Number) list.get(i)).longValue();
+    }
+    return values;
+  }
+
+  /**
+   * @param array  a json array of numbers
+   * @return the backing array when the json array is still backed by an {@code int[]}, otherwise a new array of its values
+   */
+  public static int[] ints(JsonArray array) {
+    List<?> list = array.getList();
+    if (list instanceof IntArrayList && ((IntArrayList) list).array() != null) {
+      return ((IntArrayList) list).array();
+    }
+    int[] values = new int[list.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = ((Number) list.get(i)).intValue();
+    }
+    return values;
+  }
+}
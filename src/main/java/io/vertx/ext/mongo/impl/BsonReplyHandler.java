@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.BsonMessageCodec;
+
+/**
+ * Handles the messages sent to the service with the generated proxy handler, sending the json replies it makes with the
+ * {@link BsonMessageCodec}.
+ */
+public class BsonReplyHandler extends ProxyReplyHandler {
+
+  public BsonReplyHandler(Handler<Message<JsonObject>> handler) {
+    super(handler);
+  }
+
+  @Override
+  protected DeliveryOptions options(Object reply, DeliveryOptions options) {
+    if (options == null) {
+      return isJson(reply) ? new DeliveryOptions().setCodecName(BsonMessageCodec.NAME) : null;
+    }
+    return withCodec(reply, options);
+  }
+
+  private static boolean isJson(Object reply) {
+    return reply instanceof JsonObject || reply instanceof JsonArray;
+  }
+
+  static DeliveryOptions withCodec(Object reply, DeliveryOptions options) {
+    if (isJson(reply) && options.getCodecName() == null) {
+      return new DeliveryOptions(options).setCodecName(BsonMessageCodec.NAME);
+    }
+    return options;
+  }
+}
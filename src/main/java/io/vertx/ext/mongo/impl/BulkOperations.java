@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts the JSON representation of bulk write operations into driver write models, and driver bulk write results
+ * back into JSON.
+ */
+class BulkOperations {
+
+  static final String TYPE = "type";
+  static final String FILTER = "filter";
+  static final String DOCUMENT = "document";
+  static final String UPSERT = "upsert";
+  static final String MULTI = "multi";
+
+  static final String TYPE_INSERT = "insert";
+  static final String TYPE_UPDATE = "update";
+  static final String TYPE_REPLACE = "replace";
+  static final String TYPE_DELETE = "delete";
+
+  private BulkOperations() {
+  }
+
+  static List<WriteModel<JsonObject>> toWriteModels(List<JsonObject> operations) {
+    List<WriteModel<JsonObject>> models = new ArrayList<>(operations.size());
+    for (JsonObject operation : operations) {
+      models.add(toWriteModel(operation));
+    }
+    return models;
+  }
+
+  static WriteModel<JsonObject> toWriteModel(JsonObject operation) {
+    String type = operation.getString(TYPE);
+    if (type == null) {
+      throw new IllegalArgumentException("Bulk operation has no type: " + operation.encode());
+    }
+    switch (type) {
+      case TYPE_INSERT:
+        return new InsertOneModel<>(requireField(operation, DOCUMENT));
+      case TYPE_UPDATE: {
+        UpdateOptions options = new UpdateOptions().upsert(operation.getBoolean(UPSERT, false));
+        JsonObjectBsonAdapter filter = new JsonObjectBsonAdapter(requireField(operation, FILTER), !options.isUpsert());
+        JsonObjectBsonAdapter update = new JsonObjectBsonAdapter(requireField(operation, DOCUMENT));
+        if (operation.getBoolean(MULTI, false)) {
+          return new UpdateManyModel<>(filter, update, options);
+        } else {
+          return new UpdateOneModel<>(filter, update, options);
+        }
+      }
+      case TYPE_REPLACE: {
+        UpdateOptions options = new UpdateOptions().upsert(operation.getBoolean(UPSERT, false));
+        JsonObjectBsonAdapter filter = new JsonObjectBsonAdapter(requireField(operation, FILTER), !options.isUpsert());
+        return new ReplaceOneModel<>(filter, requireField(operation, DOCUMENT), options);
+      }
+      case TYPE_DELETE: {
+        JsonObjectBsonAdapter filter = new JsonObjectBsonAdapter(requireField(operation, FILTER), true);
+        if (operation.getBoolean(MULTI, false)) {
+          return new DeleteManyModel<>(filter);
+        } else {
+          return new DeleteOneModel<>(filter);
+        }
+      }
+      default:
+        throw new IllegalArgumentException("Unknown bulk operation type " + type);
+    }
+  }
+
+  static JsonObject toJson(BulkWriteResult result) {
+    JsonObject json = new JsonObject();
+    if (!result.wasAcknowledged()) {
+      return json;
+    }
+    json.put("insertedCount", result.getInsertedCount());
+    json.put("matchedCount", result.getMatchedCount());
+    if (result.isModifiedCountAvailable()) {
+      json.put("modifiedCount", result.getModifiedCount());
+    }
+    json.put("deletedCount", result.getDeletedCount());
+    JsonArray upserts = new JsonArray();
+    for (BulkWriteUpsert upsert : result.getUpserts()) {
+      upserts.add(new JsonObject().put("index", upsert.getIndex()).put("_id", toId(upsert.getId())));
+    }
+    json.put("upserts", upserts);
+    return json;
+  }
+
+  static Object toId(BsonValue id) {
+    if (id == null) {
+      return null;
+    } else if (id.isString()) {
+      return id.asString().getValue();
+    } else if (id.isObjectId()) {
+      return id.asObjectId().getValue().toHexString();
+    } else if (id.isInt32()) {
+      return id.asInt32().getValue();
+    } else if (id.isInt64()) {
+      return id.asInt64().getValue();
+    } else {
+      return id.toString();
+    }
+  }
+
+  private static JsonObject requireField(JsonObject operation, String field) {
+    JsonObject value = operation.getJsonObject(field);
+    if (value == null) {
+      throw new IllegalArgumentException("Bulk operation of type " + operation.getString(TYPE) + " requires a " + field);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.WriteConcern;
+import com.mongodb.async.client.MongoCollection;
+import com.mongodb.async.client.MongoDatabase;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.WriteOption;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of {@link MongoCollection} handles, keyed by collection name and write option.
+ * <p>
+ * Collection handles are immutable and cheap to share, but creating them allocates and the write concern lookup
+ * goes through {@link WriteConcern#valueOf(String)}. The cache holds the handles of at most {@code maxSize}
+ * collections. Lookups don't lock: each collection records when it was last used, and once the limit is exceeded the
+ * collection used the longest time ago among a sample of the cached collections is evicted, which approximates a least
+ * recently used order. The samples are taken by sweeping over the cache, so that an eviction costs the same whatever
+ * the size of the cache, and all the collections are eventually sampled.
+ * <p>
+ * Each cached collection can be given its own codec registry, shared by all its handles, so that codecs can keep
+ * state about the documents of a single collection.
+ */
+class CollectionCache {
+
+  static final int DEFAULT_MAX_SIZE = 256;
+
+  private static final Map<WriteOption, WriteConcern> WRITE_CONCERNS = new EnumMap<>(WriteOption.class);
+  private static final int SLOTS = WriteOption.values().length + 1;
+  private static final int EVICTION_SAMPLE_SIZE = 8;
+
+  static {
+    for (WriteOption writeOption : WriteOption.values()) {
+      WRITE_CONCERNS.put(writeOption, WriteConcern.valueOf(writeOption.name()));
+    }
+  }
+
+  private final MongoDatabase db;
+  private final int maxSize;
+  private final Supplier<CodecRegistry> codecRegistries;
+  private final ConcurrentHashMap<String, Handles> cache = new ConcurrentHashMap<>();
+  // Where the next eviction sample starts, only used by evictions
+  private Iterator<Map.Entry<String, Handles>> sweep;
+
+  CollectionCache(MongoDatabase db, int maxSize) {
+    this(db, maxSize, null);
+  }
+
+  /**
+   * @param db  the database
+   * @param maxSize  the maximum number of cached collections, the cache is disabled when it is not positive
+   * @param codecRegistries  creates the codec registry of each cached collection, or null to use the registry of the
+   *                         database. Collections only get a registry of their own while the cache is enabled.
+   */
+  CollectionCache(MongoDatabase db, int maxSize, Supplier<CodecRegistry> codecRegistries) {
+    this.db = db;
+    this.maxSize = maxSize;
+    this.codecRegistries = codecRegistries;
+  }
+
+  static WriteConcern writeConcern(WriteOption writeOption) {
+    return WRITE_CONCERNS.get(writeOption);
+  }
+
+  /**
+   * @param name  the collection name
+   * @param writeOption  the write option, or null for the database default
+   * @return the collection handle
+   */
+  MongoCollection<JsonObject> get(String name, WriteOption writeOption) {
+    if (maxSize <= 0) {
+      return create(name, writeOption, null);
+    }
+    Handles handles = cache.get(name);
+    if (handles == null) {
+      handles = cache.computeIfAbsent(name, n -> new Handles());
+      if (cache.size() > maxSize) {
+        evict();
+      }
+    } else {
+      handles.lastUsed = System.nanoTime();
+    }
+    return handles.get(name, writeOption);
+  }
+
+  int size() {
+    return cache.size();
+  }
+
+  void clear() {
+    cache.clear();
+  }
+
+  /**
+   * Evict the collections used the longest time ago in samples of the cache until the cache is within its limit.
+   * Evictions are serialized, so that racing lookups of new collections don't evict more collections than needed, and
+   * each one only looks at a few collections.
+   */
+  private synchronized void evict() {
+    while (cache.size() > maxSize) {
+      Map.Entry<String, Handles> eldest = null;
+      int sampleSize = Math.min(EVICTION_SAMPLE_SIZE, cache.size());
+      for (int i = 0; i < sampleSize; i++) {
+        if (sweep == null || !sweep.hasNext()) {
+          sweep = cache.entrySet().iterator();
+          if (!sweep.hasNext()) {
+            return;
+          }
+        }
+        Map.Entry<String, Handles> entry = sweep.next();
+        if (eldest == null || entry.getValue().lastUsed - eldest.getValue().lastUsed < 0) {
+          eldest = entry;
+        }
+      }
+      cache.remove(eldest.getKey(), eldest.getValue());
+    }
+  }
+
+  private MongoCollection<JsonObject> create(String name, WriteOption writeOption, CodecRegistry codecRegistry) {
+    MongoCollection<JsonObject> coll = db.getCollection(name, JsonObject.class);
+    if (codecRegistry != null) {
+      coll = coll.withCodecRegistry(codecRegistry);
+    }
+    if (writeOption != null) {
+      coll = coll.withWriteConcern(writeConcern(writeOption));
+    }
+    return coll;
+  }
+
+  /**
+   * The handles of a single collection, held in an array indexed by write option.
+   */
+  private final class Handles {
+
+    private final AtomicReferenceArray<MongoCollection<JsonObject>> slots = new AtomicReferenceArray<>(SLOTS);
+    private final CodecRegistry codecRegistry = codecRegistries != null ? codecRegistries.get() : null;
+    // Written without synchronization, a stale value only makes the eviction order less exact
+    private volatile long lastUsed = System.nanoTime();
+
+    MongoCollection<JsonObject> get(String name, WriteOption writeOption) {
+      int slot = writeOption == null ? 0 : writeOption.ordinal() + 1;
+      MongoCollection<JsonObject> coll = slots.get(slot);
+      if (coll == null) {
+        // Racing threads may both create a handle, which is harmless as handles are equivalent
+        coll = create(name, writeOption, codecRegistry);
+        slots.lazySet(slot, coll);
+      }
+      return coll;
+    }
+  }
+}
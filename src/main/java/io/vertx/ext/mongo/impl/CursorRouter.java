@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Handles the messages sent to one instance of the service verticle, so that the cursors it opens are fetched and
+ * closed by it, whichever instance behind the service address the requests reach.
+ * <p>
+ * Each instance also takes the requests sent to an address of its own. The ids of the cursors it opens are prefixed
+ * with that address, and the fetch or close of a cursor of another instance is forwarded to the address of that
+ * instance, whose reply or failure is relayed back.
+ */
+public class CursorRouter extends ProxyReplyHandler {
+
+  private static final String ACTION = "action";
+  private static final String OPEN_CURSOR = "openCursor";
+  private static final String FETCH = "fetch";
+  private static final String CLOSE_CURSOR = "closeCursor";
+  private static final String CURSOR_ID = "cursorId";
+  // Cursor ids of the service are uuids, so the last separator ends the address
+  private static final char SEPARATOR = '/';
+
+  private final Vertx vertx;
+  private final String address;
+
+  /**
+   * @param vertx  the Vert.x instance
+   * @param address  the address of this instance, on which it takes the same requests as on the service address
+   * @param handler  the handler of the requests
+   */
+  public CursorRouter(Vertx vertx, String address, Handler<Message<JsonObject>> handler) {
+    super(handler);
+    this.vertx = vertx;
+    this.address = address;
+  }
+
+  @Override
+  public void handle(Message<JsonObject> msg) {
+    String cursorId = cursorId(msg);
+    String owner = cursorId != null ? owner(cursorId) : null;
+    if (owner != null && !owner.equals(address)) {
+      forward(owner, cursorId, msg);
+    } else {
+      super.handle(msg);
+    }
+  }
+
+  @Override
+  protected JsonObject body(Message<JsonObject> request) {
+    String cursorId = cursorId(request);
+    if (cursorId == null || owner(cursorId) == null) {
+      return request.body();
+    }
+    return request.body().copy().put(CURSOR_ID, cursorId.substring(cursorId.lastIndexOf(SEPARATOR) + 1));
+  }
+
+  @Override
+  protected Object reply(Message<JsonObject> request, Object reply) {
+    if (OPEN_CURSOR.equals(request.headers().get(ACTION)) && reply instanceof String) {
+      return address + SEPARATOR + reply;
+    }
+    return reply;
+  }
+
+  private void forward(String owner, String cursorId, Message<JsonObject> msg) {
+    DeliveryOptions options = new DeliveryOptions().setHeaders(msg.headers());
+    vertx.eventBus().send(owner, msg.body(), options, ar -> {
+      if (ar.succeeded()) {
+        msg.reply(ar.result().body());
+      } else if (ar.cause() instanceof ReplyException
+        && ((ReplyException) ar.cause()).failureType() == ReplyFailure.RECIPIENT_FAILURE) {
+        ReplyException failure = (ReplyException) ar.cause();
+        msg.fail(failure.failureCode(), failure.getMessage());
+      } else {
+        // The instance which opened the cursor is gone, and its cursors with it
+        msg.fail(-1, "Unknown cursor " + cursorId);
+      }
+    });
+  }
+
+  /**
+   * @return the id of the cursor the request fetches or closes, or null for other requests
+   */
+  private static String cursorId(Message<JsonObject> msg) {
+    String action = msg.headers().get(ACTION);
+    if (FETCH.equals(action) || CLOSE_CURSOR.equals(action)) {
+      Object cursorId = msg.body().getValue(CURSOR_ID);
+      return cursorId instanceof String ? (String) cursorId : null;
+    }
+    return null;
+  }
+
+  /**
+   * @return the address of the instance which opened the cursor, or null if the id holds none
+   */
+  private static String owner(String cursorId) {
+    int separator = cursorId.lastIndexOf(SEPARATOR);
+    return separator > 0 ? cursorId.substring(0, separator) : null;
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.AsyncBatchCursor;
+import com.mongodb.async.SingleResultCallback;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A server side cursor opened by {@link io.vertx.ext.mongo.MongoService#openCursor}, from which a client fetches the
+ * results a few documents at a time.
+ * <p>
+ * The documents of a driver batch which were not fetched yet are kept for the next fetch. Once the cursor is
+ * exhausted its driver resources are released, and each fetch returns an empty list until the session is closed.
+ * Only one fetch can be in progress at a time.
+ */
+class CursorSession {
+
+  private final AsyncBatchCursor<JsonObject> cursor;
+  private final Deque<JsonObject> pending = new ArrayDeque<>();
+
+  private boolean fetching;
+  private boolean exhausted;
+  private boolean closed;
+  private long lastAccess;
+
+  CursorSession(AsyncBatchCursor<JsonObject> cursor) {
+    this.cursor = cursor;
+    this.lastAccess = System.currentTimeMillis();
+  }
+
+  /**
+   * Fetch the next documents of the cursor.
+   *
+   * @param count  the maximum number of documents to fetch
+   * @param callback  called with the documents, fewer than {@code count} only when the cursor is exhausted
+   */
+  synchronized void fetch(int count, SingleResultCallback<List<JsonObject>> callback) {
+    if (closed) {
+      callback.onResult(null, new IllegalStateException("The cursor is closed"));
+      return;
+    }
+    if (fetching) {
+      callback.onResult(null, new IllegalStateException("A fetch is already in progress on the cursor"));
+      return;
+    }
+    fetching = true;
+    fill(new ArrayList<>(Math.min(count, Math.max(pending.size(), 16))), count, callback);
+  }
+
+  /**
+   * @param now  the current time in milliseconds
+   * @param timeoutMS  the idle timeout in milliseconds
+   * @return whether no fetch happened on the cursor for the timeout
+   */
+  synchronized boolean isIdle(long now, long timeoutMS) {
+    return !fetching && now - lastAccess >= timeoutMS;
+  }
+
+  synchronized void close() {
+    if (!closed) {
+      closed = true;
+      pending.clear();
+      cursor.close();
+    }
+  }
+
+  private synchronized void fill(List<JsonObject> documents, int count, SingleResultCallback<List<JsonObject>> callback) {
+    while (documents.size() < count && !pending.isEmpty()) {
+      documents.add(pending.poll());
+    }
+    if (documents.size() == count || exhausted || closed) {
+      complete(documents, null, callback);
+      return;
+    }
+    cursor.next((batch, error) -> handleBatch(documents, count, callback, batch, error));
+  }
+
+  private synchronized void handleBatch(List<JsonObject> documents, int count, SingleResultCallback<List<JsonObject>> callback,
+                                        List<JsonObject> batch, Throwable error) {
+    if (error != null) {
+      complete(null, error, callback);
+      return;
+    }
+    if (batch != null) {
+      pending.addAll(batch);
+    }
+    if (batch == null || cursor.isClosed()) {
+      exhausted = true;
+      cursor.close();
+    }
+    fill(documents, count, callback);
+  }
+
+  private void complete(List<JsonObject> documents, Throwable error, SingleResultCallback<List<JsonObject>> callback) {
+    fetching = false;
+    lastAccess = System.currentTimeMillis();
+    callback.onResult(documents, error);
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.client.MongoClient;
+import com.mongodb.async.client.MongoClientOptions;
+import com.mongodb.async.client.MongoClients;
+import com.mongodb.connection.Cluster;
+import com.mongodb.connection.DefaultClusterFactory;
+import com.mongodb.connection.StreamFactory;
+import com.mongodb.connection.netty.NettyStreamFactory;
+import com.mongodb.management.JMXConnectionPoolListener;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.EventLoopGroup;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.impl.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Creates mongo clients doing their I/O on the Netty event loops of Vert.x, with its pooled buffer allocator, rather
+ * than on threads of their own.
+ * <p>
+ * This is a best effort hack. The driver has no public way of creating a client with a given stream factory, its
+ * {@code MongoClientSettings} only get a {@code streamFactoryFactory} in later versions, so the client is created the
+ * way {@link MongoClients#create} does, through the private constructor of the driver's client class, but with Netty
+ * stream factories on the event loop group of Vert.x. If the driver in use doesn't allow it, a warning is logged and
+ * the client is created by the driver with its own threads.
+ */
+class EventLoopMongoClients {
+
+  private static final Logger log = LoggerFactory.getLogger(EventLoopMongoClients.class);
+
+  private static final String CLIENT_CLASS = "com.mongodb.async.client.MongoClientImpl";
+
+  static MongoClient create(Vertx vertx, MongoClientOptions options) {
+    EventLoopGroup eventLoopGroup = ((VertxInternal) vertx).getEventLoopGroup();
+    StreamFactory streamFactory = new NettyStreamFactory(options.getSocketSettings(), options.getSslSettings(),
+      eventLoopGroup, PooledByteBufAllocator.DEFAULT);
+    StreamFactory heartbeatStreamFactory = new NettyStreamFactory(options.getHeartbeatSocketSettings(),
+      options.getSslSettings(), eventLoopGroup, PooledByteBufAllocator.DEFAULT);
+    Constructor<?> constructor;
+    try {
+      constructor = Class.forName(CLIENT_CLASS).getDeclaredConstructor(MongoClientOptions.class, Cluster.class);
+      constructor.setAccessible(true);
+    } catch (ReflectiveOperationException | SecurityException e) {
+      return fallback(options, e);
+    }
+    Cluster cluster;
+    try {
+      cluster = new DefaultClusterFactory().create(options.getClusterSettings(), options.getServerSettings(),
+        options.getConnectionPoolSettings(), streamFactory, heartbeatStreamFactory, options.getCredentialList(), null,
+        new JMXConnectionPoolListener(), null);
+    } catch (LinkageError e) {
+      // The internal cluster API of another driver version
+      return fallback(options, e);
+    }
+    try {
+      return (MongoClient) constructor.newInstance(options, cluster);
+    } catch (ReflectiveOperationException e) {
+      cluster.close();
+      return fallback(options, e);
+    }
+  }
+
+  private static MongoClient fallback(MongoClientOptions options, Throwable cause) {
+    log.warn("useVertxEventLoops is not supported by this driver version, the driver uses its own threads", cause);
+    return MongoClients.create(options);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.AsyncBatchCursor;
+import com.mongodb.async.client.MongoIterable;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.streams.ReadStream;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A {@link ReadStream} over the results of a find operation.
+ * <p>
+ * The driver cursor is only asked for its next batch once the previous batch has been fully delivered and the stream
+ * is not paused, so at most one batch of documents is held in memory at a time.
+ */
+public class FindReadStream implements ReadStream<JsonObject> {
+
+  private final Context context;
+  private final MongoIterable<JsonObject> iterable;
+  private final Deque<JsonObject> pending = new ArrayDeque<>();
+
+  private AsyncBatchCursor<JsonObject> cursor;
+  private Handler<JsonObject> dataHandler;
+  private Handler<Void> endHandler;
+  private Handler<Throwable> exceptionHandler;
+  private boolean paused;
+  private boolean fetching;
+  private boolean exhausted;
+  private boolean closed;
+
+  public FindReadStream(Context context, MongoIterable<JsonObject> iterable) {
+    this.context = context;
+    this.iterable = iterable;
+  }
+
+  @Override
+  public synchronized FindReadStream exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public synchronized FindReadStream handler(Handler<JsonObject> handler) {
+    this.dataHandler = handler;
+    if (handler != null) {
+      doRead();
+    } else {
+      close();
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized FindReadStream pause() {
+    paused = true;
+    return this;
+  }
+
+  @Override
+  public synchronized FindReadStream resume() {
+    if (paused) {
+      paused = false;
+      doRead();
+    }
+    return this;
+  }
+
+  @Override
+  public synchronized FindReadStream endHandler(Handler<Void> handler) {
+    this.endHandler = handler;
+    return this;
+  }
+
+  private synchronized void doRead() {
+    while (!paused && !closed && dataHandler != null && !pending.isEmpty()) {
+      dataHandler.handle(pending.poll());
+    }
+    if (paused || closed || dataHandler == null || fetching || !pending.isEmpty()) {
+      return;
+    }
+    if (exhausted) {
+      end();
+      return;
+    }
+    fetching = true;
+    if (cursor == null) {
+      iterable.batchCursor((result, error) -> context.runOnContext(v -> handleCursor(result, error)));
+    } else {
+      cursor.next((result, error) -> context.runOnContext(v -> handleBatch(result, error)));
+    }
+  }
+
+  private synchronized void handleCursor(AsyncBatchCursor<JsonObject> result, Throwable error) {
+    fetching = false;
+    if (error != null) {
+      handleException(error);
+    } else if (closed) {
+      result.close();
+    } else {
+      cursor = result;
+      doRead();
+    }
+  }
+
+  private synchronized void handleBatch(List<JsonObject> batch, Throwable error) {
+    fetching = false;
+    if (error != null) {
+      handleException(error);
+      return;
+    }
+    if (batch == null || cursor.isClosed()) {
+      exhausted = true;
+    }
+    if (batch != null) {
+      pending.addAll(batch);
+    }
+    doRead();
+  }
+
+  private void handleException(Throwable t) {
+    close();
+    if (exceptionHandler != null) {
+      exceptionHandler.handle(t);
+    }
+  }
+
+  private void end() {
+    close();
+    if (endHandler != null) {
+      endHandler.handle(null);
+    }
+  }
+
+  private void close() {
+    if (!closed) {
+      closed = true;
+      pending.clear();
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+  }
+}
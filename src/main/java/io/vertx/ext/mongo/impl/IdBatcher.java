@@ -0,0 +1,183 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.SingleResultCallback;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batches the lookups of single documents by id made on the same context during the same event loop tick, so that
+ * they are sent as a single query.
+ * <p>
+ * The lookups of a batch are sent once the task which made the first of them returns. Lookups of the same id share
+ * the document found, each of them receiving its own copy.
+ */
+class IdBatcher {
+
+  /**
+   * Finds the documents with the specified ids, in the order of the ids and with null for the ids not found
+   */
+  interface Lookup {
+    void find(String collection, List<String> ids, JsonObject fields, SingleResultCallback<List<JsonObject>> callback);
+  }
+
+  private final Lookup lookup;
+  private final Map<BatchKey, Batch> batches = new HashMap<>();
+
+  private final AtomicLong lookups = new AtomicLong();
+  private final AtomicLong sentBatches = new AtomicLong();
+
+  IdBatcher(Lookup lookup) {
+    this.lookup = lookup;
+  }
+
+  /**
+   * Add a lookup to the batch of the current context.
+   *
+   * @param collection  the collection
+   * @param id  the id of the document
+   * @param fields  the fields, can be null
+   * @param callback  called with the document, or null if not found
+   */
+  void find(String collection, String id, JsonObject fields, SingleResultCallback<JsonObject> callback) {
+    Context context = Vertx.currentContext();
+    if (context == null) {
+      // Outside of a context there is no tick to batch the lookup with
+      Batch batch = new Batch(new BatchKey(null, collection, fields));
+      batch.ids.add(id);
+      batch.callbacks.add(callback);
+      send(batch);
+      return;
+    }
+    BatchKey key = new BatchKey(context, collection, fields);
+    synchronized (this) {
+      Batch batch = batches.get(key);
+      if (batch == null) {
+        batch = new Batch(key.copy());
+        batches.put(batch.key, batch);
+        Batch scheduled = batch;
+        context.runOnContext(v -> flush(scheduled));
+      }
+      batch.ids.add(id);
+      batch.callbacks.add(callback);
+    }
+  }
+
+  JsonObject metrics() {
+    long l = lookups.get();
+    long b = sentBatches.get();
+    return new JsonObject()
+      .put("lookups", l)
+      .put("batches", b)
+      .put("ratio", b == 0 ? 0d : (double) l / b);
+  }
+
+  private void flush(Batch batch) {
+    synchronized (this) {
+      batches.remove(batch.key);
+    }
+    send(batch);
+  }
+
+  private void send(Batch batch) {
+    lookups.addAndGet(batch.ids.size());
+    sentBatches.incrementAndGet();
+    Map<String, Integer> indexes = new LinkedHashMap<>();
+    for (String id : batch.ids) {
+      indexes.putIfAbsent(id, indexes.size());
+    }
+    List<String> distinct = new ArrayList<>(indexes.keySet());
+    lookup.find(batch.key.collection, distinct, batch.key.fields, (docs, error) -> {
+      if (error != null) {
+        for (SingleResultCallback<JsonObject> callback : batch.callbacks) {
+          callback.onResult(null, error);
+        }
+        return;
+      }
+      // The copies for duplicate ids are all made before any requester gets a document it may modify
+      List<JsonObject> results = new ArrayList<>(batch.ids.size());
+      boolean[] used = new boolean[distinct.size()];
+      for (String id : batch.ids) {
+        int index = indexes.get(id);
+        JsonObject doc = docs.get(index);
+        results.add(doc != null && used[index] ? JsonObjectCodec.copy(doc) : doc);
+        used[index] = true;
+      }
+      for (int i = 0; i < results.size(); i++) {
+        batch.callbacks.get(i).onResult(results.get(i), null);
+      }
+    });
+  }
+
+  private static final class Batch {
+    final BatchKey key;
+    final List<String> ids = new ArrayList<>();
+    final List<SingleResultCallback<JsonObject>> callbacks = new ArrayList<>();
+
+    Batch(BatchKey key) {
+      this.key = key;
+    }
+  }
+
+  private static final class BatchKey {
+    final Context context;
+    final String collection;
+    final JsonObject fields;
+
+    BatchKey(Context context, String collection, JsonObject fields) {
+      this.context = context;
+      this.collection = collection;
+      this.fields = fields;
+    }
+
+    /**
+     * @return the key with a copy of the fields, so that the caller changing its fields while the batch is pending
+     * changes neither the key of the batch nor the fields it is sent with
+     */
+    BatchKey copy() {
+      return fields != null ? new BatchKey(context, collection, JsonObjectCodec.copy(fields)) : this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      BatchKey key = (BatchKey) o;
+      return context == key.context && collection.equals(key.collection) && Objects.equals(fields, key.fields);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = System.identityHashCode(context);
+      result = 31 * result + collection.hashCode();
+      result = 31 * result + (fields != null ? fields.hashCode() : 0);
+      return result;
+    }
+  }
+}
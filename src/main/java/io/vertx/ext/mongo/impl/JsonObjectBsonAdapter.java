@@ -17,8 +17,10 @@
 package io.vertx.ext.mongo.impl;
 
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
 import org.bson.BsonDocument;
 import org.bson.BsonDocumentWrapper;
+import org.bson.codecs.Codec;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.conversions.Bson;
 
@@ -28,12 +30,28 @@ import org.bson.conversions.Bson;
 public class JsonObjectBsonAdapter implements Bson {
 
   private final JsonObject obj;
+  private final boolean filter;
 
-  public JsonObjectBsonAdapter(JsonObject obj) { this.obj = obj;}
+  public JsonObjectBsonAdapter(JsonObject obj) {
+    this(obj, false);
+  }
+
+  /**
+   * @param obj  the json object
+   * @param filter  whether the json object is a query filter, which may be encoded differently
+   */
+  public JsonObjectBsonAdapter(JsonObject obj, boolean filter) {
+    this.obj = obj;
+    this.filter = filter;
+  }
 
   @Override
   public <C> BsonDocument toBsonDocument(Class<C> documentClass, CodecRegistry codecRegistry) {
-    return new BsonDocumentWrapper<>(obj, codecRegistry.get(JsonObject.class));
+    Codec<JsonObject> codec = codecRegistry.get(JsonObject.class);
+    if (filter && codec instanceof JsonObjectCodec) {
+      codec = ((JsonObjectCodec) codec).getFilterCodec();
+    }
+    return new BsonDocumentWrapper<>(obj, codec);
   }
 
 }
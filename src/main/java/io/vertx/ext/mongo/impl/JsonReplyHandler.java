@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+
+/**
+ * Handles the messages sent to the service with the generated proxy handler, converting the binary data of the json
+ * replies it makes to the extended json form, as they are sent as json text.
+ */
+public class JsonReplyHandler extends ProxyReplyHandler {
+
+  public JsonReplyHandler(Handler<Message<JsonObject>> handler) {
+    super(handler);
+  }
+
+  @Override
+  protected Object reply(Message<JsonObject> request, Object reply) {
+    return JsonObjectCodec.toExtendedJson(reply);
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.client.MongoClient;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * A mongo client shared by the services created for the same data source, registered in the shared data of Vert.x.
+ * The number of services using it is only accessed while synchronized on the Vert.x instance.
+ */
+class MongoHolder implements Shareable {
+
+  final MongoClient mongo;
+  int refCount = 1;
+
+  MongoHolder(MongoClient mongo) {
+    this.mongo = mongo;
+  }
+}
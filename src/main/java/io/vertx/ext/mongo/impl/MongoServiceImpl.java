@@ -1,67 +1,245 @@
 package io.vertx.ext.mongo.impl;
 
-import com.mongodb.WriteConcern;
+import com.mongodb.async.AsyncBatchCursor;
 import com.mongodb.async.SingleResultCallback;
 import com.mongodb.async.client.*;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxException;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.impl.LoggerFactory;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.BulkWriteOptions;
 import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.LocalMongoService;
 import io.vertx.ext.mongo.MongoService;
+import io.vertx.ext.mongo.PageOptions;
 import io.vertx.ext.mongo.UpdateOptions;
 import io.vertx.ext.mongo.WriteOption;
+import io.vertx.ext.mongo.impl.codec.AdaptiveJsonObjectCodec;
+import io.vertx.ext.mongo.impl.codec.VertxCodecRegistry;
+import io.vertx.ext.mongo.impl.codec.json.FieldNameCache;
+import io.vertx.ext.mongo.impl.codec.json.FieldProjection;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import io.vertx.ext.mongo.impl.codec.json.LazyJsonObjectCodec;
 import io.vertx.ext.mongo.impl.config.MongoClientOptionsParser;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.conversions.Bson;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
-public class MongoServiceImpl implements MongoService {
+public class MongoServiceImpl implements LocalMongoService {
 
   private static final Logger log = LoggerFactory.getLogger(MongoServiceImpl.class);
   private static final UpdateOptions DEFAULT_UPDATE_OPTIONS = new UpdateOptions();
   private static final FindOptions DEFAULT_FIND_OPTIONS = new FindOptions();
+  private static final BulkWriteOptions DEFAULT_BULK_WRITE_OPTIONS = new BulkWriteOptions();
   private static final String ID_FIELD = "_id";
+  private static final int DEFAULT_MAX_PREPARED_QUERIES = 1024;
+  private static final long DEFAULT_CURSOR_IDLE_TIMEOUT_MS = 10 * 60 * 1000;
+  private static final int DEFAULT_FIND_BY_IDS_CHUNK_SIZE = 1000;
+  private static final String DS_LOCAL_MAP_NAME = "__vertx.MongoService.datasources";
+
+  public static final String DEFAULT_DATA_SOURCE_NAME = "DEFAULT_DS";
 
   private final Vertx vertx;
   private final JsonObject config;
+  private final String dataSourceName;
 
   protected MongoClient mongo;
   protected MongoDatabase db;
+  private CollectionCache collections;
+  private WriteCoalescer writeCoalescer;
+  private FieldNameCache fieldNames;
+  private JsonObjectCodec codec;
+  private final Map<Class<?>, Codec<?>> codecs = new ConcurrentHashMap<>();
+  private VertxCodecRegistry codecRegistry;
+  private CodecRegistry lazyCodecRegistry;
+  private CodecRegistry primitiveArraysCodecRegistry;
+  // The compiled prepared queries by id, access ordered so that the least recently used one is evicted first
+  private final LinkedHashMap<String, PreparedQuery> preparedQueries = new LinkedHashMap<>(16, 0.75f, true);
+  private int maxPreparedQueries;
+  private final Map<String, CursorSession> cursors = new ConcurrentHashMap<>();
+  private long cursorIdleTimeoutMS;
+  private long cursorTimerId = -1;
+  private QueryCache queryCache;
+  private ReadCoalescer readCoalescer;
+  private int findByIdsChunkSize;
+  private IdBatcher idBatcher;
+  private boolean deliverResultsOnWorker;
 
   public MongoServiceImpl(Vertx vertx, JsonObject config) {
+    this(vertx, config, null);
+  }
+
+  /**
+   * @param dataSourceName  the name of the data source whose client is shared, or null for a client of its own
+   */
+  public MongoServiceImpl(Vertx vertx, JsonObject config, String dataSourceName) {
     this.vertx = vertx;
     this.config = config;
+    this.dataSourceName = dataSourceName;
   }
 
   public void start() {
-    MongoClientOptionsParser parser = new MongoClientOptionsParser(config);
-    mongo = MongoClients.create(parser.options());
-
+    int fieldNameCacheSize = config.getInteger("fieldNameCacheSize", FieldNameCache.DEFAULT_SIZE);
+    if (fieldNameCacheSize > 0) {
+      fieldNames = new FieldNameCache(fieldNameCacheSize);
+    }
+    boolean useObjectId = config.getBoolean("useObjectId", false);
+    codec = new JsonObjectCodec(useObjectId);
+    codecRegistry = new VertxCodecRegistry(codec, codecs);
+    lazyCodecRegistry = codecRegistry.withJsonObjectCodec(new LazyJsonObjectCodec(fieldNames, useObjectId));
+    primitiveArraysCodecRegistry = codecRegistry.withJsonObjectCodec(codec.withPrimitiveArrays());
+    MongoClientOptionsParser parser = new MongoClientOptionsParser(config, codecRegistry);
     String dbName = config.getString("db_name", "default_db");
-    db = mongo.getDatabase(dbName);
+    if (dataSourceName != null) {
+      mongo = acquireSharedClient(parser);
+      // The shared client was created with the codecs of another service
+      db = mongo.getDatabase(dbName).withCodecRegistry(codecRegistry);
+    } else {
+      mongo = createClient(parser);
+      db = mongo.getDatabase(dbName);
+    }
+    int collectionCacheSize = config.getInteger("collectionCacheSize", CollectionCache.DEFAULT_MAX_SIZE);
+    Supplier<CodecRegistry> codecRegistries = null;
+    if (config.getBoolean("adaptiveCodecs", false)) {
+      if (collectionCacheSize > 0) {
+        codecRegistries = () -> codecRegistry.withJsonObjectCodec(new AdaptiveJsonObjectCodec(codec));
+      } else {
+        // The codecs learn about a collection across operations, so they are held by the cached collections
+        log.warn("adaptiveCodecs has no effect when the collection cache is disabled");
+      }
+    }
+    collections = new CollectionCache(db, collectionCacheSize, codecRegistries);
+    maxPreparedQueries = config.getInteger("maxPreparedQueries", DEFAULT_MAX_PREPARED_QUERIES);
+    long queryCacheMaxBytes = config.getLong("queryCacheMaxBytes", 0L);
+    if (queryCacheMaxBytes > 0) {
+      long queryCacheTTLMS = config.getLong("queryCacheTTLMS", QueryCache.DEFAULT_TTL_MS);
+      queryCache = new QueryCache(queryCacheMaxBytes, queryCacheTTLMS, config.getJsonObject("queryCacheCollectionTTLMS"));
+    }
+    deliverResultsOnWorker = config.getBoolean("deliverResultsOnWorker", false);
+    if (config.getBoolean("coalesceReads", false)) {
+      readCoalescer = new ReadCoalescer();
+    }
+    findByIdsChunkSize = config.getInteger("findByIdsChunkSize", DEFAULT_FIND_BY_IDS_CHUNK_SIZE);
+    if (findByIdsChunkSize < 1) {
+      throw new IllegalArgumentException("findByIdsChunkSize must be > 0");
+    }
+    if (config.getBoolean("batchFindOneById", false)) {
+      idBatcher = new IdBatcher(this::doFindByIds);
+    }
+    cursorIdleTimeoutMS = config.getLong("cursorIdleTimeoutMS", DEFAULT_CURSOR_IDLE_TIMEOUT_MS);
+    if (cursorIdleTimeoutMS > 0) {
+      cursorTimerId = vertx.setPeriodic(Math.max(1, cursorIdleTimeoutMS / 2), id -> closeIdleCursors());
+    }
+
+    if (config.getBoolean("coalesceWrites", false)) {
+      int maxBatchSize = config.getInteger("coalesceMaxBatchSize", WriteCoalescer.DEFAULT_MAX_BATCH_SIZE);
+      long lingerMS = config.getLong("coalesceLingerMS", WriteCoalescer.DEFAULT_LINGER_MS);
+      writeCoalescer = new WriteCoalescer(vertx, maxBatchSize, lingerMS);
+    }
 
     log.debug("mongoDB service started");
   }
 
   @Override
   public void stop() {
+    if (writeCoalescer != null) {
+      writeCoalescer.close();
+    }
+    synchronized (preparedQueries) {
+      preparedQueries.clear();
+    }
+    if (cursorTimerId != -1) {
+      vertx.cancelTimer(cursorTimerId);
+    }
+    for (CursorSession cursor : cursors.values()) {
+      cursor.close();
+    }
+    cursors.clear();
     if (mongo != null) {
-      mongo.close();
+      if (dataSourceName != null) {
+        releaseSharedClient();
+      } else {
+        mongo.close();
+      }
+      mongo = null;
     }
     log.debug("mongoDB service stopped");
   }
 
+  private MongoClient createClient(MongoClientOptionsParser parser) {
+    if (parser.useVertxEventLoops()) {
+      return EventLoopMongoClients.create(vertx, parser.options());
+    } else {
+      return MongoClients.create(parser.options());
+    }
+  }
+
+  private MongoClient acquireSharedClient(MongoClientOptionsParser parser) {
+    synchronized (vertx) {
+      LocalMap<String, MongoHolder> map = vertx.sharedData().getLocalMap(DS_LOCAL_MAP_NAME);
+      MongoHolder holder = map.get(dataSourceName);
+      if (holder == null) {
+        holder = new MongoHolder(createClient(parser));
+        map.put(dataSourceName, holder);
+      } else {
+        holder.refCount++;
+      }
+      return holder.mongo;
+    }
+  }
+
+  private void releaseSharedClient() {
+    synchronized (vertx) {
+      LocalMap<String, MongoHolder> map = vertx.sharedData().getLocalMap(DS_LOCAL_MAP_NAME);
+      MongoHolder holder = map.get(dataSourceName);
+      if (holder != null && --holder.refCount == 0) {
+        map.remove(dataSourceName);
+        if (map.isEmpty()) {
+          map.close();
+        }
+        holder.mongo.close();
+      }
+    }
+  }
+
   @Override
   public MongoService save(String collection, JsonObject document, Handler<AsyncResult<String>> resultHandler) {
     saveWithOptions(collection, document, null, resultHandler);
@@ -77,9 +255,14 @@ public class MongoServiceImpl implements MongoService {
     MongoCollection<JsonObject> coll = getCollection(collection, writeOption);
     String id = document.getString(ID_FIELD);
     if (id == null) {
-      coll.insertOne(document, convertCallback(resultHandler, wr -> document.getString(ID_FIELD)));
+      ResultCallback<Void, String> callback = convertCallback(resultHandler, wr -> document.getString(ID_FIELD));
+      coll.insertOne(document, invalidating(collection, callback));
+      callback.returned();
     } else {
-      coll.replaceOne(wrap(new JsonObject().put(ID_FIELD, document.getString(ID_FIELD))), document, convertCallback(resultHandler, result -> null));
+      ResultCallback<UpdateResult, String> callback = convertCallback(resultHandler, result -> null);
+      coll.replaceOne(wrapFilter(new JsonObject().put(ID_FIELD, document.getString(ID_FIELD))), document,
+        invalidating(collection, callback));
+      callback.returned();
     }
     return this;
   }
@@ -99,13 +282,76 @@ public class MongoServiceImpl implements MongoService {
     boolean id = document.containsKey(ID_FIELD);
 
     MongoCollection<JsonObject> coll = getCollection(collection, writeOption);
-    coll.insertOne(document, convertCallback(resultHandler, wr -> {
+    ResultCallback<Void, String> callback = convertCallback(resultHandler, wr -> {
       if (id) {
         return null;
       } else {
         return document.getString(ID_FIELD);
       }
-    }));
+    });
+    if (writeCoalescer != null) {
+      writeCoalescer.write(coll, collection, writeOption, new InsertOneModel<>(document), invalidating(collection, callback));
+    } else {
+      coll.insertOne(document, invalidating(collection, callback));
+    }
+    callback.returned();
+    return this;
+  }
+
+  @Override
+  public MongoService insertMany(String collection, List<JsonObject> documents, Handler<AsyncResult<List<String>>> resultHandler) {
+    insertManyWithOptions(collection, documents, DEFAULT_BULK_WRITE_OPTIONS, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService insertManyWithOptions(String collection, List<JsonObject> documents, BulkWriteOptions options, Handler<AsyncResult<List<String>>> resultHandler) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(documents, "documents cannot be null");
+    requireNonNull(options, "options cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+
+    MongoCollection<JsonObject> coll = getCollection(collection, options.getWriteOption());
+    InsertManyOptions insertManyOptions = new InsertManyOptions().ordered(options.isOrdered());
+    ResultCallback<Void, List<String>> callback = convertCallback(resultHandler, result -> {
+      List<String> ids = new ArrayList<>(documents.size());
+      for (JsonObject document : documents) {
+        // The id of a document may be any value, not only a string
+        Object id = document.getValue(ID_FIELD);
+        ids.add(id == null ? null : id.toString());
+      }
+      return ids;
+    });
+    coll.insertMany(documents, insertManyOptions, invalidating(collection, callback));
+    callback.returned();
+    return this;
+  }
+
+  @Override
+  public MongoService bulkWrite(String collection, List<JsonObject> operations, Handler<AsyncResult<JsonObject>> resultHandler) {
+    bulkWriteWithOptions(collection, operations, DEFAULT_BULK_WRITE_OPTIONS, resultHandler);
+    return this;
+  }
+
+  @Override
+  public MongoService bulkWriteWithOptions(String collection, List<JsonObject> operations, BulkWriteOptions options, Handler<AsyncResult<JsonObject>> resultHandler) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(operations, "operations cannot be null");
+    requireNonNull(options, "options cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+
+    List<WriteModel<JsonObject>> models;
+    try {
+      models = BulkOperations.toWriteModels(operations);
+    } catch (IllegalArgumentException e) {
+      complete(resultHandler, Future.failedFuture(e));
+      return this;
+    }
+    MongoCollection<JsonObject> coll = getCollection(collection, options.getWriteOption());
+    com.mongodb.client.model.BulkWriteOptions bulkWriteOptions = new com.mongodb.client.model.BulkWriteOptions().ordered(options.isOrdered());
+    ResultCallback<BulkWriteResult, JsonObject> callback = convertCallback(resultHandler, BulkOperations::toJson);
+    coll.bulkWrite(models, bulkWriteOptions, invalidating(collection, callback));
+    callback.returned();
     return this;
   }
 
@@ -124,13 +370,23 @@ public class MongoServiceImpl implements MongoService {
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
     MongoCollection<JsonObject> coll = getCollection(collection, options.getWriteOption());
-    Bson bquery = wrap(query);
+    Bson bquery = wrapFilter(query, options.isUpsert());
     Bson bupdate = wrap(update);
-    if (options.isMulti()) {
-      coll.updateMany(bquery, bupdate, mongoUpdateOptions(options), convertCallback(resultHandler, result -> null));
+    ResultCallback<Object, Void> callback = convertCallback(resultHandler, result -> null);
+    if (writeCoalescer != null) {
+      WriteModel<JsonObject> model;
+      if (options.isMulti()) {
+        model = new UpdateManyModel<>(bquery, bupdate, mongoUpdateOptions(options));
+      } else {
+        model = new UpdateOneModel<>(bquery, bupdate, mongoUpdateOptions(options));
+      }
+      writeCoalescer.write(coll, collection, options.getWriteOption(), model, invalidating(collection, callback::onResult));
+    } else if (options.isMulti()) {
+      coll.updateMany(bquery, bupdate, mongoUpdateOptions(options), invalidating(collection, callback::onResult));
     } else {
-      coll.updateOne(bquery, bupdate, mongoUpdateOptions(options), convertCallback(resultHandler, result -> null));
+      coll.updateOne(bquery, bupdate, mongoUpdateOptions(options), invalidating(collection, callback::onResult));
     }
+    callback.returned();
     return this;
   }
 
@@ -149,8 +405,10 @@ public class MongoServiceImpl implements MongoService {
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
     MongoCollection<JsonObject> coll = getCollection(collection, options.getWriteOption());
-    Bson bquery = wrap(query);
-    coll.replaceOne(bquery, replace, mongoUpdateOptions(options), convertCallback(resultHandler, result -> null));
+    Bson bquery = wrapFilter(query, options.isUpsert());
+    ResultCallback<UpdateResult, Void> callback = convertCallback(resultHandler, result -> null);
+    coll.replaceOne(bquery, replace, mongoUpdateOptions(options), invalidating(collection, callback));
+    callback.returned();
     return this;
   }
 
@@ -166,9 +424,126 @@ public class MongoServiceImpl implements MongoService {
     requireNonNull(query, "query cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
+    if (options.isLazyDecoding() || options.isPrimitiveArrays()) {
+      // Such results don't survive being copied in and out of the cache
+      ResultCallback<List<JsonObject>, List<JsonObject>> callback = wrapCallback(resultHandler);
+      doFind(collection, query, options).into(new ArrayList<>(), callback);
+      callback.returned();
+    } else {
+      cachedRead(collection, () -> QueryKeys.find(collection, query, options), resultHandler,
+        callback -> doFind(collection, query, options).into(new ArrayList<>(), callback));
+    }
+    return this;
+  }
+
+  @Override
+  public <T> LocalMongoService findWithOptions(String collection, JsonObject query, FindOptions options, Class<T> type,
+                                               Handler<AsyncResult<List<T>>> resultHandler) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(options, "options cannot be null");
+    requireNonNull(type, "type cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+
+    FindIterable<T> view = withOptions(getCollection(collection).find(wrapFilter(query), type), options);
+    List<T> results = new ArrayList<>();
+    ResultCallback<List<T>, List<T>> callback = wrapCallback(resultHandler);
+    view.into(results, callback);
+    callback.returned();
+    return this;
+  }
+
+  @Override
+  public ReadStream<JsonObject> findStream(String collection, JsonObject query) {
+    return findWithOptionsStream(collection, query, DEFAULT_FIND_OPTIONS);
+  }
+
+  @Override
+  public ReadStream<JsonObject> findWithOptionsStream(String collection, JsonObject query, FindOptions options) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(options, "options cannot be null");
+
     FindIterable<JsonObject> view = doFind(collection, query, options);
-    List<JsonObject> results = new ArrayList<>();
-    view.into(results, wrapCallback(resultHandler));
+    return new FindReadStream(vertx.getOrCreateContext(), view);
+  }
+
+  @Override
+  public MongoService findPage(String collection, JsonObject query, PageOptions options, Handler<AsyncResult<JsonObject>> resultHandler) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(options, "options cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    if (options.getPageSize() <= 0) {
+      complete(resultHandler, Future.failedFuture(new IllegalArgumentException("The page size must be positive")));
+      return this;
+    }
+    JsonObject keyset;
+    JsonObject pageQuery;
+    try {
+      keyset = Pagination.keyset(options.getSort());
+      pageQuery = Pagination.query(query, keyset, options.getToken());
+    } catch (IllegalArgumentException e) {
+      complete(resultHandler, Future.failedFuture(e));
+      return this;
+    }
+    // One more document than the page size tells whether there is a next page
+    FindOptions findOptions = new FindOptions()
+      .setSort(keyset)
+      .setFields(Pagination.fields(options.getFields(), keyset))
+      .setLimit(options.getPageSize() + 1);
+    ResultCallback<List<JsonObject>, JsonObject> callback =
+      convertCallback(resultHandler, documents -> Pagination.page(documents, options.getPageSize(), keyset));
+    doFind(collection, pageQuery, findOptions).into(new ArrayList<>(), callback);
+    callback.returned();
+    return this;
+  }
+
+  @Override
+  public MongoService openCursor(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<String>> resultHandler) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(options, "options cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+
+    ResultCallback<AsyncBatchCursor<JsonObject>, String> callback = convertCallback(resultHandler, cursor -> {
+      String cursorId = UUID.randomUUID().toString();
+      cursors.put(cursorId, new CursorSession(cursor));
+      return cursorId;
+    });
+    doFind(collection, query, options).batchCursor(callback);
+    callback.returned();
+    return this;
+  }
+
+  @Override
+  public MongoService fetch(String cursorId, int count, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    requireNonNull(cursorId, "cursorId cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    CursorSession cursor = cursors.get(cursorId);
+    if (cursor == null) {
+      complete(resultHandler, Future.failedFuture(new IllegalArgumentException("Unknown cursor " + cursorId)));
+      return this;
+    }
+    if (count <= 0) {
+      complete(resultHandler, Future.failedFuture(new IllegalArgumentException("The count must be positive")));
+      return this;
+    }
+    ResultCallback<List<JsonObject>, List<JsonObject>> callback = wrapCallback(resultHandler);
+    cursor.fetch(count, callback);
+    callback.returned();
+    return this;
+  }
+
+  @Override
+  public MongoService closeCursor(String cursorId, Handler<AsyncResult<Void>> resultHandler) {
+    requireNonNull(cursorId, "cursorId cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    CursorSession cursor = cursors.remove(cursorId);
+    if (cursor != null) {
+      cursor.close();
+    }
+    complete(resultHandler, Future.succeededFuture());
     return this;
   }
 
@@ -178,9 +553,50 @@ public class MongoServiceImpl implements MongoService {
     requireNonNull(query, "query cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    Bson bquery = wrap(query);
+    Bson bquery = wrapFilter(query);
     Bson bfields = wrap(fields);
-    getCollection(collection).find(bquery).projection(bfields).first(wrapCallback(resultHandler));
+    Object id = query.getValue("_id");
+    if (idBatcher != null && query.size() == 1 && id instanceof String) {
+      cachedRead(collection, () -> QueryKeys.findOne(collection, query, fields), resultHandler,
+        callback -> idBatcher.find(collection, (String) id, fields, callback));
+      return this;
+    }
+    MongoCollection<JsonObject> coll = withDecoding(getCollection(collection), fields, false);
+    cachedRead(collection, () -> QueryKeys.findOne(collection, query, fields), resultHandler,
+      callback -> coll.find(bquery).projection(bfields).first(callback));
+    return this;
+  }
+
+  @Override
+  public MongoService findByIds(String collection, List<String> ids, JsonObject fields, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(ids, "ids cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+
+    ResultCallback<List<JsonObject>, List<JsonObject>> callback = wrapCallback(resultHandler);
+    doFindByIds(collection, ids, fields, callback);
+    callback.returned();
+    return this;
+  }
+
+  @Override
+  public <T> LocalMongoService findOne(String collection, JsonObject query, JsonObject fields, Class<T> type,
+                                       Handler<AsyncResult<T>> resultHandler) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(type, "type cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+
+    ResultCallback<T, T> callback = wrapCallback(resultHandler);
+    getCollection(collection).find(wrapFilter(query), type).projection(wrap(fields)).first(callback);
+    callback.returned();
+    return this;
+  }
+
+  @Override
+  public LocalMongoService registerCodec(Codec<?> codec) {
+    requireNonNull(codec, "codec cannot be null");
+    codecs.put(codec.getEncoderClass(), codec);
     return this;
   }
 
@@ -190,9 +606,9 @@ public class MongoServiceImpl implements MongoService {
     requireNonNull(query, "query cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    Bson bquery = wrap(query);
+    Bson bquery = wrapFilter(query);
     MongoCollection<JsonObject> coll = getCollection(collection);
-    coll.count(bquery, wrapCallback(resultHandler));
+    cachedRead(collection, () -> QueryKeys.count(collection, query), resultHandler, callback -> coll.count(bquery, callback));
     return this;
   }
 
@@ -209,8 +625,10 @@ public class MongoServiceImpl implements MongoService {
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
     MongoCollection<JsonObject> coll = getCollection(collection, writeOption);
-    Bson bquery = wrap(query);
-    coll.deleteMany(bquery, convertCallback(resultHandler, result -> null));
+    Bson bquery = wrapFilter(query);
+    ResultCallback<DeleteResult, Void> callback = convertCallback(resultHandler, result -> null);
+    coll.deleteMany(bquery, invalidating(collection, callback));
+    callback.returned();
     return this;
   }
 
@@ -227,8 +645,10 @@ public class MongoServiceImpl implements MongoService {
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
     MongoCollection<JsonObject> coll = getCollection(collection, writeOption);
-    Bson bquery = wrap(query);
-    coll.deleteOne(bquery, convertCallback(resultHandler, result -> null));
+    Bson bquery = wrapFilter(query);
+    ResultCallback<DeleteResult, Void> callback = convertCallback(resultHandler, result -> null);
+    coll.deleteOne(bquery, invalidating(collection, callback));
+    callback.returned();
     return this;
   }
 
@@ -237,7 +657,9 @@ public class MongoServiceImpl implements MongoService {
     requireNonNull(collection, "collection cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
-    db.createCollection(collection, wrapCallback(resultHandler));
+    ResultCallback<Void, Void> callback = wrapCallback(resultHandler);
+    db.createCollection(collection, callback);
+    callback.returned();
     return this;
   }
 
@@ -245,15 +667,9 @@ public class MongoServiceImpl implements MongoService {
   public MongoService getCollections(Handler<AsyncResult<List<String>>> resultHandler) {
     requireNonNull(resultHandler, "resultHandler cannot be null");
     List<String> names = new ArrayList<>();
-    db.listCollectionNames().into(names, (res, error) -> {
-      vertx.runOnContext(v -> {
-        if (error != null) {
-          resultHandler.handle(Future.failedFuture(error));
-        } else {
-          resultHandler.handle(Future.succeededFuture(names));
-        }
-      });
-    });
+    ResultCallback<List<String>, List<String>> callback = convertCallback(resultHandler, res -> names);
+    db.listCollectionNames().into(names, callback);
+    callback.returned();
     return this;
   }
 
@@ -263,7 +679,9 @@ public class MongoServiceImpl implements MongoService {
     requireNonNull(resultHandler, "resultHandler cannot be null");
 
     MongoCollection<JsonObject> coll = getCollection(collection);
-    coll.dropCollection(wrapCallback(resultHandler));
+    ResultCallback<Void, Void> callback = wrapCallback(resultHandler);
+    coll.dropCollection(invalidating(collection, callback));
+    callback.returned();
     return this;
   }
 
@@ -271,32 +689,347 @@ public class MongoServiceImpl implements MongoService {
   public MongoService runCommand(JsonObject command, Handler<AsyncResult<JsonObject>> resultHandler) {
     requireNonNull(command, "command cannot be null");
     requireNonNull(resultHandler, "resultHandler cannot be null");
-    db.executeCommand(wrap(command), JsonObject.class, wrapCallback(resultHandler));
+    ResultCallback<JsonObject, JsonObject> callback = wrapCallback(resultHandler);
+    db.executeCommand(wrap(command), JsonObject.class, callback);
+    callback.returned();
     return this;
   }
 
-  private <T, R> SingleResultCallback<T> convertCallback(Handler<AsyncResult<R>> resultHandler, Function<T, R> converter) {
-    return (result, error) -> {
-      vertx.runOnContext(v -> {
+  @Override
+  public MongoService runCommandWithFields(JsonObject command, JsonObject fields, Handler<AsyncResult<JsonObject>> resultHandler) {
+    requireNonNull(command, "command cannot be null");
+    requireNonNull(fields, "fields cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    FieldProjection projection = FieldProjection.fromFields(fields);
+    MongoDatabase database = db;
+    if (projection != null) {
+      database = db.withCodecRegistry(codecRegistry.withJsonObjectCodec(codec.withProjection(projection)));
+    }
+    ResultCallback<JsonObject, JsonObject> callback = wrapCallback(resultHandler);
+    database.executeCommand(wrap(command), JsonObject.class, callback);
+    callback.returned();
+    return this;
+  }
+
+  @Override
+  public MongoService prepareQuery(String collection, JsonObject query, FindOptions options, Handler<AsyncResult<String>> resultHandler) {
+    requireNonNull(collection, "collection cannot be null");
+    requireNonNull(query, "query cannot be null");
+    requireNonNull(options, "options cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    String queryId = PreparedQuery.token(collection, query, options);
+    keepPrepared(queryId, new PreparedQuery(collection, query, options, codec, preparedDecoding(options)));
+    complete(resultHandler, Future.succeededFuture(queryId));
+    return this;
+  }
+
+  @Override
+  public MongoService findPrepared(String queryId, JsonObject params, Handler<AsyncResult<List<JsonObject>>> resultHandler) {
+    requireNonNull(queryId, "queryId cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    PreparedQuery query;
+    Bson filter;
+    try {
+      query = preparedQuery(queryId);
+      filter = query.bind(params);
+    } catch (IllegalArgumentException e) {
+      complete(resultHandler, Future.failedFuture(e));
+      return this;
+    }
+    MongoCollection<JsonObject> coll = getCollection(query.collection);
+    if (query.codecRegistry != null) {
+      coll = coll.withCodecRegistry(query.codecRegistry);
+    }
+    ResultCallback<List<JsonObject>, List<JsonObject>> callback = wrapCallback(resultHandler);
+    query.apply(coll.find(filter, JsonObject.class)).into(new ArrayList<>(), callback);
+    callback.returned();
+    return this;
+  }
+
+  /**
+   * @return the query compiled by this service for the id, compiling it again from the id when it isn't kept
+   * @throws IllegalArgumentException if the id is not the id of a prepared query
+   */
+  private PreparedQuery preparedQuery(String queryId) {
+    PreparedQuery query;
+    synchronized (preparedQueries) {
+      query = preparedQueries.get(queryId);
+    }
+    if (query == null) {
+      // The query may have been prepared by another instance of the service, or evicted
+      query = PreparedQuery.fromToken(queryId, codec, this::preparedDecoding);
+      keepPrepared(queryId, query);
+    }
+    return query;
+  }
+
+  private void keepPrepared(String queryId, PreparedQuery query) {
+    if (maxPreparedQueries <= 0) {
+      return;
+    }
+    synchronized (preparedQueries) {
+      preparedQueries.put(queryId, query);
+      if (preparedQueries.size() > maxPreparedQueries) {
+        Iterator<String> eldest = preparedQueries.keySet().iterator();
+        eldest.next();
+        eldest.remove();
+      }
+    }
+  }
+
+  private CodecRegistry preparedDecoding(FindOptions options) {
+    return options.isLazyDecoding() ? lazyCodecRegistry : decodingRegistry(options.getFields(), options.isPrimitiveArrays());
+  }
+
+  @Override
+  public MongoService closePreparedQuery(String queryId, Handler<AsyncResult<Void>> resultHandler) {
+    requireNonNull(queryId, "queryId cannot be null");
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+    synchronized (preparedQueries) {
+      preparedQueries.remove(queryId);
+    }
+    complete(resultHandler, Future.succeededFuture());
+    return this;
+  }
+
+  @Override
+  public MongoService getMetrics(Handler<AsyncResult<JsonObject>> resultHandler) {
+    requireNonNull(resultHandler, "resultHandler cannot be null");
+
+    JsonObject metrics = new JsonObject();
+    if (writeCoalescer != null) {
+      metrics.put("writeCoalescing", writeCoalescer.metrics());
+    }
+    if (fieldNames != null) {
+      metrics.put("fieldNameCache", fieldNames.metrics());
+    }
+    if (queryCache != null) {
+      metrics.put("queryCache", queryCache.metrics());
+    }
+    if (readCoalescer != null) {
+      metrics.put("readCoalescing", readCoalescer.metrics());
+    }
+    if (idBatcher != null) {
+      metrics.put("idBatching", idBatcher.metrics());
+    }
+    complete(resultHandler, Future.succeededFuture(metrics));
+    return this;
+  }
+
+  /**
+   * Find documents by id with a single $in query per chunk of distinct ids, the chunks being sent concurrently
+   */
+  private void doFindByIds(String collection, List<String> ids, JsonObject fields, SingleResultCallback<List<JsonObject>> callback) {
+    List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+    if (distinct.isEmpty()) {
+      callback.onResult(new ArrayList<>(), null);
+      return;
+    }
+    // The ids are needed to order the documents, even when they are excluded from the results
+    Object idField = fields != null ? fields.getValue("_id") : null;
+    boolean excludeId = Integer.valueOf(0).equals(idField) || Boolean.FALSE.equals(idField);
+    JsonObject projection = fields;
+    if (excludeId) {
+      projection = fields.copy();
+      projection.remove("_id");
+    }
+    MongoCollection<JsonObject> coll = withDecoding(getCollection(collection), projection, false);
+    Map<String, JsonObject> found = new HashMap<>();
+    int chunks = (distinct.size() + findByIdsChunkSize - 1) / findByIdsChunkSize;
+    AtomicInteger remaining = new AtomicInteger(chunks);
+    AtomicBoolean failed = new AtomicBoolean();
+    for (int i = 0; i < distinct.size(); i += findByIdsChunkSize) {
+      List<String> chunk = new ArrayList<>(distinct.subList(i, Math.min(distinct.size(), i + findByIdsChunkSize)));
+      JsonObject query = new JsonObject().put("_id", new JsonObject().put("$in", new JsonArray(chunk)));
+      coll.find(wrapFilter(query)).projection(wrap(projection)).into(new ArrayList<>(), (docs, error) -> {
         if (error != null) {
-          resultHandler.handle(Future.failedFuture(error));
-        } else {
-          resultHandler.handle(Future.succeededFuture(converter.apply(result)));
+          if (failed.compareAndSet(false, true)) {
+            callback.onResult(null, error);
+          }
+          return;
+        }
+        synchronized (found) {
+          for (JsonObject doc : docs) {
+            found.put(String.valueOf(doc.getValue("_id")), doc);
+          }
+        }
+        if (remaining.decrementAndGet() == 0 && !failed.get()) {
+          List<JsonObject> results = new ArrayList<>(ids.size());
+          Set<String> returned = new HashSet<>();
+          for (String id : ids) {
+            JsonObject doc = found.get(id);
+            if (doc != null) {
+              // The same document is returned as many times as its id is requested
+              if (!returned.add(id)) {
+                doc = JsonObjectCodec.copy(doc);
+              } else if (excludeId) {
+                doc.remove("_id");
+              }
+            }
+            results.add(doc);
+          }
+          callback.onResult(results, null);
         }
       });
-    };
+    }
+  }
+
+  private void closeIdleCursors() {
+    long now = System.currentTimeMillis();
+    for (Iterator<CursorSession> it = cursors.values().iterator(); it.hasNext(); ) {
+      CursorSession cursor = it.next();
+      if (cursor.isIdle(now, cursorIdleTimeoutMS)) {
+        it.remove();
+        cursor.close();
+        log.debug("Closed idle cursor");
+      }
+    }
   }
 
-  private <T> SingleResultCallback<T> wrapCallback(Handler<AsyncResult<T>> resultHandler) {
+  /**
+   * Serve a read from the query cache when the cache is enabled for the collection, otherwise read and cache the result.
+   * When reads are coalesced, the read waits for the identical read in flight if there is one.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> void cachedRead(String collection, Supplier<String> key, Handler<AsyncResult<T>> resultHandler,
+                              Consumer<SingleResultCallback<T>> read) {
+    boolean cached = queryCache != null && queryCache.isCached(collection);
+    ResultCallback<T, T> callback = wrapCallback(resultHandler);
+    if (!cached && readCoalescer == null) {
+      read.accept(callback);
+      callback.returned();
+      return;
+    }
+    String readKey = key.get();
+    Consumer<SingleResultCallback<T>> source = read;
+    if (cached) {
+      Object hit = queryCache.get(collection, readKey);
+      if (hit != QueryCache.MISS) {
+        // Still asynchronous, as a result handler is never called before the operation returns
+        complete(resultHandler, Future.succeededFuture((T) hit));
+        return;
+      }
+      source = caching -> {
+        long generation = queryCache.generation(collection);
+        read.accept((result, error) -> {
+          if (error == null) {
+            queryCache.put(collection, readKey, generation, result);
+          }
+          caching.onResult(result, error);
+        });
+      };
+    }
+    if (readCoalescer != null) {
+      readCoalescer.read(collection, readKey, source, callback);
+    } else {
+      source.accept(callback);
+    }
+    callback.returned();
+  }
+
+  /**
+   * Invalidate the cached and pending reads of a collection when a write to it starts, and again when it completes
+   */
+  private <T> SingleResultCallback<T> invalidating(String collection, SingleResultCallback<T> callback) {
+    if (queryCache == null && readCoalescer == null) {
+      return callback;
+    }
+    invalidate(collection);
     return (result, error) -> {
-      vertx.runOnContext(v -> {
+      invalidate(collection);
+      callback.onResult(result, error);
+    };
+  }
+
+  private void invalidate(String collection) {
+    if (queryCache != null) {
+      queryCache.invalidate(collection);
+    }
+    if (readCoalescer != null) {
+      readCoalescer.invalidate(collection);
+    }
+  }
+
+  /**
+   * @return a callback delivering the converted result to the handler on the context of the caller
+   */
+  private <T, R> ResultCallback<T, R> convertCallback(Handler<AsyncResult<R>> resultHandler, Function<T, R> converter) {
+    return new ResultCallback<>(vertx.getOrCreateContext(), resultHandler, converter);
+  }
+
+  /**
+   * @return a callback delivering the result to the handler on the context of the caller
+   */
+  private <T> ResultCallback<T, T> wrapCallback(Handler<AsyncResult<T>> resultHandler) {
+    return convertCallback(resultHandler, Function.identity());
+  }
+
+  /**
+   * Deliver the result of an operation which completes without calling the driver, after the operation returns
+   */
+  private <T> void complete(Handler<AsyncResult<T>> resultHandler, AsyncResult<T> result) {
+    deliver(vertx.getOrCreateContext(), false, resultHandler, () -> result);
+  }
+
+  /**
+   * Deliver a result on a context, or on a worker thread of the context when results are delivered on workers.
+   * <p>
+   * A result arriving on the context once the operation returned is handed to the handler directly. Otherwise it is
+   * delivered in a task of its own: the operation may have completed synchronously, and a result handler is never
+   * called before the operation returns. Worker deliveries are not ordered, so that a slow handler doesn't hold up the
+   * results of the other operations of the context.
+   */
+  private <T> void deliver(Context context, boolean returned, Handler<AsyncResult<T>> resultHandler, Supplier<AsyncResult<T>> result) {
+    if (deliverResultsOnWorker) {
+      context.<Void>executeBlocking(future -> {
+        resultHandler.handle(result.get());
+        future.complete();
+      }, false, ar -> {
+        if (ar.failed()) {
+          // Fail on the context, as a handler called on the context itself would
+          Throwable cause = ar.cause();
+          throw cause instanceof RuntimeException ? (RuntimeException) cause : new VertxException(cause);
+        }
+      });
+    } else if (returned && Vertx.currentContext() == context) {
+      resultHandler.handle(result.get());
+    } else {
+      context.runOnContext(v -> resultHandler.handle(result.get()));
+    }
+  }
+
+  /**
+   * A callback delivering the converted result of an operation to its handler. The operation marks the callback as
+   * {@link #returned()} once the driver call is issued, from which point a result arriving on the context of the
+   * caller no longer needs a task of its own.
+   */
+  private class ResultCallback<T, R> implements SingleResultCallback<T> {
+
+    private final Context context;
+    private final Handler<AsyncResult<R>> resultHandler;
+    private final Function<T, R> converter;
+    private volatile boolean returned;
+
+    ResultCallback(Context context, Handler<AsyncResult<R>> resultHandler, Function<T, R> converter) {
+      this.context = context;
+      this.resultHandler = resultHandler;
+      this.converter = converter;
+    }
+
+    void returned() {
+      returned = true;
+    }
+
+    @Override
+    public void onResult(T result, Throwable error) {
+      deliver(context, returned, resultHandler, () -> {
         if (error != null) {
-          resultHandler.handle(Future.failedFuture(error));
+          return Future.failedFuture(error);
         } else {
-          resultHandler.handle(Future.succeededFuture(result));
+          return Future.succeededFuture(converter.apply(result));
         }
       });
-    };
+    }
   }
 
   private FindIterable<JsonObject> doFind(String collection, JsonObject query, FindOptions options) {
@@ -305,8 +1038,16 @@ public class MongoServiceImpl implements MongoService {
 
   private FindIterable<JsonObject> doFind(String collection, WriteOption writeOption, JsonObject query, FindOptions options) {
     MongoCollection<JsonObject> coll = getCollection(collection, writeOption);
-    Bson bquery = wrap(query);
-    FindIterable<JsonObject> find = coll.find(bquery, JsonObject.class);
+    if (options.isLazyDecoding()) {
+      coll = coll.withCodecRegistry(lazyCodecRegistry);
+    } else {
+      coll = withDecoding(coll, options.getFields(), options.isPrimitiveArrays());
+    }
+    Bson bquery = wrapFilter(query);
+    return withOptions(coll.find(bquery, JsonObject.class), options);
+  }
+
+  private <T> FindIterable<T> withOptions(FindIterable<T> find, FindOptions options) {
     if (options.getLimit() != -1) {
       find.limit(options.getLimit());
     }
@@ -319,19 +1060,43 @@ public class MongoServiceImpl implements MongoService {
     if (options.getFields() != null) {
       find.projection(wrap(options.getFields()));
     }
+    if (options.getBatchSize() != FindOptions.DEFAULT_BATCH_SIZE) {
+      find.batchSize(options.getBatchSize());
+    }
     return find;
   }
 
+  /**
+   * Decode only the fields of an inclusion projection, so that fields the server returns anyway are skipped, and
+   * optionally decode arrays of numbers as primitive arrays
+   */
+  private MongoCollection<JsonObject> withDecoding(MongoCollection<JsonObject> coll, JsonObject fields, boolean primitiveArrays) {
+    CodecRegistry decoding = decodingRegistry(fields, primitiveArrays);
+    return decoding != null ? coll.withCodecRegistry(decoding) : coll;
+  }
+
+  /**
+   * @return the codec registry decoding as described by {@link #withDecoding}, or null when the registry of the
+   * collection decodes that way
+   */
+  private CodecRegistry decodingRegistry(JsonObject fields, boolean primitiveArrays) {
+    FieldProjection projection = FieldProjection.fromFields(fields);
+    if (projection == null) {
+      return primitiveArrays ? primitiveArraysCodecRegistry : null;
+    }
+    JsonObjectCodec decoder = codec.withProjection(projection);
+    if (primitiveArrays) {
+      decoder = decoder.withPrimitiveArrays();
+    }
+    return codecRegistry.withJsonObjectCodec(decoder);
+  }
+
   private MongoCollection<JsonObject> getCollection(String name) {
     return getCollection(name, null);
   }
 
   private MongoCollection<JsonObject> getCollection(String name, WriteOption writeOption) {
-    MongoCollection<JsonObject> coll = db.getCollection(name, JsonObject.class);
-    if (coll != null && writeOption != null) {
-      coll = coll.withWriteConcern(WriteConcern.valueOf(writeOption.name()));
-    }
-    return coll;
+    return collections.get(name, writeOption);
   }
 
   private static com.mongodb.client.model.UpdateOptions mongoUpdateOptions(UpdateOptions options) {
@@ -342,4 +1107,16 @@ public class MongoServiceImpl implements MongoService {
     return jsonObject == null ? null : new JsonObjectBsonAdapter(jsonObject);
   }
 
+  private JsonObjectBsonAdapter wrapFilter(JsonObject query) {
+    return query == null ? null : new JsonObjectBsonAdapter(query, true);
+  }
+
+  /**
+   * An upsert copies the equality conditions of its filter to the document it inserts, so its filter matches the id
+   * only as it is stored rather than as any of the types it may be stored as.
+   */
+  private JsonObjectBsonAdapter wrapFilter(JsonObject query, boolean upsert) {
+    return upsert ? wrap(query) : wrapFilter(query);
+  }
+
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.json.FieldProjection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset pagination: each page is found by seeking past the sort key of the last document of the previous page,
+ * rather than by skipping the documents of the previous pages, so the cost of a page does not depend on its depth.
+ * <p>
+ * The sort is completed with {@code _id} so that the order is total. The continuation token holds the sort and the
+ * sort key of the last document, as url safe base64 encoded json.
+ */
+class Pagination {
+
+  static final String RESULTS = "results";
+  static final String TOKEN = "token";
+
+  private static final String ID_FIELD = "_id";
+  private static final String TOKEN_SORT = "sort";
+  private static final String TOKEN_VALUES = "values";
+
+  private Pagination() {
+  }
+
+  /**
+   * @param sort  the sort, or null
+   * @return the sort followed by {@code _id}
+   * @throws IllegalArgumentException if the sort is not made of ascending and descending fields
+   */
+  static JsonObject keyset(JsonObject sort) {
+    JsonObject keyset = sort == null ? new JsonObject() : sort.copy();
+    for (String key : keyset.fieldNames()) {
+      if (!(keyset.getValue(key) instanceof Number)) {
+        throw new IllegalArgumentException("Paging requires an ascending or descending sort on " + key);
+      }
+    }
+    if (!keyset.containsKey(ID_FIELD)) {
+      keyset.put(ID_FIELD, 1);
+    }
+    return keyset;
+  }
+
+  /**
+   * @param fields  the projection, or null
+   * @param keyset  the keyset
+   * @return the projection including the fields of the keyset, or null
+   */
+  static JsonObject fields(JsonObject fields, JsonObject keyset) {
+    if (fields == null) {
+      return null;
+    }
+    boolean inclusion = FieldProjection.fromFields(fields) != null;
+    JsonObject projection = fields.copy();
+    for (String key : keyset.fieldNames()) {
+      if (inclusion) {
+        projection.put(key, 1);
+      } else {
+        projection.remove(key);
+      }
+    }
+    return projection;
+  }
+
+  /**
+   * @param query  the query
+   * @param keyset  the keyset
+   * @param token  the continuation token of the previous page, or null for the first page
+   * @return the query of the page
+   * @throws IllegalArgumentException if the token is invalid or was created with another sort
+   */
+  static JsonObject query(JsonObject query, JsonObject keyset, String token) {
+    if (token == null) {
+      return query;
+    }
+    JsonObject sort;
+    JsonArray values;
+    try {
+      JsonObject json = new JsonObject(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+      sort = json.getJsonObject(TOKEN_SORT);
+      values = json.getJsonArray(TOKEN_VALUES);
+    } catch (IllegalArgumentException | DecodeException | ClassCastException e) {
+      throw new IllegalArgumentException("Invalid page token " + token);
+    }
+    if (!keyset.equals(sort) || values == null || values.size() != keyset.size()) {
+      throw new IllegalArgumentException("The page token does not match the sort " + keyset.encode());
+    }
+    // Documents with the same keys up to the i-th one, and a key after the previous one for the i-th
+    List<String> keys = new ArrayList<>(keyset.fieldNames());
+    JsonArray or = new JsonArray();
+    for (int i = 0; i < keys.size(); i++) {
+      String key = keys.get(i);
+      Object value = values.getValue(i);
+      boolean ascending = keyset.getInteger(key) >= 0;
+      if (value == null && !ascending) {
+        // Nothing comes after a null or missing key in a descending order
+        continue;
+      }
+      JsonObject clause = new JsonObject();
+      for (int j = 0; j < i; j++) {
+        clause.put(keys.get(j), values.getValue(j));
+      }
+      // Null and missing keys come before all others, and a range never matches them
+      if (value == null) {
+        clause.put(key, new JsonObject().putNull("$ne"));
+      } else if (ascending || key.equals(ID_FIELD)) {
+        clause.put(key, new JsonObject().put(ascending ? "$gt" : "$lt", value));
+      } else {
+        clause.put("$or", new JsonArray()
+          .add(new JsonObject().put(key, new JsonObject().put("$lt", value)))
+          .add(new JsonObject().putNull(key)));
+      }
+      or.add(clause);
+    }
+    JsonObject seek = new JsonObject().put("$or", or);
+    return query.isEmpty() ? seek : new JsonObject().put("$and", new JsonArray().add(query).add(seek));
+  }
+
+  /**
+   * @param keyset  the keyset
+   * @param last  the last document of the page
+   * @return the continuation token of the page
+   */
+  static String token(JsonObject keyset, JsonObject last) {
+    JsonArray values = new JsonArray();
+    for (String key : keyset.fieldNames()) {
+      values.add(valueAt(last, key));
+    }
+    String json = new JsonObject().put(TOKEN_SORT, keyset).put(TOKEN_VALUES, values).encode();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param documents  the documents found, at most one more than the page size
+   * @param pageSize  the page size
+   * @param keyset  the keyset
+   * @return the page, with the continuation token when there are documents after it
+   */
+  static JsonObject page(List<JsonObject> documents, int pageSize, JsonObject keyset) {
+    JsonObject page = new JsonObject();
+    if (documents.size() > pageSize) {
+      documents = documents.subList(0, pageSize);
+      page.put(TOKEN, token(keyset, documents.get(pageSize - 1)));
+    }
+    return page.put(RESULTS, new JsonArray(documents));
+  }
+
+  private static Object valueAt(JsonObject document, String path) {
+    Object value = document;
+    int start = 0;
+    while (start <= path.length()) {
+      if (!(value instanceof JsonObject)) {
+        return null;
+      }
+      int dot = path.indexOf('.', start);
+      int end = dot == -1 ? path.length() : dot;
+      value = ((JsonObject) value).getValue(path.substring(start, end));
+      start = end + 1;
+    }
+    return value;
+  }
+}
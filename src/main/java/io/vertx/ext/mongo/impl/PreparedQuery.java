@@ -0,0 +1,389 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.client.FindIterable;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonValue;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A find whose filter, sort and projection are compiled once, and which is then executed with different parameters.
+ * <p>
+ * The filter is a template in which {@code {"$param": "name"}} values are placeholders for parameters. The parts of
+ * the filter without placeholders are encoded to BSON when the query is prepared, and each execution only encodes
+ * the parameter values. The sort and projection have no parameters and are encoded once.
+ * <p>
+ * As top level {@code _id} values may be encoded differently depending on the value, see
+ * {@link JsonObjectCodec#getFilterCodec()}, a top level {@code _id} condition holding placeholders is encoded whole on
+ * each execution. The conditions of the {@code $and}, {@code $or} and {@code $nor} operators of the filter are top
+ * level too, while the fields of nested documents are encoded as the children they are.
+ * <p>
+ * The id of a prepared query is a token holding the collection, the filter template and the options, as url safe
+ * base64 encoded json, so that any instance of the service can compile the query again from its id.
+ */
+class PreparedQuery {
+
+  static final String PARAM = "$param";
+
+  private static final String TOKEN_COLLECTION = "collection";
+  private static final String TOKEN_FILTER = "filter";
+  private static final String TOKEN_OPTIONS = "options";
+
+  // The field holding a nested document while it is encoded, which has no special meaning in a filter
+  private static final String CHILD = "child";
+
+  private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+
+  final String collection;
+  final CodecRegistry codecRegistry;
+  private final FindOptions options;
+  private final JsonObjectCodec filterCodec;
+  private final Node filter;
+  private final BsonDocument sort;
+  private final BsonDocument projection;
+
+  /**
+   * @param collection  the collection
+   * @param filter  the filter template
+   * @param options  the find options
+   * @param codec  the codec to encode the filter, sort and projection with
+   * @param codecRegistry  the registry to decode the results with, or null for the one of the collection
+   */
+  PreparedQuery(String collection, JsonObject filter, FindOptions options, JsonObjectCodec codec, CodecRegistry codecRegistry) {
+    this.collection = collection;
+    this.codecRegistry = codecRegistry;
+    this.options = new FindOptions(options);
+    this.filterCodec = codec.getFilterCodec();
+    this.filter = compileDocument(filter.getMap(), true);
+    this.sort = options.getSort() != null ? encode(codec, options.getSort()) : null;
+    this.projection = options.getFields() != null ? encode(codec, options.getFields()) : null;
+  }
+
+  /**
+   * @param collection  the collection
+   * @param filter  the filter template
+   * @param options  the find options
+   * @return the token identifying the query
+   */
+  static String token(String collection, JsonObject filter, FindOptions options) {
+    String json = new JsonObject()
+      .put(TOKEN_COLLECTION, collection)
+      // Binary values are kept in the extended json form, which encodes to the same binary
+      .put(TOKEN_FILTER, JsonObjectCodec.toExtendedJson(filter))
+      .put(TOKEN_OPTIONS, options.toJson())
+      .encode();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param token  the token identifying the query
+   * @param codec  the codec to encode the filter, sort and projection with
+   * @param codecRegistries  the registry to decode the results of given options with, or null for the one of the collection
+   * @return the query compiled from the token
+   * @throws IllegalArgumentException if the token is invalid
+   */
+  static PreparedQuery fromToken(String token, JsonObjectCodec codec, Function<FindOptions, CodecRegistry> codecRegistries) {
+    String collection;
+    JsonObject filter;
+    FindOptions options;
+    try {
+      JsonObject json = new JsonObject(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+      collection = json.getString(TOKEN_COLLECTION);
+      filter = json.getJsonObject(TOKEN_FILTER);
+      options = new FindOptions(json.getJsonObject(TOKEN_OPTIONS));
+    } catch (IllegalArgumentException | DecodeException | ClassCastException | NullPointerException e) {
+      throw new IllegalArgumentException("Unknown prepared query " + token);
+    }
+    if (collection == null || filter == null) {
+      throw new IllegalArgumentException("Unknown prepared query " + token);
+    }
+    return new PreparedQuery(collection, filter, options, codec, codecRegistries.apply(options));
+  }
+
+  /**
+   * @param params  the values of the parameters by name
+   * @return the filter with the parameters bound
+   * @throws IllegalArgumentException if a parameter has no value
+   */
+  BsonDocument bind(JsonObject params) {
+    return filter.bind(null, params).asDocument();
+  }
+
+  <T> FindIterable<T> apply(FindIterable<T> find) {
+    if (options.getLimit() != -1) {
+      find.limit(options.getLimit());
+    }
+    if (options.getSkip() > 0) {
+      find.skip(options.getSkip());
+    }
+    if (sort != null) {
+      find.sort(sort);
+    }
+    if (projection != null) {
+      find.projection(projection);
+    }
+    if (options.getBatchSize() != FindOptions.DEFAULT_BATCH_SIZE) {
+      find.batchSize(options.getBatchSize());
+    }
+    return find;
+  }
+
+  /**
+   * @param topLevel  whether the document is a top level filter, rather than a nested document
+   */
+  private Node compileDocument(Map<String, Object> fields, boolean topLevel) {
+    if (!hasParams(fields)) {
+      JsonObject document = new JsonObject(fields);
+      return new Constant(topLevel ? encode(filterCodec, document) : encodeChild(document));
+    }
+    Map<String, Node> nodes = new LinkedHashMap<>();
+    for (Map.Entry<String, Object> field : fields.entrySet()) {
+      nodes.put(field.getKey(), compile(field.getKey(), field.getValue(), topLevel));
+    }
+    return new DocumentNode(nodes);
+  }
+
+  /**
+   * @param topLevel  whether the field is a field of a top level filter
+   */
+  private Node compile(String name, Object value, boolean topLevel) {
+    if (!hasParams(value)) {
+      return new Constant(encodeField(name, value, topLevel));
+    }
+    if (topLevel && JsonObjectCodec.ID_FIELD.equals(name)) {
+      return new Dynamic(value);
+    }
+    String param = paramName(value);
+    if (param != null) {
+      return new Param(param, topLevel);
+    }
+    if (isDocument(value)) {
+      return compileDocument(asMap(value), false);
+    }
+    boolean conditions = topLevel && JsonObjectCodec.isLogicalOperator(name);
+    List<Node> elements = new ArrayList<>();
+    for (Object element : asList(value)) {
+      if (conditions && isDocument(element)) {
+        elements.add(compileDocument(asMap(element), true));
+      } else {
+        elements.add(compile(name, element, false));
+      }
+    }
+    return new ArrayNode(elements);
+  }
+
+  /**
+   * @return the value of the field, encoded as the field of a top level filter or of a nested document
+   */
+  private BsonValue encodeField(String name, Object value, boolean topLevel) {
+    Map<String, Object> fields = new HashMap<>(2);
+    fields.put(name, value);
+    JsonObject document = new JsonObject(fields);
+    return (topLevel ? encode(filterCodec, document) : encodeChild(document).asDocument()).get(name);
+  }
+
+  /**
+   * @return the document encoded as a nested document of a filter
+   */
+  private BsonValue encodeChild(JsonObject document) {
+    return encode(filterCodec, new JsonObject().put(CHILD, document)).get(CHILD);
+  }
+
+  private static BsonDocument encode(JsonObjectCodec codec, JsonObject json) {
+    BsonDocument document = new BsonDocument();
+    codec.encode(new BsonDocumentWriter(document), json, ENCODER_CONTEXT);
+    return document;
+  }
+
+  private static boolean hasParams(Object value) {
+    if (paramName(value) != null) {
+      return true;
+    }
+    if (isDocument(value)) {
+      for (Object fieldValue : asMap(value).values()) {
+        if (hasParams(fieldValue)) {
+          return true;
+        }
+      }
+    } else if (isArray(value)) {
+      for (Object element : asList(value)) {
+        if (hasParams(element)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the name of the parameter if the value is a placeholder, otherwise null
+   */
+  private static String paramName(Object value) {
+    if (isDocument(value)) {
+      Map<String, Object> fields = asMap(value);
+      Object param = fields.get(PARAM);
+      if (fields.size() == 1 && param instanceof String) {
+        return (String) param;
+      }
+    }
+    return null;
+  }
+
+  private static Object substitute(Object value, JsonObject params) {
+    String param = paramName(value);
+    if (param != null) {
+      return paramValue(param, params);
+    } else if (isDocument(value)) {
+      Map<String, Object> fields = new LinkedHashMap<>();
+      for (Map.Entry<String, Object> field : asMap(value).entrySet()) {
+        fields.put(field.getKey(), substitute(field.getValue(), params));
+      }
+      return fields;
+    } else if (isArray(value)) {
+      List<Object> elements = new ArrayList<>();
+      for (Object element : asList(value)) {
+        elements.add(substitute(element, params));
+      }
+      return elements;
+    } else {
+      return value;
+    }
+  }
+
+  private static Object paramValue(String param, JsonObject params) {
+    if (params == null || !params.containsKey(param)) {
+      throw new IllegalArgumentException("No value for parameter " + param);
+    }
+    return params.getValue(param);
+  }
+
+  private static boolean isDocument(Object value) {
+    return value instanceof JsonObject || value instanceof Map;
+  }
+
+  private static boolean isArray(Object value) {
+    return value instanceof JsonArray || value instanceof List;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> asMap(Object value) {
+    return value instanceof JsonObject ? ((JsonObject) value).getMap() : (Map<String, Object>) value;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> asList(Object value) {
+    return value instanceof JsonArray ? ((JsonArray) value).getList() : (List<Object>) value;
+  }
+
+  private interface Node {
+    BsonValue bind(String name, JsonObject params);
+  }
+
+  private static final class Constant implements Node {
+    final BsonValue value;
+
+    Constant(BsonValue value) {
+      this.value = value;
+    }
+
+    @Override
+    public BsonValue bind(String name, JsonObject params) {
+      return value;
+    }
+  }
+
+  private final class Param implements Node {
+    final String param;
+    final boolean topLevel;
+
+    Param(String param, boolean topLevel) {
+      this.param = param;
+      this.topLevel = topLevel;
+    }
+
+    @Override
+    public BsonValue bind(String name, JsonObject params) {
+      return encodeField(name, paramValue(param, params), topLevel);
+    }
+  }
+
+  private final class Dynamic implements Node {
+    final Object template;
+
+    Dynamic(Object template) {
+      this.template = template;
+    }
+
+    @Override
+    public BsonValue bind(String name, JsonObject params) {
+      return encodeField(name, substitute(template, params), true);
+    }
+  }
+
+  private static final class DocumentNode implements Node {
+    final Map<String, Node> fields;
+
+    DocumentNode(Map<String, Node> fields) {
+      this.fields = fields;
+    }
+
+    @Override
+    public BsonValue bind(String name, JsonObject params) {
+      BsonDocument document = new BsonDocument();
+      for (Map.Entry<String, Node> field : fields.entrySet()) {
+        document.put(field.getKey(), field.getValue().bind(field.getKey(), params));
+      }
+      return document;
+    }
+  }
+
+  private static final class ArrayNode implements Node {
+    final List<Node> elements;
+
+    ArrayNode(List<Node> elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    public BsonValue bind(String name, JsonObject params) {
+      BsonArray array = new BsonArray();
+      for (Node element : elements) {
+        array.add(element.bind(name, params));
+      }
+      return array;
+    }
+  }
+}
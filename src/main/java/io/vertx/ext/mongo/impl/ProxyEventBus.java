@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.ext.mongo.impl.codec.BsonMessageCodec;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.UnaryOperator;
+
+/**
+ * Changes how a generated service proxy sends its requests, without changing the generated code. The generated proxy
+ * only uses the event bus of the Vert.x instance it is created with, so it is created with a Vert.x instance whose
+ * event bus changes the arguments of the messages sent before sending them.
+ */
+public class ProxyEventBus {
+
+  /**
+   * @param vertx  the Vert.x instance
+   * @return a Vert.x instance whose event bus sends json messages with the {@link BsonMessageCodec}, unless their
+   * delivery options name another codec
+   */
+  public static Vertx withBsonCodec(Vertx vertx) {
+    return intercept(vertx, args -> {
+      // send(address, message, options, ...) and publish(address, message, options)
+      if (args.length > 2 && args[2] instanceof DeliveryOptions) {
+        Object[] copy = args.clone();
+        copy[2] = BsonReplyHandler.withCodec(args[1], (DeliveryOptions) args[2]);
+        return copy;
+      }
+      return args;
+    });
+  }
+
+  /**
+   * @param vertx  the Vert.x instance
+   * @return a Vert.x instance whose event bus converts the binary data of the json messages sent to the extended json
+   * form, as they are sent as json text
+   */
+  public static Vertx withExtendedJsonBinary(Vertx vertx) {
+    return intercept(vertx, args -> {
+      Object message = JsonObjectCodec.toExtendedJson(args[1]);
+      if (message == args[1]) {
+        return args;
+      }
+      Object[] copy = args.clone();
+      copy[1] = message;
+      return copy;
+    });
+  }
+
+  private static Vertx intercept(Vertx vertx, UnaryOperator<Object[]> sendArgs) {
+    EventBus eventBus = vertx.eventBus();
+    EventBus intercepted = (EventBus) Proxy.newProxyInstance(EventBus.class.getClassLoader(), new Class<?>[]{EventBus.class}, (proxy, method, args) -> {
+      boolean send = method.getName().equals("send") || method.getName().equals("publish");
+      Object result = invoke(method, eventBus, send ? sendArgs.apply(args) : args);
+      // Fluent calls return the intercepted event bus
+      return result == eventBus ? proxy : result;
+    });
+    return (Vertx) Proxy.newProxyInstance(Vertx.class.getClassLoader(), new Class<?>[]{Vertx.class}, (proxy, method, args) -> {
+      if (method.getName().equals("eventBus") && method.getParameterCount() == 0) {
+        return intercepted;
+      }
+      Object result = invoke(method, vertx, args);
+      return result == vertx ? proxy : result;
+    });
+  }
+
+  private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Handles the messages sent to the service with the generated proxy handler, changing the requests it is given and
+ * the replies it makes before they are sent.
+ */
+public abstract class ProxyReplyHandler implements Handler<Message<JsonObject>> {
+
+  private final Handler<Message<JsonObject>> handler;
+
+  protected ProxyReplyHandler(Handler<Message<JsonObject>> handler) {
+    this.handler = handler;
+  }
+
+  @Override
+  public void handle(Message<JsonObject> msg) {
+    handler.handle(new ReplyMessage(msg));
+  }
+
+  /**
+   * @return the body the proxy handler is given in place of the body of the request
+   */
+  protected JsonObject body(Message<JsonObject> request) {
+    return request.body();
+  }
+
+  /**
+   * @return the reply to send in place of a reply of the proxy handler to the request
+   */
+  protected Object reply(Message<JsonObject> request, Object reply) {
+    return reply;
+  }
+
+  /**
+   * @param options  the delivery options the proxy handler gave, can be null
+   * @return the delivery options to send a reply with, can be null
+   */
+  protected DeliveryOptions options(Object reply, DeliveryOptions options) {
+    return options;
+  }
+
+  private class ReplyMessage implements Message<JsonObject> {
+
+    private final Message<JsonObject> msg;
+
+    private ReplyMessage(Message<JsonObject> msg) {
+      this.msg = msg;
+    }
+
+    @Override
+    public String address() {
+      return msg.address();
+    }
+
+    @Override
+    public MultiMap headers() {
+      return msg.headers();
+    }
+
+    @Override
+    public JsonObject body() {
+      return ProxyReplyHandler.this.body(msg);
+    }
+
+    @Override
+    public String replyAddress() {
+      return msg.replyAddress();
+    }
+
+    @Override
+    public void reply(Object message) {
+      Object reply = ProxyReplyHandler.this.reply(msg, message);
+      DeliveryOptions options = options(reply, null);
+      if (options != null) {
+        msg.reply(reply, options);
+      } else {
+        msg.reply(reply);
+      }
+    }
+
+    @Override
+    public <R> void reply(Object message, Handler<AsyncResult<Message<R>>> replyHandler) {
+      Object reply = ProxyReplyHandler.this.reply(msg, message);
+      DeliveryOptions options = options(reply, null);
+      if (options != null) {
+        msg.reply(reply, options, replyHandler);
+      } else {
+        msg.reply(reply, replyHandler);
+      }
+    }
+
+    @Override
+    public void reply(Object message, DeliveryOptions options) {
+      Object reply = ProxyReplyHandler.this.reply(msg, message);
+      msg.reply(reply, options(reply, options));
+    }
+
+    @Override
+    public <R> void reply(Object message, DeliveryOptions options, Handler<AsyncResult<Message<R>>> replyHandler) {
+      Object reply = ProxyReplyHandler.this.reply(msg, message);
+      msg.reply(reply, options(reply, options), replyHandler);
+    }
+
+    @Override
+    public void fail(int failureCode, String message) {
+      msg.fail(failureCode, message);
+    }
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of read results, bounded by the estimated size in bytes of the results it holds.
+ * <p>
+ * Entries expire after the time to live of their collection and the least recently used entries are evicted first
+ * once the cache is full. Each collection has a generation which is incremented by the writes the service makes to
+ * it, before they are sent and once they completed: entries read in an older generation are discarded, and a result
+ * read while a write was in progress is not cached. Writes made by other clients are only seen once the entries expire.
+ * <p>
+ * Results are copied when they are cached and when they are returned, so that callers can't modify cached results.
+ */
+class QueryCache {
+
+  static final long DEFAULT_TTL_MS = 60 * 1000;
+
+  /**
+   * Returned by {@link #get} when there is no entry for the key
+   */
+  static final Object MISS = new Object();
+
+  // Approximate overhead of an entry in the map, with the entry itself
+  private static final long ENTRY_SIZE = 128;
+
+  private final long maxBytes;
+  private final long defaultTTLMS;
+  private final JsonObject collectionTTLMS;
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Stats> stats = new ConcurrentHashMap<>();
+  private long bytes;
+
+  /**
+   * @param maxBytes  the maximum estimated size of the cached results
+   * @param defaultTTLMS  the time to live of the entries
+   * @param collectionTTLMS  the time to live of the entries of specific collections, {@code 0} disabling caching for
+   *                         the collection, or null
+   */
+  QueryCache(long maxBytes, long defaultTTLMS, JsonObject collectionTTLMS) {
+    this.maxBytes = maxBytes;
+    this.defaultTTLMS = defaultTTLMS;
+    this.collectionTTLMS = collectionTTLMS != null ? collectionTTLMS.copy() : new JsonObject();
+  }
+
+  /**
+   * @param collection  the collection
+   * @return whether the results of reads of the collection are cached
+   */
+  boolean isCached(String collection) {
+    return ttl(collection) > 0;
+  }
+
+  /**
+   * @param collection  the collection
+   * @return the current generation of the collection, to be passed to {@link #put} with the result of a read
+   */
+  long generation(String collection) {
+    AtomicLong generation = generations.get(collection);
+    return generation == null ? 0 : generation.get();
+  }
+
+  /**
+   * Invalidate the cached results of a collection, called when a write to the collection starts and completes.
+   *
+   * @param collection  the collection
+   */
+  void invalidate(String collection) {
+    generations.computeIfAbsent(collection, c -> new AtomicLong()).incrementAndGet();
+  }
+
+  /**
+   * @param collection  the collection
+   * @param key  the key of the read
+   * @return a copy of the cached result, or {@link #MISS}
+   */
+  Object get(String collection, String key) {
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry != null && entry.generation != generation(collection)) {
+        remove(key, entry);
+        stats(collection).invalidations.incrementAndGet();
+        entry = null;
+      } else if (entry != null && System.currentTimeMillis() >= entry.expiresAt) {
+        remove(key, entry);
+        stats(collection).expirations.incrementAndGet();
+        entry = null;
+      }
+    }
+    if (entry == null) {
+      stats(collection).misses.incrementAndGet();
+      return MISS;
+    }
+    stats(collection).hits.incrementAndGet();
+    return copy(entry.value);
+  }
+
+  /**
+   * Cache the result of a read.
+   *
+   * @param collection  the collection
+   * @param key  the key of the read
+   * @param generation  the generation of the collection when the read started
+   * @param value  the result
+   */
+  void put(String collection, String key, long generation, Object value) {
+    long ttl = ttl(collection);
+    if (ttl <= 0) {
+      return;
+    }
+    long size = ENTRY_SIZE + 2 * key.length() + sizeOf(value);
+    if (size > maxBytes) {
+      return;
+    }
+    Entry entry = new Entry(collection, copy(value), size, generation, System.currentTimeMillis() + ttl);
+    synchronized (this) {
+      if (generation != generation(collection)) {
+        // A write happened while reading
+        return;
+      }
+      Entry previous = entries.put(key, entry);
+      if (previous != null) {
+        bytes -= previous.size;
+      }
+      bytes += size;
+      Iterator<Entry> eldest = entries.values().iterator();
+      while (bytes > maxBytes && eldest.hasNext()) {
+        Entry evicted = eldest.next();
+        eldest.remove();
+        bytes -= evicted.size;
+        stats(evicted.collection).evictions.incrementAndGet();
+      }
+    }
+  }
+
+  JsonObject metrics() {
+    JsonObject collections = new JsonObject();
+    for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+      Stats s = entry.getValue();
+      collections.put(entry.getKey(), new JsonObject()
+        .put("hits", s.hits.get())
+        .put("misses", s.misses.get())
+        .put("evictions", s.evictions.get())
+        .put("expirations", s.expirations.get())
+        .put("invalidations", s.invalidations.get()));
+    }
+    synchronized (this) {
+      return new JsonObject()
+        .put("entries", entries.size())
+        .put("bytes", bytes)
+        .put("collections", collections);
+    }
+  }
+
+  private long ttl(String collection) {
+    Object ttl = collectionTTLMS.getValue(collection);
+    return ttl instanceof Number ? ((Number) ttl).longValue() : defaultTTLMS;
+  }
+
+  private Stats stats(String collection) {
+    return stats.computeIfAbsent(collection, c -> new Stats());
+  }
+
+  private void remove(String key, Entry entry) {
+    entries.remove(key);
+    bytes -= entry.size;
+  }
+
+  /**
+   * @return a deep copy of a json result, or the result itself if it is immutable
+   */
+  static Object copy(Object value) {
+    if (value instanceof JsonObject) {
+      return JsonObjectCodec.copy((JsonObject) value);
+    } else if (value instanceof List) {
+      List<?> list = (List<?>) value;
+      List<Object> copy = new ArrayList<>(list.size());
+      for (Object element : list) {
+        copy.add(copy(element));
+      }
+      return copy;
+    } else {
+      return value;
+    }
+  }
+
+  /**
+   * @return the approximate heap size of a json value in bytes
+   */
+  static long sizeOf(Object value) {
+    if (value instanceof JsonObject) {
+      return sizeOf(((JsonObject) value).getMap());
+    } else if (value instanceof JsonArray) {
+      return sizeOf(((JsonArray) value).getList());
+    } else if (value instanceof Map) {
+      long size = 64;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        size += 48 + sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+      }
+      return size;
+    } else if (value instanceof List) {
+      long size = 40;
+      for (Object element : (List<?>) value) {
+        size += 8 + sizeOf(element);
+      }
+      return size;
+    } else if (value instanceof CharSequence) {
+      return 40 + 2 * ((CharSequence) value).length();
+    } else if (value instanceof byte[]) {
+      return 16 + ((byte[]) value).length;
+    } else {
+      return 16;
+    }
+  }
+
+  private static final class Entry {
+    final String collection;
+    final Object value;
+    final long size;
+    final long generation;
+    final long expiresAt;
+
+    Entry(String collection, Object value, long size, long generation, long expiresAt) {
+      this.collection = collection;
+      this.value = value;
+      this.size = size;
+      this.generation = generation;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private static final class Stats {
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+    final AtomicLong evictions = new AtomicLong();
+    final AtomicLong expirations = new AtomicLong();
+    final AtomicLong invalidations = new AtomicLong();
+  }
+}
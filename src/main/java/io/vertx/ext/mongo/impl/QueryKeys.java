@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.FindOptions;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the keys identifying read operations, so that identical reads can share their result.
+ * <p>
+ * The key is made of the operation, the collection and a normalized form of the query and options. The fields of a
+ * query and of operator documents are sorted, as their order doesn't change the result, while equality values and
+ * sort documents are kept as they are, as their order matters to the server. Binary values are prefixed with their
+ * type, as json would encode them as the same base64 text as the string holding it.
+ */
+class QueryKeys {
+
+  private QueryKeys() {
+  }
+
+  static String find(String collection, JsonObject query, FindOptions options) {
+    StringBuilder key = start("find", collection, query);
+    if (options.getFields() != null) {
+      key.append("|fields:");
+      appendFilter(key, options.getFields().getMap());
+    }
+    if (options.getSort() != null) {
+      key.append("|sort:").append(Json.encode(options.getSort().getMap()));
+    }
+    key.append("|limit:").append(options.getLimit());
+    key.append("|skip:").append(options.getSkip());
+    if (options.isLazyDecoding()) {
+      key.append("|lazy");
+    }
+    if (options.isPrimitiveArrays()) {
+      key.append("|primitive");
+    }
+    return key.toString();
+  }
+
+  static String findOne(String collection, JsonObject query, JsonObject fields) {
+    StringBuilder key = start("findOne", collection, query);
+    if (fields != null) {
+      key.append("|fields:");
+      appendFilter(key, fields.getMap());
+    }
+    return key.toString();
+  }
+
+  static String count(String collection, JsonObject query) {
+    return start("count", collection, query).toString();
+  }
+
+  private static StringBuilder start(String operation, String collection, JsonObject query) {
+    StringBuilder key = new StringBuilder(operation).append('|').append(collection.length()).append(':').append(collection).append('|');
+    appendFilter(key, query.getMap());
+    return key;
+  }
+
+  private static void appendFilter(StringBuilder key, Map<String, Object> filter) {
+    List<String> names = new ArrayList<>(filter.keySet());
+    Collections.sort(names);
+    key.append('{');
+    for (String name : names) {
+      Object value = filter.get(name);
+      key.append(Json.encode(name)).append(':');
+      if (isLogical(name) && isArray(value)) {
+        key.append('[');
+        for (Object element : asList(value)) {
+          if (isDocument(element)) {
+            appendFilter(key, asMap(element));
+          } else {
+            appendValue(key, element);
+          }
+          key.append(',');
+        }
+        key.append(']');
+      } else if (isDocument(value) && (isOperators(asMap(value)) || name.equals("$elemMatch") || name.equals("$not"))) {
+        appendFilter(key, asMap(value));
+      } else {
+        appendValue(key, value);
+      }
+      key.append(',');
+    }
+    key.append('}');
+  }
+
+  /**
+   * Append a value, keeping the order of the fields of documents. Strings are quoted by json, so a binary value
+   * written as {@code binary:<base64>} can't be mistaken for one.
+   */
+  private static void appendValue(StringBuilder key, Object value) {
+    if (value instanceof byte[]) {
+      key.append("binary:").append(Base64.getEncoder().encodeToString((byte[]) value));
+    } else if (value instanceof Buffer) {
+      key.append("binary:").append(Base64.getEncoder().encodeToString(((Buffer) value).getBytes()));
+    } else if (isDocument(value)) {
+      key.append('{');
+      for (Map.Entry<String, Object> field : asMap(value).entrySet()) {
+        key.append(Json.encode(field.getKey())).append(':');
+        appendValue(key, field.getValue());
+        key.append(',');
+      }
+      key.append('}');
+    } else if (isArray(value)) {
+      key.append('[');
+      for (Object element : asList(value)) {
+        appendValue(key, element);
+        key.append(',');
+      }
+      key.append(']');
+    } else {
+      key.append(Json.encode(value));
+    }
+  }
+
+  private static boolean isLogical(String name) {
+    return name.equals("$and") || name.equals("$or") || name.equals("$nor");
+  }
+
+  private static boolean isOperators(Map<String, Object> map) {
+    return !map.isEmpty() && map.keySet().iterator().next().startsWith("$");
+  }
+
+  private static boolean isDocument(Object value) {
+    return value instanceof JsonObject || value instanceof Map;
+  }
+
+  private static boolean isArray(Object value) {
+    return value instanceof JsonArray || value instanceof List;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> asMap(Object value) {
+    return value instanceof JsonObject ? ((JsonObject) value).getMap() : (Map<String, Object>) value;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> asList(Object value) {
+    return value instanceof JsonArray ? ((JsonArray) value).getList() : (List<Object>) value;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.SingleResultCallback;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces identical concurrent reads, so that a read issued while the same read is in flight waits for the result of
+ * the pending read instead of being sent to the server.
+ * <p>
+ * Reads are identified by the keys of {@link QueryKeys}. Writes to a collection detach its pending reads, so that
+ * reads issued after a write started are sent again rather than returning a result which may not reflect the write.
+ * The first caller receives the result itself and every other caller receives a copy of it.
+ */
+class ReadCoalescer {
+
+  private final Map<String, Pending> pending = new HashMap<>();
+
+  private final AtomicLong reads = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  /**
+   * Read, or wait for the identical read already in flight.
+   *
+   * @param collection  the collection read
+   * @param key  the key of the read
+   * @param read  sends the read to the server, called only if no identical read is in flight
+   * @param callback  called with the result of the read
+   */
+  <T> void read(String collection, String key, Consumer<SingleResultCallback<T>> read, SingleResultCallback<T> callback) {
+    reads.incrementAndGet();
+    Pending p;
+    synchronized (this) {
+      p = pending.get(key);
+      if (p != null) {
+        p.callbacks.add(callback);
+        coalesced.incrementAndGet();
+        return;
+      }
+      p = new Pending(collection);
+      p.callbacks.add(callback);
+      pending.put(key, p);
+    }
+    Pending sent = p;
+    read.accept((result, error) -> complete(key, sent, result, error));
+  }
+
+  /**
+   * Detach the pending reads of a collection, called when a write to the collection starts and completes.
+   *
+   * @param collection  the collection
+   */
+  synchronized void invalidate(String collection) {
+    for (Iterator<Pending> it = pending.values().iterator(); it.hasNext(); ) {
+      if (it.next().collection.equals(collection)) {
+        it.remove();
+      }
+    }
+  }
+
+  JsonObject metrics() {
+    long r = reads.get();
+    long c = coalesced.get();
+    return new JsonObject()
+      .put("reads", r)
+      .put("coalesced", c)
+      .put("ratio", r == 0 ? 0d : (double) c / r);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> void complete(String key, Pending p, T result, Throwable error) {
+    List<SingleResultCallback<?>> callbacks;
+    synchronized (this) {
+      // The read may have been detached by a write
+      if (pending.get(key) == p) {
+        pending.remove(key);
+      }
+      callbacks = p.callbacks;
+    }
+    // The copies are all made before any caller gets a result it may modify
+    List<T> values = new ArrayList<>(callbacks.size());
+    values.add(result);
+    for (int i = 1; i < callbacks.size(); i++) {
+      values.add(error != null ? result : (T) QueryCache.copy(result));
+    }
+    for (int i = 0; i < callbacks.size(); i++) {
+      ((SingleResultCallback<T>) callbacks.get(i)).onResult(values.get(i), error);
+    }
+  }
+
+  private static final class Pending {
+    final String collection;
+    final List<SingleResultCallback<?>> callbacks = new ArrayList<>();
+
+    Pending(String collection) {
+      this.collection = collection;
+    }
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.async.SingleResultCallback;
+import com.mongodb.async.client.MongoCollection;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.WriteModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.WriteOption;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces single document writes to the same collection with the same write option into bulk writes.
+ * <p>
+ * Writes are buffered for at most {@code lingerMS} milliseconds, or until {@code maxBatchSize} writes are pending,
+ * and then sent to the server as a single ordered bulk write, so that writes to the same document are applied in the
+ * order they were issued. The outcome of each individual write is reported to its own callback.
+ */
+class WriteCoalescer {
+
+  static final int DEFAULT_MAX_BATCH_SIZE = 100;
+  static final long DEFAULT_LINGER_MS = 1;
+
+  private static final BulkWriteOptions ORDERED = new BulkWriteOptions().ordered(true);
+
+  private final Vertx vertx;
+  private final int maxBatchSize;
+  private final long lingerMS;
+  private final Map<BatchKey, Batch> batches = new HashMap<>();
+
+  private final AtomicLong writes = new AtomicLong();
+  private final AtomicLong bulkWrites = new AtomicLong();
+
+  WriteCoalescer(Vertx vertx, int maxBatchSize, long lingerMS) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be > 0");
+    }
+    if (lingerMS < 1) {
+      throw new IllegalArgumentException("lingerMS must be > 0");
+    }
+    this.vertx = vertx;
+    this.maxBatchSize = maxBatchSize;
+    this.lingerMS = lingerMS;
+  }
+
+  /**
+   * Add a write to the batch of the specified collection and write option.
+   *
+   * @param coll  the collection the write targets, already configured for the write option
+   * @param collection  the collection name
+   * @param writeOption  the write option, can be null
+   * @param model  the write
+   * @param callback  called with the outcome of this write only
+   */
+  void write(MongoCollection<JsonObject> coll, String collection, WriteOption writeOption, WriteModel<JsonObject> model,
+             SingleResultCallback<Void> callback) {
+    BatchKey key = new BatchKey(collection, writeOption);
+    Batch full = null;
+    synchronized (this) {
+      Batch batch = batches.get(key);
+      if (batch == null) {
+        batch = new Batch(key, coll);
+        batches.put(key, batch);
+        Batch scheduled = batch;
+        batch.timerID = vertx.setTimer(lingerMS, id -> flush(scheduled));
+      }
+      batch.models.add(model);
+      batch.callbacks.add(callback);
+      if (batch.models.size() >= maxBatchSize) {
+        batches.remove(key);
+        vertx.cancelTimer(batch.timerID);
+        full = batch;
+      }
+    }
+    if (full != null) {
+      send(full);
+    }
+  }
+
+  /**
+   * Fail all the pending writes, used when the service is stopped.
+   */
+  void close() {
+    List<Batch> pending;
+    synchronized (this) {
+      pending = new ArrayList<>(batches.values());
+      batches.clear();
+    }
+    for (Batch batch : pending) {
+      vertx.cancelTimer(batch.timerID);
+      IllegalStateException e = new IllegalStateException("Service stopped before the write was sent");
+      for (SingleResultCallback<Void> callback : batch.callbacks) {
+        callback.onResult(null, e);
+      }
+    }
+  }
+
+  JsonObject metrics() {
+    long w = writes.get();
+    long b = bulkWrites.get();
+    return new JsonObject()
+      .put("writes", w)
+      .put("bulkWrites", b)
+      .put("ratio", b == 0 ? 0d : (double) w / b);
+  }
+
+  private void flush(Batch batch) {
+    synchronized (this) {
+      // The batch may have been sent already because it filled up
+      if (batches.get(batch.key) != batch) {
+        return;
+      }
+      batches.remove(batch.key);
+    }
+    send(batch);
+  }
+
+  private void send(Batch batch) {
+    writes.addAndGet(batch.models.size());
+    send(batch, 0);
+  }
+
+  /**
+   * Send the writes of the batch starting at {@code from} as an ordered bulk write, so that writes to the same
+   * document are applied in the order they were issued. An ordered bulk write stops at the first failed write, the
+   * writes after it are sent again as a new bulk write since each write must succeed or fail on its own.
+   */
+  private void send(Batch batch, int from) {
+    bulkWrites.incrementAndGet();
+    List<WriteModel<JsonObject>> models = batch.models.subList(from, batch.models.size());
+    List<SingleResultCallback<Void>> callbacks = batch.callbacks.subList(from, batch.callbacks.size());
+    batch.coll.bulkWrite(models, ORDERED, (result, error) -> {
+      if (error == null) {
+        for (SingleResultCallback<Void> callback : callbacks) {
+          callback.onResult(null, null);
+        }
+      } else if (error instanceof MongoBulkWriteException) {
+        MongoBulkWriteException bwe = (MongoBulkWriteException) error;
+        // An ordered bulk write has at most one write error, the writes after it were not attempted
+        int failed = callbacks.size();
+        Throwable failure = null;
+        if (!bwe.getWriteErrors().isEmpty()) {
+          BulkWriteError writeError = bwe.getWriteErrors().get(0);
+          failed = writeError.getIndex();
+          failure = new MongoWriteException(writeError, bwe.getServerAddress());
+        }
+        // A write concern error applies to the writes which were applied
+        Throwable concernFailure = bwe.getWriteConcernError() != null ? bwe : null;
+        for (int i = 0; i < failed; i++) {
+          callbacks.get(i).onResult(null, concernFailure);
+        }
+        if (failure != null) {
+          callbacks.get(failed).onResult(null, failure);
+          if (failed + 1 < callbacks.size()) {
+            send(batch, from + failed + 1);
+          }
+        }
+      } else {
+        for (SingleResultCallback<Void> callback : callbacks) {
+          callback.onResult(null, error);
+        }
+      }
+    });
+  }
+
+  private static final class Batch {
+    final BatchKey key;
+    final MongoCollection<JsonObject> coll;
+    final List<WriteModel<JsonObject>> models = new ArrayList<>();
+    final List<SingleResultCallback<Void>> callbacks = new ArrayList<>();
+    long timerID;
+
+    Batch(BatchKey key, MongoCollection<JsonObject> coll) {
+      this.key = key;
+      this.coll = coll;
+    }
+  }
+
+  private static final class BatchKey {
+    final String collection;
+    final WriteOption writeOption;
+
+    BatchKey(String collection, WriteOption writeOption) {
+      this.collection = collection;
+      this.writeOption = writeOption;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      BatchKey other = (BatchKey) o;
+
+      return collection.equals(other.collection) && writeOption == other.writeOption;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * collection.hashCode() + Objects.hashCode(writeOption);
+    }
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2011-2014 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl.codec;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link JsonObjectCodec} for the documents of a single collection, which learns the shape of its documents and
+ * then handles them with a plan specialized for that shape.
+ * <p>
+ * Once enough consecutive documents have the same top level fields in the same order with the same types, documents
+ * are decoded and encoded slot by slot: names are compared against the expected names and the canonical names of the
+ * plan are used as keys, values are read and written without dispatching on their type, and decoded documents are
+ * sized for their fields up front. A field deviating from the plan, whether by its name, its type or its position, is
+ * handled by the generic path of the {@link JsonObjectCodec}, so the result is always the same as without a plan.
+ * <p>
+ * The top level {@code _id} of encoded documents is always handled by the generic path, as it is written first
+ * regardless of its position in the document.
+ * <p>
+ * Field names still go through the reader and the writer as strings: the binary reader decodes the name of each field
+ * along with its type, and the writer only accepts names as strings, so a plan cannot match or write the encoded bytes
+ * of its names. What a plan saves is the dispatch on the type of each value and the growth of the decoded map, which
+ * is a small part of the work for flat documents; {@code AdaptiveJsonObjectCodecBenchmark} measures it against the
+ * generic codec.
+ */
+public class AdaptiveJsonObjectCodec extends JsonObjectCodec {
+
+  private final ShapeTracker<DecodePlan> decodeShapes = new ShapeTracker<>(DecodePlan::new);
+  private final ShapeTracker<EncodePlan> encodeShapes = new ShapeTracker<>(EncodePlan::new);
+
+  /**
+   * @param codec  the codec to take the configuration from
+   */
+  public AdaptiveJsonObjectCodec(JsonObjectCodec codec) {
+    super(codec);
+  }
+
+  /**
+   * @return whether a plan is used to decode documents
+   */
+  public boolean isDecodePlanned() {
+    return decodeShapes.plan() != null;
+  }
+
+  /**
+   * @return whether a plan is used to encode documents
+   */
+  public boolean isEncodePlanned() {
+    return encodeShapes.plan() != null;
+  }
+
+  @Override
+  public JsonObject decode(BsonReader reader, DecoderContext decoderContext) {
+    DecodePlan plan = decodeShapes.plan();
+    if (plan != null) {
+      return decode(reader, decoderContext, plan);
+    } else if (decodeShapes.isLearning()) {
+      return learn(reader, decoderContext);
+    } else {
+      return super.decode(reader, decoderContext);
+    }
+  }
+
+  private JsonObject decode(BsonReader reader, DecoderContext ctx, DecodePlan plan) {
+    JsonObject object = new JsonObject(new LinkedHashMap<>(plan.capacity));
+    Map<String, Object> map = object.getMap();
+    String[] names = plan.names;
+    BsonType[] types = plan.types;
+    boolean deviated = false;
+    int slot = 0;
+
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String name = reader.readName();
+      if (!deviated && slot < names.length && types[slot] == reader.getCurrentBsonType() && names[slot].equals(name)) {
+        map.put(names[slot], plan.readers[slot].read(reader, ctx));
+        slot++;
+      } else {
+        deviated = true;
+        map.put(name, readValue(reader, ctx));
+      }
+    }
+    reader.readEndDocument();
+
+    decodeShapes.handled(deviated || slot != names.length);
+    return object;
+  }
+
+  private JsonObject learn(BsonReader reader, DecoderContext ctx) {
+    JsonObject object = newObject();
+    List<String> names = new ArrayList<>();
+    List<Object> types = new ArrayList<>();
+
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String name = reader.readName();
+      names.add(name);
+      types.add(reader.getCurrentBsonType());
+      add(object, name, readValue(reader, ctx));
+    }
+    reader.readEndDocument();
+
+    decodeShapes.observe(new DocumentShape(names, types));
+    return object;
+  }
+
+  @Override
+  public void encode(BsonWriter writer, JsonObject value, EncoderContext encoderContext) {
+    // Only documents are planned, not filters and updates
+    if (encoderContext.isEncodingCollectibleDocument()) {
+      EncodePlan plan = encodeShapes.plan();
+      if (plan != null) {
+        encode(writer, value, encoderContext, plan);
+        return;
+      } else if (encodeShapes.isLearning()) {
+        super.encode(writer, value, encoderContext);
+        encodeShapes.observe(shapeOf(value));
+        return;
+      }
+    }
+    super.encode(writer, value, encoderContext);
+  }
+
+  private void encode(BsonWriter writer, JsonObject value, EncoderContext ctx, EncodePlan plan) {
+    Map<String, Object> fields = value.getMap();
+    String[] names = plan.names;
+    Class<?>[] classes = plan.classes;
+    boolean deviated = false;
+    int slot = 0;
+
+    writer.writeStartDocument();
+    String written = writeIdField(writer, fields, ctx);
+    for (Map.Entry<String, Object> entry : fields.entrySet()) {
+      String key = entry.getKey();
+      if (written != null && written.equals(key)) {
+        continue;
+      }
+      Object fieldValue = entry.getValue();
+      writer.writeName(key);
+      if (!deviated && slot < names.length && fieldValue != null && fieldValue.getClass() == classes[slot] && names[slot].equals(key)) {
+        plan.writers[slot].write(writer, key, fieldValue, CHILD_CONTEXT);
+        slot++;
+      } else {
+        deviated = true;
+        writeValue(writer, key, fieldValue, CHILD_CONTEXT);
+      }
+    }
+    writer.writeEndDocument();
+
+    encodeShapes.handled(deviated || slot != names.length);
+  }
+
+  private static DocumentShape shapeOf(JsonObject value) {
+    Map<String, Object> fields = value.getMap();
+    List<String> names = new ArrayList<>(fields.size());
+    List<Object> classes = new ArrayList<>(fields.size());
+    for (Map.Entry<String, Object> entry : fields.entrySet()) {
+      if (!ID_FIELD.equals(entry.getKey())) {
+        Object fieldValue = entry.getValue();
+        names.add(entry.getKey());
+        classes.add(fieldValue == null ? null : fieldValue.getClass());
+      }
+    }
+    return new DocumentShape(names, classes);
+  }
+
+  @FunctionalInterface
+  private interface ValueReader {
+    Object read(BsonReader reader, DecoderContext ctx);
+  }
+
+  private final class DecodePlan {
+    final String[] names;
+    final BsonType[] types;
+    final ValueReader[] readers;
+    final int capacity;
+
+    DecodePlan(DocumentShape shape) {
+      names = shape.names;
+      types = new BsonType[shape.size()];
+      readers = new ValueReader[shape.size()];
+      for (int i = 0; i < types.length; i++) {
+        types[i] = (BsonType) shape.types[i];
+        readers[i] = readerFor(types[i]);
+      }
+      capacity = (int) (names.length / 0.75f) + 1;
+    }
+
+    private ValueReader readerFor(BsonType type) {
+      switch (type) {
+        case BOOLEAN:
+          return AdaptiveJsonObjectCodec.this::readBoolean;
+        case DOUBLE:
+          return AdaptiveJsonObjectCodec.this::readDouble;
+        case INT32:
+          return AdaptiveJsonObjectCodec.this::readInt32;
+        case INT64:
+          return AdaptiveJsonObjectCodec.this::readInt64;
+        case STRING:
+          return AdaptiveJsonObjectCodec.this::readString;
+        case OBJECT_ID:
+          return AdaptiveJsonObjectCodec.this::readObjectId;
+        case DATE_TIME:
+          return AdaptiveJsonObjectCodec.this::readDateTime;
+        default:
+          return AdaptiveJsonObjectCodec.this::readValue;
+      }
+    }
+  }
+
+  private final class EncodePlan {
+    final String[] names;
+    final Class<?>[] classes;
+    final ValueWriter[] writers;
+
+    EncodePlan(DocumentShape shape) {
+      names = shape.names;
+      classes = new Class<?>[shape.size()];
+      writers = new ValueWriter[shape.size()];
+      for (int i = 0; i < classes.length; i++) {
+        classes[i] = (Class<?>) shape.types[i];
+        // Slots of null values never match, as null has no class
+        writers[i] = classes[i] == null ? null : writerFor(classes[i]);
+      }
+    }
+  }
+}
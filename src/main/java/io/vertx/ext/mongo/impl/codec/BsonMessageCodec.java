@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl.codec;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import io.vertx.ext.mongo.impl.codec.json.LazyBsonMap;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.util.Map;
+
+/**
+ * An event bus codec carrying json objects and json arrays as BSON rather than as json text.
+ * <p>
+ * Received objects are decoded lazily, see {@link LazyBsonMap}, so their fields are only decoded when read, and an
+ * object which is not modified is written to mongo, or sent again on the event bus, as the bytes it was received as.
+ * Likewise lazily decoded results are sent as the bytes read from mongo.
+ */
+public class BsonMessageCodec implements MessageCodec<Object, Object> {
+
+  public static final String NAME = "mongo-bson";
+
+  private static final String REGISTERED_CODECS_MAP_NAME = "__vertx.MongoService.codecs";
+  private static final byte OBJECT = 0;
+  private static final byte ARRAY = 1;
+  // Arrays are sent as the single field of a document
+  private static final String ARRAY_FIELD = "a";
+
+  private final JsonObjectCodec codec = new JsonObjectCodec();
+
+  /**
+   * Register the codec on the event bus of a Vert.x instance, unless it is already registered.
+   *
+   * @param vertx  the Vert.x instance
+   */
+  public static void register(Vertx vertx) {
+    LocalMap<String, Boolean> registered = vertx.sharedData().getLocalMap(REGISTERED_CODECS_MAP_NAME);
+    if (registered.putIfAbsent(NAME, true) == null) {
+      vertx.eventBus().registerCodec(new BsonMessageCodec());
+    }
+  }
+
+  @Override
+  public void encodeToWire(Buffer buffer, Object body) {
+    byte[] bytes;
+    if (body instanceof JsonArray) {
+      buffer.appendByte(ARRAY);
+      bytes = encode(new JsonObject().put(ARRAY_FIELD, body));
+    } else {
+      buffer.appendByte(OBJECT);
+      bytes = encode((JsonObject) body);
+    }
+    buffer.appendInt(bytes.length);
+    buffer.appendBytes(bytes);
+  }
+
+  @Override
+  public Object decodeFromWire(int pos, Buffer buffer) {
+    byte kind = buffer.getByte(pos);
+    int length = buffer.getInt(pos + 1);
+    JsonObject json = new JsonObject(new LazyBsonMap(buffer.getBytes(pos + 5, pos + 5 + length)));
+    return kind == ARRAY ? json.getJsonArray(ARRAY_FIELD) : json;
+  }
+
+  @Override
+  public Object transform(Object body) {
+    if (body instanceof JsonArray) {
+      return JsonObjectCodec.copy((JsonArray) body);
+    }
+    return JsonObjectCodec.copy((JsonObject) body);
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte systemCodecID() {
+    return -1;
+  }
+
+  private byte[] encode(JsonObject json) {
+    Map<String, Object> map = json.getMap();
+    byte[] bytes = map instanceof LazyBsonMap ? ((LazyBsonMap) map).bytes() : null;
+    if (bytes != null) {
+      return bytes;
+    }
+    BasicOutputBuffer buffer = new BasicOutputBuffer();
+    codec.encode(new BsonBinaryWriter(buffer), json, EncoderContext.builder().build());
+    return buffer.toByteArray();
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2011-2014 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl.codec;
+
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * A codec for data object classes, which have a public constructor taking a {@link JsonObject} and, to be encoded, a
+ * public {@code toJson()} method returning a {@link JsonObject}.
+ * <p>
+ * Documents are decoded into a json object which is passed to the constructor, so the json object is the only
+ * intermediate representation. Classes needing to be decoded straight from BSON should have a codec registered
+ * instead.
+ *
+ * @param <T> the data object class
+ */
+public class DataObjectCodec<T> implements Codec<T> {
+
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, JsonObject.class);
+  private static final MethodType TO_JSON_TYPE = MethodType.methodType(JsonObject.class);
+
+  private final Class<T> type;
+  private final Codec<JsonObject> jsonObjectCodec;
+  private final MethodHandle constructor;
+  private final MethodHandle toJson;
+
+  private DataObjectCodec(Class<T> type, Codec<JsonObject> jsonObjectCodec, MethodHandle constructor, MethodHandle toJson) {
+    this.type = type;
+    this.jsonObjectCodec = jsonObjectCodec;
+    this.constructor = constructor;
+    this.toJson = toJson;
+  }
+
+  /**
+   * @param type  the class
+   * @param jsonObjectCodec  the codec of the json objects data objects are converted from and to
+   * @return the codec, or null if the class is not a data object class
+   */
+  public static <T> DataObjectCodec<T> create(Class<T> type, Codec<JsonObject> jsonObjectCodec) {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    MethodHandle constructor;
+    try {
+      constructor = lookup.findConstructor(type, CONSTRUCTOR_TYPE).asType(MethodType.methodType(Object.class, JsonObject.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+    MethodHandle toJson;
+    try {
+      toJson = lookup.findVirtual(type, "toJson", TO_JSON_TYPE).asType(MethodType.methodType(JsonObject.class, Object.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      toJson = null;
+    }
+    return new DataObjectCodec<>(type, jsonObjectCodec, constructor, toJson);
+  }
+
+  @Override
+  public T decode(BsonReader reader, DecoderContext decoderContext) {
+    JsonObject json = jsonObjectCodec.decode(reader, decoderContext);
+    try {
+      return type.cast((Object) constructor.invokeExact(json));
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new CodecConfigurationException("Could not create an instance of " + type.getName(), t);
+    }
+  }
+
+  @Override
+  public void encode(BsonWriter writer, T value, EncoderContext encoderContext) {
+    if (toJson == null) {
+      throw new CodecConfigurationException(type.getName() + " has no toJson() method, it can't be encoded");
+    }
+    JsonObject json;
+    try {
+      json = (JsonObject) toJson.invokeExact((Object) value);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new CodecConfigurationException("Could not convert an instance of " + type.getName() + " to json", t);
+    }
+    jsonObjectCodec.encode(writer, json, encoderContext);
+  }
+
+  @Override
+  public Class<T> getEncoderClass() {
+    return type;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2011-2014 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl.codec;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The shape of a document: the names of its top level fields in order, and the type of each of them. Types are bson
+ * types for decoded documents, and java classes for encoded documents.
+ */
+final class DocumentShape {
+
+  final String[] names;
+  final Object[] types;
+
+  DocumentShape(List<String> names, List<Object> types) {
+    this.names = names.toArray(new String[names.size()]);
+    this.types = types.toArray();
+  }
+
+  int size() {
+    return names.length;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    DocumentShape other = (DocumentShape) o;
+
+    return Arrays.equals(names, other.names) && Arrays.equals(types, other.types);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(names) + Arrays.hashCode(types);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2011-2014 The original author or authors
+ * ------------------------------------------------------
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Apache License v2.0 which accompanies this distribution.
+ *
+ *     The Eclipse Public License is available at
+ *     http://www.eclipse.org/legal/epl-v10.html
+ *
+ *     The Apache License v2.0 is available at
+ *     http://www.opensource.org/licenses/apache2.0.php
+ *
+ * You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo.impl.codec;
+
+import java.util.function.Function;
+
+/**
+ * Learns the shape of the documents of a collection, and compiles a plan for it once enough consecutive documents
+ * share the same shape.
+ * <p>
+ * The plan is dropped when too many documents deviate from it, and learning starts again. Learning gives up after
+ * {@link #MAX_LEARNT_DOCUMENTS} documents without a stable shape, so that collections without a fixed shape don't
+ * pay for it. The counters are updated without synchronization: concurrent updates may delay or hasten a decision,
+ * which is harmless as documents deviating from the plan are always handled.
+ *
+ * @param <P> the type of the compiled plan
+ */
+final class ShapeTracker<P> {
+
+  static final int REQUIRED_MATCHES = 16;
+  static final int MAX_LEARNT_DOCUMENTS = 1024;
+  static final int WINDOW = 64;
+  static final int MAX_DEVIATIONS = 8;
+
+  private final Function<DocumentShape, P> compiler;
+  private volatile P plan;
+  private volatile boolean learning = true;
+
+  private DocumentShape candidate;
+  private int matches;
+  private int learnt;
+  private int documents;
+  private int deviations;
+
+  ShapeTracker(Function<DocumentShape, P> compiler) {
+    this.compiler = compiler;
+  }
+
+  /**
+   * @return the compiled plan, or null when no shape has been learnt
+   */
+  P plan() {
+    return plan;
+  }
+
+  /**
+   * @return whether the shape of documents should be reported with {@link #observe(DocumentShape)}
+   */
+  boolean isLearning() {
+    return learning;
+  }
+
+  void observe(DocumentShape shape) {
+    if (shape.equals(candidate)) {
+      if (++matches >= REQUIRED_MATCHES) {
+        documents = 0;
+        deviations = 0;
+        learning = false;
+        plan = compiler.apply(shape);
+        return;
+      }
+    } else {
+      candidate = shape;
+      matches = 1;
+    }
+    if (++learnt >= MAX_LEARNT_DOCUMENTS) {
+      learning = false;
+    }
+  }
+
+  /**
+   * Report a document handled with the plan.
+   *
+   * @param deviated  whether the document deviated from the plan
+   */
+  void handled(boolean deviated) {
+    if (deviated && ++deviations > MAX_DEVIATIONS) {
+      plan = null;
+      candidate = null;
+      matches = 0;
+      learnt = 0;
+      learning = true;
+    } else if (++documents >= WINDOW) {
+      documents = 0;
+      deviations = 0;
+    }
+  }
+}
@@ -21,19 +21,76 @@ import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
 import org.bson.codecs.Codec;
 import org.bson.codecs.configuration.CodecRegistry;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
+ * A codec registry for json objects, codecs registered for other classes and data object classes, see
+ * {@link DataObjectCodec}.
+ * <p>
+ * Lookups don't go through a chain of providers: json objects are matched first, then registered codecs are looked up
+ * by class, and data object codecs are created once per class and cached.
+ *
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
  */
 public class VertxCodecRegistry implements CodecRegistry {
-  private Codec<JsonObject> jsonObjectCodec = new JsonObjectCodec();
+  private final Codec<JsonObject> jsonObjectCodec;
+  private final Map<Class<?>, Codec<?>> codecs;
+  private final ClassValue<Codec<?>> dataObjectCodecs = new ClassValue<Codec<?>>() {
+    @Override
+    protected Codec<?> computeValue(Class<?> type) {
+      return DataObjectCodec.create(type, jsonObjectCodec);
+    }
+  };
+
+  public VertxCodecRegistry() {
+    this(new JsonObjectCodec());
+  }
+
+  public VertxCodecRegistry(Codec<JsonObject> jsonObjectCodec) {
+    this(jsonObjectCodec, new ConcurrentHashMap<>());
+  }
+
+  /**
+   * @param jsonObjectCodec  the codec of json objects
+   * @param codecs  the codecs of other classes by class, which may be shared with other registries and may be
+   *                modified, so it must be thread safe
+   */
+  public VertxCodecRegistry(Codec<JsonObject> jsonObjectCodec, Map<Class<?>, Codec<?>> codecs) {
+    this.jsonObjectCodec = jsonObjectCodec;
+    this.codecs = codecs;
+  }
+
+  /**
+   * @param jsonObjectCodec  the codec of json objects
+   * @return a registry with another json object codec, sharing the codecs of other classes with this registry
+   */
+  public VertxCodecRegistry withJsonObjectCodec(Codec<JsonObject> jsonObjectCodec) {
+    return new VertxCodecRegistry(jsonObjectCodec, codecs);
+  }
+
+  /**
+   * Register the codec of its encoder class, replacing any codec previously registered for it.
+   *
+   * @param codec  the codec
+   */
+  public void register(Codec<?> codec) {
+    codecs.put(codec.getEncoderClass(), codec);
+  }
 
   @Override
   @SuppressWarnings("unchecked")
   public <T> Codec<T> get(Class<T> clazz) {
     if (clazz == JsonObject.class) {
       return (Codec<T>) jsonObjectCodec;
-    } else {
-      throw new IllegalArgumentException("No codec support for type " + clazz);
     }
+    Codec<?> codec = codecs.get(clazz);
+    if (codec == null) {
+      codec = dataObjectCodecs.get(clazz);
+      if (codec == null) {
+        throw new IllegalArgumentException("No codec support for type " + clazz);
+      }
+    }
+    return (Codec<T>) codec;
   }
 }
@@ -7,10 +7,9 @@ import org.bson.codecs.Codec;
 import org.bson.codecs.DecoderContext;
 import org.bson.codecs.EncoderContext;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
 
 /**
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
@@ -18,6 +17,18 @@ import java.util.function.Consumer;
 @SuppressWarnings("unused")
 public abstract class AbstractJsonCodec<O, A> implements Codec<O> {
 
+  /**
+   * The context the values of a document are written in, a nested document is never the collectible document itself.
+   */
+  protected static final EncoderContext CHILD_CONTEXT = EncoderContext.builder().build();
+
+  private final ClassValue<ValueWriter> writers = new ClassValue<ValueWriter>() {
+    @Override
+    protected ValueWriter computeValue(Class<?> type) {
+      return createWriter(type);
+    }
+  };
+
   @Override
   public O decode(BsonReader reader, DecoderContext decoderContext) {
     return readDocument(reader, decoderContext);
@@ -76,93 +87,111 @@ public abstract class AbstractJsonCodec<O, A> implements Codec<O> {
     }
   }
 
-  @SuppressWarnings("unchecked")
   protected void writeValue(BsonWriter writer, String name, Object value, EncoderContext ctx) {
-    BsonType type = getBsonType(value);
-    switch (type) {
+    if (value == null) {
+      writeNull(writer, name, null, ctx);
+    } else {
+      writers.get(value.getClass()).write(writer, name, value, ctx);
+    }
+  }
+
+  /**
+   * @return the writer of the values of a class, see {@link #resolveBsonType(Class)}
+   */
+  protected ValueWriter writerFor(Class<?> type) {
+    return writers.get(type);
+  }
+
+  protected BsonType getBsonType(Object value) {
+    return value == null ? BsonType.NULL : resolveBsonType(value.getClass());
+  }
+
+  /**
+   * Determine the bson type values of a class are written as. The result is computed once per class, so it must
+   * only depend on the class and not on the value.
+   *
+   * @return the bson type, or null if values of this class can't be written
+   */
+  protected BsonType resolveBsonType(Class<?> type) {
+    if (type == Boolean.class) {
+      return BsonType.BOOLEAN;
+    } else if (type == Double.class) {
+      return BsonType.DOUBLE;
+    } else if (type == Integer.class) {
+      return BsonType.INT32;
+    } else if (type == Long.class) {
+      return BsonType.INT64;
+    } else if (type == String.class) {
+      return BsonType.STRING;
+    } else if (isObjectType(type)) {
+      return BsonType.DOCUMENT;
+    } else if (isArrayType(type)) {
+      return BsonType.ARRAY;
+    } else {
+      return null;
+    }
+  }
+
+  private ValueWriter createWriter(Class<?> type) {
+    BsonType bsonType = resolveBsonType(type);
+    if (bsonType == null) {
+      return (writer, name, value, ctx) -> {
+        throw new IllegalArgumentException("Cannot encode value of type " + type.getName() +
+          (name != null ? " for field " + name : ""));
+      };
+    }
+    switch (bsonType) {
       case NULL:
-        writeNull(writer, name, value, ctx);
-        break;
+        return this::writeNull;
       case ARRAY:
-        writeArray(writer, name, value, ctx);
-        break;
+        return this::writeArray;
       case BINARY:
-        writeBinary(writer, name, value, ctx);
-        break;
+        return this::writeBinary;
       case BOOLEAN:
-        writeBoolean(writer, name, value, ctx);
-        break;
+        return this::writeBoolean;
       case DATE_TIME:
-        writeDateTime(writer, name, value, ctx);
-        break;
+        return this::writeDateTime;
       case DB_POINTER:
-        writeDbPointer(writer, name, value, ctx);
-        break;
+        return this::writeDbPointer;
       case DOCUMENT:
-        writeDocument(writer, name, value, ctx);
-        break;
+        return this::writeDocument;
       case DOUBLE:
-        writeDouble(writer, name, value, ctx);
-        break;
+        return this::writeDouble;
       case INT32:
-        writeInt32(writer, name, value, ctx);
-        break;
+        return this::writeInt32;
       case INT64:
-        writeInt64(writer, name, value, ctx);
-        break;
+        return this::writeInt64;
       case MAX_KEY:
-        writeMaxKey(writer, name, value, ctx);
-        break;
+        return this::writeMaxKey;
       case MIN_KEY:
-        writeMinKey(writer, name, value, ctx);
-        break;
+        return this::writeMinKey;
       case JAVASCRIPT:
-        writeJavaScript(writer, name, value, ctx);
-        break;
+        return this::writeJavaScript;
       case JAVASCRIPT_WITH_SCOPE:
-        writeJavaScriptWithScope(writer, name, value, ctx);
-        break;
+        return this::writeJavaScriptWithScope;
       case OBJECT_ID:
-        writeObjectId(writer, name, value, ctx);
-        break;
+        return this::writeObjectId;
       case REGULAR_EXPRESSION:
-        writeRegularExpression(writer, name, value, ctx);
-        break;
+        return this::writeRegularExpression;
       case STRING:
-        writeString(writer, name, value, ctx);
-        break;
+        return this::writeString;
       case SYMBOL:
-        writeSymbol(writer, name, value, ctx);
-        break;
+        return this::writeSymbol;
       case TIMESTAMP:
-        writeTimeStamp(writer, name, value, ctx);
-        break;
+        return this::writeTimeStamp;
       case UNDEFINED:
-        writeUndefined(writer, name, value, ctx);
-        break;
+        return this::writeUndefined;
       default:
-        throw new IllegalStateException("Unknown bson type " + type);
+        throw new IllegalStateException("Unknown bson type " + bsonType);
     }
   }
 
-  protected BsonType getBsonType(Object value) {
-    if (value instanceof Boolean) {
-      return BsonType.BOOLEAN;
-    } else if (value instanceof Double) {
-      return BsonType.DOUBLE;
-    } else if (value instanceof Integer) {
-      return BsonType.INT32;
-    } else if (value instanceof Long) {
-      return BsonType.INT64;
-    } else if (value instanceof String) {
-      return BsonType.STRING;
-    } else if (isObjectInstance(value)) {
-      return BsonType.DOCUMENT;
-    } else if (isArrayInstance(value)) {
-      return BsonType.ARRAY;
-    } else {
-      return null;
-    }
+  /**
+   * Writes a value of a given class, resolved once per class from {@link #resolveBsonType(Class)}.
+   */
+  @FunctionalInterface
+  protected interface ValueWriter {
+    void write(BsonWriter writer, String name, Object value, EncoderContext ctx);
   }
 
   //------------------- Basic types
@@ -231,27 +260,54 @@ public abstract class AbstractJsonCodec<O, A> implements Codec<O> {
     return object;
   }
 
+  /**
+   * Read a document, decoding only the fields of the projection. The other fields are skipped by the reader.
+   */
+  protected O readDocument(BsonReader reader, DecoderContext ctx, FieldProjection projection) {
+    O object = newObject();
+
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String name = reader.readName();
+      FieldProjection field = projection.get(name);
+      if (field == null) {
+        reader.skipValue();
+      } else if (field.includesAll()) {
+        add(object, name, readValue(reader, ctx));
+      } else {
+        BsonType type = reader.getCurrentBsonType();
+        if (type == BsonType.DOCUMENT) {
+          add(object, name, readDocument(reader, ctx, field));
+        } else if (type == BsonType.ARRAY) {
+          add(object, name, readArray(reader, ctx, field));
+        } else {
+          // Only sub fields are requested, and this value has none
+          reader.skipValue();
+        }
+      }
+    }
+    reader.readEndDocument();
+
+    return object;
+  }
+
   protected void writeDocument(BsonWriter writer, String name, Object value, EncoderContext ctx) {
-    @SuppressWarnings("unchecked")
-    O object = (O) value;
+    Map<String, Object> fields = asMap(value);
 
     writer.writeStartDocument();
 
-    Set<String> skip = new HashSet<>();
+    String written = null;
     if (ctx.isEncodingCollectibleDocument()) {
-      beforeFields(object, (k, v) -> {
-        skip.add(k);
-        writer.writeName(k);
-        writeValue(writer, k, v, ctx);
-      });
+      written = writeIdField(writer, fields, ctx);
     }
 
-    forEach(object, (k, v) -> {
-      if (!skip.contains(k)) {
-        writer.writeName(k);
-        writeValue(writer, k, v, ctx);
+    for (Map.Entry<String, Object> entry : fields.entrySet()) {
+      String key = entry.getKey();
+      if (written == null || !written.equals(key)) {
+        writer.writeName(key);
+        writeValue(writer, key, entry.getValue(), CHILD_CONTEXT);
       }
-    });
+    }
 
     writer.writeEndDocument();
   }
@@ -260,12 +316,21 @@ public abstract class AbstractJsonCodec<O, A> implements Codec<O> {
 
   protected abstract void add(O object, String name, Object value);
 
-  protected abstract boolean isObjectInstance(Object instance);
+  protected abstract boolean isObjectType(Class<?> type);
 
-  protected void beforeFields(O object, BiConsumer<String, Object> objectConsumer) {
+  /**
+   * Write the field that must come first in a collectible document, typically the id, before all other fields.
+   *
+   * @return the name of the field written, which is then skipped, or null if nothing was written
+   */
+  protected String writeIdField(BsonWriter writer, Map<String, Object> fields, EncoderContext ctx) {
+    return null;
   }
 
-  protected abstract void forEach(O object, BiConsumer<String, Object> objectConsumer);
+  /**
+   * @return the fields of an object, the returned map is iterated but never modified
+   */
+  protected abstract Map<String, Object> asMap(Object object);
 
   //-------------- JSON Array
 
@@ -281,12 +346,41 @@ public abstract class AbstractJsonCodec<O, A> implements Codec<O> {
     return array;
   }
 
+  /**
+   * Read an array, keeping only the fields of the projection in its documents and dropping its other elements.
+   */
+  protected A readArray(BsonReader reader, DecoderContext ctx, FieldProjection projection) {
+    A array = newArray();
+
+    reader.readStartArray();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      BsonType type = reader.getCurrentBsonType();
+      if (type == BsonType.DOCUMENT) {
+        add(array, readDocument(reader, ctx, projection));
+      } else if (type == BsonType.ARRAY) {
+        add(array, readArray(reader, ctx, projection));
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.readEndArray();
+
+    return array;
+  }
+
   protected void writeArray(BsonWriter writer, String name, Object value, EncoderContext ctx) {
-    @SuppressWarnings("unchecked")
-    A array = (A) value;
+    List<Object> list = asList(value);
 
     writer.writeStartArray();
-    forEach(array, o -> writeValue(writer, null, o, ctx));
+    if (list instanceof RandomAccess) {
+      for (int i = 0, size = list.size(); i < size; i++) {
+        writeValue(writer, null, list.get(i), ctx);
+      }
+    } else {
+      for (Object element : list) {
+        writeValue(writer, null, element, ctx);
+      }
+    }
     writer.writeEndArray();
   }
 
@@ -294,9 +388,12 @@ public abstract class AbstractJsonCodec<O, A> implements Codec<O> {
 
   protected abstract void add(A array, Object value);
 
-  protected abstract boolean isArrayInstance(Object instance);
+  protected abstract boolean isArrayType(Class<?> type);
 
-  protected abstract void forEach(A array, Consumer<Object> arrayConsumer);
+  /**
+   * @return the elements of an array, the returned list is iterated but never modified
+   */
+  protected abstract List<Object> asList(Object array);
 
   //-------------- Extended Mongo JSON types
 
@@ -0,0 +1,126 @@
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded intern table of decoded field names.
+ * <p>
+ * Collections usually repeat the same few field names across all their documents. The table maps the raw UTF-8 bytes
+ * of a name to a canonical {@code String}, so that a hit neither decodes the name nor allocates a new string, and
+ * documents decoded from the same collection share their keys.
+ * <p>
+ * The table is direct mapped: each name hashes to a single slot, and a name replaces whatever name held its slot
+ * before. Slots hold immutable entries, so the table is safe to share between threads without locking.
+ */
+public class FieldNameCache {
+
+  public static final int DEFAULT_SIZE = 1024;
+
+  /**
+   * Longer names are rarely repeated, and comparing them costs about as much as decoding them
+   */
+  static final int MAX_NAME_LENGTH = 64;
+
+  private final Entry[] entries;
+  private final int mask;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param size  the number of slots, rounded up to a power of two
+   */
+  public FieldNameCache(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("size must be > 0");
+    }
+    int slots = Integer.highestOneBit(size);
+    if (slots < size) {
+      slots <<= 1;
+    }
+    this.entries = new Entry[slots];
+    this.mask = slots - 1;
+  }
+
+  /**
+   * @return the canonical name for the UTF-8 bytes of a name
+   */
+  public String name(byte[] bytes, int offset, int length) {
+    if (length > MAX_NAME_LENGTH) {
+      misses.increment();
+      return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+    // Same as String.hashCode() for ascii names, so that both lookups share their slots
+    int hash = 0;
+    for (int i = offset; i < offset + length; i++) {
+      hash = 31 * hash + bytes[i];
+    }
+    int slot = hash & mask;
+    Entry entry = entries[slot];
+    if (entry != null && entry.hash == hash && entry.matches(bytes, offset, length)) {
+      hits.increment();
+      return entry.name;
+    }
+    misses.increment();
+    String name = new String(bytes, offset, length, StandardCharsets.UTF_8);
+    byte[] utf8 = new byte[length];
+    System.arraycopy(bytes, offset, utf8, 0, length);
+    entries[slot] = new Entry(hash, utf8, name);
+    return name;
+  }
+
+  /**
+   * @return the canonical instance of an already decoded name
+   */
+  public String name(String name) {
+    if (name.length() > MAX_NAME_LENGTH) {
+      misses.increment();
+      return name;
+    }
+    int hash = name.hashCode();
+    int slot = hash & mask;
+    Entry entry = entries[slot];
+    if (entry != null && entry.hash == hash && entry.name.equals(name)) {
+      hits.increment();
+      return entry.name;
+    }
+    misses.increment();
+    entries[slot] = new Entry(hash, name.getBytes(StandardCharsets.UTF_8), name);
+    return name;
+  }
+
+  public JsonObject metrics() {
+    long h = hits.sum();
+    long m = misses.sum();
+    return new JsonObject()
+      .put("hits", h)
+      .put("misses", m)
+      .put("hitRate", h + m == 0 ? 0d : (double) h / (h + m));
+  }
+
+  private static final class Entry {
+    final int hash;
+    final byte[] utf8;
+    final String name;
+
+    Entry(int hash, byte[] utf8, String name) {
+      this.hash = hash;
+      this.utf8 = utf8;
+      this.name = name;
+    }
+
+    boolean matches(byte[] bytes, int offset, int length) {
+      if (utf8.length != length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (utf8[i] != bytes[offset + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A whitelist of field paths, used to decode only the requested fields of a document.
+ * <p>
+ * Each node of the whitelist either includes a field with all its content, or only the listed sub fields of it.
+ * Fields which are not listed are skipped by the reader without being decoded. When a field with listed sub fields
+ * holds an array, the sub fields are selected in each document of the array and other elements are dropped, like the
+ * server does for projections.
+ */
+public final class FieldProjection {
+
+  private static final FieldProjection ALL = new FieldProjection(Collections.emptyMap());
+
+  private final Map<String, FieldProjection> fields;
+
+  private FieldProjection(Map<String, FieldProjection> fields) {
+    this.fields = fields;
+  }
+
+  /**
+   * Create the whitelist matching an inclusion projection, such as the {@code fields} of a find. Dotted names select
+   * nested fields, and the {@code _id} field is included unless it is explicitly excluded.
+   * <p>
+   * Fields with a projection operator such as {@code $slice} or {@code $elemMatch} are included whole, the operator
+   * being applied by the server. A projection with operators only returns all the other fields too, so it is not an
+   * inclusion projection.
+   *
+   * @param fields  the projection
+   * @return the whitelist, or null when the projection is not an inclusion projection, so can't be used as a whitelist
+   */
+  public static FieldProjection fromFields(JsonObject fields) {
+    if (fields == null) {
+      return null;
+    }
+    Map<String, FieldProjection> root = new HashMap<>();
+    boolean includeId = true;
+    boolean inclusion = false;
+    for (Map.Entry<String, Object> entry : fields) {
+      String path = entry.getKey();
+      Object value = entry.getValue();
+      boolean included = isIncluded(value);
+      if (JsonObjectCodec.ID_FIELD.equals(path)) {
+        includeId = included;
+      } else if (!included) {
+        return null;
+      } else {
+        inclusion |= value instanceof Boolean || value instanceof Number;
+        if (path.endsWith(".$")) {
+          path = path.substring(0, path.length() - 2);
+        }
+        include(root, path);
+      }
+    }
+    if (!inclusion) {
+      return null;
+    }
+    if (includeId) {
+      root.put(JsonObjectCodec.ID_FIELD, ALL);
+    }
+    return new FieldProjection(root);
+  }
+
+  /**
+   * Create the whitelist of the specified dotted paths.
+   *
+   * @param paths  the paths of the fields to include
+   * @return the whitelist
+   */
+  public static FieldProjection of(String... paths) {
+    Map<String, FieldProjection> root = new HashMap<>();
+    for (String path : paths) {
+      include(root, path);
+    }
+    return new FieldProjection(root);
+  }
+
+  private static boolean isIncluded(Object value) {
+    if (value instanceof Boolean) {
+      return (Boolean) value;
+    } else if (value instanceof Number) {
+      return ((Number) value).doubleValue() != 0;
+    } else {
+      // Projection operators
+      return value != null;
+    }
+  }
+
+  private static void include(Map<String, FieldProjection> root, String path) {
+    Map<String, FieldProjection> fields = root;
+    int start = 0;
+    while (true) {
+      int dot = path.indexOf('.', start);
+      if (dot == -1) {
+        fields.put(path.substring(start), ALL);
+        return;
+      }
+      String name = path.substring(start, dot);
+      FieldProjection field = fields.get(name);
+      if (field == ALL) {
+        // The whole field is already included
+        return;
+      }
+      if (field == null) {
+        field = new FieldProjection(new HashMap<>());
+        fields.put(name, field);
+      }
+      fields = field.fields;
+      start = dot + 1;
+    }
+  }
+
+  /**
+   * @param name  the name of a field
+   * @return the whitelist of the field, or null if the field is not included
+   */
+  public FieldProjection get(String name) {
+    return fields.get(name);
+  }
+
+  /**
+   * @return whether the field is included with all its content
+   */
+  public boolean includesAll() {
+    return this == ALL;
+  }
+}
@@ -0,0 +1,84 @@
+package io.vertx.ext.mongo.impl.codec.json;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list backed by an {@code int[]}. It is the list of json arrays of 32-bit integers, so that the values are only
+ * boxed when they are read through the list.
+ * <p>
+ * Setting an integer keeps the values in the array. Any other change, such as adding or removing a value or setting a
+ * value of another type, first copies the values into a list of boxed values, which then backs the list.
+ */
+public final class IntArrayList extends AbstractList<Object> implements RandomAccess {
+
+  private int[] values;
+  private List<Object> boxed;
+
+  /**
+   * @param values  the values, not copied
+   */
+  public IntArrayList(int[] values) {
+    this.values = values;
+  }
+
+  /**
+   * @return the backing array, changes to it are visible through the list, or null once the list holds boxed values
+   */
+  public int[] array() {
+    return values;
+  }
+
+  @Override
+  public Object get(int index) {
+    if (boxed != null) {
+      return boxed.get(index);
+    }
+    return values[index];
+  }
+
+  @Override
+  public Object set(int index, Object element) {
+    if (boxed == null && element instanceof Integer) {
+      int previous = values[index];
+      values[index] = (Integer) element;
+      return previous;
+    }
+    return box().set(index, element);
+  }
+
+  @Override
+  public void add(int index, Object element) {
+    box().add(index, element);
+    modCount++;
+  }
+
+  @Override
+  public Object remove(int index) {
+    Object previous = box().remove(index);
+    modCount++;
+    return previous;
+  }
+
+  @Override
+  public int size() {
+    if (boxed != null) {
+      return boxed.size();
+    }
+    return values.length;
+  }
+
+  private List<Object> box() {
+    if (boxed == null) {
+      List<Object> list = new ArrayList<>(values.length + 1);
+      for (int value : values) {
+        list.add(value);
+      }
+      boxed = list;
+      values = null;
+    }
+    return boxed;
+  }
+}
@@ -1,22 +1,130 @@
 package io.vertx.ext.mongo.impl.codec.json;
 
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import org.bson.BsonBinary;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonObjectId;
 import org.bson.BsonReader;
 import org.bson.BsonString;
+import org.bson.BsonType;
 import org.bson.BsonValue;
+import org.bson.BsonWriter;
 import org.bson.codecs.CollectibleCodec;
 import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
 import org.bson.types.ObjectId;
 
-import java.util.function.BiConsumer;
-import java.util.function.Consumer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
  */
 public class JsonObjectCodec extends AbstractJsonCodec<JsonObject, JsonArray> implements CollectibleCodec<JsonObject> {
   public static final String ID_FIELD = "_id";
+  public static final String BINARY_FIELD = "$binary";
+  public static final String BINARY_TYPE_FIELD = "$type";
+
+  private static final int INITIAL_ARRAY_CAPACITY = 16;
+
+  private final boolean useObjectId;
+  private final boolean filter;
+  private final JsonObjectCodec filterCodec;
+  private final FieldProjection projection;
+  private final boolean primitiveArrays;
+
+  public JsonObjectCodec() {
+    this(false);
+  }
+
+  /**
+   * When {@code useObjectId} is set, {@code _id} values which are valid object id hex strings are written as object
+   * ids. They are still read back as hex strings, so the json representation of documents doesn't change.
+   *
+   * @param useObjectId  whether to store ids as object ids
+   */
+  public JsonObjectCodec(boolean useObjectId) {
+    this(useObjectId, false);
+  }
+
+  private JsonObjectCodec(boolean useObjectId, boolean filter) {
+    this.useObjectId = useObjectId;
+    this.filter = filter;
+    if (filter || !useObjectId) {
+      this.filterCodec = this;
+    } else {
+      this.filterCodec = new JsonObjectCodec(true, true);
+    }
+    this.projection = null;
+    this.primitiveArrays = false;
+  }
+
+  /**
+   * Create a codec with the same configuration as another codec, sharing its filter codec.
+   *
+   * @param codec  the codec
+   */
+  protected JsonObjectCodec(JsonObjectCodec codec) {
+    this(codec, codec.projection, codec.primitiveArrays);
+  }
+
+  private JsonObjectCodec(JsonObjectCodec codec, FieldProjection projection, boolean primitiveArrays) {
+    this.useObjectId = codec.useObjectId;
+    this.filter = codec.filter;
+    this.filterCodec = codec.filterCodec;
+    this.projection = projection;
+    this.primitiveArrays = primitiveArrays;
+  }
+
+  /**
+   * The codec to encode query filters with. When ids are stored as object ids, it matches an {@code _id} hex string
+   * both as an object id and as a string, so that documents stored with string ids are still found.
+   *
+   * @return the codec for query filters
+   */
+  public JsonObjectCodec getFilterCodec() {
+    return filterCodec;
+  }
+
+  /**
+   * A codec decoding only the fields of the projection, the other fields are skipped without being decoded. The
+   * returned codec encodes like this one, and shares its filter codec.
+   *
+   * @param projection  the fields to decode
+   * @return the codec
+   */
+  public JsonObjectCodec withProjection(FieldProjection projection) {
+    return new JsonObjectCodec(this, projection, primitiveArrays);
+  }
+
+  /**
+   * A codec decoding arrays holding only doubles, only 64-bit integers or only 32-bit integers as json arrays backed
+   * by a {@link DoubleArrayList}, a {@link LongArrayList} or an {@link IntArrayList}, so that the numbers are not
+   * boxed. The returned codec encodes like this one, and shares its filter codec.
+   *
+   * @return the codec
+   */
+  public JsonObjectCodec withPrimitiveArrays() {
+    return new JsonObjectCodec(this, projection, true);
+  }
+
+  @Override
+  public JsonObject decode(BsonReader reader, DecoderContext decoderContext) {
+    if (projection != null) {
+      return readDocument(reader, decoderContext, projection);
+    }
+    return super.decode(reader, decoderContext);
+  }
 
   @Override
   public JsonObject generateIdIfAbsentFromDocument(JsonObject json) {
@@ -40,6 +148,9 @@ public class JsonObjectCodec extends AbstractJsonCodec<JsonObject, JsonArray> im
     }
 
     String id = json.getString(ID_FIELD);
+    if (useObjectId && ObjectId.isValid(id)) {
+      return new BsonObjectId(new ObjectId(id));
+    }
     return new BsonString(id);
   }
 
@@ -49,9 +160,27 @@ public class JsonObjectCodec extends AbstractJsonCodec<JsonObject, JsonArray> im
   }
 
   @Override
-  protected void beforeFields(JsonObject object, BiConsumer<String, Object> objectConsumer) {
-    if (object.containsKey(ID_FIELD)) {
-      objectConsumer.accept(ID_FIELD, object.getString(ID_FIELD));
+  protected String writeIdField(BsonWriter writer, Map<String, Object> fields, EncoderContext ctx) {
+    Object id = fields.get(ID_FIELD);
+    if (id == null && !fields.containsKey(ID_FIELD)) {
+      return null;
+    }
+    writer.writeName(ID_FIELD);
+    writeIdValue(writer, id);
+    return ID_FIELD;
+  }
+
+  /**
+   * Write the id of a top level document. Only this id is converted to an object id, an {@code _id} field of a nested
+   * document is written as is.
+   */
+  private void writeIdValue(BsonWriter writer, Object id) {
+    if (!useObjectId) {
+      writeValue(writer, ID_FIELD, id, CHILD_CONTEXT);
+    } else if (filter) {
+      writeIdFilter(writer, id, CHILD_CONTEXT);
+    } else {
+      writeId(writer, id, CHILD_CONTEXT);
     }
   }
 
@@ -66,15 +195,19 @@ public class JsonObjectCodec extends AbstractJsonCodec<JsonObject, JsonArray> im
   }
 
   @Override
-  protected boolean isObjectInstance(Object instance) {
-    return instance instanceof JsonObject;
+  protected boolean isObjectType(Class<?> type) {
+    return JsonObject.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type);
   }
 
   @Override
-  protected void forEach(JsonObject object, BiConsumer<String, Object> objectConsumer) {
-    object.forEach(entry -> {
-      objectConsumer.accept(entry.getKey(), entry.getValue());
-    });
+  @SuppressWarnings("unchecked")
+  protected Map<String, Object> asMap(Object object) {
+    // The map of a json object can hold nested maps and lists, which is why they are supported too
+    if (object instanceof JsonObject) {
+      return ((JsonObject) object).getMap();
+    } else {
+      return (Map<String, Object>) object;
+    }
   }
 
   @Override
@@ -88,17 +221,525 @@ public class JsonObjectCodec extends AbstractJsonCodec<JsonObject, JsonArray> im
   }
 
   @Override
-  protected boolean isArrayInstance(Object instance) {
-    return instance instanceof JsonArray;
+  protected boolean isArrayType(Class<?> type) {
+    return JsonArray.class.isAssignableFrom(type) || List.class.isAssignableFrom(type);
   }
 
   @Override
-  protected void forEach(JsonArray array, Consumer<Object> arrayConsumer) {
-    array.forEach(arrayConsumer);
+  @SuppressWarnings("unchecked")
+  protected List<Object> asList(Object array) {
+    if (array instanceof JsonArray) {
+      return ((JsonArray) array).getList();
+    } else {
+      return (List<Object>) array;
+    }
+  }
+
+  private void writeId(BsonWriter writer, Object value, EncoderContext ctx) {
+    if (value instanceof String && ObjectId.isValid((String) value)) {
+      writer.writeObjectId(new ObjectId((String) value));
+    } else {
+      writeValue(writer, ID_FIELD, value, ctx);
+    }
+  }
+
+  private void writeIdFilter(BsonWriter writer, Object value, EncoderContext ctx) {
+    if (isObjectIdString(value)) {
+      // {_id: id} becomes {_id: {$in: [ObjectId(id), id]}}
+      writer.writeStartDocument();
+      writer.writeName("$in");
+      writer.writeStartArray();
+      writeIdVariants(writer, value, ctx);
+      writer.writeEndArray();
+      writer.writeEndDocument();
+    } else if (value != null && isObjectType(value.getClass()) && isOperators(asMap(value))) {
+      writeIdOperators(writer, asMap(value), ctx);
+    } else {
+      writeValue(writer, ID_FIELD, value, ctx);
+    }
+  }
+
+  private void writeIdOperators(BsonWriter writer, Map<String, Object> operators, EncoderContext ctx) {
+    writer.writeStartDocument();
+    for (Map.Entry<String, Object> entry : operators.entrySet()) {
+      String operator = entry.getKey();
+      Object operand = entry.getValue();
+      switch (operator) {
+        case "$eq":
+        case "$ne":
+          if (isObjectIdString(operand) && !operators.containsKey("$in") && !operators.containsKey("$nin")) {
+            writer.writeName(operator.equals("$eq") ? "$in" : "$nin");
+            writer.writeStartArray();
+            writeIdVariants(writer, operand, ctx);
+            writer.writeEndArray();
+          } else {
+            writer.writeName(operator);
+            writeId(writer, operand, ctx);
+          }
+          break;
+        case "$in":
+        case "$nin":
+          writer.writeName(operator);
+          if (operand != null && isArrayType(operand.getClass())) {
+            writer.writeStartArray();
+            for (Object element : asList(operand)) {
+              writeIdVariants(writer, element, ctx);
+            }
+            writer.writeEndArray();
+          } else {
+            writeValue(writer, operator, operand, ctx);
+          }
+          break;
+        default:
+          // Range and other operators can't match both types at once, they match object ids only, as documented
+          // with the useObjectId option of the service
+          writer.writeName(operator);
+          writeId(writer, operand, ctx);
+      }
+    }
+    writer.writeEndDocument();
+  }
+
+  private void writeIdVariants(BsonWriter writer, Object id, EncoderContext ctx) {
+    if (isObjectIdString(id)) {
+      writer.writeObjectId(new ObjectId((String) id));
+      writer.writeString((String) id);
+    } else {
+      writeValue(writer, null, id, ctx);
+    }
+  }
+
+  private static boolean isObjectIdString(Object value) {
+    return value instanceof String && ObjectId.isValid((String) value);
+  }
+
+  /**
+   * @return whether the conditions of the operator are top level filters
+   */
+  public static boolean isLogicalOperator(String key) {
+    return key.equals("$and") || key.equals("$or") || key.equals("$nor");
+  }
+
+  private static boolean isOperators(Map<String, Object> map) {
+    Iterator<String> keys = map.keySet().iterator();
+    return keys.hasNext() && keys.next().startsWith("$");
   }
 
   //---------- Support additional mappings
 
+  @Override
+  protected BsonType resolveBsonType(Class<?> type) {
+    if (type == byte[].class || Buffer.class.isAssignableFrom(type)) {
+      return BsonType.BINARY;
+    }
+    if (type == double[].class || type == long[].class || type == int[].class) {
+      return BsonType.ARRAY;
+    }
+    return super.resolveBsonType(type);
+  }
+
+  @Override
+  protected JsonArray readArray(BsonReader reader, DecoderContext ctx) {
+    if (!primitiveArrays) {
+      return super.readArray(reader, ctx);
+    }
+    reader.readStartArray();
+    JsonArray array;
+    switch (reader.readBsonType()) {
+      case DOUBLE:
+        array = readDoubles(reader);
+        break;
+      case INT64:
+        array = readLongs(reader);
+        break;
+      case INT32:
+        array = readInts(reader);
+        break;
+      default:
+        array = new JsonArray();
+    }
+    // The array is not made of a single numeric type, read the remaining values
+    while (reader.getCurrentBsonType() != BsonType.END_OF_DOCUMENT) {
+      add(array, readValue(reader, ctx));
+      reader.readBsonType();
+    }
+    reader.readEndArray();
+    return array;
+  }
+
+  /**
+   * Read the doubles at the start of an array. When the array holds other values, the doubles read so far are
+   * returned boxed, with the reader positioned on the first other value.
+   */
+  private static JsonArray readDoubles(BsonReader reader) {
+    double[] values = new double[INITIAL_ARRAY_CAPACITY];
+    int size = 0;
+    do {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = reader.readDouble();
+    } while (reader.readBsonType() == BsonType.DOUBLE);
+    if (reader.getCurrentBsonType() == BsonType.END_OF_DOCUMENT) {
+      return new JsonArray(new DoubleArrayList(Arrays.copyOf(values, size)));
+    }
+    List<Object> list = new ArrayList<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      list.add(values[i]);
+    }
+    return new JsonArray(list);
+  }
+
+  private static JsonArray readLongs(BsonReader reader) {
+    long[] values = new long[INITIAL_ARRAY_CAPACITY];
+    int size = 0;
+    do {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = reader.readInt64();
+    } while (reader.readBsonType() == BsonType.INT64);
+    if (reader.getCurrentBsonType() == BsonType.END_OF_DOCUMENT) {
+      return new JsonArray(new LongArrayList(Arrays.copyOf(values, size)));
+    }
+    List<Object> list = new ArrayList<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      list.add(values[i]);
+    }
+    return new JsonArray(list);
+  }
+
+  private static JsonArray readInts(BsonReader reader) {
+    int[] values = new int[INITIAL_ARRAY_CAPACITY];
+    int size = 0;
+    do {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = reader.readInt32();
+    } while (reader.readBsonType() == BsonType.INT32);
+    if (reader.getCurrentBsonType() == BsonType.END_OF_DOCUMENT) {
+      return new JsonArray(new IntArrayList(Arrays.copyOf(values, size)));
+    }
+    List<Object> list = new ArrayList<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      list.add(values[i]);
+    }
+    return new JsonArray(list);
+  }
+
+  @Override
+  protected void writeArray(BsonWriter writer, String name, Object value, EncoderContext ctx) {
+    // A primitive list holding boxed values after a change has no array, and is written like any other list
+    Object array = value instanceof JsonArray ? ((JsonArray) value).getList() : value;
+    if (array instanceof DoubleArrayList) {
+      array = ((DoubleArrayList) array).array();
+    } else if (array instanceof LongArrayList) {
+      array = ((LongArrayList) array).array();
+    } else if (array instanceof IntArrayList) {
+      array = ((IntArrayList) array).array();
+    }
+
+    if (array instanceof double[]) {
+      writer.writeStartArray();
+      for (double d : (double[]) array) {
+        writer.writeDouble(d);
+      }
+      writer.writeEndArray();
+    } else if (array instanceof long[]) {
+      writer.writeStartArray();
+      for (long l : (long[]) array) {
+        writer.writeInt64(l);
+      }
+      writer.writeEndArray();
+    } else if (array instanceof int[]) {
+      writer.writeStartArray();
+      for (int i : (int[]) array) {
+        writer.writeInt32(i);
+      }
+      writer.writeEndArray();
+    } else {
+      super.writeArray(writer, name, value, ctx);
+    }
+  }
+
+  @Override
+  public void encode(BsonWriter writer, JsonObject value, EncoderContext encoderContext) {
+    if (!writeRaw(writer, value)) {
+      writeTopLevel(writer, value.getMap(), encoderContext);
+    }
+  }
+
+  /**
+   * Write a top level document, which is never binary data. The id of a collectible document is written first, and
+   * the conditions of the {@code $and}, {@code $or} and {@code $nor} operators of a filter are top level filters too.
+   */
+  private void writeTopLevel(BsonWriter writer, Map<String, Object> fields, EncoderContext ctx) {
+    writer.writeStartDocument();
+    String written = ctx.isEncodingCollectibleDocument() ? writeIdField(writer, fields, ctx) : null;
+    for (Map.Entry<String, Object> entry : fields.entrySet()) {
+      String key = entry.getKey();
+      if (written != null && written.equals(key)) {
+        continue;
+      }
+      Object value = entry.getValue();
+      writer.writeName(key);
+      if (key.equals(ID_FIELD)) {
+        writeIdValue(writer, value);
+      } else if (filter && isLogicalOperator(key) && value != null && isArrayType(value.getClass())) {
+        writer.writeStartArray();
+        for (Object condition : asList(value)) {
+          if (condition != null && isObjectType(condition.getClass())) {
+            writeTopLevel(writer, asMap(condition), CHILD_CONTEXT);
+          } else {
+            writeValue(writer, null, condition, CHILD_CONTEXT);
+          }
+        }
+        writer.writeEndArray();
+      } else {
+        writeValue(writer, key, value, CHILD_CONTEXT);
+      }
+    }
+    writer.writeEndDocument();
+  }
+
+  @Override
+  protected void writeDocument(BsonWriter writer, String name, Object value, EncoderContext ctx) {
+    if (writeRaw(writer, value)) {
+      return;
+    }
+    Map<String, Object> fields = asMap(value);
+    if (isBinary(fields)) {
+      writeBinary(writer, name, value, ctx);
+    } else {
+      super.writeDocument(writer, name, value, ctx);
+    }
+  }
+
+  @Override
+  protected Object readBinary(BsonReader reader, DecoderContext ctx) {
+    BsonBinary binary = reader.readBinaryData();
+    return binaryValue(binary.getType(), binary.getData());
+  }
+
+  @Override
+  protected void writeBinary(BsonWriter writer, String name, Object value, EncoderContext ctx) {
+    if (value instanceof byte[]) {
+      writer.writeBinaryData(new BsonBinary((byte[]) value));
+    } else if (value instanceof Buffer) {
+      writer.writeBinaryData(new BsonBinary(bytes((Buffer) value)));
+    } else {
+      Map<String, Object> fields = asMap(value);
+      byte[] data = Base64.getDecoder().decode((String) fields.get(BINARY_FIELD));
+      Object type = fields.get(BINARY_TYPE_FIELD);
+      if (type == null) {
+        writer.writeBinaryData(new BsonBinary(data));
+      } else {
+        writer.writeBinaryData(new BsonBinary((byte) Integer.parseInt(type.toString(), 16), data));
+      }
+    }
+  }
+
+  /**
+   * Write a document decoded lazily and not modified since as its raw bytes, rather than field by field. When ids are
+   * stored as object ids they may have to be converted, so documents are always written field by field.
+   *
+   * @return whether the document was written
+   */
+  private boolean writeRaw(BsonWriter writer, Object value) {
+    if (useObjectId || !(value instanceof JsonObject)) {
+      return false;
+    }
+    Map<String, Object> map = ((JsonObject) value).getMap();
+    byte[] bytes = map instanceof LazyBsonMap ? ((LazyBsonMap) map).bytes() : null;
+    if (bytes == null) {
+      return false;
+    }
+    writer.pipe(new BsonBinaryReader(ByteBuffer.wrap(bytes)));
+    return true;
+  }
+
+  /**
+   * @return whether the fields are those of binary data in the extended json form, which only has a {@code $binary}
+   * field and an optional {@code $type} field
+   */
+  private static boolean isBinary(Map<String, Object> fields) {
+    int size = fields.size();
+    return fields.get(BINARY_FIELD) instanceof String
+      && (size == 1 || size == 2 && fields.get(BINARY_TYPE_FIELD) instanceof String);
+  }
+
+  /**
+   * Generic binary data is decoded as a {@code byte[]}, without copying the data read. Other subtypes are decoded in
+   * the extended json form {@code {"$binary": <base64>, "$type": <hex subtype>}}, so that they are written back with
+   * the same subtype.
+   */
+  static Object binaryValue(byte type, byte[] data) {
+    if (type == BsonBinarySubType.BINARY.getValue() || type == BsonBinarySubType.OLD_BINARY.getValue()) {
+      return data;
+    }
+    return binaryJson(type, data);
+  }
+
+  private static JsonObject binaryJson(byte type, byte[] data) {
+    String hex = Integer.toHexString(type & 0xFF);
+    return new JsonObject()
+      .put(BINARY_FIELD, Base64.getEncoder().encodeToString(data))
+      .put(BINARY_TYPE_FIELD, hex.length() == 1 ? "0" + hex : hex);
+  }
+
+  /**
+   * Convert the {@code byte[]} and {@link Buffer} values of a json value, at any depth, to the extended json form, for
+   * sending it as json text. The objects and arrays holding binary data are copied, the others are kept as they are.
+   *
+   * @param value  the json value
+   * @return the converted value, or the value itself when it holds no binary data
+   */
+  @SuppressWarnings("unchecked")
+  public static Object toExtendedJson(Object value) {
+    if (value instanceof byte[]) {
+      return binaryJson(BsonBinarySubType.BINARY.getValue(), (byte[]) value);
+    } else if (value instanceof Buffer) {
+      return binaryJson(BsonBinarySubType.BINARY.getValue(), ((Buffer) value).getBytes());
+    } else if (value instanceof JsonObject) {
+      Map<String, Object> map = ((JsonObject) value).getMap();
+      Map<String, Object> converted = toExtendedJson(map);
+      return converted == map ? value : new JsonObject(converted);
+    } else if (value instanceof Map) {
+      return toExtendedJson((Map<String, Object>) value);
+    } else if (value instanceof JsonArray) {
+      List<Object> list = ((JsonArray) value).getList();
+      List<Object> converted = toExtendedJson(list);
+      return converted == list ? value : new JsonArray(converted);
+    } else if (value instanceof List) {
+      return toExtendedJson((List<Object>) value);
+    }
+    return value;
+  }
+
+  private static Map<String, Object> toExtendedJson(Map<String, Object> map) {
+    Map<String, Object> converted = null;
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      Object value = entry.getValue();
+      Object json = toExtendedJson(value);
+      if (json != value) {
+        if (converted == null) {
+          converted = new LinkedHashMap<>(map);
+        }
+        converted.put(entry.getKey(), json);
+      }
+    }
+    return converted != null ? converted : map;
+  }
+
+  private static List<Object> toExtendedJson(List<Object> list) {
+    if (isPrimitiveList(list)) {
+      return list;
+    }
+    List<Object> converted = null;
+    for (int i = 0, size = list.size(); i < size; i++) {
+      Object value = list.get(i);
+      Object json = toExtendedJson(value);
+      if (json != value) {
+        if (converted == null) {
+          converted = new ArrayList<>(list);
+        }
+        converted.set(i, json);
+      }
+    }
+    return converted != null ? converted : list;
+  }
+
+  /**
+   * A deep copy of a json object. Unlike {@link JsonObject#copy()}, binary data is copied as binary data rather than
+   * turned into base64 strings, primitive arrays are copied as primitive arrays, and a lazily decoded object which
+   * was not modified is copied as its bytes.
+   *
+   * @param json  the json object
+   * @return the copy
+   */
+  public static JsonObject copy(JsonObject json) {
+    return new JsonObject(copyMap(json.getMap()));
+  }
+
+  /**
+   * A deep copy of a json array, see {@link #copy(JsonObject)}.
+   *
+   * @param json  the json array
+   * @return the copy
+   */
+  public static JsonArray copy(JsonArray json) {
+    return new JsonArray(copyList(json.getList()));
+  }
+
+  private static Map<String, Object> copyMap(Map<String, Object> map) {
+    if (map instanceof LazyBsonMap) {
+      byte[] bytes = ((LazyBsonMap) map).bytes();
+      if (bytes != null) {
+        // The bytes are never written to, so they can be shared
+        return new LazyBsonMap(bytes);
+      }
+    }
+    Map<String, Object> copy = new LinkedHashMap<>(map.size() * 2);
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      copy.put(entry.getKey(), copyValue(entry.getValue()));
+    }
+    return copy;
+  }
+
+  private static List<Object> copyList(List<Object> list) {
+    if (isPrimitiveList(list)) {
+      if (list instanceof DoubleArrayList) {
+        return new DoubleArrayList(((DoubleArrayList) list).array().clone());
+      } else if (list instanceof LongArrayList) {
+        return new LongArrayList(((LongArrayList) list).array().clone());
+      } else {
+        return new IntArrayList(((IntArrayList) list).array().clone());
+      }
+    }
+    List<Object> copy = new ArrayList<>(list.size());
+    for (Object value : list) {
+      copy.add(copyValue(value));
+    }
+    return copy;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object copyValue(Object value) {
+    if (value instanceof JsonObject) {
+      return copy((JsonObject) value);
+    } else if (value instanceof Map) {
+      return copyMap((Map<String, Object>) value);
+    } else if (value instanceof JsonArray) {
+      return copy((JsonArray) value);
+    } else if (value instanceof List) {
+      return copyList((List<Object>) value);
+    } else if (value instanceof byte[]) {
+      return ((byte[]) value).clone();
+    } else if (value instanceof Buffer) {
+      return ((Buffer) value).copy();
+    }
+    return value;
+  }
+
+  /**
+   * @return whether the list is still backed by a primitive array, rather than by boxed values after a change
+   */
+  private static boolean isPrimitiveList(List<Object> list) {
+    return list instanceof DoubleArrayList && ((DoubleArrayList) list).array() != null
+      || list instanceof LongArrayList && ((LongArrayList) list).array() != null
+      || list instanceof IntArrayList && ((IntArrayList) list).array() != null;
+  }
+
+  private static byte[] bytes(Buffer buffer) {
+    ByteBuf buf = buffer.getByteBuf();
+    // Use the backing array directly when it holds exactly the buffer content
+    if (buf.hasArray() && buf.arrayOffset() == 0 && buf.readerIndex() == 0 && buf.readableBytes() == buf.array().length) {
+      return buf.array();
+    }
+    return buffer.getBytes();
+  }
+
   @Override
   protected Object readObjectId(BsonReader reader, DecoderContext ctx) {
     return reader.readObjectId().toHexString();
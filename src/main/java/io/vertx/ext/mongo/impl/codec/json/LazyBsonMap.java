@@ -0,0 +1,367 @@
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A map over a BSON document kept as raw bytes, used as the backing map of lazily decoded {@link JsonObject}s.
+ * <p>
+ * Looking up a field scans the raw bytes without decoding the names of the other fields, and only decodes the value
+ * of the field found. Sub-documents are themselves lazy. Decoded values are remembered, so that mutating a nested
+ * object or array is visible from the parent. Iterating or modifying the map decodes all the fields once, after which
+ * the map behaves as a {@link LinkedHashMap}.
+ * <p>
+ * Values are decoded as the {@link JsonObjectCodec} would decode them. Like {@link JsonObject}, this map is not
+ * thread safe.
+ */
+public class LazyBsonMap extends AbstractMap<String, Object> {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final byte[] bytes;
+  private final int offset;
+  private final int end;
+  private final FieldNameCache fieldNames;
+
+  private Map<String, Object> decoded;
+  private Map<String, Object> materialized;
+
+  /**
+   * @param bytes  the bytes of a BSON document, starting with its length
+   */
+  public LazyBsonMap(byte[] bytes) {
+    this(bytes, null);
+  }
+
+  /**
+   * @param bytes  the bytes of a BSON document, starting with its length
+   * @param fieldNames  the cache decoded field names are interned in, can be null
+   */
+  public LazyBsonMap(byte[] bytes, FieldNameCache fieldNames) {
+    this(bytes, 0, fieldNames);
+  }
+
+  LazyBsonMap(byte[] bytes, int offset, FieldNameCache fieldNames) {
+    this.bytes = bytes;
+    this.offset = offset;
+    this.fieldNames = fieldNames;
+    // The last byte of a document is its terminating 0
+    this.end = offset + readInt32(bytes, offset) - 1;
+  }
+
+  /**
+   * @return the raw bytes of the document, as long as neither the map nor a value it handed out may have been modified
+   */
+  public byte[] bytes() {
+    if (!unmodified()) {
+      return null;
+    }
+    if (offset == 0 && end == bytes.length - 1) {
+      return bytes;
+    }
+    byte[] copy = new byte[end + 1 - offset];
+    System.arraycopy(bytes, offset, copy, 0, copy.length);
+    return copy;
+  }
+
+  /**
+   * Nested lazy documents handed out are checked in turn. Arrays and binary data handed out can be modified without
+   * this map knowing, so the document is taken as modified as soon as one of them was read.
+   */
+  private boolean unmodified() {
+    if (materialized != null) {
+      return false;
+    }
+    if (decoded != null) {
+      for (Object value : decoded.values()) {
+        if (value instanceof JsonObject) {
+          Map<String, Object> map = ((JsonObject) value).getMap();
+          if (!(map instanceof LazyBsonMap) || !((LazyBsonMap) map).unmodified()) {
+            return false;
+          }
+        } else if (!(value instanceof String || value instanceof Number || value instanceof Boolean)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (materialized != null) {
+      return materialized.get(key);
+    }
+    if (!(key instanceof String)) {
+      return null;
+    }
+    String name = (String) key;
+    if (decoded != null) {
+      Object value = decoded.get(name);
+      if (value != null) {
+        return value;
+      }
+    }
+    int element = find(name);
+    if (element < 0) {
+      return null;
+    }
+    Object value = readValue(bytes[element], valueOffset(element));
+    if (value != null) {
+      if (decoded == null) {
+        decoded = new HashMap<>();
+      }
+      decoded.put(name, value);
+    }
+    return value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (materialized != null) {
+      return materialized.containsKey(key);
+    }
+    return key instanceof String && find((String) key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    if (materialized != null) {
+      return materialized.size();
+    }
+    int size = 0;
+    for (int element = offset + 4; element < end; element = nextElement(element)) {
+      size++;
+    }
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    if (materialized != null) {
+      return materialized.isEmpty();
+    }
+    return offset + 4 == end;
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    return materialize().put(key, value);
+  }
+
+  @Override
+  public Object remove(Object key) {
+    return materialize().remove(key);
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ?> m) {
+    materialize().putAll(m);
+  }
+
+  @Override
+  public void clear() {
+    materialize().clear();
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return materialize().entrySet();
+  }
+
+  private Map<String, Object> materialize() {
+    if (materialized == null) {
+      Map<String, Object> map = new LinkedHashMap<>();
+      for (int element = offset + 4; element < end; element = nextElement(element)) {
+        String name = readName(element);
+        Object value = decoded != null ? decoded.get(name) : null;
+        if (value == null) {
+          value = readValue(bytes[element], valueOffset(element));
+        }
+        map.put(name, value);
+      }
+      materialized = map;
+      decoded = null;
+    }
+    return materialized;
+  }
+
+  /**
+   * @return the offset of the element with this name, or -1 when there is none
+   */
+  private int find(String name) {
+    for (int element = offset + 4; element < end; element = nextElement(element)) {
+      if (nameEquals(element + 1, name)) {
+        return element;
+      }
+    }
+    return -1;
+  }
+
+  private boolean nameEquals(int pos, String name) {
+    int length = name.length();
+    for (int i = 0; i < length; i++, pos++) {
+      byte b = bytes[pos];
+      if (b < 0) {
+        // Not ascii, compare the decoded name instead
+        return readName(pos - i - 1).equals(name);
+      }
+      if (b == 0 || b != name.charAt(i)) {
+        return false;
+      }
+    }
+    return bytes[pos] == 0;
+  }
+
+  private String readName(int element) {
+    int start = element + 1;
+    int pos = start;
+    while (bytes[pos] != 0) {
+      pos++;
+    }
+    if (fieldNames != null) {
+      return fieldNames.name(bytes, start, pos - start);
+    }
+    return new String(bytes, start, pos - start, StandardCharsets.UTF_8);
+  }
+
+  private int valueOffset(int element) {
+    int pos = element + 1;
+    while (bytes[pos] != 0) {
+      pos++;
+    }
+    return pos + 1;
+  }
+
+  private int nextElement(int element) {
+    int value = valueOffset(element);
+    return value + valueSize(bytes[element], value);
+  }
+
+  private int valueSize(byte type, int pos) {
+    switch (type) {
+      case 0x01: // double
+      case 0x09: // date time
+      case 0x11: // timestamp
+      case 0x12: // int64
+        return 8;
+      case 0x02: // string
+      case 0x0D: // javascript
+      case 0x0E: // symbol
+        return 4 + readInt32(bytes, pos);
+      case 0x03: // document
+      case 0x04: // array
+      case 0x0F: // javascript with scope
+        return readInt32(bytes, pos);
+      case 0x05: // binary
+        return 5 + readInt32(bytes, pos);
+      case 0x06: // undefined
+      case 0x0A: // null
+      case (byte) 0xFF: // min key
+      case 0x7F: // max key
+        return 0;
+      case 0x07: // object id
+        return 12;
+      case 0x08: // boolean
+        return 1;
+      case 0x0B: { // regular expression, two cstrings
+        int p = pos;
+        while (bytes[p] != 0) {
+          p++;
+        }
+        p++;
+        while (bytes[p] != 0) {
+          p++;
+        }
+        return p + 1 - pos;
+      }
+      case 0x0C: // db pointer
+        return 4 + readInt32(bytes, pos) + 12;
+      case 0x10: // int32
+        return 4;
+      default:
+        throw new IllegalStateException("Unknown bson type " + type);
+    }
+  }
+
+  private Object readValue(byte type, int pos) {
+    switch (type) {
+      case 0x01:
+        return Double.longBitsToDouble(readInt64(bytes, pos));
+      case 0x02:
+        return new String(bytes, pos + 4, readInt32(bytes, pos) - 1, StandardCharsets.UTF_8);
+      case 0x03:
+        return new JsonObject(new LazyBsonMap(bytes, pos, fieldNames));
+      case 0x04:
+        return readArray(pos);
+      case 0x05:
+        return readBinary(pos);
+      case 0x07:
+        return readObjectId(pos);
+      case 0x08:
+        return bytes[pos] != 0;
+      case 0x09:
+        return readInt64(bytes, pos);
+      case 0x0A:
+        return null;
+      case 0x10:
+        return readInt32(bytes, pos);
+      case 0x12:
+        return readInt64(bytes, pos);
+      default:
+        throw new UnsupportedOperationException("Unsupported bson type " + BsonType.findByValue(type));
+    }
+  }
+
+  private JsonArray readArray(int pos) {
+    JsonArray array = new JsonArray();
+    int arrayEnd = pos + readInt32(bytes, pos) - 1;
+    for (int element = pos + 4; element < arrayEnd; element = nextElement(element)) {
+      array.getList().add(readValue(bytes[element], valueOffset(element)));
+    }
+    return array;
+  }
+
+  private Object readBinary(int pos) {
+    int length = readInt32(bytes, pos);
+    byte type = bytes[pos + 4];
+    int start = pos + 5;
+    if (type == 0x02) {
+      // The old binary subtype repeats the length of the data
+      length = readInt32(bytes, start);
+      start += 4;
+    }
+    byte[] data = new byte[length];
+    System.arraycopy(bytes, start, data, 0, length);
+    return JsonObjectCodec.binaryValue(type, data);
+  }
+
+  private String readObjectId(int pos) {
+    char[] chars = new char[24];
+    for (int i = 0; i < 12; i++) {
+      int b = bytes[pos + i] & 0xFF;
+      chars[2 * i] = HEX[b >> 4];
+      chars[2 * i + 1] = HEX[b & 0x0F];
+    }
+    return new String(chars);
+  }
+
+  static int readInt32(byte[] bytes, int pos) {
+    return (bytes[pos] & 0xFF)
+      | (bytes[pos + 1] & 0xFF) << 8
+      | (bytes[pos + 2] & 0xFF) << 16
+      | (bytes[pos + 3] & 0xFF) << 24;
+  }
+
+  static long readInt64(byte[] bytes, int pos) {
+    return (readInt32(bytes, pos) & 0xFFFFFFFFL) | ((long) readInt32(bytes, pos + 4)) << 32;
+  }
+}
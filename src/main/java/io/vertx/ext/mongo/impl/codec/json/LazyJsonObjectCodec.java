@@ -0,0 +1,36 @@
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonReader;
+import org.bson.codecs.DecoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * A {@link JsonObjectCodec} decoding documents lazily: the decoded json object is backed by a {@link LazyBsonMap}
+ * over the raw bytes of the document, and fields are only decoded when accessed.
+ */
+public class LazyJsonObjectCodec extends JsonObjectCodec {
+
+  private final FieldNameCache fieldNames;
+
+  public LazyJsonObjectCodec() {
+    this(null, false);
+  }
+
+  /**
+   * @param fieldNames  the cache decoded field names are interned in, can be null
+   * @param useObjectId  whether ids are stored as object ids, see {@link JsonObjectCodec#JsonObjectCodec(boolean)}
+   */
+  public LazyJsonObjectCodec(FieldNameCache fieldNames, boolean useObjectId) {
+    super(useObjectId);
+    this.fieldNames = fieldNames;
+  }
+
+  @Override
+  public JsonObject decode(BsonReader reader, DecoderContext decoderContext) {
+    BasicOutputBuffer buffer = new BasicOutputBuffer();
+    new BsonBinaryWriter(buffer).pipe(reader);
+    return new JsonObject(new LazyBsonMap(buffer.toByteArray(), fieldNames));
+  }
+}
@@ -8,6 +8,7 @@ import com.mongodb.async.client.MongoClientOptions;
 import com.mongodb.connection.*;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.mongo.impl.codec.VertxCodecRegistry;
+import org.bson.codecs.configuration.CodecRegistry;
 
 import java.util.List;
 import java.util.Objects;
@@ -18,12 +19,18 @@ import java.util.Objects;
 public class MongoClientOptionsParser {
 
   private final MongoClientOptions options;
+  private final boolean useVertxEventLoops;
 
   public MongoClientOptionsParser(JsonObject config) {
+    this(config, new VertxCodecRegistry());
+  }
+
+  public MongoClientOptionsParser(JsonObject config, CodecRegistry codecRegistry) {
     Objects.requireNonNull(config);
+    Objects.requireNonNull(codecRegistry);
 
     MongoClientOptions.Builder options = MongoClientOptions.builder();
-    options.codecRegistry(new VertxCodecRegistry());
+    options.codecRegistry(codecRegistry);
 
     // All parsers should support connection_string first
     String cs = config.getString("connection_string");
@@ -73,9 +80,19 @@ public class MongoClientOptionsParser {
     }
 
     this.options = options.build();
+
+    // Driver I/O threads
+    this.useVertxEventLoops = config.getBoolean("useVertxEventLoops", false);
   }
 
   public MongoClientOptions options() {
     return options;
   }
+
+  /**
+   * @return whether the driver should do its I/O on the event loops of Vert.x rather than on threads of its own
+   */
+  public boolean useVertxEventLoops() {
+    return useVertxEventLoops;
+  }
 }
@@ -51,6 +51,26 @@
  * If you create an instance this way you should make sure you start it with {@link io.vertx.ext.mongo.MongoService#start}
  * before you use it.
  *
+ * Each service creates its own mongo client, with its own connection pool. Services can instead share a client with
+ * the other services created for the same data source, with {@link io.vertx.ext.mongo.MongoService#createShared}.
+ * The client is created with the config of the first of these services, and closed once all of them are stopped.
+ * Each service still has its own codecs, caches and metrics.
+ *
+ * [source,java]
+ * ----
+ * {@link examples.Examples#example0_4}
+ * ----
+ *
+ * When deploying several instances of the service verticle, set `shared` to `true` in its config so that the
+ * instances share a client, and optionally `dataSourceName` to name the data source.
+ *
+ * Set `bsonCodec` to `true` in the config of the service verticle to have it reply with BSON rather than json text,
+ * and create its proxies with {@link io.vertx.ext.mongo.MongoService#createBsonEventBusProxy} so that they send their
+ * requests as BSON too. This saves encoding and parsing the documents as json text on a clustered event bus: documents
+ * received are decoded lazily, fields being only decoded when read, and documents which were not modified are written
+ * to mongo, or sent back, as the bytes they were received as, as long as `useObjectId` is not set. Messages sent to
+ * the service directly with the `mongo-bson` codec name in their delivery options are received as BSON too.
+ *
  * However you do it, once you've got your service you can start using it.
  *
  * == Using the API
@@ -98,6 +118,34 @@
  * {@link examples.Examples#example4}
  * ----
  *
+ * === Inserting and writing documents in bulk
+ *
+ * To insert a list of documents with a single round trip to the server you use {@link io.vertx.ext.mongo.MongoService#insertMany}.
+ * The ids of the documents, including any generated ones, are returned to the result handler in order.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example4_1}
+ * ----
+ *
+ * To mix inserts, updates, replaces and deletes in a single round trip you use {@link io.vertx.ext.mongo.MongoService#bulkWrite}.
+ * Each operation is a json object with a `type` of `insert`, `update`, `replace` or `delete`, a `filter` to match documents
+ * (except for inserts), a `document` (except for deletes) and optional `upsert` and `multi` flags.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example4_2}
+ * ----
+ *
+ * The result handler is provided with the `insertedCount`, `matchedCount`, `modifiedCount`, `deletedCount` and
+ * `upserts` of the bulk write.
+ *
+ * Use {@link io.vertx.ext.mongo.MongoService#insertManyWithOptions} and {@link io.vertx.ext.mongo.MongoService#bulkWriteWithOptions}
+ * with an instance of {@link io.vertx.ext.mongo.BulkWriteOptions} to configure the bulk write. This has the following fields:
+ *
+ * `ordered`:: set to false to attempt all operations even if some of them fail, in any order. Defaults to `true`
+ * `writeOption`:: the write concern for the whole bulk write
+ *
  * === Updating documents
  *
  * To update a documents you use {@link io.vertx.ext.mongo.MongoService#update}.
@@ -174,6 +222,84 @@
  * `sort`:: The fields to sort by. Defaults to `null`.
  * `limit`:: The limit of the number of results to return. Default to `-1`, meaning all results will be returned.
  * `skip`:: The number of documents to skip before returning the results. Defaults to `0`.
+ * `batchSize`:: The number of documents fetched from the server per round trip. Defaults to `0`, meaning the server default.
+ * `lazyDecoding`:: Whether to decode the returned documents lazily. Defaults to `false`.
+ * `primitiveArrays`:: Whether to decode arrays of numbers as primitive arrays. Defaults to `false`.
+ *
+ * When `lazyDecoding` is enabled each returned document keeps the raw BSON it was read from, and a field is only decoded
+ * the first time it is accessed. This saves a lot of work when only a few fields of large documents are read. Accessing
+ * all the fields of a document, or modifying it, decodes it completely.
+ *
+ * When `fields` is an inclusion projection, such as `{"name": 1, "address.city": 1}`, the returned documents are
+ * decoded against it as a whitelist: any other field present in the reply is skipped without being decoded. The same
+ * applies to the `fields` of {@link io.vertx.ext.mongo.MongoService#findOne}.
+ *
+ * When `primitiveArrays` is enabled, arrays holding only doubles, only 64-bit integers or only 32-bit integers are
+ * returned as json arrays backed by a `double[]`, a `long[]` or an `int[]`, so large arrays of samples don't box every
+ * number. Use {@link io.vertx.ext.mongo.PrimitiveArrays} to get the backing array of such a json array, and to create
+ * json arrays from primitive arrays, which are then stored without boxing either. Adding or removing values of such a
+ * json array, or setting a value of another type, turns it into a regular json array. They are also copied into
+ * regular json arrays when sent over the event bus.
+ *
+ * === Paging through documents
+ *
+ * Paging with `skip` gets slower with every page, as the server still walks all the skipped documents. To page through
+ * large result sets use {@link io.vertx.ext.mongo.MongoService#findPage} with a {@link io.vertx.ext.mongo.PageOptions}
+ * instead. The page is a json object holding the documents under `results`, and under `token` a continuation token
+ * which is set in the options to get the next page. The token is absent on the last page.
+ *
+ * The documents are sorted by the `sort` of the options followed by `_id`, and each page is found by seeking past the
+ * sort key of the last document of the previous page, so every page costs about the same whatever its depth, provided
+ * an index matches the sort. The sort fields are always returned. Documents where a sort field is null or missing come
+ * first in an ascending order and last in a descending one, as they do in a mongo sort.
+ *
+ * Seeking past the last document uses a `$gt` or `$lt` filter on `_id`, a range filter which only matches ObjectId's
+ * when `useObjectId` is enabled. Don't page through collections holding both ObjectId's and string ids with that
+ * option: documents with string ids are left out of every page but the first, and a page ending on one of them is
+ * followed by the wrong documents.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example9_4}
+ * ----
+ *
+ * === Fetching documents through a cursor
+ *
+ * {@link io.vertx.ext.mongo.MongoService#find} replies with all the matching documents at once, which makes for huge
+ * event bus messages when the results are large. Instead, {@link io.vertx.ext.mongo.MongoService#openCursor} opens a
+ * cursor on the service side, and {@link io.vertx.ext.mongo.MongoService#fetch} gets the next documents of the cursor,
+ * as many as requested. A fetch returning fewer documents than requested means the cursor is exhausted.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example9_5}
+ * ----
+ *
+ * A cursor should be closed with {@link io.vertx.ext.mongo.MongoService#closeCursor} once done with it. Cursors on
+ * which no fetch happened for the `cursorIdleTimeoutMS` of the configuration are closed by the service, so abandoned
+ * cursors don't hold on to resources.
+ *
+ * A cursor lives in the instance of the service which opened it. When the service verticle is deployed with several
+ * instances, or in a cluster, the fetches and the close of a cursor are forwarded to the instance which opened it,
+ * whichever instance the proxy sends them to. The cursor is lost if that instance is undeployed.
+ *
+ * === Streaming documents
+ *
+ * For large result sets you can use {@link io.vertx.ext.mongo.LocalMongoService#findStream} or
+ * {@link io.vertx.ext.mongo.LocalMongoService#findWithOptionsStream} to get the matching documents as a
+ * {@link io.vertx.core.streams.ReadStream} instead of a list.
+ *
+ * Documents are fetched from the server one batch at a time as they are consumed, and pausing the stream stops any
+ * further batches from being fetched, so only a single batch is held in memory at a time.
+ *
+ * [source,java]
+ * ----
+ * {@link examples.Examples#example9_1}
+ * ----
+ *
+ * NOTE: Streaming is only available when using the service locally, not through an event bus proxy, so these methods
+ * belong to {@link io.vertx.ext.mongo.LocalMongoService}, the service created by
+ * {@link io.vertx.ext.mongo.LocalMongoService#create}.
  *
  * === Finding a single document
  *
@@ -181,6 +307,61 @@
  *
  * This works just like {@link io.vertx.ext.mongo.MongoService#find} but it returns just the first matching document.
  *
+ * === Finding documents by id
+ *
+ * To find several documents by id with a single query you use {@link io.vertx.ext.mongo.MongoService#findByIds}.
+ * The result handler is called with the documents in the order of the ids, with null for the ids which were not found.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example9_6}
+ * ----
+ *
+ * Applications often look up documents by id one at a time, from independent pieces of code running on the same event
+ * loop. When the `batchFindOneById` option is enabled, the `findOne` calls whose query is just a string `_id`, made on
+ * the same context during the same event loop tick, are sent as a single query.
+ *
+ * === Finding documents as instances of a class
+ *
+ * Results can also be decoded as instances of your own classes, passing the class to
+ * {@link io.vertx.ext.mongo.LocalMongoService#find(java.lang.String, io.vertx.core.json.JsonObject, java.lang.Class, io.vertx.core.Handler)},
+ * `findWithOptions` or `findOne` of a {@link io.vertx.ext.mongo.LocalMongoService}.
+ *
+ * Data object classes, which have a public constructor taking a json object, are supported out of the box: each
+ * document is decoded into a json object which is passed to the constructor. To decode documents straight from BSON,
+ * without a json object in between, register an `org.bson.codecs.Codec` for the class with
+ * {@link io.vertx.ext.mongo.LocalMongoService#registerCodec}.
+ *
+ * [source,java]
+ * ----
+ * {@link examples.Examples#example9_2}
+ * ----
+ *
+ * NOTE: Finding documents as instances of a class is only available when using the service locally, not through an
+ * event bus proxy.
+ *
+ * === Prepared queries
+ *
+ * A find which is executed many times with different values can be prepared once with
+ * {@link io.vertx.ext.mongo.MongoService#prepareQuery}. The query is a template in which `{"$param": "name"}` values
+ * are placeholders, and the result handler is called with the id of the prepared query.
+ *
+ * The prepared query is then executed with {@link io.vertx.ext.mongo.MongoService#findPrepared}, passing the values of
+ * the parameters by name. Only the parameter values are encoded on each execution, the rest of the query, the sort and
+ * the projection being encoded when the query is prepared. The id holds the query and its options, so that a query
+ * prepared through an event bus proxy can be executed by any instance of the service behind the proxy: an instance
+ * which did not prepare it compiles it from the id on its first execution.
+ *
+ * [source,$lang]
+ * ----
+ * {@link examples.Examples#example9_3}
+ * ----
+ *
+ * Each instance of the service keeps the compiled query until it is closed with
+ * {@link io.vertx.ext.mongo.MongoService#closePreparedQuery}, or until it is the least recently used one when more than
+ * `maxPreparedQueries` queries are kept. The id of a closed or evicted query stays valid, executing it compiles the
+ * query again.
+ *
  * === Removing documents
  *
  * To remove documents use {@link io.vertx.ext.mongo.MongoService#remove}.
@@ -211,6 +392,24 @@
  * {@link examples.Examples#example11}
  * ----
  *
+ * === Binary data
+ *
+ * Fields holding `byte[]` or {@link io.vertx.core.buffer.Buffer} values, put directly in the map of the json object,
+ * are stored as BSON binary data rather than as base64 strings. Generic binary data is returned as a `byte[]`, read
+ * with `getValue`, without copying the data read by the driver.
+ *
+ * Binary data can also be given in the extended json form `{"$binary": <base64 data>, "$type": <hex subtype>}`, where
+ * `$type` is optional and defaults to the generic subtype `00`. Documents with any other field are not binary data.
+ * Binary data of any other subtype is returned in this form, so that it is written back with the same subtype.
+ *
+ * The replies of a service verticle sending json text carry all binary data in the extended json form, the data itself
+ * being read with `getBinary("$binary")`. The requests of the proxy created by
+ * {@link io.vertx.ext.mongo.MongoService#createEventBusProxy} are encoded by Vert.x, which turns `byte[]` values into
+ * base64 strings, so give binary data in the extended json form to store it as binary data. The proxy created by
+ * {@link io.vertx.ext.mongo.MongoService#createExtendedJsonEventBusProxy} converts `byte[]` and
+ * {@link io.vertx.core.buffer.Buffer} values to that form before sending its requests. A proxy sending BSON, see
+ * `bsonCodec`, carries binary data as it is, both ways.
+ *
  * === Managing MongoDB collections
  *
  * All MongoDB documents are stored in collections.
@@ -253,6 +452,10 @@
  * {@link examples.Examples#example12}
  * ----
  *
+ * When only a few fields of a command reply are needed, {@link io.vertx.ext.mongo.MongoService#runCommandWithFields}
+ * decodes just the fields of an inclusion projection and skips the rest of the reply, including any nested fields which
+ * are not listed.
+ *
  * == Configuring the service
  *
  * The service is configured with a json object.
@@ -264,6 +467,80 @@
  *
  * `db_name`:: Name of the database in the mongoDB instance to use. Defaults to `default_db`
  * `useObjectId`:: Toggle this option to support persisting and retrieving ObjectId's as strings. Defaults to `false`.
+ * When enabled, `_id` values which are valid 24 character hex strings, including the generated ones, are stored as
+ * native ObjectId's, which take less than half the space in the document and in the `_id` index. They are still
+ * returned as hex strings, and query filters on `_id` are translated, so the change is transparent to the application.
+ * Equality, `$in`, `$ne` and `$nin` filters on `_id` match both ObjectId's and strings, so documents stored with string
+ * ids before the option was enabled are still found. Range filters such as `$gt` or `$lte`, and the other operators
+ * on `_id`, only match ObjectId's: a document whose id is still stored as a string is silently left out of their
+ * results, even when its id is in the range. Convert the string ids of existing documents to ObjectId's before using
+ * such filters on a collection which holds both. The filters of upserts match ObjectId's only, so that the inserted
+ * document gets the id asked for. Only the `_id` of the document itself is stored as an ObjectId, `_id` fields of
+ * embedded documents are stored as they are.
+ * `collectionCacheSize`:: The maximum number of collections whose handles are cached by the service, rather than
+ * created for every operation. Defaults to `256`, `0` disables the cache, and with it `adaptiveCodecs`.
+ * `coalesceWrites`:: Set to `true` to coalesce single document inserts and updates to the same collection, with the same
+ * write option, into bulk writes. The writes are applied in the order they were issued, and the outcome of each write is
+ * still reported to its own result handler, a failed write does not prevent the writes after it. Defaults to `false`.
+ * `coalesceMaxBatchSize`:: The maximum number of writes coalesced into a single bulk write. Defaults to `100`.
+ * `coalesceLingerMS`:: The maximum time in milliseconds a write waits for other writes to coalesce with. Defaults to `1`.
+ *
+ * The number of writes and of bulk writes actually sent, and their ratio, are reported under `writeCoalescing` by
+ * {@link io.vertx.ext.mongo.MongoService#getMetrics}.
+ *
+ * `fieldNameCacheSize`:: The number of slots of the table the field names of documents decoded with `lazyDecoding` are
+ * interned in. A lazily decoded document reads its field names from the raw BSON every time a field is looked up, and
+ * the table turns the names it has already seen into a lookup of their bytes, without decoding or allocating them.
+ * Documents decoded eagerly get their names from the driver already decoded, and don't use the table. Defaults to
+ * `1024`, `0` disables interning. The hits, misses and hit rate of the table are reported under `fieldNameCache` by
+ * {@link io.vertx.ext.mongo.MongoService#getMetrics}.
+ * `adaptiveCodecs`:: Set to `true` to give each cached collection a codec which learns the shape of its documents. Once
+ * enough consecutive documents have the same fields in the same order with the same types, documents are decoded and
+ * encoded with a plan specialized for that shape, and documents deviating from it fall back to the generic path. A
+ * plan saves the dispatch on the type of each value, not the decoding and encoding of field names, so the gain is
+ * modest and only shows on collections of wide documents with a fixed shape: measure it before enabling the option. It
+ * requires the collection cache, and has no effect when `collectionCacheSize` is `0`. Defaults to `false`.
+ * `maxPreparedQueries`:: The maximum number of compiled prepared queries the service keeps at the same time, keeping
+ * more queries closes the least recently used ones. Defaults to `1024`, `0` compiles a prepared query on every
+ * execution.
+ * `cursorIdleTimeoutMS`:: The time in milliseconds after which a cursor opened with
+ * {@link io.vertx.ext.mongo.MongoService#openCursor} is closed if no fetch happened on it. Defaults to `600000`, `0`
+ * disables the timeout.
+ * `queryCacheMaxBytes`:: The maximum estimated size in bytes of the results of `find`, `findOne` and `count` cached by
+ * the service. Defaults to `0`, which disables the cache.
+ * `queryCacheTTLMS`:: The time in milliseconds a cached result is served for. Defaults to `60000`.
+ * `queryCacheCollectionTTLMS`:: A json object overriding `queryCacheTTLMS` for some collections, e.g.
+ * `{"books": 5000, "orders": 0}`. `0` disables caching for the collection.
+ *
+ * Writes made through the service invalidate the cached results of their collection. Writes made by other clients, or
+ * through {@link io.vertx.ext.mongo.MongoService#runCommand}, are only seen once the cached results expired, so the
+ * cache is best suited to collections seldom written to. Finds whose results are lazy or contain primitive arrays are
+ * not cached. The hits, misses, evictions, expirations and invalidations of each collection are reported under
+ * `queryCache` by {@link io.vertx.ext.mongo.MongoService#getMetrics}.
+ *
+ * `findByIdsChunkSize`:: The maximum number of ids sent in a single query by
+ * {@link io.vertx.ext.mongo.MongoService#findByIds}, more ids are split into several queries. Defaults to `1000`.
+ * `batchFindOneById`:: Set to `true` to batch the `findOne` calls by `_id` made on the same context during the same
+ * event loop tick into a single query. Defaults to `false`. The number of lookups and of batches actually sent are
+ * reported under `idBatching` by {@link io.vertx.ext.mongo.MongoService#getMetrics}.
+ *
+ * `coalesceReads`:: Set to `true` so that a `find`, `findOne` or `count` issued while the same read is in flight waits
+ * for the result of that read instead of being sent to the server, each caller getting its own copy of the result.
+ * Reads issued after a write to the collection started are always sent. Finds whose results are lazy or contain
+ * primitive arrays are not coalesced. Defaults to `false`. The number of reads and of coalesced reads are reported
+ * under `readCoalescing` by {@link io.vertx.ext.mongo.MongoService#getMetrics}.
+ *
+ * Result handlers are called on the context the operation was invoked from, so a verticle always gets its results on
+ * its own event loop.
+ *
+ * `useVertxEventLoops`:: Set to `true` for the driver to do its I/O on the event loops of Vert.x, with its pooled buffers,
+ * rather than on threads of its own. This saves threads, and the thread hop for each reply when the reply arrives on the
+ * event loop of the context its result handler is called on. Defaults to `false`. This is a best effort option: the
+ * driver has no public way of choosing the threads of a client, so the client is created through a private constructor
+ * of the driver. When the driver in use doesn't have it, a warning is logged and the client uses its own threads.
+ * `deliverResultsOnWorker`:: Set to `true` to call result handlers on a worker thread of the invoking context rather
+ * than on its event loop, for handlers doing CPU heavy work with the results. Such handlers may run concurrently with
+ * the other handlers of the context. Defaults to `false`.
  *
  * The mongo service tries to support most options that are allowed by the driver. There are two ways to configure mongo
  * for use by the driver, either by a connection string or by separate configuration options.
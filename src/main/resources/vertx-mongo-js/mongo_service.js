@@ -23,6 +23,8 @@ var JMongoService = io.vertx.ext.mongo.MongoService;
 var UpdateOptions = io.vertx.ext.mongo.UpdateOptions;
 var UpdateOptions = io.vertx.ext.mongo.UpdateOptions;
 var FindOptions = io.vertx.ext.mongo.FindOptions;
+var PageOptions = io.vertx.ext.mongo.PageOptions;
+var BulkWriteOptions = io.vertx.ext.mongo.BulkWriteOptions;
 
 /**
  A Vert.x service used to interact with MongoDB server instances.
@@ -128,6 +130,100 @@ var MongoService = function(j_val) {
     } else utils.invalidArgs();
   };
 
+  /**
+   Insert a list of documents in the specified collection, using a single bulk write
+
+   @public
+   @param collection {string} the collection 
+   @param documents {Array.<Object>} the documents 
+   @param resultHandler {function} result handler will be provided with the ids of the documents, in order 
+   @return {MongoService}
+   */
+  this.insertMany = function(collection, documents, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 3 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'function') {
+      j_mongoService.insertMany(collection, utils.convParamListJsonObject(documents), function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(ar.result(), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Insert a list of documents in the specified collection, using a single bulk write, specifying options
+
+   @public
+   @param collection {string} the collection 
+   @param documents {Array.<Object>} the documents 
+   @param options {Object} options to configure the bulk write 
+   @param resultHandler {function} result handler will be provided with the ids of the documents, in order 
+   @return {MongoService}
+   */
+  this.insertManyWithOptions = function(collection, documents, options, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 4 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object' && typeof __args[3] === 'function') {
+      j_mongoService.insertManyWithOptions(collection, utils.convParamListJsonObject(documents), options != null ? new BulkWriteOptions(new JsonObject(JSON.stringify(options))) : null, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(ar.result(), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Execute a list of write operations against the specified collection, using a single bulk write.
+
+   @public
+   @param collection {string} the collection 
+   @param operations {Array.<Object>} the write operations 
+   @param resultHandler {function} will be provided with the counts of the bulk write 
+   @return {MongoService}
+   */
+  this.bulkWrite = function(collection, operations, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 3 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'function') {
+      j_mongoService.bulkWrite(collection, utils.convParamListJsonObject(operations), function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Execute a list of write operations against the specified collection, using a single bulk write, specifying options
+
+   @public
+   @param collection {string} the collection 
+   @param operations {Array.<Object>} the write operations 
+   @param options {Object} options to configure the bulk write 
+   @param resultHandler {function} will be provided with the counts of the bulk write 
+   @return {MongoService}
+   */
+  this.bulkWriteWithOptions = function(collection, operations, options, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 4 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object' && typeof __args[3] === 'function') {
+      j_mongoService.bulkWriteWithOptions(collection, utils.convParamListJsonObject(operations), options != null ? new BulkWriteOptions(new JsonObject(JSON.stringify(options))) : null, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
   /**
    Update matching documents in the specified collection
 
@@ -273,6 +369,108 @@ var MongoService = function(j_val) {
     } else utils.invalidArgs();
   };
 
+  /**
+   Find a page of matching documents in the specified collection. The page is returned as a json object holding the
+   documents under {@code results}, and under {@code token} the continuation token to set in the options to get the
+   next page, which is absent on the last page.
+   <p>
+   Unlike {@link FindOptions#setSkip}, each page is found by seeking past the last document of the previous page,
+   so the cost of a page does not depend on how deep it is.
+
+   @public
+   @param collection {string} the collection 
+   @param query {Object} query used to match documents 
+   @param options {Object} options to configure the page 
+   @param resultHandler {function} will be provided with the page 
+   @return {MongoService}
+   */
+  this.findPage = function(collection, query, options, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 4 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object' && typeof __args[3] === 'function') {
+      j_mongoService.findPage(collection, utils.convParamJsonObject(query), options != null ? new PageOptions(new JsonObject(JSON.stringify(options))) : null, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Open a cursor over the matching documents in the specified collection. The documents are then fetched a few at a
+   time with {@link #fetch}, so that large results are not sent as a single reply.
+   <p>
+   A cursor is released by {@link #closeCursor}, or by the service once no fetch happened on it for the idle timeout.
+
+   @public
+   @param collection {string} the collection 
+   @param query {Object} query used to match documents 
+   @param options {Object} options to configure the find 
+   @param resultHandler {function} will be provided with the id of the cursor 
+   @return {MongoService}
+   */
+  this.openCursor = function(collection, query, options, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 4 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object' && typeof __args[3] === 'function') {
+      j_mongoService.openCursor(collection, utils.convParamJsonObject(query), options != null ? new FindOptions(new JsonObject(JSON.stringify(options))) : null, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(ar.result(), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Fetch the next documents of a cursor opened with {@link #openCursor}.
+
+   @public
+   @param cursorId {string} the id of the cursor 
+   @param count {number} the maximum number of documents to fetch 
+   @param resultHandler {function} will be provided with the documents, fewer than {@code count} only when the cursor is
+   exhausted, and none once it is exhausted 
+   @return {MongoService}
+   */
+  this.fetch = function(cursorId, count, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 3 && typeof __args[0] === 'string' && typeof __args[1] ==='number' && typeof __args[2] === 'function') {
+      j_mongoService.fetch(cursorId, count, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnListSetJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Close a cursor opened with {@link #openCursor}, releasing its resources.
+
+   @public
+   @param cursorId {string} the id of the cursor 
+   @param resultHandler {function} will be called when complete 
+   @return {MongoService}
+   */
+  this.closeCursor = function(cursorId, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 2 && typeof __args[0] === 'string' && typeof __args[1] === 'function') {
+      j_mongoService.closeCursor(cursorId, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(null, null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
   /**
    Find a single matching document in the specified collection
 
@@ -297,6 +495,30 @@ var MongoService = function(j_val) {
     } else utils.invalidArgs();
   };
 
+  /**
+   Find the documents with the specified ids in the specified collection, with a single query for all of them.
+
+   @public
+   @param collection {string} the collection 
+   @param ids {Array.<string>} the ids of the documents 
+   @param fields {Object} the fields 
+   @param resultHandler {function} will be provided with the documents in the order of the ids, with null for the ids not found 
+   @return {MongoService}
+   */
+  this.findByIds = function(collection, ids, fields, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 4 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object' && typeof __args[3] === 'function') {
+      j_mongoService.findByIds(collection, ids, utils.convParamJsonObject(fields), function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnListSetJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
   /**
    Count matching documents in a collection.
 
@@ -501,6 +723,122 @@ var MongoService = function(j_val) {
     } else utils.invalidArgs();
   };
 
+  /**
+   Run an arbitrary MongoDB command, decoding only the specified fields of the reply. The other fields are skipped
+   without being decoded, which saves work when the reply holds large sub documents which are not needed.
+
+   @public
+   @param command {Object} the command 
+   @param fields {Object} the fields of the reply to decode, as an inclusion projection, e.g. <code>{"ok": 1, "cursor.firstBatch.name": 1}</code> 
+   @param resultHandler {function} will be called with the result. 
+   @return {MongoService}
+   */
+  this.runCommandWithFields = function(command, fields, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 3 && typeof __args[0] === 'object' && typeof __args[1] === 'object' && typeof __args[2] === 'function') {
+      j_mongoService.runCommandWithFields(utils.convParamJsonObject(command), utils.convParamJsonObject(fields), function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Prepare a find, so that it can be executed many times with different parameters. The query is a template in
+   which values of the form {@code {"$param": "name"}} are replaced by the parameters of each execution. The
+   constant parts of the query, the sort and the projection are encoded once.
+
+   @public
+   @param collection {string} the collection 
+   @param query {Object} the query template 
+   @param options {Object} the options of the find 
+   @param resultHandler {function} will be called with the id of the prepared query 
+   @return {MongoService}
+   */
+  this.prepareQuery = function(collection, query, options, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 4 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'object' && typeof __args[3] === 'function') {
+      j_mongoService.prepareQuery(collection, utils.convParamJsonObject(query), options != null ? new FindOptions(new JsonObject(JSON.stringify(options))) : null, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(ar.result(), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Execute a prepared query.
+
+   @public
+   @param queryId {string} the id of the prepared query 
+   @param params {Object} the values of the parameters by name 
+   @param resultHandler {function} will be called with the list of documents 
+   @return {MongoService}
+   */
+  this.findPrepared = function(queryId, params, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 3 && typeof __args[0] === 'string' && typeof __args[1] === 'object' && typeof __args[2] === 'function') {
+      j_mongoService.findPrepared(queryId, utils.convParamJsonObject(params), function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnListSetJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Close a prepared query, releasing its resources.
+
+   @public
+   @param queryId {string} the id of the prepared query 
+   @param resultHandler {function} will be called when complete 
+   @return {MongoService}
+   */
+  this.closePreparedQuery = function(queryId, resultHandler) {
+    var __args = arguments;
+    if (__args.length === 2 && typeof __args[0] === 'string' && typeof __args[1] === 'function') {
+      j_mongoService.closePreparedQuery(queryId, function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(null, null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
+  /**
+   Get the metrics of the service, such as the write coalescing ratio when write coalescing is enabled.
+
+   @public
+   @param resultHandler {function} will be called with the metrics 
+   @return {MongoService}
+   */
+  this.getMetrics = function(resultHandler) {
+    var __args = arguments;
+    if (__args.length === 1 && typeof __args[0] === 'function') {
+      j_mongoService.getMetrics(function(ar) {
+      if (ar.succeeded()) {
+        resultHandler(utils.convReturnJson(ar.result()), null);
+      } else {
+        resultHandler(null, ar.cause());
+      }
+    });
+      return that;
+    } else utils.invalidArgs();
+  };
+
   /**
    Start the service
 
@@ -548,6 +886,26 @@ MongoService.create = function(vertx, config) {
   } else utils.invalidArgs();
 };
 
+/**
+ Create a service sharing its mongo client, and so its connection pool, with the other services created for the
+ same data source. The client is created with the config of the first of these services, and closed when the last
+ of them is stopped.
+
+ @memberof module:vertx-mongo-js/mongo_service
+ @param vertx {Vertx} the Vert.x instance 
+ @param config {Object} the config 
+ @param dataSourceName {string} the name of the data source 
+ @return {MongoService} the service
+ */
+MongoService.createShared = function() {
+  var __args = arguments;
+  if (__args.length === 2 && typeof __args[0] === 'object' && __args[0]._jdel && typeof __args[1] === 'object') {
+    return new MongoService(JMongoService.createShared(__args[0]._jdel, utils.convParamJsonObject(__args[1])));
+  }  else if (__args.length === 3 && typeof __args[0] === 'object' && __args[0]._jdel && typeof __args[1] === 'object' && typeof __args[2] === 'string') {
+    return new MongoService(JMongoService.createShared(__args[0]._jdel, utils.convParamJsonObject(__args[1]), __args[2]));
+  } else utils.invalidArgs();
+};
+
 /**
  Create a proxy to a service that is deployed somewhere on the event bus
 
@@ -0,0 +1,79 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.test.core.TestUtils;
+import org.junit.Test;
+
+import static io.vertx.ext.mongo.WriteOption.*;
+import static org.junit.Assert.*;
+
+public class BulkWriteOptionsTest {
+  @Test
+  public void testOptions() {
+    BulkWriteOptions options = new BulkWriteOptions();
+
+    WriteOption writeOption = ACKNOWLEDGED;
+    assertEquals(options, options.setWriteOption(writeOption));
+    assertEquals(writeOption, options.getWriteOption());
+
+    boolean ordered = TestUtils.randomBoolean();
+    assertEquals(options, options.setOrdered(ordered));
+    assertEquals(ordered, options.isOrdered());
+  }
+
+  @Test
+  public void testDefaultOptions() {
+    BulkWriteOptions options = new BulkWriteOptions();
+    assertNull(options.getWriteOption());
+    assertTrue(options.isOrdered());
+  }
+
+  @Test
+  public void testOptionsJson() {
+    JsonObject json = new JsonObject();
+
+    WriteOption writeOption = JOURNALED;
+    json.put("writeOption", writeOption.name());
+
+    boolean ordered = TestUtils.randomBoolean();
+    json.put("ordered", ordered);
+
+    BulkWriteOptions options = new BulkWriteOptions(json);
+    assertEquals(writeOption, options.getWriteOption());
+    assertEquals(ordered, options.isOrdered());
+  }
+
+  @Test
+  public void testDefaultOptionsJson() {
+    BulkWriteOptions options = new BulkWriteOptions(new JsonObject());
+    BulkWriteOptions def = new BulkWriteOptions();
+    assertEquals(def.getWriteOption(), options.getWriteOption());
+    assertEquals(def.isOrdered(), options.isOrdered());
+  }
+
+  @Test
+  public void testCopyOptions() {
+    BulkWriteOptions options = new BulkWriteOptions();
+    WriteOption writeOption = REPLICA_ACKNOWLEDGED;
+    boolean ordered = TestUtils.randomBoolean();
+
+    options.setWriteOption(writeOption);
+    options.setOrdered(ordered);
+
+    BulkWriteOptions copy = new BulkWriteOptions(options);
+    assertEquals(options.getWriteOption(), copy.getWriteOption());
+    assertEquals(options.isOrdered(), copy.isOrdered());
+  }
+
+  @Test
+  public void testToJson() {
+    BulkWriteOptions options = new BulkWriteOptions();
+    WriteOption writeOption = MAJORITY;
+    boolean ordered = TestUtils.randomBoolean();
+
+    options.setWriteOption(writeOption);
+    options.setOrdered(ordered);
+
+    assertEquals(options, new BulkWriteOptions(options.toJson()));
+  }
+}
@@ -29,6 +29,18 @@ public class FindOptionsTest {
     int skip = TestUtils.randomInt();
     assertEquals(options, options.setSkip(skip));
     assertEquals(skip, options.getSkip());
+
+    int batchSize = TestUtils.randomInt();
+    assertEquals(options, options.setBatchSize(batchSize));
+    assertEquals(batchSize, options.getBatchSize());
+
+    boolean lazyDecoding = TestUtils.randomBoolean();
+    assertEquals(options, options.setLazyDecoding(lazyDecoding));
+    assertEquals(lazyDecoding, options.isLazyDecoding());
+
+    boolean primitiveArrays = TestUtils.randomBoolean();
+    assertEquals(options, options.setPrimitiveArrays(primitiveArrays));
+    assertEquals(primitiveArrays, options.isPrimitiveArrays());
   }
 
   @Test
@@ -38,6 +50,9 @@ public class FindOptionsTest {
     assertNull(options.getSort());
     assertEquals(-1, options.getLimit());
     assertEquals(0, options.getSkip());
+    assertEquals(0, options.getBatchSize());
+    assertFalse(options.isLazyDecoding());
+    assertFalse(options.isPrimitiveArrays());
   }
 
   @Test
@@ -56,11 +71,23 @@ public class FindOptionsTest {
     int skip = TestUtils.randomInt();
     json.put("skip", skip);
 
+    int batchSize = TestUtils.randomInt();
+    json.put("batchSize", batchSize);
+
+    boolean lazyDecoding = TestUtils.randomBoolean();
+    json.put("lazyDecoding", lazyDecoding);
+
+    boolean primitiveArrays = TestUtils.randomBoolean();
+    json.put("primitiveArrays", primitiveArrays);
+
     FindOptions options = new FindOptions(json);
     assertEquals(fields, options.getFields());
     assertEquals(sort, options.getSort());
     assertEquals(limit, options.getLimit());
     assertEquals(skip, options.getSkip());
+    assertEquals(batchSize, options.getBatchSize());
+    assertEquals(lazyDecoding, options.isLazyDecoding());
+    assertEquals(primitiveArrays, options.isPrimitiveArrays());
   }
 
   @Test
@@ -71,6 +98,9 @@ public class FindOptionsTest {
     assertEquals(def.getSort(), options.getSort());
     assertEquals(def.getLimit(), options.getLimit());
     assertEquals(def.getSkip(), options.getSkip());
+    assertEquals(def.getBatchSize(), options.getBatchSize());
+    assertEquals(def.isLazyDecoding(), options.isLazyDecoding());
+    assertEquals(def.isPrimitiveArrays(), options.isPrimitiveArrays());
   }
 
   @Test
@@ -80,16 +110,25 @@ public class FindOptionsTest {
     JsonObject sort = randomJsonObject();
     int limit = TestUtils.randomInt();
     int skip = TestUtils.randomInt();
+    int batchSize = TestUtils.randomInt();
+    boolean primitiveArrays = TestUtils.randomBoolean();
+    boolean lazyDecoding = TestUtils.randomBoolean();
     options.setFields(fields);
     options.setSort(sort);
     options.setLimit(limit);
     options.setSkip(skip);
+    options.setBatchSize(batchSize);
+    options.setPrimitiveArrays(primitiveArrays);
+    options.setLazyDecoding(lazyDecoding);
 
     FindOptions copy = new FindOptions(options);
     assertEquals(options.getFields(), copy.getFields());
     assertEquals(options.getSort(), copy.getSort());
     assertEquals(options.getLimit(), copy.getLimit());
     assertEquals(options.getSkip(), copy.getSkip());
+    assertEquals(options.getBatchSize(), copy.getBatchSize());
+    assertEquals(options.isPrimitiveArrays(), copy.isPrimitiveArrays());
+    assertEquals(options.isLazyDecoding(), copy.isLazyDecoding());
   }
 
   private static JsonObject randomJsonObject() {
@@ -108,10 +147,16 @@ public class FindOptionsTest {
     JsonObject sort = randomJsonObject();
     int limit = TestUtils.randomPositiveInt();
     int skip = TestUtils.randomPositiveInt();
+    int batchSize = TestUtils.randomPositiveInt();
+    boolean primitiveArrays = TestUtils.randomBoolean();
+    boolean lazyDecoding = TestUtils.randomBoolean();
     options.setFields(fields);
     options.setSort(sort);
     options.setLimit(limit);
     options.setSkip(skip);
+    options.setBatchSize(batchSize);
+    options.setPrimitiveArrays(primitiveArrays);
+    options.setLazyDecoding(lazyDecoding);
 
     assertEquals(options, new FindOptions(options.toJson()));
   }
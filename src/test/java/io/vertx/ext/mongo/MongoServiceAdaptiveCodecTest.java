@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the service tests with codecs learning the shape of each collection.
+ */
+public class MongoServiceAdaptiveCodecTest extends MongoServiceTest {
+
+  @Override
+  protected JsonObject getConfig() {
+    return super.getConfig().put("adaptiveCodecs", true);
+  }
+
+  @Test
+  public void testDeviatingDocuments() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      JsonObject doc = new JsonObject().put("num", i).put("foo", "bar" + i).put("ratio", i / 2d).put("flag", i % 2 == 0);
+      if (i % 10 == 9) {
+        // Deviate by type, by an extra field and by a missing field
+        doc.put("num", "num" + i).put("extra", i);
+        doc.remove("flag");
+      }
+      docs.add(doc);
+    }
+    mongoService.insertMany(collection, docs, onSuccess(ids -> {
+      FindOptions options = new FindOptions().setSort(new JsonObject().put("ratio", 1));
+      mongoService.findWithOptions(collection, new JsonObject(), options, onSuccess(results -> {
+        assertEquals(docs.size(), results.size());
+        for (int i = 0; i < docs.size(); i++) {
+          assertEquals(ids.get(i), results.get(i).getString("_id"));
+          assertEquals(docs.get(i), results.get(i));
+        }
+        testComplete();
+      }));
+    }));
+    await();
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.BsonReplyHandler;
+import io.vertx.ext.mongo.impl.codec.json.LazyBsonMap;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the service tests through a clustered event bus, requests and replies being sent over the wire as BSON.
+ */
+public class MongoServiceBsonCodecClusteredTest extends MongoServiceTestBase {
+
+  private static final String ADDRESS = "vertx.mongo";
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    startNodes(2);
+    DeploymentOptions options = new DeploymentOptions().setConfig(getConfig().put("address", ADDRESS).put("bsonCodec", true));
+    CountDownLatch latch = new CountDownLatch(1);
+    vertices[0].deployVerticle(new MongoServiceVerticle(), options, onSuccess(id -> {
+      mongoService = MongoService.createBsonEventBusProxy(vertices[1], ADDRESS);
+      dropCollections(latch);
+    }));
+    awaitLatch(latch);
+  }
+
+  @Test
+  public void testSentAsBson() throws Exception {
+    MongoService service = MongoService.create(vertices[0], getConfig());
+    service.start();
+    // Serve a second address recording how the requests were decoded
+    List<Boolean> lazyRequests = new CopyOnWriteArrayList<>();
+    Handler<Message<JsonObject>> handler = new BsonReplyHandler(new MongoServiceVertxProxyHandler(vertices[0], service, "recording"));
+    vertices[0].eventBus().<JsonObject>consumer("recording", msg -> {
+      lazyRequests.add(msg.body().getMap() instanceof LazyBsonMap);
+      handler.handle(msg);
+    });
+    MongoService proxy = MongoService.createBsonEventBusProxy(vertices[1], "recording");
+    String collection = randomCollection();
+    proxy.insert(collection, createDoc(), onSuccess(id -> {
+      proxy.findOne(collection, new JsonObject().put("_id", id), null, onSuccess(doc -> {
+        assertTrue(doc.getMap() instanceof LazyBsonMap);
+        assertEquals(createDoc().put("_id", id), doc);
+        proxy.find(collection, new JsonObject(), onSuccess(docs -> {
+          assertEquals(1, docs.size());
+          assertTrue(docs.get(0).getMap() instanceof LazyBsonMap);
+          assertEquals(3, lazyRequests.size());
+          assertFalse(lazyRequests.contains(false));
+          service.stop();
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+}
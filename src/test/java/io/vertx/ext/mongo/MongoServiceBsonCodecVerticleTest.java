@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Arrays;
+
+/**
+ * Runs the service tests through the event bus, requests and replies being sent as BSON.
+ */
+public class MongoServiceBsonCodecVerticleTest extends MongoServiceVerticleTest {
+
+  @Override
+  protected JsonObject getConfig() {
+    return super.getConfig().put("bsonCodec", true);
+  }
+
+  @Override
+  protected MongoService createProxy(String address) {
+    return MongoService.createBsonEventBusProxy(vertx, address);
+  }
+
+  /**
+   * Binary data is sent as BSON binary data.
+   */
+  @Override
+  protected void assertBinary(byte[] expected, Object value) {
+    assertTrue(Arrays.equals(expected, (byte[]) value));
+  }
+}
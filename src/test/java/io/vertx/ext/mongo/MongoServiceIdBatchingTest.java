@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the service tests with lookups by id batched, and queries by ids split into small chunks.
+ */
+public class MongoServiceIdBatchingTest extends MongoServiceTest {
+
+  @Override
+  protected JsonObject getConfig() {
+    return super.getConfig().put("batchFindOneById", true).put("findByIdsChunkSize", 2);
+  }
+
+  @Test
+  public void testFindOneByIdBatched() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      docs.add(createDoc(i));
+    }
+    mongoService.insertMany(collection, docs, onSuccess(ids -> {
+      AtomicInteger done = new AtomicInteger();
+      List<String> lookups = new ArrayList<>(ids);
+      lookups.add(ids.get(0));
+      lookups.add("missing");
+      vertx.runOnContext(v -> {
+        for (String id : lookups) {
+          mongoService.findOne(collection, new JsonObject().put("_id", id), null, onSuccess(doc -> {
+            if (id.equals("missing")) {
+              assertNull(doc);
+            } else {
+              assertEquals(id, doc.getString("_id"));
+            }
+            if (done.incrementAndGet() == lookups.size()) {
+              mongoService.getMetrics(onSuccess(metrics -> {
+                JsonObject batching = metrics.getJsonObject("idBatching");
+                assertEquals(lookups.size(), (long) batching.getLong("lookups"));
+                assertEquals(1L, (long) batching.getLong("batches"));
+                testComplete();
+              }));
+            }
+          }));
+        }
+      });
+    }));
+    await();
+  }
+
+  @Test
+  public void testFieldsChangedWhileBatched() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      docs.add(createDoc(i));
+    }
+    mongoService.insertMany(collection, docs, onSuccess(ids -> {
+      AtomicInteger done = new AtomicInteger();
+      vertx.runOnContext(v -> {
+        JsonObject fields = new JsonObject().put("foo", 1);
+        mongoService.findOne(collection, new JsonObject().put("_id", ids.get(0)), fields, onSuccess(doc -> {
+          // The batch of the lookup keeps the fields it was added with
+          assertEquals("bar0", doc.getString("foo"));
+          assertFalse(doc.containsKey("num"));
+          if (done.incrementAndGet() == 2) {
+            testComplete();
+          }
+        }));
+        fields.put("num", 1);
+        mongoService.findOne(collection, new JsonObject().put("_id", ids.get(1)), fields, onSuccess(doc -> {
+          assertEquals("bar1", doc.getString("foo"));
+          assertEquals(123, (int) doc.getInteger("num"));
+          if (done.incrementAndGet() == 2) {
+            testComplete();
+          }
+        }));
+      });
+    }));
+    await();
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+/**
+ * Runs the service tests with ids stored as object ids.
+ */
+public class MongoServiceObjectIdTest extends MongoServiceTest {
+
+  @Override
+  protected JsonObject getConfig() {
+    return super.getConfig().put("useObjectId", true);
+  }
+
+  @Test
+  public void testIdStoredAsObjectId() throws Exception {
+    String collection = randomCollection();
+    mongoService.insert(collection, createDoc(), onSuccess(id -> {
+      assertTrue(ObjectId.isValid(id));
+      JsonObject objectIdQuery = new JsonObject().put("_id", new JsonObject().put("$type", 7));
+      mongoService.count(collection, objectIdQuery, onSuccess(count -> {
+        assertEquals(1, (long) count);
+        mongoService.findOne(collection, new JsonObject().put("_id", id), null, onSuccess(doc -> {
+          assertEquals(id, doc.getString("_id"));
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testStringIdsStillFound() throws Exception {
+    String collection = randomCollection();
+    String stringId = new ObjectId().toHexString();
+    MongoService stringIdService = MongoService.create(vertx, getConfig().put("useObjectId", false));
+    stringIdService.start();
+    stringIdService.insert(collection, createDoc().put("_id", stringId), onSuccess(v -> {
+      stringIdService.stop();
+      mongoService.insert(collection, createDoc(), onSuccess(objectId -> {
+        mongoService.findOne(collection, new JsonObject().put("_id", stringId), null, onSuccess(doc -> {
+          assertNotNull(doc);
+          assertEquals(stringId, doc.getString("_id"));
+          JsonObject in = new JsonObject().put("_id", new JsonObject().put("$in", new JsonArray().add(stringId).add(objectId)));
+          mongoService.count(collection, in, onSuccess(count -> {
+            assertEquals(2, (long) count);
+            JsonObject or = new JsonObject().put("$or", new JsonArray()
+              .add(new JsonObject().put("_id", stringId))
+              .add(new JsonObject().put("_id", new JsonObject().put("$eq", objectId))));
+            mongoService.count(collection, or, onSuccess(count2 -> {
+              assertEquals(2, (long) count2);
+              JsonObject ne = new JsonObject().put("_id", new JsonObject().put("$ne", stringId));
+              mongoService.count(collection, ne, onSuccess(count3 -> {
+                assertEquals(1, (long) count3);
+                testComplete();
+              }));
+            }));
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindPreparedById() throws Exception {
+    String collection = randomCollection();
+    JsonObject query = new JsonObject().put("_id", new JsonObject().put("$param", "id"));
+    mongoService.insert(collection, createDoc(), onSuccess(id -> {
+      mongoService.prepareQuery(collection, query, new FindOptions(), onSuccess(queryId -> {
+        mongoService.findPrepared(queryId, new JsonObject().put("id", id), onSuccess(results -> {
+          assertEquals(1, results.size());
+          assertEquals(id, results.get(0).getString("_id"));
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testUpsertByObjectIdString() throws Exception {
+    String collection = randomCollection();
+    String id = new ObjectId().toHexString();
+    JsonObject query = new JsonObject().put("_id", id);
+    JsonObject update = new JsonObject().put("$set", new JsonObject().put("foo", "bar"));
+    mongoService.updateWithOptions(collection, query, update, new UpdateOptions().setUpsert(true), onSuccess(v -> {
+      mongoService.replaceWithOptions(collection, query, new JsonObject().put("replaced", true), new UpdateOptions().setUpsert(true), onSuccess(v2 -> {
+        JsonObject objectIdQuery = new JsonObject().put("_id", new JsonObject().put("$type", 7));
+        mongoService.find(collection, objectIdQuery, onSuccess(docs -> {
+          // The upserted document has the id asked for, and the replace found it
+          assertEquals(1, docs.size());
+          assertEquals(id, docs.get(0).getString("_id"));
+          assertTrue(docs.get(0).getBoolean("replaced"));
+          assertFalse(docs.get(0).containsKey("foo"));
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testNestedIdNotStoredAsObjectId() throws Exception {
+    String collection = randomCollection();
+    String nestedId = new ObjectId().toHexString();
+    JsonObject doc = createDoc().put("embedded", new JsonObject().put("_id", nestedId));
+    mongoService.insert(collection, doc, onSuccess(id -> {
+      JsonObject stringQuery = new JsonObject().put("embedded._id", new JsonObject().put("$type", 2));
+      mongoService.count(collection, stringQuery, onSuccess(count -> {
+        assertEquals(1, (long) count);
+        testComplete();
+      }));
+    }));
+    await();
+  }
+}
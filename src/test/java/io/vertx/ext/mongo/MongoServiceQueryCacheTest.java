@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ * Runs the service tests with the query result cache enabled.
+ */
+public class MongoServiceQueryCacheTest extends MongoServiceTest {
+
+  @Override
+  protected JsonObject getConfig() {
+    return super.getConfig().put("queryCacheMaxBytes", 1024 * 1024L);
+  }
+
+  @Test
+  public void testCachedFindHits() throws Exception {
+    String collection = randomCollection();
+    JsonObject query = new JsonObject().put("foo", "bar1");
+    insertDocs(collection, 5, onSuccess(res -> {
+      mongoService.find(collection, query, onSuccess(results -> {
+        assertEquals(1, results.size());
+        // Modifying a result doesn't modify the cached one
+        results.get(0).put("foo", "modified");
+        mongoService.find(collection, query, onSuccess(results2 -> {
+          assertEquals(1, results2.size());
+          assertEquals("bar1", results2.get(0).getString("foo"));
+          mongoService.getMetrics(onSuccess(metrics -> {
+            JsonObject stats = metrics.getJsonObject("queryCache").getJsonObject("collections").getJsonObject(collection);
+            assertEquals(1L, (long) stats.getLong("hits"));
+            assertTrue(stats.getLong("misses") >= 1);
+            testComplete();
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testWritesInvalidate() throws Exception {
+    String collection = randomCollection();
+    JsonObject query = new JsonObject().put("num", 123);
+    insertDocs(collection, 3, onSuccess(res -> {
+      mongoService.count(collection, query, onSuccess(count -> {
+        assertEquals(3, (long) count);
+        mongoService.insert(collection, createDoc(), onSuccess(id -> {
+          mongoService.count(collection, query, onSuccess(count2 -> {
+            assertEquals(4, (long) count2);
+            mongoService.removeOne(collection, new JsonObject().put("_id", id), onSuccess(v -> {
+              mongoService.count(collection, query, onSuccess(count3 -> {
+                assertEquals(3, (long) count3);
+                mongoService.findOne(collection, new JsonObject().put("_id", id), null, onSuccess(doc -> {
+                  assertNull(doc);
+                  mongoService.insert(collection, createDoc().put("_id", id), onSuccess(v2 -> {
+                    mongoService.findOne(collection, new JsonObject().put("_id", id), null, onSuccess(doc2 -> {
+                      assertNotNull(doc2);
+                      testComplete();
+                    }));
+                  }));
+                }));
+              }));
+            }));
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testCollectionTTL() throws Exception {
+    String collection = randomCollection();
+    JsonObject config = getConfig().put("queryCacheCollectionTTLMS", new JsonObject().put(collection, 0));
+    MongoService service = MongoService.create(vertx, config);
+    service.start();
+    insertDocs(collection, 2, onSuccess(res -> {
+      service.count(collection, new JsonObject(), onSuccess(count -> {
+        service.count(collection, new JsonObject(), onSuccess(count2 -> {
+          service.getMetrics(onSuccess(metrics -> {
+            assertNull(metrics.getJsonObject("queryCache").getJsonObject("collections").getJsonObject(collection));
+            service.stop();
+            testComplete();
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+}
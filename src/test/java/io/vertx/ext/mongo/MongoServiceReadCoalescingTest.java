@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the service tests with identical concurrent reads coalesced.
+ */
+public class MongoServiceReadCoalescingTest extends MongoServiceTest {
+
+  @Override
+  protected JsonObject getConfig() {
+    return super.getConfig().put("coalesceReads", true);
+  }
+
+  @Test
+  public void testConcurrentReadsCoalesced() throws Exception {
+    String collection = randomCollection();
+    JsonObject query = new JsonObject().put("num", 123);
+    int num = 20;
+    insertDocs(collection, 5, onSuccess(res -> {
+      List<List<JsonObject>> results = new ArrayList<>();
+      AtomicInteger done = new AtomicInteger();
+      for (int i = 0; i < num; i++) {
+        mongoService.find(collection, query, onSuccess(docs -> {
+          assertEquals(5, docs.size());
+          for (List<JsonObject> other : results) {
+            // Each caller gets its own copy
+            assertNotSame(other.get(0), docs.get(0));
+          }
+          results.add(docs);
+          docs.get(0).put("foo", "modified");
+          if (done.incrementAndGet() == num) {
+            mongoService.getMetrics(onSuccess(metrics -> {
+              JsonObject coalescing = metrics.getJsonObject("readCoalescing");
+              assertEquals(num, (long) coalescing.getLong("reads"));
+              assertTrue(coalescing.getLong("coalesced") > 0);
+              testComplete();
+            }));
+          }
+        }));
+      }
+    }));
+    await();
+  }
+
+  @Test
+  public void testReadAfterWrite() throws Exception {
+    String collection = randomCollection();
+    JsonObject query = new JsonObject().put("num", 123);
+    insertDocs(collection, 3, onSuccess(res -> {
+      mongoService.count(collection, query, onSuccess(count -> assertEquals(3, (long) count)));
+      mongoService.insert(collection, createDoc(), onSuccess(id -> {
+        mongoService.count(collection, query, onSuccess(count -> {
+          assertEquals(4, (long) count);
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+}
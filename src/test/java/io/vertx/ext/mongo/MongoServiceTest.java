@@ -1,20 +1,45 @@
 package io.vertx.ext.mongo;
 
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.mongo.impl.MongoServiceImpl;
+import io.vertx.ext.mongo.impl.codec.json.DoubleArrayList;
+import io.vertx.test.core.TestUtils;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author <a href="http://tfox.org">Tim Fox</a>
  */
 public class MongoServiceTest extends MongoServiceTestBase {
 
+  // The same service, with the operations only available locally
+  protected LocalMongoService localService;
 
   @Override
   public void setUp() throws Exception {
     super.setUp();
     JsonObject config = getConfig();
-    mongoService = MongoService.create(vertx, config);
+    localService = LocalMongoService.create(vertx, config);
+    mongoService = localService;
     mongoService.start();
     CountDownLatch latch = new CountDownLatch(1);
     dropCollections(latch);
@@ -27,5 +52,391 @@ public class MongoServiceTest extends MongoServiceTestBase {
     super.tearDown();
   }
 
+  @Test
+  public void testFindStream() throws Exception {
+    int num = 25;
+    String collection = randomCollection();
+    insertDocs(collection, num, onSuccess(res -> {
+      List<JsonObject> results = new ArrayList<>();
+      ReadStream<JsonObject> stream = localService.findStream(collection, new JsonObject());
+      stream.exceptionHandler(t -> fail(t.getMessage()));
+      stream.endHandler(v -> {
+        assertEquals(num, results.size());
+        testComplete();
+      });
+      stream.handler(results::add);
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindStreamPauseResume() throws Exception {
+    int num = 25;
+    String collection = randomCollection();
+    insertDocs(collection, num, onSuccess(res -> {
+      AtomicInteger count = new AtomicInteger();
+      ReadStream<JsonObject> stream = localService.findWithOptionsStream(collection, new JsonObject(),
+        new FindOptions().setBatchSize(5));
+      stream.exceptionHandler(t -> fail(t.getMessage()));
+      stream.endHandler(v -> {
+        assertEquals(num, count.get());
+        testComplete();
+      });
+      stream.handler(doc -> {
+        if (count.incrementAndGet() % 10 == 0) {
+          stream.pause();
+          vertx.setTimer(10, id -> stream.resume());
+        }
+      });
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindStreamEmpty() throws Exception {
+    String collection = randomCollection();
+    mongoService.createCollection(collection, onSuccess(res -> {
+      ReadStream<JsonObject> stream = localService.findStream(collection, new JsonObject());
+      stream.exceptionHandler(t -> fail(t.getMessage()));
+      stream.endHandler(v -> testComplete());
+      stream.handler(doc -> fail("Unexpected document " + doc));
+    }));
+    await();
+  }
+
+  @Test
+  public void testIdleCursorClosed() throws Exception {
+    String collection = randomCollection();
+    MongoService service = MongoService.create(vertx, getConfig().put("cursorIdleTimeoutMS", 50L));
+    service.start();
+    insertDocs(collection, 5, onSuccess(res -> {
+      service.openCursor(collection, new JsonObject(), new FindOptions(), onSuccess(cursorId -> {
+        service.fetch(cursorId, 2, onSuccess(docs -> {
+          assertEquals(2, docs.size());
+          vertx.setTimer(200, id -> {
+            service.fetch(cursorId, 2, onFailure(ex -> {
+              service.stop();
+              testComplete();
+            }));
+          });
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testEvictedPreparedQueryCompiledAgain() throws Exception {
+    MongoService service = MongoService.create(vertx, getConfig().put("maxPreparedQueries", 1));
+    service.start();
+    String collection = randomCollection();
+    JsonObject params = new JsonObject().put("foo", "bar");
+    JsonObject query1 = new JsonObject().put("foo", new JsonObject().put("$param", "foo"));
+    JsonObject query2 = new JsonObject().put("foo", new JsonObject().put("$ne", new JsonObject().put("$param", "foo")));
+    insertDocs(collection, 3, onSuccess(res -> {
+      service.prepareQuery(collection, query1, new FindOptions(), onSuccess(first -> {
+        // Preparing the second query evicts the first one, which is compiled again from its id
+        service.prepareQuery(collection, query2, new FindOptions(), onSuccess(second -> {
+          service.findPrepared(first, params, onSuccess(docs -> {
+            service.findPrepared(second, params, onSuccess(docs2 -> {
+              assertEquals(3, docs.size() + docs2.size());
+              service.stop();
+              testComplete();
+            }));
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testSharedClient() throws Exception {
+    String dataSourceName = TestUtils.randomAlphaString(10);
+    MongoService service1 = MongoService.createShared(vertx, getConfig(), dataSourceName);
+    MongoService service2 = MongoService.createShared(vertx, getConfig(), dataSourceName);
+    service1.start();
+    service2.start();
+    LocalMap<String, Object> dataSources = vertx.sharedData().getLocalMap("__vertx.MongoService.datasources");
+    assertTrue(dataSources.keySet().contains(dataSourceName));
+    String collection = randomCollection();
+    service1.insert(collection, createDoc(), onSuccess(id -> {
+      // The client is still open for the other service
+      service1.stop();
+      service2.findOne(collection, new JsonObject().put("_id", id), null, onSuccess(doc -> {
+        assertNotNull(doc);
+        service2.stop();
+        assertFalse(vertx.sharedData().getLocalMap("__vertx.MongoService.datasources").keySet().contains(dataSourceName));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testLocalSharedClientWithDefaultDataSource() throws Exception {
+    LocalMongoService service = LocalMongoService.createShared(vertx, getConfig());
+    service.start();
+    LocalMap<String, Object> dataSources = vertx.sharedData().getLocalMap("__vertx.MongoService.datasources");
+    assertTrue(dataSources.keySet().contains(MongoServiceImpl.DEFAULT_DATA_SOURCE_NAME));
+    service.count(randomCollection(), new JsonObject(), onSuccess(count -> {
+      service.stop();
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testResultsDeliveredOnCallerContext() throws Exception {
+    String collection = randomCollection();
+    insertDocs(collection, 2, onSuccess(res -> {
+      Context context = vertx.getOrCreateContext();
+      context.runOnContext(v -> {
+        mongoService.count(collection, new JsonObject(), onSuccess(count -> {
+          assertSame(context, Vertx.currentContext());
+          assertTrue(Context.isOnEventLoopThread());
+          mongoService.insert(collection, createDoc(), onSuccess(id -> {
+            assertSame(context, Vertx.currentContext());
+            testComplete();
+          }));
+        }));
+      });
+    }));
+    await();
+  }
+
+  @Test
+  public void testResultNotDeliveredBeforeOperationReturns() throws Exception {
+    Context context = vertx.getOrCreateContext();
+    context.runOnContext(v -> {
+      AtomicBoolean returned = new AtomicBoolean();
+      // Finding no ids completes without a round trip to the server
+      mongoService.findByIds(randomCollection(), new ArrayList<>(), null, onSuccess(docs -> {
+        assertTrue(returned.get());
+        assertSame(context, Vertx.currentContext());
+        assertTrue(docs.isEmpty());
+        testComplete();
+      }));
+      returned.set(true);
+    });
+    await();
+  }
+
+  @Test
+  public void testFailureNotDeliveredBeforeOperationReturns() throws Exception {
+    Context context = vertx.getOrCreateContext();
+    context.runOnContext(v -> {
+      AtomicBoolean returned = new AtomicBoolean();
+      // An invalid page size fails without calling the driver
+      mongoService.findPage(randomCollection(), new JsonObject(), new PageOptions().setPageSize(0), onFailure(err -> {
+        assertTrue(returned.get());
+        assertSame(context, Vertx.currentContext());
+        testComplete();
+      }));
+      returned.set(true);
+    });
+    await();
+  }
+
+  @Test
+  public void testResultsDeliveredOnWorker() throws Exception {
+    MongoService service = MongoService.create(vertx, getConfig().put("deliverResultsOnWorker", true));
+    service.start();
+    String collection = randomCollection();
+    Context context = vertx.getOrCreateContext();
+    context.runOnContext(v -> {
+      service.count(collection, new JsonObject(), onSuccess(count -> {
+        assertSame(context, Vertx.currentContext());
+        assertTrue(Context.isOnWorkerThread());
+        service.stop();
+        testComplete();
+      }));
+    });
+    await();
+  }
+
+  @Test
+  public void testResultsDeliveredOnWorkerConcurrently() throws Exception {
+    MongoService service = MongoService.create(vertx, getConfig().put("deliverResultsOnWorker", true));
+    service.start();
+    String collection = randomCollection();
+    CountDownLatch second = new CountDownLatch(1);
+    vertx.runOnContext(v -> {
+      // The first handler waits for the second one, which it would hold up if deliveries were ordered
+      service.count(collection, new JsonObject(), onSuccess(count -> {
+        try {
+          assertTrue(second.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          fail(e.getMessage());
+        }
+        service.stop();
+        testComplete();
+      }));
+      service.count(collection, new JsonObject(), onSuccess(count -> second.countDown()));
+    });
+    await();
+  }
+
+  @Test
+  public void testLazyFindInternsFieldNames() throws Exception {
+    int num = 10;
+    String collection = randomCollection();
+    FindOptions options = new FindOptions().setLazyDecoding(true);
+    insertDocs(collection, num, onSuccess(res -> {
+      mongoService.findWithOptions(collection, new JsonObject(), options, onSuccess(results -> {
+        assertEquals(num, results.size());
+        String first = results.get(0).fieldNames().stream().filter("foo"::equals).findFirst().get();
+        String second = results.get(1).fieldNames().stream().filter("foo"::equals).findFirst().get();
+        assertSame(first, second);
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testBinary() throws Exception {
+    String collection = randomCollection();
+    byte[] bytes = TestUtils.randomByteArray(100);
+    JsonObject doc = new JsonObject();
+    doc.getMap().put("data", bytes);
+    doc.getMap().put("buffer", Buffer.buffer(bytes));
+    mongoService.insert(collection, doc, onSuccess(id -> {
+      mongoService.findOne(collection, new JsonObject().put("_id", id), null, onSuccess(result -> {
+        assertTrue(Arrays.equals(bytes, (byte[]) result.getValue("data")));
+        assertTrue(Arrays.equals(bytes, (byte[]) result.getValue("buffer")));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindWithPrimitiveArrays() throws Exception {
+    String collection = randomCollection();
+    double[] samples = new double[]{0.5, 1.5, 2.5};
+    JsonObject doc = new JsonObject().put("samples", PrimitiveArrays.of(samples)).put("counts", new JsonArray().add(1).add(2));
+    mongoService.insert(collection, doc, onSuccess(id -> {
+      FindOptions options = new FindOptions().setPrimitiveArrays(true);
+      mongoService.findWithOptions(collection, new JsonObject(), options, onSuccess(results -> {
+        assertEquals(1, results.size());
+        JsonObject result = results.get(0);
+        assertTrue(Arrays.equals(samples, PrimitiveArrays.doubles(result.getJsonArray("samples"))));
+        assertTrue(Arrays.equals(new int[]{1, 2}, PrimitiveArrays.ints(result.getJsonArray("counts"))));
+        assertTrue(result.getJsonArray("samples").getList() instanceof DoubleArrayList);
+        assertEquals(1.5, result.getJsonArray("samples").getDouble(1), 0);
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testSaveModifiedPrimitiveArrays() throws Exception {
+    String collection = randomCollection();
+    JsonObject doc = new JsonObject().put("samples", PrimitiveArrays.of(new double[]{0.5, 1.5})).put("counts", new JsonArray().add(1).add(2));
+    mongoService.insert(collection, doc, onSuccess(id -> {
+      FindOptions options = new FindOptions().setPrimitiveArrays(true);
+      mongoService.findWithOptions(collection, new JsonObject(), options, onSuccess(results -> {
+        JsonObject result = results.get(0);
+        result.getJsonArray("samples").getList().set(0, 0.25);
+        result.getJsonArray("samples").add(2.5);
+        result.getJsonArray("counts").remove(0);
+        result.getJsonArray("counts").add("three");
+        mongoService.save(collection, result, onSuccess(v -> {
+          mongoService.findOne(collection, new JsonObject().put("_id", id), null, onSuccess(saved -> {
+            assertEquals(new JsonArray().add(0.25).add(1.5).add(2.5), saved.getJsonArray("samples"));
+            assertEquals(new JsonArray().add(2).add("three"), saved.getJsonArray("counts"));
+            testComplete();
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+
+  @Test
+  public void testFindDataObjects() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      docs.add(new JsonObject().put("name", "item" + i).put("quantity", i));
+    }
+    mongoService.insertMany(collection, docs, onSuccess(ids -> {
+      FindOptions options = new FindOptions().setSort(new JsonObject().put("quantity", 1));
+      localService.findWithOptions(collection, new JsonObject(), options, Item.class, onSuccess(items -> {
+        assertEquals(3, items.size());
+        assertEquals("item2", items.get(2).name);
+        assertEquals(2, items.get(2).quantity);
+        localService.findOne(collection, new JsonObject().put("name", "item1"), null, Item.class, onSuccess(item -> {
+          assertEquals(1, item.quantity);
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindWithRegisteredCodec() throws Exception {
+    String collection = randomCollection();
+    localService.registerCodec(new ItemNameCodec());
+    mongoService.insert(collection, new JsonObject().put("name", "foo").put("quantity", 3), onSuccess(id -> {
+      localService.find(collection, new JsonObject(), ItemName.class, onSuccess(names -> {
+        assertEquals(1, names.size());
+        assertEquals("foo", names.get(0).name);
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  public static class Item {
+    final String name;
+    final int quantity;
+
+    public Item(JsonObject json) {
+      name = json.getString("name");
+      quantity = json.getInteger("quantity");
+    }
+  }
+
+  public static class ItemName {
+    final String name;
+
+    ItemName(String name) {
+      this.name = name;
+    }
+  }
+
+  private static class ItemNameCodec implements Codec<ItemName> {
+    @Override
+    public ItemName decode(BsonReader reader, DecoderContext decoderContext) {
+      String name = null;
+      reader.readStartDocument();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+        if (reader.readName().equals("name")) {
+          name = reader.readString();
+        } else {
+          reader.skipValue();
+        }
+      }
+      reader.readEndDocument();
+      return new ItemName(name);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, ItemName value, EncoderContext encoderContext) {
+      writer.writeStartDocument();
+      writer.writeString("name", value.name);
+      writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<ItemName> getEncoderClass() {
+      return ItemName.class;
+    }
+  }
 
 }
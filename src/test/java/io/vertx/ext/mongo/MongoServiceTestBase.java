@@ -36,9 +36,12 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -94,7 +97,7 @@ public abstract class MongoServiceTestBase extends VertxTestBase {
 
   protected MongoService mongoService;
 
-  private String randomCollection() {
+  protected String randomCollection() {
     return "ext-mongo" + TestUtils.randomAlphaString(20);
   }
 
@@ -202,6 +205,17 @@ public abstract class MongoServiceTestBase extends VertxTestBase {
     await();
   }
 
+  @Test
+  public void testRunCommandWithFields() throws Exception {
+    JsonObject ping = new JsonObject().put("isMaster", 1);
+    mongoService.runCommandWithFields(ping, new JsonObject().put("ismaster", 1).put("ok", 1), onSuccess(reply -> {
+      assertTrue(reply.getBoolean("ismaster"));
+      assertEquals(2, reply.size());
+      testComplete();
+    }));
+    await();
+  }
+
   @Test
   public void testRunInvalidCommand() throws Exception {
     JsonObject ping = new JsonObject().put("iuhioqwdqhwd", 1);
@@ -311,6 +325,107 @@ public abstract class MongoServiceTestBase extends VertxTestBase {
     await();
   }
 
+  @Test
+  public void testInsertMany() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      docs.add(createDoc(i));
+    }
+    docs.get(3).put("_id", "myid");
+    mongoService.insertMany(collection, docs, onSuccess(ids -> {
+      assertEquals(10, ids.size());
+      assertEquals("myid", ids.get(3));
+      for (String id : ids) {
+        assertNotNull(id);
+      }
+      mongoService.count(collection, new JsonObject(), onSuccess(count -> {
+        assertEquals(10, (long) count);
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testInsertManyNonStringIds() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = Arrays.asList(createDoc(0).put("_id", 1), createDoc(1).put("_id", 2L));
+    mongoService.insertMany(collection, docs, onSuccess(ids -> {
+      assertEquals(Arrays.asList("1", "2"), ids);
+      mongoService.count(collection, new JsonObject(), onSuccess(count -> {
+        assertEquals(2, (long) count);
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testInsertManyOrderedStopsAtFirstError() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = Arrays.asList(createDoc(0).put("_id", "a"), createDoc(1).put("_id", "a"), createDoc(2).put("_id", "b"));
+    mongoService.insertManyWithOptions(collection, docs, new BulkWriteOptions(), onFailure(t -> {
+      mongoService.count(collection, new JsonObject(), onSuccess(count -> {
+        assertEquals(1, (long) count);
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testInsertManyUnordered() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = Arrays.asList(createDoc(0).put("_id", "a"), createDoc(1).put("_id", "a"), createDoc(2).put("_id", "b"));
+    mongoService.insertManyWithOptions(collection, docs, new BulkWriteOptions(false).setWriteOption(ACKNOWLEDGED), onFailure(t -> {
+      mongoService.count(collection, new JsonObject(), onSuccess(count -> {
+        assertEquals(2, (long) count);
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testBulkWrite() throws Exception {
+    String collection = randomCollection();
+    insertDocs(collection, 5, onSuccess(res -> {
+      List<JsonObject> operations = new ArrayList<>();
+      operations.add(new JsonObject().put("type", "insert").put("document", createDoc(10)));
+      operations.add(new JsonObject().put("type", "update").put("filter", new JsonObject().put("num", 123))
+        .put("document", new JsonObject().put("$set", new JsonObject().put("updated", true))).put("multi", true));
+      operations.add(new JsonObject().put("type", "replace").put("filter", new JsonObject().put("foo", "bar0"))
+        .put("document", createDoc(20)));
+      operations.add(new JsonObject().put("type", "delete").put("filter", new JsonObject().put("foo", "bar1")));
+      operations.add(new JsonObject().put("type", "update").put("filter", new JsonObject().put("_id", "upserted"))
+        .put("document", new JsonObject().put("$set", new JsonObject().put("foo", "upserted"))).put("upsert", true));
+      mongoService.bulkWrite(collection, operations, onSuccess(result -> {
+        assertEquals(1, (int) result.getInteger("insertedCount"));
+        assertEquals(7, (int) result.getInteger("matchedCount"));
+        assertEquals(1, (int) result.getInteger("deletedCount"));
+        assertEquals(1, result.getJsonArray("upserts").size());
+        assertEquals("upserted", result.getJsonArray("upserts").getJsonObject(0).getString("_id"));
+        assertEquals(4, (int) result.getJsonArray("upserts").getJsonObject(0).getInteger("index"));
+        mongoService.count(collection, new JsonObject(), onSuccess(count -> {
+          assertEquals(6, (long) count);
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testBulkWriteInvalidOperation() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> operations = Arrays.asList(new JsonObject().put("type", "upsertAll"));
+    mongoService.bulkWriteWithOptions(collection, operations, new BulkWriteOptions(false), onFailure(t -> {
+      testComplete();
+    }));
+    await();
+  }
+
   @Test
   public void testSave() throws Exception {
     String collection = randomCollection();
@@ -484,6 +599,43 @@ public abstract class MongoServiceTestBase extends VertxTestBase {
     await();
   }
 
+  @Test
+  public void testFindByIds() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = Arrays.asList(createDoc(0), createDoc(1), createDoc(2));
+    mongoService.insertMany(collection, docs, onSuccess(ids -> {
+      List<String> requested = Arrays.asList(ids.get(2), "missing", ids.get(0), ids.get(2));
+      mongoService.findByIds(collection, requested, null, onSuccess(results -> {
+        assertEquals(4, results.size());
+        assertEquals("bar2", results.get(0).getString("foo"));
+        assertEquals(ids.get(2), results.get(0).getString("_id"));
+        assertNull(results.get(1));
+        assertEquals("bar0", results.get(2).getString("foo"));
+        assertEquals(results.get(0), results.get(3));
+        mongoService.findByIds(collection, Collections.emptyList(), null, onSuccess(empty -> {
+          assertTrue(empty.isEmpty());
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindByIdsWithFields() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = Arrays.asList(createDoc(0), createDoc(1));
+    mongoService.insertMany(collection, docs, onSuccess(ids -> {
+      JsonObject fields = new JsonObject().put("foo", 1).put("_id", 0);
+      mongoService.findByIds(collection, Arrays.asList(ids.get(1), ids.get(0)), fields, onSuccess(results -> {
+        assertEquals(new JsonObject().put("foo", "bar1"), results.get(0));
+        assertEquals(new JsonObject().put("foo", "bar0"), results.get(1));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
   @Test
   public void testFind() throws Exception {
     int num = 10;
@@ -506,6 +658,28 @@ public abstract class MongoServiceTestBase extends VertxTestBase {
     });
   }
 
+  @Test
+  public void testFindWithNestedFields() throws Exception {
+    String collection = randomCollection();
+    JsonObject doc = new JsonObject()
+      .put("foo", "bar")
+      .put("obj", new JsonObject().put("x", 1).put("y", 2))
+      .put("arr", new JsonArray().add(new JsonObject().put("x", 3).put("y", 4)).add(5));
+    mongoService.insert(collection, doc, onSuccess(id -> {
+      JsonObject fields = new JsonObject().put("obj.x", 1).put("arr.x", 1);
+      mongoService.findWithOptions(collection, new JsonObject(), new FindOptions().setFields(fields), onSuccess(results -> {
+        assertEquals(1, results.size());
+        JsonObject expected = new JsonObject()
+          .put("_id", id)
+          .put("obj", new JsonObject().put("x", 1))
+          .put("arr", new JsonArray().add(new JsonObject().put("x", 3)));
+        assertEquals(expected, results.get(0));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
   @Test
   public void testFindWithSort() throws Exception {
     int num = 11;
@@ -553,6 +727,283 @@ public abstract class MongoServiceTestBase extends VertxTestBase {
     });
   }
 
+  @Test
+  public void testFindWithLazyDecoding() throws Exception {
+    int num = 10;
+    doTestFind(num, new JsonObject(), new FindOptions().setLazyDecoding(true).setSort(new JsonObject().put("foo", 1)), results -> {
+      assertEquals(num, results.size());
+      JsonObject doc = results.get(0);
+      assertEquals("bar0", doc.getString("foo"));
+      assertEquals("flib", doc.getJsonObject("other").getString("quux"));
+      doc.getJsonObject("other").put("added", 1);
+      assertEquals(1, (int) doc.getJsonObject("other").getInteger("added"));
+      JsonObject expected = createDoc(0).put("_id", doc.getString("_id"));
+      expected.getJsonObject("other").put("added", 1);
+      assertEquals(expected, doc);
+    });
+  }
+
+  @Test
+  public void testSaveLazyDocumentModifiedNested() throws Exception {
+    String collection = randomCollection();
+    insertDocs(collection, 1, onSuccess(res -> {
+      mongoService.findWithOptions(collection, new JsonObject(), new FindOptions().setLazyDecoding(true), onSuccess(results -> {
+        JsonObject doc = results.get(0);
+        doc.getJsonObject("other").put("quux", "changed");
+        doc.getJsonObject("other").getJsonArray("myarr").add("more");
+        mongoService.save(collection, doc, onSuccess(id -> {
+          mongoService.findOne(collection, new JsonObject().put("_id", doc.getString("_id")), null, onSuccess(saved -> {
+            assertEquals("changed", saved.getJsonObject("other").getString("quux"));
+            assertEquals(4, saved.getJsonObject("other").getJsonArray("myarr").size());
+            assertEquals("more", saved.getJsonObject("other").getJsonArray("myarr").getString(3));
+            testComplete();
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindPage() throws Exception {
+    String collection = randomCollection();
+    // All the documents have the same num, so the pages are ordered by _id
+    PageOptions options = new PageOptions().setSort(new JsonObject().put("num", 1)).setPageSize(10);
+    Set<String> ids = new HashSet<>();
+    insertDocs(collection, 25, onSuccess(res -> {
+      mongoService.findPage(collection, new JsonObject(), options, onSuccess(page -> {
+        assertEquals(10, page.getJsonArray("results").size());
+        addIds(ids, page);
+        mongoService.findPage(collection, new JsonObject(), options.setToken(page.getString("token")), onSuccess(page2 -> {
+          assertEquals(10, page2.getJsonArray("results").size());
+          addIds(ids, page2);
+          mongoService.findPage(collection, new JsonObject(), options.setToken(page2.getString("token")), onSuccess(page3 -> {
+            assertEquals(5, page3.getJsonArray("results").size());
+            assertNull(page3.getString("token"));
+            addIds(ids, page3);
+            assertEquals(25, ids.size());
+            testComplete();
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindPageWithQueryAndFields() throws Exception {
+    String collection = randomCollection();
+    JsonObject query = new JsonObject().put("foo", new JsonObject().put("$gte", "bar2"));
+    PageOptions options = new PageOptions()
+      .setSort(new JsonObject().put("foo", -1))
+      .setFields(new JsonObject().put("num", 1))
+      .setPageSize(4);
+    insertDocs(collection, 10, onSuccess(res -> {
+      mongoService.findPage(collection, query, options, onSuccess(page -> {
+        JsonArray results = page.getJsonArray("results");
+        assertEquals(4, results.size());
+        assertEquals("bar9", results.getJsonObject(0).getString("foo"));
+        assertEquals(3, results.getJsonObject(0).size());
+        mongoService.findPage(collection, query, options.setToken(page.getString("token")), onSuccess(page2 -> {
+          JsonArray results2 = page2.getJsonArray("results");
+          assertEquals(4, results2.size());
+          assertEquals("bar5", results2.getJsonObject(0).getString("foo"));
+          assertEquals("bar2", results2.getJsonObject(3).getString("foo"));
+          assertNull(page2.getString("token"));
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindPageMissingSortField() throws Exception {
+    String collection = randomCollection();
+    List<JsonObject> docs = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      // Half the documents have no rank, they come first in an ascending order and last in a descending one
+      docs.add(i < 3 ? createDoc(i) : createDoc(i).put("rank", i));
+    }
+    mongoService.insertMany(collection, docs, onSuccess(ids -> {
+      PageOptions ascending = new PageOptions().setSort(new JsonObject().put("rank", 1)).setPageSize(2);
+      findAllPages(collection, ascending, new ArrayList<>(), ranks -> {
+        assertEquals(Arrays.asList(null, null, null, 3, 4, 5), ranks);
+        PageOptions descending = new PageOptions().setSort(new JsonObject().put("rank", -1)).setPageSize(2);
+        findAllPages(collection, descending, new ArrayList<>(), ranks2 -> {
+          assertEquals(Arrays.asList(5, 4, 3, null, null, null), ranks2);
+          testComplete();
+        });
+      });
+    }));
+    await();
+  }
+
+  private void findAllPages(String collection, PageOptions options, List<Integer> ranks, Consumer<List<Integer>> done) {
+    mongoService.findPage(collection, new JsonObject(), options, onSuccess(page -> {
+      for (Object doc : page.getJsonArray("results")) {
+        ranks.add(((JsonObject) doc).getInteger("rank"));
+      }
+      String token = page.getString("token");
+      if (token == null) {
+        done.accept(ranks);
+      } else {
+        findAllPages(collection, options.setToken(token), ranks, done);
+      }
+    }));
+  }
+
+  @Test
+  public void testFindPageInvalidToken() throws Exception {
+    PageOptions options = new PageOptions().setToken("notatoken");
+    mongoService.findPage(randomCollection(), new JsonObject(), options, onFailure(ex -> {
+      assertTrue(ex instanceof IllegalArgumentException);
+      testComplete();
+    }));
+    await();
+  }
+
+  private void addIds(Set<String> ids, JsonObject page) {
+    for (Object doc : page.getJsonArray("results")) {
+      assertTrue(ids.add(((JsonObject) doc).getString("_id")));
+    }
+  }
+
+  @Test
+  public void testCursor() throws Exception {
+    String collection = randomCollection();
+    Set<String> ids = new HashSet<>();
+    insertDocs(collection, 25, onSuccess(res -> {
+      mongoService.openCursor(collection, new JsonObject(), new FindOptions().setBatchSize(7), onSuccess(cursorId -> {
+        mongoService.fetch(cursorId, 10, onSuccess(docs -> {
+          assertEquals(10, docs.size());
+          docs.forEach(doc -> assertTrue(ids.add(doc.getString("_id"))));
+          mongoService.fetch(cursorId, 10, onSuccess(docs2 -> {
+            assertEquals(10, docs2.size());
+            docs2.forEach(doc -> assertTrue(ids.add(doc.getString("_id"))));
+            mongoService.fetch(cursorId, 10, onSuccess(docs3 -> {
+              assertEquals(5, docs3.size());
+              docs3.forEach(doc -> assertTrue(ids.add(doc.getString("_id"))));
+              assertEquals(25, ids.size());
+              mongoService.fetch(cursorId, 10, onSuccess(docs4 -> {
+                assertTrue(docs4.isEmpty());
+                mongoService.closeCursor(cursorId, onSuccess(v -> {
+                  mongoService.fetch(cursorId, 10, onFailure(ex -> {
+                    testComplete();
+                  }));
+                }));
+              }));
+            }));
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFetchUnknownCursor() throws Exception {
+    mongoService.fetch("unknown", 10, onFailure(ex -> {
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindPrepared() throws Exception {
+    String collection = randomCollection();
+    JsonObject query = new JsonObject()
+      .put("foo", new JsonObject().put("$in", new JsonArray().add(new JsonObject().put("$param", "first")).add("bar5")))
+      .put("other.quux", "flib");
+    FindOptions options = new FindOptions().setSort(new JsonObject().put("foo", -1)).setFields(new JsonObject().put("foo", 1));
+    insertDocs(collection, 10, onSuccess(res -> {
+      mongoService.prepareQuery(collection, query, options, onSuccess(queryId -> {
+        mongoService.findPrepared(queryId, new JsonObject().put("first", "bar2"), onSuccess(results -> {
+          assertEquals(2, results.size());
+          assertEquals("bar5", results.get(0).getString("foo"));
+          assertEquals("bar2", results.get(1).getString("foo"));
+          assertEquals(2, results.get(0).size());
+          mongoService.findPrepared(queryId, new JsonObject().put("first", "bar7"), onSuccess(results2 -> {
+            assertEquals(2, results2.size());
+            assertEquals("bar7", results2.get(0).getString("foo"));
+            testComplete();
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindPreparedMissingParam() throws Exception {
+    JsonObject query = new JsonObject().put("foo", new JsonObject().put("$param", "foo"));
+    mongoService.prepareQuery(randomCollection(), query, new FindOptions(), onSuccess(queryId -> {
+      mongoService.findPrepared(queryId, new JsonObject().put("bar", "x"), onFailure(ex -> {
+        assertTrue(ex instanceof IllegalArgumentException);
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testClosePreparedQuery() throws Exception {
+    JsonObject query = new JsonObject().put("foo", new JsonObject().put("$param", "foo"));
+    mongoService.prepareQuery(randomCollection(), query, new FindOptions(), onSuccess(queryId -> {
+      mongoService.closePreparedQuery(queryId, onSuccess(v -> {
+        // The id stays valid, the query is compiled again
+        mongoService.findPrepared(queryId, new JsonObject().put("foo", "bar"), onSuccess(results -> {
+          assertTrue(results.isEmpty());
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFindPreparedUnknownId() throws Exception {
+    mongoService.findPrepared("not a query id", new JsonObject(), onFailure(ex -> {
+      assertTrue(ex.getMessage().startsWith("Unknown prepared query"));
+      testComplete();
+    }));
+    await();
+  }
+
+  @Test
+  public void testBinarySubTypeRoundTrip() throws Exception {
+    String collection = randomCollection();
+    JsonObject binary = new JsonObject().put("$binary", "AQID").put("$type", "80");
+    mongoService.insert(collection, new JsonObject().put("data", binary), onSuccess(id -> {
+      mongoService.findOne(collection, new JsonObject().put("data", binary), null, onSuccess(doc -> {
+        assertNotNull(doc);
+        assertEquals(binary, doc.getJsonObject("data"));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testFieldNameCacheMetrics() throws Exception {
+    String collection = randomCollection();
+    FindOptions options = new FindOptions().setLazyDecoding(true);
+    insertDocs(collection, 10, onSuccess(res -> {
+      mongoService.findWithOptions(collection, new JsonObject(), options, onSuccess(results -> {
+        // Looking fields up reads their names
+        results.forEach(doc -> doc.getString("foo"));
+        mongoService.getMetrics(onSuccess(metrics -> {
+          JsonObject fieldNameCache = metrics.getJsonObject("fieldNameCache");
+          assertNotNull(fieldNameCache);
+          assertTrue(fieldNameCache.getLong("hits") > 0);
+          assertTrue(fieldNameCache.getDouble("hitRate") > 0d);
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
   private void doTestFind(int numDocs, JsonObject query, FindOptions options, Consumer<List<JsonObject>> resultConsumer) throws Exception {
     String collection = randomCollection();
     mongoService.createCollection(collection, onSuccess(res -> {
@@ -750,19 +1201,19 @@ public abstract class MongoServiceTestBase extends VertxTestBase {
     await();
   }
 
-  private JsonObject createDoc() {
+  protected JsonObject createDoc() {
     return new JsonObject().put("foo", "bar").put("num", 123).put("big", true).
       put("other", new JsonObject().put("quux", "flib").put("myarr",
         new JsonArray().add("blah").add(true).add(312)));
   }
 
-  private JsonObject createDoc(int num) {
+  protected JsonObject createDoc(int num) {
     return new JsonObject().put("foo", "bar" + (num != -1 ? num: "")).put("num", 123).put("big", true).
       put("other", new JsonObject().put("quux", "flib").put("myarr",
         new JsonArray().add("blah").add(true).add(312)));
   }
 
-  private void insertDocs(String collection, int num, Handler<AsyncResult<Void>> resultHandler) {
+  protected void insertDocs(String collection, int num, Handler<AsyncResult<Void>> resultHandler) {
     if (num != 0) {
       AtomicInteger cnt = new AtomicInteger();
       for (int i = 0; i < num; i++) {
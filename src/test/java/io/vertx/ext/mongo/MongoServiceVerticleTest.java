@@ -18,7 +18,11 @@ package io.vertx.ext.mongo;
 
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.json.JsonObject;
+import io.vertx.test.core.TestUtils;
+import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.concurrent.CountDownLatch;
 
 /**
@@ -33,10 +37,108 @@ public class MongoServiceVerticleTest extends MongoServiceTestBase {
     DeploymentOptions options = new DeploymentOptions().setConfig(config);
     CountDownLatch latch = new CountDownLatch(1);
     vertx.deployVerticle("service:io.vertx:vertx-mongo-service", options, onSuccess(id -> {
-      mongoService = MongoService.createEventBusProxy(vertx, "vertx.mongo");
+      mongoService = createProxy("vertx.mongo");
       dropCollections(latch);
     }));
     awaitLatch(latch);
   }
 
+  protected MongoService createProxy(String address) {
+    return MongoService.createEventBusProxy(vertx, address);
+  }
+
+  /**
+   * @return a proxy to two instances of the service verticle, which take the requests sent to them in turn
+   */
+  protected MongoService deployTwoInstances() throws Exception {
+    String address = "vertx.mongo." + TestUtils.randomAlphaString(10);
+    DeploymentOptions options = new DeploymentOptions().setConfig(getConfig().put("address", address)).setInstances(2);
+    CountDownLatch latch = new CountDownLatch(1);
+    vertx.deployVerticle("service:io.vertx:vertx-mongo-service", options, onSuccess(id -> latch.countDown()));
+    awaitLatch(latch);
+    return createProxy(address);
+  }
+
+  @Test
+  public void testPreparedQueryAcrossInstances() throws Exception {
+    MongoService service = deployTwoInstances();
+    String collection = randomCollection();
+    JsonObject query = new JsonObject().put("foo", new JsonObject().put("$param", "foo"));
+    insertDocs(collection, 2, onSuccess(res -> {
+      service.prepareQuery(collection, query, new FindOptions(), onSuccess(queryId -> {
+        // Both executions are not handled by the same instance
+        service.findPrepared(queryId, new JsonObject().put("foo", "bar0"), onSuccess(docs -> {
+          service.findPrepared(queryId, new JsonObject().put("foo", "bar1"), onSuccess(docs2 -> {
+            assertEquals(1, docs.size());
+            assertEquals("bar1", docs2.get(0).getString("foo"));
+            testComplete();
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testCursorAcrossInstances() throws Exception {
+    MongoService service = deployTwoInstances();
+    String collection = randomCollection();
+    insertDocs(collection, 5, onSuccess(res -> {
+      service.openCursor(collection, new JsonObject(), new FindOptions().setBatchSize(2), onSuccess(cursorId -> {
+        // Consecutive requests are not handled by the same instance
+        service.fetch(cursorId, 3, onSuccess(docs -> {
+          assertEquals(3, docs.size());
+          service.fetch(cursorId, 3, onSuccess(docs2 -> {
+            assertEquals(2, docs2.size());
+            service.closeCursor(cursorId, onSuccess(v -> {
+              service.fetch(cursorId, 3, onFailure(ex -> {
+                testComplete();
+              }));
+            }));
+          }));
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testBinary() throws Exception {
+    String collection = randomCollection();
+    byte[] bytes = TestUtils.randomByteArray(100);
+    // The binary data is given in the extended json form, which json text carries as it is
+    JsonObject doc = new JsonObject().put("data", new JsonObject().put("$binary", Base64.getEncoder().encodeToString(bytes)));
+    mongoService.insert(collection, doc, onSuccess(id -> {
+      mongoService.findOne(collection, new JsonObject().put("_id", id), null, onSuccess(result -> {
+        assertBinary(bytes, result.getValue("data"));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testBinaryWithExtendedJsonProxy() throws Exception {
+    MongoService service = MongoService.createExtendedJsonEventBusProxy(vertx, "vertx.mongo");
+    String collection = randomCollection();
+    byte[] bytes = TestUtils.randomByteArray(100);
+    JsonObject doc = new JsonObject();
+    doc.getMap().put("data", bytes);
+    service.insert(collection, doc, onSuccess(id -> {
+      service.findOne(collection, new JsonObject().put("_id", id), null, onSuccess(result -> {
+        assertBinary(bytes, result.getValue("data"));
+        testComplete();
+      }));
+    }));
+    await();
+  }
+
+  /**
+   * Binary data is sent as json text in the extended json form.
+   */
+  protected void assertBinary(byte[] expected, Object value) {
+    JsonObject binary = (JsonObject) value;
+    assertTrue(Arrays.equals(expected, binary.getBinary("$binary")));
+    assertEquals("00", binary.getString("$type"));
+  }
 }
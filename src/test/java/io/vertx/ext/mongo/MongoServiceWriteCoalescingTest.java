@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 Red Hat, Inc.
+ *
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  and Apache License v2.0 which accompanies this distribution.
+ *
+ *  The Eclipse Public License is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  The Apache License v2.0 is available at
+ *  http://www.opensource.org/licenses/apache2.0.php
+ *
+ *  You may elect to redistribute this code under either of these licenses.
+ */
+
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the service tests with write coalescing enabled.
+ */
+public class MongoServiceWriteCoalescingTest extends MongoServiceTest {
+
+  @Override
+  protected JsonObject getConfig() {
+    return super.getConfig()
+      .put("coalesceWrites", true)
+      .put("coalesceMaxBatchSize", 10)
+      .put("coalesceLingerMS", 5);
+  }
+
+  @Test
+  public void testCoalescedInserts() throws Exception {
+    int num = 50;
+    String collection = randomCollection();
+    insertDocs(collection, num, onSuccess(res -> {
+      mongoService.count(collection, new JsonObject(), onSuccess(count -> {
+        assertEquals(num, (long) count);
+        mongoService.getMetrics(onSuccess(metrics -> {
+          JsonObject coalescing = metrics.getJsonObject("writeCoalescing");
+          assertNotNull(coalescing);
+          assertEquals(num, (long) coalescing.getLong("writes"));
+          assertTrue(coalescing.getLong("bulkWrites") < num);
+          assertTrue(coalescing.getDouble("ratio") > 1d);
+          testComplete();
+        }));
+      }));
+    }));
+    await();
+  }
+
+  @Test
+  public void testCoalescedInsertFailureIsolated() throws Exception {
+    String collection = randomCollection();
+    AtomicInteger failures = new AtomicInteger();
+    AtomicInteger successes = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(3);
+    mongoService.insert(collection, createDoc().put("_id", "dup"), onSuccess(id -> {
+      successes.incrementAndGet();
+      latch.countDown();
+    }));
+    mongoService.insert(collection, createDoc().put("_id", "dup"), ar -> {
+      if (ar.failed()) {
+        failures.incrementAndGet();
+      } else {
+        successes.incrementAndGet();
+      }
+      latch.countDown();
+    });
+    mongoService.insert(collection, createDoc(), onSuccess(id -> {
+      assertNotNull(id);
+      successes.incrementAndGet();
+      latch.countDown();
+    }));
+    awaitLatch(latch);
+    assertEquals(1, failures.get());
+    assertEquals(2, successes.get());
+  }
+
+  @Test
+  public void testCoalescedWritesAppliedInIssueOrder() throws Exception {
+    int num = 5;
+    String collection = randomCollection();
+    CountDownLatch latch = new CountDownLatch(num + 2);
+    mongoService.insert(collection, new JsonObject().put("_id", "doc").put("n", -1), onSuccess(id -> latch.countDown()));
+    // The failed insert sits between the updates of the same window, the updates after it are still applied
+    mongoService.insert(collection, new JsonObject().put("_id", "doc"), ar -> {
+      assertTrue(ar.failed());
+      latch.countDown();
+    });
+    for (int i = 0; i < num; i++) {
+      JsonObject update = new JsonObject().put("$set", new JsonObject().put("n", i));
+      mongoService.update(collection, new JsonObject().put("_id", "doc"), update, onSuccess(v -> latch.countDown()));
+    }
+    awaitLatch(latch);
+    mongoService.findOne(collection, new JsonObject().put("_id", "doc"), null, onSuccess(doc -> {
+      assertEquals(num - 1, (int) doc.getInteger("n"));
+      testComplete();
+    }));
+    await();
+  }
+}
@@ -0,0 +1,107 @@
+package io.vertx.ext.mongo;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.test.core.TestUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PageOptionsTest {
+  @Test
+  public void testOptions() {
+    PageOptions options = new PageOptions();
+
+    JsonObject fields = randomJsonObject();
+    assertEquals(options, options.setFields(fields));
+    assertEquals(fields, options.getFields());
+
+    JsonObject sort = randomJsonObject();
+    assertEquals(options, options.setSort(sort));
+    assertEquals(sort, options.getSort());
+
+    int pageSize = TestUtils.randomInt();
+    assertEquals(options, options.setPageSize(pageSize));
+    assertEquals(pageSize, options.getPageSize());
+
+    String token = TestUtils.randomAlphaString(20);
+    assertEquals(options, options.setToken(token));
+    assertEquals(token, options.getToken());
+  }
+
+  @Test
+  public void testDefaultOptions() {
+    PageOptions options = new PageOptions();
+    assertNull(options.getFields());
+    assertNull(options.getSort());
+    assertEquals(20, options.getPageSize());
+    assertNull(options.getToken());
+  }
+
+  @Test
+  public void testOptionsJson() {
+    JsonObject json = new JsonObject();
+
+    JsonObject fields = randomJsonObject();
+    json.put("fields", fields);
+
+    JsonObject sort = randomJsonObject();
+    json.put("sort", sort);
+
+    int pageSize = TestUtils.randomInt();
+    json.put("pageSize", pageSize);
+
+    String token = TestUtils.randomAlphaString(20);
+    json.put("token", token);
+
+    PageOptions options = new PageOptions(json);
+    assertEquals(fields, options.getFields());
+    assertEquals(sort, options.getSort());
+    assertEquals(pageSize, options.getPageSize());
+    assertEquals(token, options.getToken());
+  }
+
+  @Test
+  public void testDefaultOptionsJson() {
+    PageOptions options = new PageOptions(new JsonObject());
+    PageOptions def = new PageOptions();
+    assertEquals(def.getFields(), options.getFields());
+    assertEquals(def.getSort(), options.getSort());
+    assertEquals(def.getPageSize(), options.getPageSize());
+    assertEquals(def.getToken(), options.getToken());
+  }
+
+  @Test
+  public void testCopyOptions() {
+    PageOptions options = new PageOptions();
+    options.setFields(randomJsonObject());
+    options.setSort(randomJsonObject());
+    options.setPageSize(TestUtils.randomInt());
+    options.setToken(TestUtils.randomAlphaString(20));
+
+    PageOptions copy = new PageOptions(options);
+    assertEquals(options.getFields(), copy.getFields());
+    assertEquals(options.getSort(), copy.getSort());
+    assertEquals(options.getPageSize(), copy.getPageSize());
+    assertEquals(options.getToken(), copy.getToken());
+  }
+
+  @Test
+  public void testToJson() {
+    PageOptions options = new PageOptions();
+    options.setFields(randomJsonObject());
+    options.setSort(randomJsonObject());
+    options.setPageSize(TestUtils.randomPositiveInt());
+    options.setToken(TestUtils.randomAlphaString(20));
+
+    assertEquals(options, new PageOptions(options.toJson()));
+  }
+
+  private static JsonObject randomJsonObject() {
+    JsonObject json = new JsonObject();
+    json.put("string", TestUtils.randomAlphaString(10));
+    json.put("int", TestUtils.randomInt());
+    json.put("boolean", TestUtils.randomBoolean());
+
+    return json;
+  }
+}
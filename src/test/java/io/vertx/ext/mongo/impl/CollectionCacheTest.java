@@ -0,0 +1,117 @@
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.WriteConcern;
+import com.mongodb.async.client.MongoClient;
+import com.mongodb.async.client.MongoClients;
+import com.mongodb.async.client.MongoCollection;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.WriteOption;
+import io.vertx.ext.mongo.impl.config.MongoClientOptionsParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CollectionCacheTest {
+
+  private MongoClient mongo;
+
+  @Before
+  public void setUp() {
+    JsonObject config = new JsonObject().put("connection_string", "mongodb://localhost:27018");
+    mongo = MongoClients.create(new MongoClientOptionsParser(config).options());
+  }
+
+  @After
+  public void tearDown() {
+    mongo.close();
+  }
+
+  @Test
+  public void testSameHandle() {
+    CollectionCache cache = new CollectionCache(mongo.getDatabase("test"), 10);
+    MongoCollection<JsonObject> coll = cache.get("foo", null);
+    assertSame(coll, cache.get("foo", null));
+    assertEquals("foo", coll.getNamespace().getCollectionName());
+  }
+
+  @Test
+  public void testWriteOption() {
+    CollectionCache cache = new CollectionCache(mongo.getDatabase("test"), 10);
+    MongoCollection<JsonObject> coll = cache.get("foo", WriteOption.MAJORITY);
+    assertSame(coll, cache.get("foo", WriteOption.MAJORITY));
+    assertNotSame(coll, cache.get("foo", null));
+    assertNotSame(coll, cache.get("foo", WriteOption.JOURNALED));
+    assertEquals(WriteConcern.MAJORITY, coll.getWriteConcern());
+  }
+
+  @Test
+  public void testEviction() {
+    CollectionCache cache = new CollectionCache(mongo.getDatabase("test"), 3);
+    MongoCollection<JsonObject> first = cache.get("c0", null);
+    for (int i = 1; i < 10; i++) {
+      cache.get("c" + i, null);
+      assertTrue(cache.size() <= 3);
+    }
+    assertNotSame(first, cache.get("c0", null));
+  }
+
+  @Test
+  public void testRecentlyUsedSurvivesEviction() {
+    CollectionCache cache = new CollectionCache(mongo.getDatabase("test"), 3);
+    MongoCollection<JsonObject> first = cache.get("c0", null);
+    MongoCollection<JsonObject> second = cache.get("c1", null);
+    cache.get("c2", null);
+    // c0 was read after c1, so c1 is the least recently used collection
+    assertSame(first, cache.get("c0", null));
+    cache.get("c3", null);
+    assertEquals(3, cache.size());
+    assertSame(first, cache.get("c0", null));
+    assertNotSame(second, cache.get("c1", null));
+  }
+
+  @Test
+  public void testRecentlyUsedSurvivesSampledEviction() {
+    CollectionCache cache = new CollectionCache(mongo.getDatabase("test"), 50);
+    MongoCollection<JsonObject> hot = cache.get("hot", null);
+    for (int i = 0; i < 500; i++) {
+      assertSame(hot, cache.get("hot", null));
+      cache.get("c" + i, null);
+      assertTrue(cache.size() <= 50);
+    }
+    assertSame(hot, cache.get("hot", null));
+  }
+
+  @Test
+  public void testConcurrentLookups() throws Exception {
+    CollectionCache cache = new CollectionCache(mongo.getDatabase("test"), 8);
+    AtomicInteger mismatches = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 1000; i++) {
+          String name = "c" + (i % 20);
+          if (!name.equals(cache.get(name, null).getNamespace().getCollectionName())) {
+            mismatches.incrementAndGet();
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, mismatches.get());
+    assertTrue(cache.size() <= 8);
+  }
+
+  @Test
+  public void testDisabled() {
+    CollectionCache cache = new CollectionCache(mongo.getDatabase("test"), 0);
+    assertNotSame(cache.get("foo", null), cache.get("foo", null));
+    assertEquals(0, cache.size());
+  }
+}
@@ -0,0 +1,81 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PaginationTest {
+
+  @Test
+  public void testKeysetEndsWithId() {
+    JsonObject keyset = Pagination.keyset(new JsonObject().put("a", 1).put("b", -1));
+    assertEquals(new JsonObject().put("a", 1).put("b", -1).put("_id", 1), keyset);
+    assertEquals(new JsonObject().put("_id", 1), Pagination.keyset(null));
+    assertEquals(new JsonObject().put("_id", -1).put("a", 1), Pagination.keyset(new JsonObject().put("_id", -1).put("a", 1)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMetaSortNotSupported() {
+    Pagination.keyset(new JsonObject().put("score", new JsonObject().put("$meta", "textScore")));
+  }
+
+  @Test
+  public void testSeekQuery() {
+    JsonObject keyset = Pagination.keyset(new JsonObject().put("a", 1).put("b.c", -1));
+    JsonObject last = new JsonObject().put("_id", "x").put("a", 5).put("b", new JsonObject().put("c", "y"));
+    JsonObject query = new JsonObject().put("d", true);
+    JsonObject seek = new JsonObject().put("$or", new JsonArray()
+      .add(new JsonObject().put("a", new JsonObject().put("$gt", 5)))
+      .add(new JsonObject().put("a", 5).put("$or", new JsonArray()
+        .add(new JsonObject().put("b.c", new JsonObject().put("$lt", "y")))
+        .add(new JsonObject().putNull("b.c"))))
+      .add(new JsonObject().put("a", 5).put("b.c", "y").put("_id", new JsonObject().put("$gt", "x"))));
+    JsonObject expected = new JsonObject().put("$and", new JsonArray().add(query).add(seek));
+    assertEquals(expected, Pagination.query(query, keyset, Pagination.token(keyset, last)));
+    assertEquals(seek, Pagination.query(new JsonObject(), keyset, Pagination.token(keyset, last)));
+    assertSame(query, Pagination.query(query, keyset, null));
+  }
+
+  @Test
+  public void testSeekPastMissingKey() {
+    JsonObject keyset = Pagination.keyset(new JsonObject().put("a", 1).put("b", -1));
+    JsonObject last = new JsonObject().put("_id", "x");
+    JsonObject seek = new JsonObject().put("$or", new JsonArray()
+      .add(new JsonObject().put("a", new JsonObject().putNull("$ne")))
+      .add(new JsonObject().putNull("a").putNull("b").put("_id", new JsonObject().put("$gt", "x"))));
+    assertEquals(seek, Pagination.query(new JsonObject(), keyset, Pagination.token(keyset, last)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTokenOfAnotherSort() {
+    JsonObject keyset = Pagination.keyset(new JsonObject().put("a", 1));
+    String token = Pagination.token(keyset, new JsonObject().put("_id", "x").put("a", 5));
+    Pagination.query(new JsonObject(), Pagination.keyset(new JsonObject().put("a", -1)), token);
+  }
+
+  @Test
+  public void testFieldsIncludeKeyset() {
+    JsonObject keyset = Pagination.keyset(new JsonObject().put("a", 1));
+    assertNull(Pagination.fields(null, keyset));
+    assertEquals(new JsonObject().put("b", 1).put("_id", 1).put("a", 1),
+      Pagination.fields(new JsonObject().put("b", 1).put("_id", 0), keyset));
+    assertEquals(new JsonObject().put("b", 0), Pagination.fields(new JsonObject().put("b", 0).put("a", 0), keyset));
+  }
+
+  @Test
+  public void testPage() {
+    JsonObject keyset = Pagination.keyset(null);
+    JsonObject doc1 = new JsonObject().put("_id", "1");
+    JsonObject doc2 = new JsonObject().put("_id", "2");
+    JsonObject doc3 = new JsonObject().put("_id", "3");
+    JsonObject page = Pagination.page(Arrays.asList(doc1, doc2, doc3), 2, keyset);
+    assertEquals(new JsonArray().add(doc1).add(doc2), page.getJsonArray(Pagination.RESULTS));
+    assertEquals(Pagination.token(keyset, doc2), page.getString(Pagination.TOKEN));
+    JsonObject last = Pagination.page(Arrays.asList(doc3), 2, keyset);
+    assertFalse(last.containsKey(Pagination.TOKEN));
+  }
+}
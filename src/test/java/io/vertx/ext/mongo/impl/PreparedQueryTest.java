@@ -0,0 +1,102 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.FindOptions;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PreparedQueryTest {
+
+  @Test
+  public void testBindMatchesEncodedFilter() {
+    JsonObject template = new JsonObject()
+      .put("name", new JsonObject().put("$param", "name"))
+      .put("age", new JsonObject().put("$gte", 18).put("$lt", new JsonObject().put("$param", "maxAge")))
+      .put("tags", new JsonObject().put("$in", new JsonArray().add("a").add(new JsonObject().put("$param", "tag"))))
+      .put("active", true);
+    JsonObject params = new JsonObject().put("name", "foo").put("maxAge", 65).put("tag", "b");
+    JsonObject filter = new JsonObject()
+      .put("name", "foo")
+      .put("age", new JsonObject().put("$gte", 18).put("$lt", 65))
+      .put("tags", new JsonObject().put("$in", new JsonArray().add("a").add("b")))
+      .put("active", true);
+    assertBinds(new JsonObjectCodec(), template, params, filter);
+  }
+
+  @Test
+  public void testBindIdWithObjectIds() {
+    String id = new ObjectId().toHexString();
+    JsonObject template = new JsonObject()
+      .put("_id", new JsonObject().put("$in", new JsonArray().add(new JsonObject().put("$param", "id"))))
+      .put("$or", new JsonArray()
+        .add(new JsonObject().put("_id", new JsonObject().put("$param", "id")))
+        .add(new JsonObject().put("_id", id)));
+    JsonObject filter = new JsonObject()
+      .put("_id", new JsonObject().put("$in", new JsonArray().add(id)))
+      .put("$or", new JsonArray()
+        .add(new JsonObject().put("_id", id))
+        .add(new JsonObject().put("_id", id)));
+    assertBinds(new JsonObjectCodec(true), template, new JsonObject().put("id", id), filter);
+  }
+
+  @Test
+  public void testBindNestedIdWithObjectIds() {
+    String id = new ObjectId().toHexString();
+    JsonObject template = new JsonObject()
+      .put("sub", new JsonObject().put("_id", new JsonObject().put("$param", "id")).put("_id2", id))
+      .put("arr", new JsonObject().put("$elemMatch", new JsonObject()
+        .put("_id", new JsonObject().put("$in", new JsonArray().add(new JsonObject().put("$param", "id"))))
+        .put("ref", new JsonObject().put("_id", id))))
+      .put("$and", new JsonArray()
+        .add(new JsonObject().put("owner", new JsonObject().put("_id", new JsonObject().put("$param", "id"))))
+        .add(new JsonObject().put("_id", new JsonObject().put("$param", "id"))));
+    JsonObject filter = new JsonObject()
+      .put("sub", new JsonObject().put("_id", id).put("_id2", id))
+      .put("arr", new JsonObject().put("$elemMatch", new JsonObject()
+        .put("_id", new JsonObject().put("$in", new JsonArray().add(id)))
+        .put("ref", new JsonObject().put("_id", id))))
+      .put("$and", new JsonArray()
+        .add(new JsonObject().put("owner", new JsonObject().put("_id", id)))
+        .add(new JsonObject().put("_id", id)));
+    assertBinds(new JsonObjectCodec(true), template, new JsonObject().put("id", id), filter);
+  }
+
+  @Test
+  public void testConstantFilter() {
+    JsonObject filter = new JsonObject().put("name", "foo").put("age", new JsonObject().put("$gt", 3));
+    PreparedQuery query = new PreparedQuery("coll", filter, new FindOptions(), new JsonObjectCodec(), null);
+    assertSame(query.bind(new JsonObject()), query.bind(null));
+    assertEquals(encode(new JsonObjectCodec(), filter), query.bind(null));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingParam() {
+    JsonObject template = new JsonObject().put("name", new JsonObject().put("$param", "name"));
+    new PreparedQuery("coll", template, new FindOptions(), new JsonObjectCodec(), null).bind(new JsonObject());
+  }
+
+  @Test
+  public void testNullParam() {
+    JsonObject template = new JsonObject().put("name", new JsonObject().put("$param", "name"));
+    PreparedQuery query = new PreparedQuery("coll", template, new FindOptions(), new JsonObjectCodec(), null);
+    assertTrue(query.bind(new JsonObject().putNull("name")).get("name").isNull());
+  }
+
+  private void assertBinds(JsonObjectCodec codec, JsonObject template, JsonObject params, JsonObject filter) {
+    PreparedQuery query = new PreparedQuery("coll", template, new FindOptions(), codec, null);
+    assertEquals(encode(codec.getFilterCodec(), filter), query.bind(params));
+  }
+
+  private static BsonDocument encode(JsonObjectCodec codec, JsonObject json) {
+    BsonDocument document = new BsonDocument();
+    codec.encode(new BsonDocumentWriter(document), json, EncoderContext.builder().build());
+    return document;
+  }
+}
@@ -0,0 +1,74 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class QueryCacheTest {
+
+  @Test
+  public void testHitReturnsCopy() {
+    QueryCache cache = new QueryCache(1024 * 1024, 60000, null);
+    List<JsonObject> results = new ArrayList<>();
+    results.add(new JsonObject().put("foo", "bar"));
+    cache.put("coll", "key", cache.generation("coll"), results);
+    results.get(0).put("foo", "modified");
+    @SuppressWarnings("unchecked")
+    List<JsonObject> cached = (List<JsonObject>) cache.get("coll", "key");
+    assertEquals("bar", cached.get(0).getString("foo"));
+    cached.get(0).put("foo", "modified");
+    assertEquals(Collections.singletonList(new JsonObject().put("foo", "bar")), cache.get("coll", "key"));
+    assertSame(QueryCache.MISS, cache.get("coll", "other"));
+  }
+
+  @Test
+  public void testInvalidate() {
+    QueryCache cache = new QueryCache(1024 * 1024, 60000, null);
+    cache.put("coll", "key", cache.generation("coll"), 1L);
+    cache.put("coll2", "key2", cache.generation("coll2"), 2L);
+    cache.invalidate("coll");
+    assertSame(QueryCache.MISS, cache.get("coll", "key"));
+    assertEquals(2L, cache.get("coll2", "key2"));
+  }
+
+  @Test
+  public void testWriteDuringRead() {
+    QueryCache cache = new QueryCache(1024 * 1024, 60000, null);
+    long generation = cache.generation("coll");
+    cache.invalidate("coll");
+    cache.put("coll", "key", generation, 1L);
+    assertSame(QueryCache.MISS, cache.get("coll", "key"));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEvicted() {
+    JsonObject doc = new JsonObject().put("foo", "bar");
+    long entrySize = 128 + 2 * "key0".length() + QueryCache.sizeOf(doc);
+    QueryCache cache = new QueryCache(3 * entrySize, 60000, null);
+    for (int i = 0; i < 3; i++) {
+      cache.put("coll", "key" + i, 0, doc);
+    }
+    assertNotSame(QueryCache.MISS, cache.get("coll", "key0"));
+    cache.put("coll", "key3", 0, doc);
+    assertSame(QueryCache.MISS, cache.get("coll", "key1"));
+    assertNotSame(QueryCache.MISS, cache.get("coll", "key0"));
+    assertEquals(1L, (long) cache.metrics().getJsonObject("collections").getJsonObject("coll").getLong("evictions"));
+    assertEquals(3 * entrySize, (long) cache.metrics().getLong("bytes"));
+  }
+
+  @Test
+  public void testTTL() throws Exception {
+    QueryCache cache = new QueryCache(1024 * 1024, 60000, new JsonObject().put("short", 1).put("off", 0));
+    assertTrue(cache.isCached("coll"));
+    assertFalse(cache.isCached("off"));
+    cache.put("short", "key", 0, 1L);
+    Thread.sleep(10);
+    assertSame(QueryCache.MISS, cache.get("short", "key"));
+    assertEquals(1L, (long) cache.metrics().getJsonObject("collections").getJsonObject("short").getLong("expirations"));
+  }
+}
@@ -0,0 +1,64 @@
+package io.vertx.ext.mongo.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.FindOptions;
+import org.junit.Test;
+
+import java.util.Base64;
+
+import static org.junit.Assert.*;
+
+public class QueryKeysTest {
+
+  @Test
+  public void testFieldOrderIgnored() {
+    JsonObject query1 = new JsonObject().put("a", 1).put("b", new JsonObject().put("$gt", 1).put("$lt", 5));
+    JsonObject query2 = new JsonObject().put("b", new JsonObject().put("$lt", 5).put("$gt", 1)).put("a", 1);
+    assertEquals(QueryKeys.count("coll", query1), QueryKeys.count("coll", query2));
+    JsonObject or1 = new JsonObject().put("$or", new JsonArray().add(query1));
+    JsonObject or2 = new JsonObject().put("$or", new JsonArray().add(query2));
+    assertEquals(QueryKeys.count("coll", or1), QueryKeys.count("coll", or2));
+  }
+
+  @Test
+  public void testEqualityOrderKept() {
+    JsonObject query1 = new JsonObject().put("a", new JsonObject().put("x", 1).put("y", 2));
+    JsonObject query2 = new JsonObject().put("a", new JsonObject().put("y", 2).put("x", 1));
+    assertNotEquals(QueryKeys.count("coll", query1), QueryKeys.count("coll", query2));
+  }
+
+  @Test
+  public void testSortOrderKept() {
+    FindOptions options1 = new FindOptions().setSort(new JsonObject().put("a", 1).put("b", 1));
+    FindOptions options2 = new FindOptions().setSort(new JsonObject().put("b", 1).put("a", 1));
+    assertNotEquals(QueryKeys.find("coll", new JsonObject(), options1), QueryKeys.find("coll", new JsonObject(), options2));
+  }
+
+  @Test
+  public void testKeysDiffer() {
+    JsonObject query = new JsonObject().put("a", 1);
+    assertNotEquals(QueryKeys.count("coll", query), QueryKeys.count("coll2", query));
+    assertNotEquals(QueryKeys.count("coll", query), QueryKeys.findOne("coll", query, null));
+    assertNotEquals(QueryKeys.count("coll", query), QueryKeys.count("coll", new JsonObject().put("a", "1")));
+    assertNotEquals(QueryKeys.find("coll", query, new FindOptions()), QueryKeys.find("coll", query, new FindOptions().setLimit(1)));
+    assertNotEquals(QueryKeys.findOne("coll", query, null), QueryKeys.findOne("coll", query, new JsonObject().put("a", 1)));
+  }
+
+  @Test
+  public void testBinaryAndStringDiffer() {
+    byte[] bytes = {1, 2, 3};
+    String base64 = Base64.getEncoder().encodeToString(bytes);
+    JsonObject binary = new JsonObject();
+    binary.getMap().put("a", bytes);
+    assertNotEquals(QueryKeys.count("coll", binary), QueryKeys.count("coll", new JsonObject().put("a", base64)));
+    JsonArray binaries = new JsonArray();
+    binaries.getList().add(bytes);
+    JsonObject inBinary = new JsonObject().put("a", new JsonObject().put("$in", binaries));
+    JsonObject inString = new JsonObject().put("a", new JsonObject().put("$in", new JsonArray().add(base64)));
+    assertNotEquals(QueryKeys.count("coll", inBinary), QueryKeys.count("coll", inString));
+    JsonObject sameBinary = new JsonObject();
+    sameBinary.getMap().put("a", bytes.clone());
+    assertEquals(QueryKeys.count("coll", binary), QueryKeys.count("coll", sameBinary));
+  }
+}
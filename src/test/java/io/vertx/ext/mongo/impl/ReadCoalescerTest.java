@@ -0,0 +1,71 @@
+package io.vertx.ext.mongo.impl;
+
+import com.mongodb.async.SingleResultCallback;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class ReadCoalescerTest {
+
+  @Test
+  public void testIdenticalReadsSentOnce() {
+    ReadCoalescer coalescer = new ReadCoalescer();
+    List<SingleResultCallback<JsonObject>> sent = new ArrayList<>();
+    Consumer<SingleResultCallback<JsonObject>> read = sent::add;
+    List<JsonObject> results = new ArrayList<>();
+    coalescer.read("coll", "key", read, (result, error) -> results.add(result));
+    coalescer.read("coll", "key", read, (result, error) -> results.add(result));
+    coalescer.read("coll", "other", read, (result, error) -> results.add(result));
+    assertEquals(2, sent.size());
+    JsonObject doc = new JsonObject().put("foo", "bar");
+    sent.get(0).onResult(doc, null);
+    assertEquals(2, results.size());
+    assertSame(doc, results.get(0));
+    assertEquals(doc, results.get(1));
+    assertNotSame(doc, results.get(1));
+    // Completed reads are sent again
+    coalescer.read("coll", "key", read, (result, error) -> results.add(result));
+    assertEquals(3, sent.size());
+    assertEquals(new JsonObject().put("reads", 4L).put("coalesced", 1L).put("ratio", 0.25), coalescer.metrics());
+  }
+
+  @Test
+  public void testInvalidateDetachesPendingReads() {
+    ReadCoalescer coalescer = new ReadCoalescer();
+    List<SingleResultCallback<Long>> sent = new ArrayList<>();
+    Consumer<SingleResultCallback<Long>> read = sent::add;
+    List<Long> results = new ArrayList<>();
+    coalescer.read("coll", "key", read, (result, error) -> results.add(result));
+    coalescer.invalidate("other");
+    coalescer.read("coll", "key", read, (result, error) -> results.add(result));
+    assertEquals(1, sent.size());
+    coalescer.invalidate("coll");
+    coalescer.read("coll", "key", read, (result, error) -> results.add(result));
+    assertEquals(2, sent.size());
+    sent.get(1).onResult(2L, null);
+    sent.get(0).onResult(1L, null);
+    assertEquals(3, results.size());
+    assertEquals(2L, (long) results.get(0));
+    assertEquals(1L, (long) results.get(1));
+    assertEquals(1L, (long) results.get(2));
+  }
+
+  @Test
+  public void testErrorDelivered() {
+    ReadCoalescer coalescer = new ReadCoalescer();
+    List<SingleResultCallback<Long>> sent = new ArrayList<>();
+    List<Throwable> errors = new ArrayList<>();
+    coalescer.read("coll", "key", sent::add, (result, error) -> errors.add(error));
+    coalescer.read("coll", "key", sent::add, (result, error) -> errors.add(error));
+    Exception failure = new Exception();
+    sent.get(0).onResult(null, failure);
+    assertEquals(2, errors.size());
+    assertSame(failure, errors.get(0));
+    assertSame(failure, errors.get(1));
+  }
+}
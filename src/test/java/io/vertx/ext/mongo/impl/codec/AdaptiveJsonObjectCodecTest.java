@@ -0,0 +1,134 @@
+package io.vertx.ext.mongo.impl.codec;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveJsonObjectCodecTest {
+
+  private static final EncoderContext DOCUMENT = EncoderContext.builder().isEncodingCollectibleDocument(true).build();
+
+  private final JsonObjectCodec generic = new JsonObjectCodec();
+  private final AdaptiveJsonObjectCodec codec = new AdaptiveJsonObjectCodec(generic);
+
+  @Test
+  public void testDecodePlan() {
+    BsonDocument bson = encode(generic, doc(1));
+    for (int i = 0; i < ShapeTracker.REQUIRED_MATCHES - 1; i++) {
+      assertEquals(doc(1), decode(bson));
+      assertFalse(codec.isDecodePlanned());
+    }
+    assertEquals(doc(1), decode(bson));
+    assertTrue(codec.isDecodePlanned());
+    assertEquals(doc(2), decode(encode(generic, doc(2))));
+  }
+
+  @Test
+  public void testDecodeDeviations() {
+    learnDecode();
+    JsonObject wrongType = doc(1).put("num", "one");
+    JsonObject extra = doc(1).put("extra", true);
+    JsonObject missing = doc(1);
+    missing.remove("ratio");
+    JsonObject reordered = new JsonObject().put("name", "foo1").put("_id", "id1").put("num", 1).put("ratio", 0.5)
+      .put("flag", false).put("tags", new JsonArray().add("a"));
+    for (JsonObject deviation : new JsonObject[]{wrongType, extra, missing, reordered}) {
+      JsonObject decoded = decode(encode(generic, deviation));
+      assertEquals(deviation, decoded);
+      assertEquals(new ArrayList<>(deviation.fieldNames()), new ArrayList<>(decoded.fieldNames()));
+    }
+  }
+
+  @Test
+  public void testPlanDroppedAfterDeviations() {
+    learnDecode();
+    BsonDocument other = encode(generic, new JsonObject().put("other", 1));
+    for (int i = 0; i <= ShapeTracker.MAX_DEVIATIONS; i++) {
+      assertTrue(codec.isDecodePlanned());
+      decode(other);
+    }
+    assertFalse(codec.isDecodePlanned());
+    for (int i = 0; i < ShapeTracker.REQUIRED_MATCHES; i++) {
+      decode(other);
+    }
+    assertTrue(codec.isDecodePlanned());
+  }
+
+  @Test
+  public void testGiveUpWithoutStableShape() {
+    for (int i = 0; i < ShapeTracker.MAX_LEARNT_DOCUMENTS; i++) {
+      decode(encode(generic, new JsonObject().put("field" + i, i)));
+    }
+    BsonDocument bson = encode(generic, doc(1));
+    for (int i = 0; i < ShapeTracker.REQUIRED_MATCHES; i++) {
+      assertEquals(doc(1), decode(bson));
+    }
+    assertFalse(codec.isDecodePlanned());
+  }
+
+  @Test
+  public void testEncodePlan() {
+    for (int i = 0; i < ShapeTracker.REQUIRED_MATCHES; i++) {
+      assertEquals(encode(generic, doc(i)), encode(codec, doc(i)));
+    }
+    assertTrue(codec.isEncodePlanned());
+    assertEquals(encode(generic, doc(1)), encode(codec, doc(1)));
+
+    // The id is written first wherever it is
+    JsonObject idLast = doc(1);
+    idLast.remove("_id");
+    idLast.put("_id", "id1");
+    assertEquals(encode(generic, idLast), encode(codec, idLast));
+    assertEquals("_id", encode(codec, idLast).getFirstKey());
+
+    JsonObject deviation = doc(1).put("num", 1L).putNull("ratio").put("extra", "x");
+    assertEquals(encode(generic, deviation), encode(codec, deviation));
+  }
+
+  @Test
+  public void testFiltersNotPlanned() {
+    for (int i = 0; i < ShapeTracker.REQUIRED_MATCHES; i++) {
+      BsonDocument bson = new BsonDocument();
+      codec.encode(new BsonDocumentWriter(bson), doc(i), EncoderContext.builder().build());
+    }
+    assertFalse(codec.isEncodePlanned());
+  }
+
+  private void learnDecode() {
+    BsonDocument bson = encode(generic, doc(1));
+    for (int i = 0; i < ShapeTracker.REQUIRED_MATCHES; i++) {
+      decode(bson);
+    }
+    assertTrue(codec.isDecodePlanned());
+  }
+
+  private static JsonObject doc(int i) {
+    return new JsonObject()
+      .put("_id", "id" + i)
+      .put("name", "foo" + i)
+      .put("num", i)
+      .put("ratio", i / 2d)
+      .put("flag", i % 2 == 0)
+      .put("tags", new JsonArray().add("a"));
+  }
+
+  private JsonObject decode(BsonDocument bson) {
+    return codec.decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+  }
+
+  private static BsonDocument encode(JsonObjectCodec codec, JsonObject json) {
+    BsonDocument bson = new BsonDocument();
+    codec.encode(new BsonDocumentWriter(bson), json, DOCUMENT);
+    return bson;
+  }
+}
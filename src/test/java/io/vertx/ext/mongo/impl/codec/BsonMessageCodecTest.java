@@ -0,0 +1,94 @@
+package io.vertx.ext.mongo.impl.codec;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.json.LazyBsonMap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BsonMessageCodecTest {
+
+  private final BsonMessageCodec codec = new BsonMessageCodec();
+
+  private final JsonObject json = new JsonObject()
+    .put("string", "foo")
+    .put("int", 5)
+    .put("double", 1.5)
+    .put("boolean", true)
+    .put("null", (Object) null)
+    .put("object", new JsonObject().put("bar", "baz"))
+    .put("array", new JsonArray().add(1).add("two").add(new JsonObject().put("three", 3)));
+
+  @Test
+  public void testObjectRoundTrip() {
+    Object decoded = roundTrip(json);
+    assertTrue(decoded instanceof JsonObject);
+    assertTrue(((JsonObject) decoded).getMap() instanceof LazyBsonMap);
+    assertEquals(json, decoded);
+  }
+
+  @Test
+  public void testArrayRoundTrip() {
+    JsonArray array = new JsonArray().add(json).add(new JsonObject().put("foo", "bar"));
+    Object decoded = roundTrip(array);
+    assertTrue(decoded instanceof JsonArray);
+    assertEquals(array, decoded);
+  }
+
+  @Test
+  public void testDecodeAtPosition() {
+    Buffer buffer = Buffer.buffer().appendString("header");
+    codec.encodeToWire(buffer, json);
+    assertEquals(json, codec.decodeFromWire(6, buffer));
+  }
+
+  @Test
+  public void testLazyObjectSentAsReceived() {
+    JsonObject lazy = (JsonObject) roundTrip(json);
+    byte[] bytes = ((LazyBsonMap) lazy.getMap()).bytes();
+    JsonObject again = (JsonObject) roundTrip(lazy);
+    assertArrayEquals(bytes, ((LazyBsonMap) again.getMap()).bytes());
+    // A modified object is encoded again
+    lazy.put("foo", "bar");
+    assertEquals(lazy, roundTrip(lazy));
+  }
+
+  @Test
+  public void testLazyObjectModifiedNested() {
+    JsonObject lazy = (JsonObject) roundTrip(json);
+    lazy.getJsonObject("object").put("bar", "changed");
+    lazy.getJsonArray("array").add("more");
+    JsonObject expected = json.copy();
+    expected.getJsonObject("object").put("bar", "changed");
+    expected.getJsonArray("array").add("more");
+    assertEquals(expected, roundTrip(lazy));
+  }
+
+  @Test
+  public void testBinary() {
+    JsonObject json = new JsonObject();
+    json.getMap().put("bytes", new byte[]{1, 2, 3});
+    JsonObject decoded = (JsonObject) roundTrip(json);
+    assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) decoded.getValue("bytes"));
+    JsonObject copy = (JsonObject) codec.transform(json);
+    assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) copy.getValue("bytes"));
+  }
+
+  @Test
+  public void testTransformCopies() {
+    JsonObject copy = (JsonObject) codec.transform(json);
+    assertEquals(json, copy);
+    assertNotSame(json, copy);
+    JsonArray array = new JsonArray().add(1);
+    assertEquals(array, codec.transform(array));
+    assertNotSame(array, codec.transform(array));
+  }
+
+  private Object roundTrip(Object body) {
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, body);
+    return codec.decodeFromWire(0, buffer);
+  }
+}
@@ -0,0 +1,101 @@
+package io.vertx.ext.mongo.impl.codec;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.mongo.impl.codec.json.JsonObjectCodec;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class VertxCodecRegistryTest {
+
+  private final JsonObjectCodec jsonObjectCodec = new JsonObjectCodec();
+  private final VertxCodecRegistry registry = new VertxCodecRegistry(jsonObjectCodec);
+
+  @Test
+  public void testJsonObject() {
+    assertSame(jsonObjectCodec, registry.get(JsonObject.class));
+  }
+
+  @Test
+  public void testDataObject() {
+    Codec<Point> codec = registry.get(Point.class);
+    assertTrue(codec instanceof DataObjectCodec);
+    assertSame(codec, registry.get(Point.class));
+
+    BsonDocument bson = new BsonDocument();
+    codec.encode(new BsonDocumentWriter(bson), new Point(1, 2), EncoderContext.builder().build());
+    assertEquals(2, bson.getInt32("y").getValue());
+    Point point = codec.decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+    assertEquals(1, point.x);
+    assertEquals(2, point.y);
+  }
+
+  @Test
+  public void testRegisteredCodec() {
+    VertxCodecRegistry other = registry.withJsonObjectCodec(new JsonObjectCodec());
+    PointCodec codec = new PointCodec();
+    registry.get(Point.class);
+    registry.register(codec);
+    assertSame(codec, registry.get(Point.class));
+    assertSame(codec, other.get(Point.class));
+  }
+
+  @Test
+  public void testUnknownClass() {
+    try {
+      registry.get(Object.class);
+      fail("Should throw");
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public static class Point {
+    final int x;
+    final int y;
+
+    Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+
+    public Point(JsonObject json) {
+      this(json.getInteger("x"), json.getInteger("y"));
+    }
+
+    public JsonObject toJson() {
+      return new JsonObject().put("x", x).put("y", y);
+    }
+  }
+
+  private static class PointCodec implements Codec<Point> {
+    @Override
+    public Point decode(BsonReader reader, DecoderContext decoderContext) {
+      reader.readStartDocument();
+      int x = reader.readInt32("x");
+      int y = reader.readInt32("y");
+      reader.readEndDocument();
+      return new Point(x, y);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Point value, EncoderContext encoderContext) {
+      writer.writeStartDocument();
+      writer.writeInt32("x", value.x);
+      writer.writeInt32("y", value.y);
+      writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<Point> getEncoderClass() {
+      return Point.class;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class FieldNameCacheTest {
+
+  @Test
+  public void testBytesHit() {
+    FieldNameCache cache = new FieldNameCache(16);
+    byte[] bytes = "xxfooxx".getBytes(StandardCharsets.UTF_8);
+    String first = cache.name(bytes, 2, 3);
+    assertEquals("foo", first);
+    assertSame(first, cache.name(bytes, 2, 3));
+    assertSame(first, cache.name("foo".getBytes(StandardCharsets.UTF_8), 0, 3));
+    JsonObject metrics = cache.metrics();
+    assertEquals(2, (long) metrics.getLong("hits"));
+    assertEquals(1, (long) metrics.getLong("misses"));
+  }
+
+  @Test
+  public void testStringAndBytesShareEntries() {
+    FieldNameCache cache = new FieldNameCache(16);
+    String name = cache.name(new String("bar"));
+    assertSame(name, cache.name("bar".getBytes(StandardCharsets.UTF_8), 0, 3));
+    assertSame(name, cache.name(new String("bar")));
+  }
+
+  @Test
+  public void testNonAscii() {
+    FieldNameCache cache = new FieldNameCache(16);
+    byte[] bytes = "héllo".getBytes(StandardCharsets.UTF_8);
+    String name = cache.name(bytes, 0, bytes.length);
+    assertEquals("héllo", name);
+    assertSame(name, cache.name(bytes, 0, bytes.length));
+  }
+
+  @Test
+  public void testCollisionReplaces() {
+    FieldNameCache cache = new FieldNameCache(1);
+    assertEquals("a", cache.name("a"));
+    assertEquals("b", cache.name("b"));
+    byte[] bytes = "a".getBytes(StandardCharsets.UTF_8);
+    assertEquals("a", cache.name(bytes, 0, 1));
+    assertEquals(0, (long) cache.metrics().getLong("hits"));
+  }
+
+  @Test
+  public void testLongNamesNotCached() {
+    FieldNameCache cache = new FieldNameCache(16);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i <= FieldNameCache.MAX_NAME_LENGTH; i++) {
+      sb.append('x');
+    }
+    byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+    assertNotSame(cache.name(bytes, 0, bytes.length), cache.name(bytes, 0, bytes.length));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSize() {
+    new FieldNameCache(0);
+  }
+}
@@ -0,0 +1,104 @@
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FieldProjectionTest {
+
+  private final JsonObjectCodec codec = new JsonObjectCodec();
+
+  private final JsonObject doc = new JsonObject()
+    .put("_id", "someid")
+    .put("name", "foo")
+    .put("big", new JsonObject().put("blob", "x").put("more", new JsonArray().add(1).add(2)))
+    .put("obj", new JsonObject().put("x", 1).put("y", new JsonObject().put("z", 2).put("w", 3)))
+    .put("arr", new JsonArray().add(new JsonObject().put("x", 1).put("y", 2)).add("scalar").add(new JsonObject().put("y", 3)))
+    .put("num", 5);
+
+  @Test
+  public void testTopLevelFields() {
+    JsonObject json = decode(FieldProjection.fromFields(new JsonObject().put("name", 1).put("num", true)));
+    assertEquals(new JsonObject().put("_id", "someid").put("name", "foo").put("num", 5), json);
+  }
+
+  @Test
+  public void testIdExcluded() {
+    JsonObject json = decode(FieldProjection.fromFields(new JsonObject().put("name", 1).put("_id", 0)));
+    assertEquals(new JsonObject().put("name", "foo"), json);
+  }
+
+  @Test
+  public void testNestedFields() {
+    JsonObject json = decode(FieldProjection.of("obj.y.z", "big"));
+    JsonObject expected = new JsonObject()
+      .put("big", doc.getJsonObject("big"))
+      .put("obj", new JsonObject().put("y", new JsonObject().put("z", 2)));
+    assertEquals(expected, json);
+  }
+
+  @Test
+  public void testFieldsOfArrayElements() {
+    JsonObject json = decode(FieldProjection.of("arr.x"));
+    JsonArray expected = new JsonArray().add(new JsonObject().put("x", 1)).add(new JsonObject());
+    assertEquals(new JsonObject().put("arr", expected), json);
+  }
+
+  @Test
+  public void testSubFieldsOfScalarSkipped() {
+    JsonObject json = decode(FieldProjection.of("num.x", "name"));
+    assertEquals(new JsonObject().put("name", "foo"), json);
+  }
+
+  @Test
+  public void testWholeFieldWins() {
+    assertEquals(new JsonObject().put("obj", doc.getJsonObject("obj")), decode(FieldProjection.of("obj.x", "obj")));
+    assertEquals(new JsonObject().put("obj", doc.getJsonObject("obj")), decode(FieldProjection.of("obj", "obj.x")));
+  }
+
+  @Test
+  public void testOperatorsAndPositional() {
+    JsonObject fields = new JsonObject()
+      .put("arr", new JsonObject().put("$slice", 1))
+      .put("obj.$", 1);
+    JsonObject json = decode(FieldProjection.fromFields(fields));
+    assertEquals(doc.getJsonArray("arr"), json.getJsonArray("arr"));
+    assertEquals(doc.getJsonObject("obj"), json.getJsonObject("obj"));
+  }
+
+  @Test
+  public void testNotAWhitelist() {
+    assertNull(FieldProjection.fromFields(null));
+    assertNull(FieldProjection.fromFields(new JsonObject()));
+    assertNull(FieldProjection.fromFields(new JsonObject().put("_id", 0)));
+    assertNull(FieldProjection.fromFields(new JsonObject().put("name", 0)));
+    assertNull(FieldProjection.fromFields(new JsonObject().put("name", 1).put("num", false)));
+    assertNull(FieldProjection.fromFields(new JsonObject().put("arr", new JsonObject().put("$slice", 5))));
+    assertNull(FieldProjection.fromFields(new JsonObject()
+      .put("_id", 1)
+      .put("arr", new JsonObject().put("$elemMatch", new JsonObject().put("x", 1)))));
+  }
+
+  @Test
+  public void testEncodingUnchanged() {
+    JsonObjectCodec projecting = codec.withProjection(FieldProjection.of("name"));
+    BsonDocument expected = new BsonDocument();
+    codec.encode(new BsonDocumentWriter(expected), doc, EncoderContext.builder().build());
+    BsonDocument actual = new BsonDocument();
+    projecting.encode(new BsonDocumentWriter(actual), doc, EncoderContext.builder().build());
+    assertEquals(expected, actual);
+  }
+
+  private JsonObject decode(FieldProjection projection) {
+    BsonDocument bson = new BsonDocument();
+    codec.encode(new BsonDocumentWriter(bson), doc, EncoderContext.builder().build());
+    return codec.withProjection(projection).decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+  }
+}
@@ -0,0 +1,273 @@
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JsonObjectCodecTest {
+
+  private final JsonObjectCodec codec = new JsonObjectCodec();
+
+  @Test
+  public void testRoundTrip() {
+    JsonObject json = new JsonObject()
+      .put("str", "foo")
+      .put("int", 123)
+      .put("long", 123456789012L)
+      .put("double", 1.5d)
+      .put("bool", true)
+      .putNull("null")
+      .put("obj", new JsonObject().put("x", 1))
+      .put("arr", new JsonArray().add("a").add(2).addNull());
+    BsonDocument doc = encode(json);
+    assertEquals(8, doc.size());
+    assertTrue(doc.get("null").isNull());
+    assertEquals(json, decode(doc));
+  }
+
+  @Test
+  public void testIdWrittenFirst() {
+    JsonObject json = new JsonObject().put("foo", "bar").put("_id", "someid");
+    BsonDocument doc = new BsonDocument();
+    codec.encode(new BsonDocumentWriter(doc), json, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+    assertEquals("_id", doc.getFirstKey());
+    assertEquals(2, doc.size());
+  }
+
+  @Test
+  public void testOnlyTopLevelIdStoredAsObjectId() {
+    JsonObjectCodec objectIdCodec = new JsonObjectCodec(true);
+    String id = new ObjectId().toHexString();
+    JsonObject json = new JsonObject()
+      .put("_id", id)
+      .put("embedded", new JsonObject().put("_id", id))
+      .put("arr", new JsonArray().add(new JsonObject().put("_id", id)));
+    BsonDocument doc = new BsonDocument();
+    objectIdCodec.encode(new BsonDocumentWriter(doc), json, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+    assertEquals(new ObjectId(id), doc.getObjectId("_id").getValue());
+    assertEquals(id, doc.getDocument("embedded").getString("_id").getValue());
+    assertEquals(id, doc.getArray("arr").get(0).asDocument().getString("_id").getValue());
+  }
+
+  @Test
+  public void testOnlyTopLevelIdFilterMatchesBothTypes() {
+    JsonObjectCodec filterCodec = new JsonObjectCodec(true).getFilterCodec();
+    String id = new ObjectId().toHexString();
+    JsonObject json = new JsonObject()
+      .put("_id", id)
+      .put("embedded._id", id)
+      .put("$or", new JsonArray().add(new JsonObject().put("_id", id)));
+    BsonDocument doc = new BsonDocument();
+    filterCodec.encode(new BsonDocumentWriter(doc), json, EncoderContext.builder().build());
+    BsonArray variants = new BsonArray(Arrays.asList(new BsonObjectId(new ObjectId(id)), new BsonString(id)));
+    assertEquals(new BsonDocument("$in", variants), doc.get("_id"));
+    assertEquals(new BsonString(id), doc.get("embedded._id"));
+    assertEquals(new BsonDocument("$in", variants), doc.getArray("$or").get(0).asDocument().get("_id"));
+  }
+
+  @Test
+  public void testSubclassesAndRawCollections() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("x", 1);
+    List<Object> linked = new LinkedList<>();
+    linked.add("a");
+    linked.add("b");
+    JsonObject json = new JsonObject().put("arr", new JsonArray(new ArrayList<>(linked)));
+    // Put directly in the map, put would copy the values
+    json.getMap().put("subclass", new JsonObject() {
+    }.put("y", 2));
+    json.getMap().put("map", map);
+    json.getMap().put("linked", linked);
+    BsonDocument doc = encode(json);
+    assertEquals(1, doc.getDocument("map").getInt32("x").getValue());
+    assertEquals(2, doc.getDocument("subclass").getInt32("y").getValue());
+    assertEquals(2, doc.getArray("linked").size());
+    assertEquals("b", doc.getArray("arr").get(1).asString().getValue());
+  }
+
+  @Test
+  public void testUnknownType() {
+    JsonObject json = new JsonObject();
+    json.getMap().put("foo", new Object());
+    try {
+      encode(json);
+      fail("Should throw");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("java.lang.Object"));
+      assertTrue(e.getMessage().contains("foo"));
+    }
+  }
+
+  @Test
+  public void testBinary() {
+    byte[] bytes = new byte[]{1, 2, 3};
+    JsonObject json = new JsonObject();
+    json.getMap().put("bytes", bytes);
+    json.getMap().put("buffer", Buffer.buffer(new byte[]{4, 5}));
+    json.getMap().put("slice", Buffer.buffer(new byte[]{6, 7, 8}).getBuffer(1, 3));
+    json.put("wrapped", new JsonObject().put("$binary", "CQo=").put("$type", "80"));
+    json.put("untyped", new JsonObject().put("$binary", "CQo="));
+    BsonDocument doc = encode(json);
+    assertArrayEquals(bytes, doc.getBinary("bytes").getData());
+    assertEquals(BsonBinarySubType.BINARY.getValue(), doc.getBinary("bytes").getType());
+    assertArrayEquals(new byte[]{4, 5}, doc.getBinary("buffer").getData());
+    assertArrayEquals(new byte[]{7, 8}, doc.getBinary("slice").getData());
+    assertArrayEquals(new byte[]{9, 10}, doc.getBinary("wrapped").getData());
+    assertEquals((byte) 0x80, doc.getBinary("wrapped").getType());
+    assertEquals(BsonBinarySubType.BINARY.getValue(), doc.getBinary("untyped").getType());
+
+    JsonObject decoded = decode(doc);
+    assertArrayEquals(bytes, (byte[]) decoded.getValue("bytes"));
+    assertArrayEquals(new byte[]{4, 5}, (byte[]) decoded.getValue("buffer"));
+    assertArrayEquals(new byte[]{9, 10}, (byte[]) decoded.getValue("untyped"));
+    assertEquals(new JsonObject().put("$binary", "CQo=").put("$type", "80"), decoded.getJsonObject("wrapped"));
+    assertEquals(doc, encode(decoded));
+  }
+
+  @Test
+  public void testToExtendedJson() {
+    JsonObject json = new JsonObject().put("str", "foo").put("obj", new JsonObject().put("x", 1));
+    assertSame(json, JsonObjectCodec.toExtendedJson(json));
+    json.getJsonObject("obj").getMap().put("bytes", new byte[]{1, 2, 3});
+    json.put("arr", new JsonArray().add("a"));
+    json.getJsonArray("arr").getList().add(Buffer.buffer(new byte[]{4, 5}));
+    JsonObject converted = (JsonObject) JsonObjectCodec.toExtendedJson(json);
+    assertEquals(new JsonObject().put("$binary", "AQID").put("$type", "00"), converted.getJsonObject("obj").getJsonObject("bytes"));
+    assertEquals(new JsonObject().put("$binary", "BAU=").put("$type", "00"), converted.getJsonArray("arr").getJsonObject(1));
+    assertEquals("foo", converted.getString("str"));
+    // The original is left as is
+    assertTrue(json.getJsonObject("obj").getValue("bytes") instanceof byte[]);
+    assertEquals(encode(json), encode(converted));
+  }
+
+  @Test
+  public void testCopyKeepsBinary() {
+    JsonObject json = new JsonObject().put("obj", new JsonObject());
+    json.getJsonObject("obj").getMap().put("bytes", new byte[]{1, 2, 3});
+    JsonObject copy = JsonObjectCodec.copy(json);
+    byte[] copied = (byte[]) copy.getJsonObject("obj").getValue("bytes");
+    assertArrayEquals(new byte[]{1, 2, 3}, copied);
+    assertNotSame(json.getJsonObject("obj").getValue("bytes"), copied);
+    assertEquals(encode(json), encode(copy));
+  }
+
+  @Test
+  public void testBinaryLikeDocumentWithOtherFields() {
+    JsonObject json = new JsonObject()
+      .put("other", new JsonObject().put("$binary", "CQo=").put("other", 1))
+      .put("numericType", new JsonObject().put("$binary", "CQo=").put("$type", 0));
+    BsonDocument doc = encode(json);
+    assertEquals(1, doc.getDocument("other").getInt32("other").getValue());
+    assertEquals("CQo=", doc.getDocument("other").getString("$binary").getValue());
+    assertTrue(doc.get("numericType").isDocument());
+  }
+
+  @Test
+  public void testBinarySubType() {
+    BsonDocument doc = new BsonDocument("uuid", new BsonBinary(BsonBinarySubType.UUID_STANDARD, new byte[]{1, 2}));
+    JsonObject decoded = decode(doc);
+    assertEquals(new JsonObject().put("$binary", "AQI=").put("$type", "04"), decoded.getJsonObject("uuid"));
+    assertEquals(doc, encode(decoded));
+  }
+
+  @Test
+  public void testTopLevelBinaryLikeDocument() {
+    JsonObject json = new JsonObject().put("$binary", "CQo=");
+    assertEquals("CQo=", encode(json).getString("$binary").getValue());
+  }
+
+  @Test
+  public void testEncodePrimitiveArrays() {
+    JsonObject json = new JsonObject()
+      .put("doubles", new JsonArray(new DoubleArrayList(new double[]{1.5, 2.5})))
+      .put("longs", new JsonArray(new LongArrayList(new long[]{1L << 40})))
+      .put("ints", new JsonArray(new IntArrayList(new int[]{1, 2, 3})));
+    json.getMap().put("raw", new double[]{3.5});
+    BsonDocument doc = encode(json);
+    assertEquals(2.5, doc.getArray("doubles").get(1).asDouble().getValue(), 0);
+    assertEquals(1L << 40, doc.getArray("longs").get(0).asInt64().getValue());
+    assertEquals(3, doc.getArray("ints").get(2).asInt32().getValue());
+    assertEquals(3.5, doc.getArray("raw").get(0).asDouble().getValue(), 0);
+  }
+
+  @Test
+  public void testDecodePrimitiveArrays() {
+    double[] doubles = new double[100];
+    for (int i = 0; i < doubles.length; i++) {
+      doubles[i] = i / 2d;
+    }
+    JsonObject json = new JsonObject()
+      .put("doubles", new JsonArray(new DoubleArrayList(doubles)))
+      .put("longs", new JsonArray().add(1L).add(2L))
+      .put("ints", new JsonArray().add(1).add(2))
+      .put("nested", new JsonArray().add(new JsonArray().add(3).add(4)))
+      .put("mixed", new JsonArray().add(1.5).add(2.5).add("foo").add(3.5))
+      .put("empty", new JsonArray());
+    JsonObject decoded = codec.withPrimitiveArrays().decode(new BsonDocumentReader(encode(json)), DecoderContext.builder().build());
+    assertArrayEquals(doubles, ((DoubleArrayList) decoded.getJsonArray("doubles").getList()).array(), 0);
+    assertArrayEquals(new long[]{1, 2}, ((LongArrayList) decoded.getJsonArray("longs").getList()).array());
+    assertArrayEquals(new int[]{1, 2}, ((IntArrayList) decoded.getJsonArray("ints").getList()).array());
+    assertTrue(decoded.getJsonArray("nested").getJsonArray(0).getList() instanceof IntArrayList);
+    assertEquals(new JsonArray().add(1.5).add(2.5).add("foo").add(3.5), decoded.getJsonArray("mixed"));
+    assertEquals(0, decoded.getJsonArray("empty").size());
+
+    // The default codec keeps boxing
+    assertFalse(decode(encode(json)).getJsonArray("ints").getList() instanceof IntArrayList);
+  }
+
+  @Test
+  public void testModifyPrimitiveArrays() {
+    JsonObject json = new JsonObject()
+      .put("doubles", new JsonArray().add(1.5).add(2.5))
+      .put("longs", new JsonArray().add(1L).add(2L))
+      .put("ints", new JsonArray().add(1).add(2).add(3));
+    JsonObject decoded = codec.withPrimitiveArrays().decode(new BsonDocumentReader(encode(json)), DecoderContext.builder().build());
+    JsonArray doubles = decoded.getJsonArray("doubles");
+    doubles.getList().set(0, 0.5);
+    assertArrayEquals(new double[]{0.5, 2.5}, ((DoubleArrayList) doubles.getList()).array(), 0);
+    doubles.add(3.5);
+    assertNull(((DoubleArrayList) doubles.getList()).array());
+    decoded.getJsonArray("longs").getList().set(1, "two");
+    decoded.getJsonArray("ints").remove(0);
+    decoded.getJsonArray("ints").add(4);
+
+    JsonObject expected = new JsonObject()
+      .put("doubles", new JsonArray().add(0.5).add(2.5).add(3.5))
+      .put("longs", new JsonArray().add(1L).add("two"))
+      .put("ints", new JsonArray().add(2).add(3).add(4));
+    assertEquals(expected, decoded);
+    assertEquals(expected, decode(encode(decoded)));
+    assertEquals(expected, JsonObjectCodec.copy(decoded));
+  }
+
+  private BsonDocument encode(JsonObject json) {
+    BsonDocument doc = new BsonDocument();
+    codec.encode(new BsonDocumentWriter(doc), json, EncoderContext.builder().build());
+    return doc;
+  }
+
+  private JsonObject decode(BsonDocument doc) {
+    return codec.decode(new BsonDocumentReader(doc), DecoderContext.builder().build());
+  }
+}
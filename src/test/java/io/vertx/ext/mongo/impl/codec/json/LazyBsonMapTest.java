@@ -0,0 +1,161 @@
+package io.vertx.ext.mongo.impl.codec.json;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class LazyBsonMapTest {
+
+  private final JsonObjectCodec codec = new JsonObjectCodec();
+
+  private final JsonObject json = new JsonObject()
+    .put("str", "foo")
+    .put("unicode", "héllo")
+    .put("héllo", "unicode name")
+    .put("int", 123)
+    .put("long", 123456789012L)
+    .put("double", 1.5d)
+    .put("bool", true)
+    .putNull("null")
+    .put("obj", new JsonObject().put("x", 1).put("nested", new JsonObject().put("y", "z")))
+    .put("arr", new JsonArray().add("a").add(2).add(new JsonObject().put("w", false)).addNull());
+
+  @Test
+  public void testGet() {
+    JsonObject lazy = lazy(json);
+    assertEquals("foo", lazy.getString("str"));
+    assertEquals("héllo", lazy.getString("unicode"));
+    assertEquals("unicode name", lazy.getString("héllo"));
+    assertEquals(123, (int) lazy.getInteger("int"));
+    assertEquals(123456789012L, (long) lazy.getLong("long"));
+    assertEquals(1.5d, lazy.getDouble("double"), 0d);
+    assertTrue(lazy.getBoolean("bool"));
+    assertNull(lazy.getValue("null"));
+    assertTrue(lazy.containsKey("null"));
+    assertFalse(lazy.containsKey("missing"));
+    assertNull(lazy.getValue("missing"));
+    assertNull(lazy.getValue("st"));
+    assertNull(lazy.getValue("strx"));
+    assertEquals("z", lazy.getJsonObject("obj").getJsonObject("nested").getString("y"));
+    assertEquals(new JsonObject().put("w", false), lazy.getJsonArray("arr").getJsonObject(2));
+    assertEquals(json.size(), lazy.size());
+  }
+
+  @Test
+  public void testEqualsAndEncode() {
+    JsonObject lazy = lazy(json);
+    assertEquals(json, lazy);
+    assertEquals(json, new JsonObject(lazy.encode()));
+    assertEquals(json, decode(encode(lazy)));
+  }
+
+  @Test
+  public void testObjectId() {
+    JsonObject lazy = lazyFromBytes(encode(new JsonObject().put("_id", "5565f4a1e4b0b1a4c3b8f2da")));
+    // Written as a string by default
+    assertEquals("5565f4a1e4b0b1a4c3b8f2da", lazy.getString("_id"));
+  }
+
+  @Test
+  public void testBinary() {
+    JsonObject json = new JsonObject().put("wrapped", new JsonObject().put("$binary", "CQo=").put("$type", "80"));
+    json.getMap().put("bytes", new byte[]{1, 2, 3});
+    JsonObject lazy = lazy(json);
+    assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) lazy.getValue("bytes"));
+    assertEquals(new JsonObject().put("$binary", "CQo=").put("$type", "80"), lazy.getJsonObject("wrapped"));
+  }
+
+  @Test
+  public void testModifyNested() {
+    JsonObject lazy = lazy(json);
+    lazy.getJsonObject("obj").put("added", true);
+    lazy.getJsonArray("arr").add("more");
+    assertTrue(lazy.getJsonObject("obj").getBoolean("added"));
+    assertEquals(5, lazy.getJsonArray("arr").size());
+    lazy.put("top", 1);
+    assertTrue(lazy.getJsonObject("obj").getBoolean("added"));
+    assertEquals(5, lazy.getJsonArray("arr").size());
+    assertEquals(1, (int) lazy.getInteger("top"));
+    assertEquals(json.size() + 1, lazy.size());
+    lazy.remove("str");
+    assertFalse(lazy.containsKey("str"));
+  }
+
+  @Test
+  public void testModifyNestedOnly() {
+    JsonObject lazy = lazy(json);
+    lazy.getJsonObject("obj").getJsonObject("nested").put("y", "changed");
+    assertNull(((LazyBsonMap) lazy.getMap()).bytes());
+    JsonObject expected = json.copy();
+    expected.getJsonObject("obj").getJsonObject("nested").put("y", "changed");
+    assertEquals(expected, decode(encode(lazy)));
+
+    lazy = lazy(json);
+    lazy.getJsonArray("arr").add("more");
+    assertNull(((LazyBsonMap) lazy.getMap()).bytes());
+    expected = json.copy();
+    expected.getJsonArray("arr").add("more");
+    assertEquals(expected, decode(encode(lazy)));
+  }
+
+  @Test
+  public void testReadNestedKeepsBytes() {
+    byte[] bytes = encode(json);
+    JsonObject lazy = lazyFromBytes(bytes);
+    assertEquals("z", lazy.getJsonObject("obj").getJsonObject("nested").getString("y"));
+    assertEquals("foo", lazy.getString("str"));
+    assertSame(bytes, ((LazyBsonMap) lazy.getMap()).bytes());
+  }
+
+  @Test
+  public void testEmpty() {
+    JsonObject lazy = lazy(new JsonObject());
+    assertTrue(lazy.isEmpty());
+    assertEquals(0, lazy.size());
+    assertNull(lazy.getValue("foo"));
+  }
+
+  @Test
+  public void testBytes() {
+    byte[] bytes = encode(json);
+    LazyBsonMap map = new LazyBsonMap(bytes);
+    assertSame(bytes, map.bytes());
+    map.put("foo", "bar");
+    assertNull(map.bytes());
+  }
+
+  @Test
+  public void testCodec() {
+    LazyJsonObjectCodec lazyCodec = new LazyJsonObjectCodec();
+    JsonObject lazy = lazyCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(encode(json))), DecoderContext.builder().build());
+    assertTrue(lazy.getMap() instanceof LazyBsonMap);
+    assertEquals(json, lazy);
+  }
+
+  private JsonObject lazy(JsonObject json) {
+    return lazyFromBytes(encode(json));
+  }
+
+  private JsonObject lazyFromBytes(byte[] bytes) {
+    return new JsonObject(new LazyBsonMap(bytes));
+  }
+
+  private byte[] encode(JsonObject json) {
+    BasicOutputBuffer buffer = new BasicOutputBuffer();
+    codec.encode(new BsonBinaryWriter(buffer), json, EncoderContext.builder().build());
+    return buffer.toByteArray();
+  }
+
+  private JsonObject decode(byte[] bytes) {
+    return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), DecoderContext.builder().build());
+  }
+}